@@ -0,0 +1,151 @@
+package br.com.drsm.ebanx_test_api.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Limits the requests in flight to a number it keeps adjusting from their latency, in the manner
+ * of TCP Vegas: while latency holds steady the limit grows by about its square root every
+ * window, and once requests take longer than the long-run latency allows, a sign that they are
+ * queueing, it shrinks in proportion. Requests over the limit are turned away at once.
+ * <p>
+ * Each window of {@code window} answered requests yields their average latency, which is
+ * compared with a slow moving average of the windows before it:
+ * {@code gradient = min(1, tolerance * longRtt / shortRtt)}, at least 0.5, and the limit moves
+ * towards {@code limit * gradient + sqrt(limit)} by {@code smoothing}. Windows in which fewer
+ * than half the limit were ever in flight leave the limit alone, since they say nothing about
+ * how much more the server could take. The long-run average follows slowly, so a lasting rise
+ * in latency is only accepted as the new normal after many windows; when latency drops well
+ * below it, it is pulled down faster so that the limit recovers.
+ * <p>
+ * A request may only use its priority's share of the limit, so lower priorities are turned
+ * away first and critical requests keep the rest.
+ * <p>
+ * Admitting a request costs a compare-and-set, and answering one a few atomic adds; the limit is
+ * recomputed under a lock by whichever request closes a window, while the others carry on.
+ */
+public class AdaptiveConcurrencyLimiter implements Admission {
+    /**
+     * Windows the long-run latency averages over.
+     */
+    private static final int LONG_WINDOW = 100;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+    private final int window;
+    private final double[] shares;
+    private final LongSupplier nanoTime;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger busiest = new AtomicInteger();
+    private final AtomicInteger samples = new AtomicInteger();
+    private final LongAdder latencySum = new LongAdder();
+    private final LongAdder[] rejected = new LongAdder[AdmissionPriority.values().length];
+    private final ReentrantLock update = new ReentrantLock();
+    private volatile int limit;
+    private double estimate;
+    private double longRtt;
+
+    /**
+     * @param shares the share of the limit each priority may use, by ordinal
+     */
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double tolerance, double smoothing,
+                                      int window, double[] shares) {
+        this(initialLimit, minLimit, maxLimit, tolerance, smoothing, window, shares, System::nanoTime);
+    }
+
+    AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double tolerance, double smoothing,
+                               int window, double[] shares, LongSupplier nanoTime) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Admission limits must satisfy 1 <= min <= max");
+        }
+        if (shares.length != AdmissionPriority.values().length) {
+            throw new IllegalArgumentException("Admission needs a share for each priority");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+        this.window = window;
+        this.shares = shares.clone();
+        this.nanoTime = nanoTime;
+        this.estimate = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.limit = (int) estimate;
+        for (int i = 0; i < rejected.length; i++) {
+            rejected[i] = new LongAdder();
+        }
+    }
+
+    @Override
+    public Permit tryAcquire(AdmissionPriority priority) {
+        int allowed = Math.max(1, (int) (limit * shares[priority.ordinal()]));
+        for (;;) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                rejected[priority.ordinal()].increment();
+                return Permit.REJECTED;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                if (current + 1 > busiest.get()) {
+                    busiest.accumulateAndGet(current + 1, Math::max);
+                }
+                return new Permit(this, nanoTime.getAsLong());
+            }
+        }
+    }
+
+    void release(long start) {
+        latencySum.add(nanoTime.getAsLong() - start);
+        inFlight.decrementAndGet();
+        if (samples.incrementAndGet() >= window && update.tryLock()) {
+            try {
+                adjust();
+            } finally {
+                update.unlock();
+            }
+        }
+    }
+
+    private void adjust() {
+        int count = samples.getAndSet(0);
+        long sum = latencySum.sumThenReset();
+        int peak = busiest.getAndSet(inFlight.get());
+        if (count <= 0) {
+            return;
+        }
+        double shortRtt = Math.max(1, (double) sum / count);
+        if (0 == longRtt) {
+            longRtt = shortRtt;
+        } else {
+            longRtt += (shortRtt - longRtt) / LONG_WINDOW;
+            if (longRtt > 2 * shortRtt) {
+                longRtt *= 0.9;
+            }
+        }
+        if (peak < estimate / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRtt / shortRtt));
+        double target = estimate * gradient + Math.sqrt(estimate);
+        estimate = Math.max(minLimit, Math.min(maxLimit, estimate * (1 - smoothing) + target * smoothing));
+        limit = (int) estimate;
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Requests of the priority turned away so far.
+     */
+    public long rejected(AdmissionPriority priority) {
+        return rejected[priority.ordinal()].sum();
+    }
+}
@@ -0,0 +1,18 @@
+package br.com.drsm.ebanx_test_api.admission;
+
+/**
+ * Decides whether a request is served now or turned away, so that under overload requests are
+ * answered quickly one way or the other instead of queueing.
+ */
+public interface Admission {
+
+    /**
+     * Used when admission control is disabled: every request is served.
+     */
+    Admission NONE = priority -> Permit.UNLIMITED;
+
+    /**
+     * A permit to release once the request is answered, or {@link Permit#REJECTED}.
+     */
+    Permit tryAcquire(AdmissionPriority priority);
+}
@@ -0,0 +1,46 @@
+package br.com.drsm.ebanx_test_api.admission;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Locale;
+
+@Configuration
+@EnableConfigurationProperties(AdmissionProperties.class)
+public class AdmissionConfiguration {
+
+    @Bean
+    public Admission admission(AdmissionProperties properties) {
+        if (!properties.isEnabled()) {
+            return Admission.NONE;
+        }
+        return new AdaptiveConcurrencyLimiter(properties.getInitialLimit(), properties.getMinLimit(),
+                properties.getMaxLimit(), properties.getTolerance(), properties.getSmoothing(), properties.getWindow(),
+                new double[]{1.0, properties.getNormalShare(), properties.getBulkShare()});
+    }
+
+    @Bean
+    public MeterBinder admissionMeters(Admission admission) {
+        return registry -> {
+            if (!(admission instanceof AdaptiveConcurrencyLimiter limiter)) {
+                return;
+            }
+            Gauge.builder("ebanx.admission.limit", limiter, AdaptiveConcurrencyLimiter::limit)
+                    .description("Requests allowed in flight")
+                    .register(registry);
+            Gauge.builder("ebanx.admission.inflight", limiter, AdaptiveConcurrencyLimiter::inFlight)
+                    .description("Requests in flight")
+                    .register(registry);
+            for (AdmissionPriority priority : AdmissionPriority.values()) {
+                FunctionCounter.builder("ebanx.admission.rejected", limiter, l -> l.rejected(priority))
+                        .description("Requests turned away by admission control")
+                        .tag("priority", priority.name().toLowerCase(Locale.ROOT))
+                        .register(registry);
+            }
+        };
+    }
+}
@@ -0,0 +1,33 @@
+package br.com.drsm.ebanx_test_api.admission;
+
+import br.com.drsm.ebanx_test_api.dto.EventType;
+
+/**
+ * How much of the concurrency limit a request may use: under overload bulk requests are turned
+ * away first, so the requests that matter most keep the remaining room.
+ */
+public enum AdmissionPriority {
+    /**
+     * Balance reads and withdrawals, turned away only once the whole limit is in use.
+     */
+    CRITICAL,
+    /**
+     * Transfers and malformed events.
+     */
+    NORMAL,
+    /**
+     * Deposits, which come in bulk and can wait.
+     */
+    BULK;
+
+    public static AdmissionPriority of(EventType type) {
+        if (null == type) {
+            return NORMAL;
+        }
+        return switch (type) {
+            case WITHDRAW -> CRITICAL;
+            case TRANSFER -> NORMAL;
+            case DEPOSIT -> BULK;
+        };
+    }
+}
@@ -0,0 +1,35 @@
+package br.com.drsm.ebanx_test_api.admission;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties("ebanx.admission")
+public class AdmissionProperties {
+    private boolean enabled = false;
+    private int initialLimit = 20;
+    private int minLimit = 4;
+    private int maxLimit = 1000;
+    /**
+     * How many times the long-run latency a window's latency may reach before the limit shrinks.
+     */
+    private double tolerance = 1.5;
+    /**
+     * How far the limit moves towards each window's estimate.
+     */
+    private double smoothing = 0.2;
+    /**
+     * Answered requests per limit adjustment.
+     */
+    private int window = 100;
+    /**
+     * Share of the limit transfers may use; balance reads and withdrawals may use all of it.
+     */
+    private double normalShare = 0.9;
+    /**
+     * Share of the limit deposits may use.
+     */
+    private double bulkShare = 0.7;
+}
@@ -0,0 +1,34 @@
+package br.com.drsm.ebanx_test_api.admission;
+
+/**
+ * A request's place within the concurrency limit, released once the request is answered so
+ * that its latency feeds the limit.
+ */
+public final class Permit {
+    /**
+     * Given when there is no limit; releasing it does nothing.
+     */
+    public static final Permit UNLIMITED = new Permit(null, 0);
+    /**
+     * Given to a request turned away.
+     */
+    public static final Permit REJECTED = new Permit(null, 0);
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final long start;
+
+    Permit(AdaptiveConcurrencyLimiter limiter, long start) {
+        this.limiter = limiter;
+        this.start = start;
+    }
+
+    public boolean isAdmitted() {
+        return this != REJECTED;
+    }
+
+    public void release() {
+        if (null != limiter) {
+            limiter.release(start);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package br.com.drsm.ebanx_test_api.cluster;
+
+import br.com.drsm.ebanx_test_api.dto.TransactionRequestDTO;
+import br.com.drsm.ebanx_test_api.dto.TransactionResponseDTO;
+import br.com.drsm.ebanx_test_api.engine.EventDispatcher;
+import br.com.drsm.ebanx_test_api.service.Outcome;
+
+import java.io.Closeable;
+import java.time.Instant;
+
+/**
+ * Which node keeps which accounts, and how requests reach it.
+ */
+public interface Cluster extends Closeable {
+
+    /**
+     * Used when clustering is disabled: this node keeps every account.
+     */
+    Cluster NONE = new Cluster() {
+        @Override
+        public boolean owns(String id) {
+            return true;
+        }
+
+        @Override
+        public Outcome<Double> findBalance(String id, Instant at) {
+            throw new IllegalStateException("Clustering is disabled");
+        }
+
+        @Override
+        public Outcome<TransactionResponseDTO> dispatch(TransactionRequestDTO request, EventDispatcher local) {
+            return local.tryDispatch(request);
+        }
+
+        @Override
+        public void resetOthers() {
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    /**
+     * Whether this node keeps the account. A null id is treated as local, where it fails.
+     */
+    boolean owns(String id);
+
+    /**
+     * Balance of an account kept by another node, or with {@code at} its balance at that time.
+     */
+    Outcome<Double> findBalance(String id, Instant at);
+
+    /**
+     * Applies the event on the node that keeps its accounts, through {@code local} when that is
+     * this one.
+     */
+    Outcome<TransactionResponseDTO> dispatch(TransactionRequestDTO request, EventDispatcher local);
+
+    /**
+     * Resets every other node, after this one has reset itself.
+     */
+    void resetOthers();
+
+    @Override
+    void close();
+}
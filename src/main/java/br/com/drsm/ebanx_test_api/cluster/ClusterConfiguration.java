@@ -0,0 +1,25 @@
+package br.com.drsm.ebanx_test_api.cluster;
+
+import br.com.drsm.ebanx_test_api.service.AccountService;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(ClusterProperties.class)
+public class ClusterConfiguration {
+
+    @Bean
+    public Cluster cluster(ClusterProperties properties, AccountService service) {
+        if (!properties.isEnabled()) {
+            return Cluster.NONE;
+        }
+        int self = properties.getNodes().indexOf(properties.getSelf());
+        if (self < 0) {
+            throw new IllegalStateException("ebanx.cluster.self " + properties.getSelf() + " is not one of ebanx.cluster.nodes");
+        }
+        return new ClusterNode(service, properties.getNodes(), self, properties.getVirtualNodes(),
+                properties.getConnectionsPerNode(), properties.getRequestTimeout(), properties.getRetryInterval(),
+                properties.getDedupTtl());
+    }
+}
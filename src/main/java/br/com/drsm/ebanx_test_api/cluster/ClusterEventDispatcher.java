@@ -0,0 +1,25 @@
+package br.com.drsm.ebanx_test_api.cluster;
+
+import br.com.drsm.ebanx_test_api.dto.TransactionRequestDTO;
+import br.com.drsm.ebanx_test_api.dto.TransactionResponseDTO;
+import br.com.drsm.ebanx_test_api.engine.EventDispatcher;
+import br.com.drsm.ebanx_test_api.service.Outcome;
+
+/**
+ * Sends each event to the node that keeps its accounts, applying it with the wrapped
+ * dispatcher when that is this node.
+ */
+public class ClusterEventDispatcher implements EventDispatcher {
+    private final EventDispatcher local;
+    private final Cluster cluster;
+
+    public ClusterEventDispatcher(EventDispatcher local, Cluster cluster) {
+        this.local = local;
+        this.cluster = cluster;
+    }
+
+    @Override
+    public Outcome<TransactionResponseDTO> tryDispatch(TransactionRequestDTO request) {
+        return cluster.dispatch(request, local);
+    }
+}
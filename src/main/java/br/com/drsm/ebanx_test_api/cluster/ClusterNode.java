@@ -0,0 +1,607 @@
+package br.com.drsm.ebanx_test_api.cluster;
+
+import br.com.drsm.ebanx_test_api.dto.AccountDTO;
+import br.com.drsm.ebanx_test_api.dto.EventType;
+import br.com.drsm.ebanx_test_api.dto.TransactionRequestDTO;
+import br.com.drsm.ebanx_test_api.dto.TransactionResponseDTO;
+import br.com.drsm.ebanx_test_api.engine.DirectEventDispatcher;
+import br.com.drsm.ebanx_test_api.engine.EventDispatcher;
+import br.com.drsm.ebanx_test_api.io.BinaryIds;
+import br.com.drsm.ebanx_test_api.journal.JournalEntryType;
+import br.com.drsm.ebanx_test_api.journal.JournalPosition;
+import br.com.drsm.ebanx_test_api.journal.JournalRecord;
+import br.com.drsm.ebanx_test_api.model.Money;
+import br.com.drsm.ebanx_test_api.service.AccountService;
+import br.com.drsm.ebanx_test_api.service.DurabilityBatch;
+import br.com.drsm.ebanx_test_api.service.Outcome;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+
+/**
+ * A node of a partitioned cluster. Accounts are spread over the nodes by a {@link HashRing}, and
+ * any node takes any request: events and balance reads for accounts kept elsewhere are sent to
+ * their node over the cluster RPC, and events for local accounts go to the local dispatcher.
+ * <p>
+ * A transfer between accounts kept by two nodes is applied by the node that received it, in
+ * two steps, each idempotent under an id that node gives the transfer:
+ * <ol>
+ *     <li>it journals the transfer as pending, waits until that is durable, and has the
+ *     origin's node debit the origin, which that node does once per transfer id however many
+ *     times it is asked;</li>
+ *     <li>it delivers the credit to the destination's node, which applies it once per transfer
+ *     id, and journals the transfer as settled once acknowledged.</li>
+ * </ol>
+ * A missing origin or a refused debit settles the transfer without anything changed. A debit
+ * whose answer is lost leaves the transfer in doubt: the request is answered with a 503, and
+ * the transfer stays in the outbox, where the debit is asked again every retry interval until
+ * its answer is known. A credit that cannot be delivered right away is redelivered the same way
+ * until it is acknowledged, so money debited is always credited, and the destination answers
+ * repeated deliveries with the first result, so it is never credited twice. Until then the
+ * transfer's answer carries the origin only. Neither step calls out from the node serving it,
+ * so requests between nodes never wait on each other.
+ * <p>
+ * The outbox and the ids applied survive a restart through the journal: debits and credits are
+ * journaled with their transfer's id, and pending and settled transfers under this node's
+ * epoch, all replayed on startup. Snapshots keep the journal replayable from the node's start,
+ * or from where the last recovery started while transfers or ids it recovered may still be
+ * needed. The ids applied are remembered for the dedup window after their last use, which
+ * retries keep renewing.
+ */
+@Slf4j
+public class ClusterNode implements Cluster {
+    static final byte EVENT = 1;
+    static final byte BALANCE = 2;
+    static final byte TRANSFER_OUT = 3;
+    static final byte CREDIT = 4;
+    static final byte RESET = 5;
+
+    static final byte OK = 0;
+    static final byte NOT_FOUND = 1;
+    static final byte INVALID = 2;
+
+    private static final int TRANSFER_ATTEMPTS = 3;
+
+    private final AccountService service;
+    private final EventDispatcher executor;
+    private final HashRing ring;
+    private final int self;
+    private final RpcClient[] peers;
+    private final RpcServer server;
+    /**
+     * Drawn at random on startup, so that transfer ids never repeat across restarts.
+     */
+    private final long epoch = new SecureRandom().nextLong();
+    private final AtomicLong transferIds = new AtomicLong();
+    private final Cache<TransferId, Outcome<AccountDTO>> debits;
+    private final Cache<TransferId, AccountDTO> credits;
+    private final Map<TransferId, PendingTransfer> outbox = new ConcurrentHashMap<>();
+    private final JournalPosition recoveredFrom;
+    private final JournalPosition started;
+    private final long recoveredExpiry;
+    private final ScheduledExecutorService redelivery = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "cluster-redelivery");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * @param nodes {@code host:port} of every node's cluster port, in the same order on every node
+     * @param self  index of this node in {@code nodes}, whose port it listens on
+     */
+    public ClusterNode(AccountService service, List<String> nodes, int self, int virtualNodes, int connectionsPerNode,
+                       Duration requestTimeout, Duration retryInterval, Duration dedupTtl) {
+        this(service, nodes, self, virtualNodes, connectionsPerNode, requestTimeout, retryInterval, dedupTtl,
+                UnaryOperator.identity());
+    }
+
+    /**
+     * @param serverHandler wraps the handler of the requests this node serves, for tests that
+     *                      lose answers
+     */
+    ClusterNode(AccountService service, List<String> nodes, int self, int virtualNodes, int connectionsPerNode,
+                Duration requestTimeout, Duration retryInterval, Duration dedupTtl, UnaryOperator<RpcHandler> serverHandler) {
+        this.service = service;
+        this.executor = new DirectEventDispatcher(service);
+        this.ring = new HashRing(nodes, virtualNodes);
+        this.self = self;
+        this.debits = Caffeine.newBuilder().expireAfterAccess(dedupTtl).build();
+        this.credits = Caffeine.newBuilder().expireAfterAccess(dedupTtl).build();
+        this.peers = new RpcClient[nodes.size()];
+        for (int i = 0; i < nodes.size(); i++) {
+            if (i != self) {
+                peers[i] = new RpcClient(address(nodes.get(i)), connectionsPerNode, requestTimeout);
+            }
+        }
+        this.recoveredFrom = service.recoveredFrom();
+        this.recoveredExpiry = System.nanoTime() + dedupTtl.toNanos();
+        recover(service.takeRecoveredTransfers());
+        this.started = service.journalPosition();
+        awaitJournaled(JournalEntryType.CLUSTER_EPOCH, null, null, epoch);
+        service.retainJournal(this::retainedJournal);
+        this.server = new RpcServer(address(nodes.get(self)).getPort(), serverHandler.apply(this::handle));
+        long retry = retryInterval.toMillis();
+        redelivery.scheduleWithFixedDelay(this::redeliver, retry, retry, TimeUnit.MILLISECONDS);
+        log.info("Cluster node {} of {} listening on port {}", self, nodes.size(), server.port());
+    }
+
+    static InetSocketAddress address(String hostAndPort) {
+        int colon = hostAndPort.lastIndexOf(':');
+        if (colon < 0) {
+            throw new IllegalArgumentException("Cluster node must be host:port: " + hostAndPort);
+        }
+        return new InetSocketAddress(hostAndPort.substring(0, colon), Integer.parseInt(hostAndPort.substring(colon + 1)));
+    }
+
+    private int ownerOf(String id) {
+        return null == id ? self : ring.ownerOf(id);
+    }
+
+    @Override
+    public boolean owns(String id) {
+        return ownerOf(id) == self;
+    }
+
+    /**
+     * Transfers this node has started and not settled: debits in doubt and credits still owed
+     * to other nodes.
+     */
+    public int pendingCredits() {
+        return outbox.size();
+    }
+
+    /**
+     * Rebuilds the outbox and the ids applied from the journal entries replayed on startup.
+     * Ids applied before the restart answer repeats with the account as it is now.
+     */
+    private void recover(List<JournalRecord> records) {
+        long recoveredEpoch = 0;
+        for (JournalRecord record : records) {
+            switch (record.getType()) {
+                case CLUSTER_EPOCH -> recoveredEpoch = record.getAmount();
+                case TRANSFER_PENDING -> {
+                    TransferId id = new TransferId(recoveredEpoch, record.getSeq());
+                    outbox.put(id, new PendingTransfer(id, record.getOrigin(), record.getDestination(), record.getAmount()));
+                }
+                case TRANSFER_SETTLED -> outbox.remove(TransferId.parse(record.getOrigin()));
+                case TRANSFER_OUT -> debits.put(TransferId.parse(record.getDestination()), Outcome.of(currentAccount(record.getOrigin())));
+                case TRANSFER_IN -> credits.put(TransferId.parse(record.getOrigin()), currentAccount(record.getDestination()));
+                default -> {
+                }
+            }
+        }
+        if (!outbox.isEmpty()) {
+            log.info("Recovered {} unsettled transfers", outbox.size());
+        }
+    }
+
+    private AccountDTO currentAccount(String id) {
+        Outcome<Double> balance = service.findBalance(id);
+        return AccountDTO.builder().id(id).balance(balance.isPresent() ? balance.value() : 0).build();
+    }
+
+    /**
+     * Where snapshots must keep the journal replayable from: this node's start, or where the
+     * last recovery started while transfers it recovered are unsettled or the ids it recovered
+     * are within the dedup window.
+     */
+    private JournalPosition retainedJournal() {
+        if (System.nanoTime() - recoveredExpiry < 0) {
+            return recoveredFrom;
+        }
+        for (TransferId id : outbox.keySet()) {
+            if (id.epoch() != epoch) {
+                return recoveredFrom;
+            }
+        }
+        return started;
+    }
+
+    private long awaitJournaled(JournalEntryType type, String origin, String destination, long amount) {
+        DurabilityBatch batch = service.newBatch();
+        long seq = journal(type, origin, destination, amount, batch);
+        batch.awaitDurable();
+        return seq;
+    }
+
+    private long journal(JournalEntryType type, String origin, String destination, long amount, DurabilityBatch batch) {
+        return service.journalTransfer(type, origin, destination, amount, batch);
+    }
+
+    @Override
+    public Outcome<TransactionResponseDTO> dispatch(TransactionRequestDTO request, EventDispatcher local) {
+        if (null == request.getType() || !request.hasAmount()) {
+            return local.tryDispatch(request);
+        }
+        int owner = switch (request.getType()) {
+            case DEPOSIT -> ownerOf(request.getDestination());
+            case WITHDRAW -> ownerOf(request.getOrigin());
+            case TRANSFER -> {
+                int origin = ownerOf(request.getOrigin());
+                int destination = ownerOf(request.getDestination());
+                if (origin != destination) {
+                    yield -1;
+                }
+                yield origin;
+            }
+        };
+        if (owner < 0) {
+            return transfer(request);
+        }
+        if (owner == self) {
+            return local.tryDispatch(request);
+        }
+        ByteBuffer answer = peers[owner].callAndWait(EVENT, out -> {
+            out.put((byte) request.getType().ordinal());
+            putString(out, request.getOrigin());
+            putString(out, request.getDestination());
+            out.putDouble(request.getAmount());
+        });
+        return readResponse(answer);
+    }
+
+    @Override
+    public Outcome<Double> findBalance(String id, Instant at) {
+        ByteBuffer answer = peers[ownerOf(id)].callAndWait(BALANCE, out -> {
+            putString(out, id);
+            if (null == at) {
+                out.put((byte) 0);
+            } else {
+                out.put((byte) 1).putLong(at.getEpochSecond()).putInt(at.getNano());
+            }
+        });
+        byte status = answer.get();
+        return OK == status ? Outcome.of(answer.getDouble()) : readFailure(status, answer);
+    }
+
+    @Override
+    public void resetOthers() {
+        List<CompletableFuture<ByteBuffer>> resets = new ArrayList<>();
+        for (RpcClient peer : peers) {
+            if (null != peer) {
+                resets.add(peer.call(RESET, out -> {
+                }));
+            }
+        }
+        for (CompletableFuture<ByteBuffer> reset : resets) {
+            reset.join();
+        }
+    }
+
+    /**
+     * Applies a transfer between accounts of two nodes: journals it as pending, debits the
+     * origin on its node, retrying under the same id when that node does not answer, which its
+     * dedup makes safe, then owes the credit to the destination's node until it is delivered.
+     * When no debit attempt is answered the transfer is left in doubt in the outbox and the
+     * request fails.
+     */
+    private Outcome<TransactionResponseDTO> transfer(TransactionRequestDTO request) {
+        String origin = request.getOrigin();
+        String destination = request.getDestination();
+        long amount = Money.toCents(request.getAmount());
+        long seq = awaitJournaled(JournalEntryType.TRANSFER_PENDING, origin, destination, amount);
+        TransferId id = new TransferId(epoch, 0 == seq ? transferIds.incrementAndGet() : seq);
+        PendingTransfer pending = new PendingTransfer(id, origin, destination, amount);
+        pending.busy.set(true);
+        outbox.put(id, pending);
+        try {
+            Outcome<AccountDTO> debit;
+            try {
+                debit = debit(pending);
+            } catch (ClusterUnavailableException e) {
+                log.info("Debit of transfer {} from {} left in doubt: {}", id, origin, e.getMessage());
+                throw e;
+            }
+            if (!debit.isPresent()) {
+                settle(pending);
+                return debit.asFailure();
+            }
+            pending.debited = true;
+            AccountDTO credited = null;
+            try {
+                credited = deliver(pending).join();
+            } catch (CompletionException e) {
+                log.info("Credit of transfer {} to {} left for redelivery: {}", id, destination, e.getCause().getMessage());
+            }
+            return Outcome.of(TransactionResponseDTO.builder().origin(debit.value()).destination(credited).build());
+        } finally {
+            pending.busy.set(false);
+        }
+    }
+
+    private Outcome<AccountDTO> debit(PendingTransfer pending) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return askDebit(pending).join();
+            } catch (CompletionException e) {
+                if (!(e.getCause() instanceof ClusterUnavailableException unavailable)) {
+                    throw e;
+                }
+                if (attempt == TRANSFER_ATTEMPTS) {
+                    throw unavailable;
+                }
+                log.debug("Retrying the debit of transfer {}: {}", pending.id, unavailable.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Has the origin's node debit the origin, answering with the origin or why it was refused.
+     */
+    private CompletableFuture<Outcome<AccountDTO>> askDebit(PendingTransfer pending) {
+        int owner = ownerOf(pending.origin);
+        if (owner == self) {
+            try {
+                return CompletableFuture.completedFuture(debitOnce(pending.id, pending.origin, pending.destination, pending.amount));
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        return peers[owner].call(TRANSFER_OUT, out -> putTransfer(out, pending.id, pending.origin, pending.destination, pending.amount))
+                .thenApply(answer -> {
+                    byte status = answer.get();
+                    return OK == status ? Outcome.of(readAccount(answer)) : readFailure(status, answer);
+                });
+    }
+
+    /**
+     * Debits the origin, kept by this node, once per transfer id.
+     */
+    private Outcome<AccountDTO> debitOnce(TransferId id, String origin, String destination, long amount) {
+        return debits.get(id, key -> service.transferOut(id.toString(), origin, destination, amount));
+    }
+
+    /**
+     * Journals the transfer as settled and drops it from the outbox. Durability is not waited
+     * for: a settlement lost in a crash only has the transfer's steps asked again, which their
+     * dedup answers.
+     */
+    private void settle(PendingTransfer pending) {
+        journal(JournalEntryType.TRANSFER_SETTLED, pending.id.toString(), null, 0, service.newBatch());
+        outbox.remove(pending.id);
+    }
+
+    /**
+     * Delivers a credit this node owes, settling the transfer once acknowledged. The caller has
+     * claimed the transfer, so that it is worked on by one call at a time and redelivery does not
+     * pile up calls on a slow node.
+     */
+    private CompletableFuture<AccountDTO> deliver(PendingTransfer pending) {
+        int owner = ownerOf(pending.destination);
+        CompletableFuture<AccountDTO> delivered;
+        if (owner == self) {
+            try {
+                delivered = CompletableFuture.completedFuture(credit(pending.id, pending.origin, pending.destination, pending.amount));
+            } catch (RuntimeException e) {
+                delivered = CompletableFuture.failedFuture(e);
+            }
+        } else {
+            delivered = peers[owner].call(CREDIT, out -> putTransfer(out, pending.id, pending.origin, pending.destination, pending.amount))
+                    .thenApply(answer -> {
+                        byte status = answer.get();
+                        if (OK != status) {
+                            throw new ClusterUnavailableException("Credit refused: " + getString(answer));
+                        }
+                        return readAccount(answer);
+                    });
+        }
+        return delivered.whenComplete((account, failure) -> {
+            if (null == failure) {
+                settle(pending);
+            }
+        });
+    }
+
+    /**
+     * Carries on with every transfer left in the outbox that nobody is working on: asks again
+     * for the debits in doubt, settling the ones refused, and delivers the credits owed.
+     */
+    private void redeliver() {
+        for (PendingTransfer pending : outbox.values()) {
+            if (!pending.busy.compareAndSet(false, true)) {
+                continue;
+            }
+            CompletableFuture<Boolean> debited = pending.debited ? CompletableFuture.completedFuture(true)
+                    : askDebit(pending).thenApply(debit -> {
+                        if (!debit.isPresent()) {
+                            log.info("Transfer {} in doubt was refused: {}", pending.id, debit.detail());
+                            settle(pending);
+                            return false;
+                        }
+                        pending.debited = true;
+                        return true;
+                    });
+            debited.thenCompose(owed -> owed ? deliver(pending) : CompletableFuture.completedFuture(null))
+                    .whenComplete((account, failure) -> pending.busy.set(false));
+        }
+    }
+
+    /**
+     * Credits the destination, kept by this node, once per transfer id.
+     */
+    private AccountDTO credit(TransferId id, String origin, String destination, long amount) {
+        return credits.get(id, key -> service.transferIn(id.toString(), origin, destination, amount));
+    }
+
+    private byte handle(byte op, ByteBuffer request, ByteBuffer response) {
+        return switch (op) {
+            case EVENT -> {
+                TransactionRequestDTO event = TransactionRequestDTO.builder()
+                        .type(EventType.values()[request.get()])
+                        .origin(getString(request))
+                        .destination(getString(request))
+                        .amount(request.getDouble())
+                        .build();
+                yield writeResponse(executor.tryDispatch(event), response);
+            }
+            case BALANCE -> {
+                String id = getString(request);
+                Instant at = 0 == request.get() ? null : Instant.ofEpochSecond(request.getLong(), request.getInt());
+                Outcome<Double> balance = null == at ? service.findBalance(id) : service.findBalanceAt(id, at);
+                if (!balance.isPresent()) {
+                    yield writeFailure(balance, response);
+                }
+                response.putDouble(balance.value());
+                yield OK;
+            }
+            case TRANSFER_OUT -> {
+                TransferId id = new TransferId(request.getLong(), request.getLong());
+                String origin = getString(request);
+                String destination = getString(request);
+                Outcome<AccountDTO> debit = debitOnce(id, origin, destination, request.getLong());
+                if (!debit.isPresent()) {
+                    yield writeFailure(debit, response);
+                }
+                putAccount(response, debit.value());
+                yield OK;
+            }
+            case CREDIT -> {
+                TransferId id = new TransferId(request.getLong(), request.getLong());
+                String origin = getString(request);
+                String destination = getString(request);
+                putAccount(response, credit(id, origin, destination, request.getLong()));
+                yield OK;
+            }
+            case RESET -> {
+                service.reset();
+                yield OK;
+            }
+            default -> throw new IllegalArgumentException("Unknown cluster request " + op);
+        };
+    }
+
+    private static void putTransfer(ByteBuffer out, TransferId id, String origin, String destination, long amount) {
+        out.putLong(id.epoch()).putLong(id.seq());
+        putString(out, origin);
+        putString(out, destination);
+        out.putLong(amount);
+    }
+
+    /**
+     * Writes an event's answer: the status, then for a success a byte telling whether the
+     * destination and the origin follow, or for a failure its detail.
+     */
+    private static byte writeResponse(Outcome<TransactionResponseDTO> outcome, ByteBuffer out) {
+        if (!outcome.isPresent()) {
+            return writeFailure(outcome, out);
+        }
+        TransactionResponseDTO response = outcome.value();
+        out.put((byte) ((null == response.getDestination() ? 0 : 1) | (null == response.getOrigin() ? 0 : 2)));
+        if (null != response.getDestination()) {
+            putAccount(out, response.getDestination());
+        }
+        if (null != response.getOrigin()) {
+            putAccount(out, response.getOrigin());
+        }
+        return OK;
+    }
+
+    private static Outcome<TransactionResponseDTO> readResponse(ByteBuffer answer) {
+        byte status = answer.get();
+        if (OK != status) {
+            return readFailure(status, answer);
+        }
+        byte present = answer.get();
+        AccountDTO destination = 0 == (present & 1) ? null : readAccount(answer);
+        AccountDTO origin = 0 == (present & 2) ? null : readAccount(answer);
+        return Outcome.of(TransactionResponseDTO.builder().destination(destination).origin(origin).build());
+    }
+
+    private static byte writeFailure(Outcome<?> outcome, ByteBuffer out) {
+        putString(out, outcome.detail());
+        return outcome.failure() == Outcome.Failure.NOT_FOUND ? NOT_FOUND : INVALID;
+    }
+
+    private static <T> Outcome<T> readFailure(byte status, ByteBuffer answer) {
+        String detail = getString(answer);
+        return switch (status) {
+            case NOT_FOUND -> Outcome.notFound(detail);
+            case INVALID -> Outcome.invalid(detail);
+            default -> throw new ClusterUnavailableException("Cluster request failed: " + detail);
+        };
+    }
+
+    private static void putAccount(ByteBuffer out, AccountDTO account) {
+        putString(out, account.getId());
+        out.putDouble(account.getBalance());
+    }
+
+    private static AccountDTO readAccount(ByteBuffer in) {
+        return AccountDTO.builder().id(getString(in)).balance(in.getDouble()).build();
+    }
+
+    static void putString(ByteBuffer out, String value) {
+        BinaryIds.checkLength(value);
+        BinaryIds.put(out, value);
+    }
+
+    static String getString(ByteBuffer in) {
+        return BinaryIds.get(in, null);
+    }
+
+    @Override
+    public void close() {
+        redelivery.shutdownNow();
+        server.close();
+        for (RpcClient peer : peers) {
+            if (null != peer) {
+                peer.close();
+            }
+        }
+    }
+
+    /**
+     * Journaled as its epoch and sequence number in hex, joined by a dash.
+     */
+    private record TransferId(long epoch, long seq) {
+        static TransferId parse(String value) {
+            int dash = value.indexOf('-', 1);
+            return new TransferId(Long.parseUnsignedLong(value, 0, dash, 16), Long.parseUnsignedLong(value, dash + 1, value.length(), 16));
+        }
+
+        @Override
+        public String toString() {
+            return Long.toHexString(epoch) + '-' + Long.toHexString(seq);
+        }
+    }
+
+    private static final class PendingTransfer {
+        final TransferId id;
+        final String origin;
+        final String destination;
+        final long amount;
+        /**
+         * Set while a request or the redelivery works on the transfer.
+         */
+        final AtomicBoolean busy = new AtomicBoolean();
+        /**
+         * Whether the origin's node has answered that it debited the origin.
+         */
+        volatile boolean debited;
+
+        PendingTransfer(TransferId id, String origin, String destination, long amount) {
+            this.id = id;
+            this.origin = origin;
+            this.destination = destination;
+            this.amount = amount;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package br.com.drsm.ebanx_test_api.cluster;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@ConfigurationProperties("ebanx.cluster")
+public class ClusterProperties {
+    private boolean enabled = false;
+    /**
+     * Host and cluster port of every node, listed in the same order on every node.
+     */
+    private List<String> nodes = new ArrayList<>();
+    /**
+     * This node's entry in {@code nodes}; it listens for the other nodes on that port.
+     */
+    private String self;
+    /**
+     * Points each node takes on the hash ring; more spread the accounts more evenly.
+     */
+    private int virtualNodes = 128;
+    /**
+     * Connections kept open to each other node, over which requests are pipelined.
+     */
+    private int connectionsPerNode = 2;
+    /**
+     * How long a request to another node may take before it is answered with a 503.
+     */
+    private Duration requestTimeout = Duration.ofSeconds(2);
+    /**
+     * How often credits of transfers that could not be delivered are tried again.
+     */
+    private Duration retryInterval = Duration.ofMillis(100);
+    /**
+     * How long a node remembers the transfers it has debited or credited after their last
+     * delivery, to apply each once.
+     */
+    private Duration dedupTtl = Duration.ofMinutes(10);
+}
@@ -0,0 +1,12 @@
+package br.com.drsm.ebanx_test_api.cluster;
+
+/**
+ * Thrown when the node owning an account cannot be reached or did not answer in time. Nodes
+ * come and go routinely, so no stack trace is captured.
+ */
+public class ClusterUnavailableException extends RuntimeException {
+
+    public ClusterUnavailableException(String message) {
+        super(message, null, false, false);
+    }
+}
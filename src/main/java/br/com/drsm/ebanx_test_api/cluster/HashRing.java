@@ -0,0 +1,64 @@
+package br.com.drsm.ebanx_test_api.cluster;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Consistent hashing of account ids onto nodes. Each node is placed at {@code virtualNodes}
+ * points of a 64-bit ring, and an id belongs to the node at the first point at or after the
+ * id's hash, so adding a node only moves the ids that fall just before its points. The points
+ * are kept sorted in a primitive array and binary searched.
+ * <p>
+ * Ids and nodes are hashed with 64-bit FNV-1a over their chars followed by a finalizing mix,
+ * which every node computes the same way whatever its JVM.
+ */
+final class HashRing {
+    private final long[] points;
+    private final int[] owners;
+
+    HashRing(List<String> nodes, int virtualNodes) {
+        int size = nodes.size() * virtualNodes;
+        long[] hashes = new long[size];
+        Integer[] order = new Integer[size];
+        for (int node = 0; node < nodes.size(); node++) {
+            for (int v = 0; v < virtualNodes; v++) {
+                int at = node * virtualNodes + v;
+                hashes[at] = hash(nodes.get(node) + "#" + v);
+                order[at] = at;
+            }
+        }
+        Arrays.sort(order, Comparator.comparingLong(at -> hashes[at]));
+        points = new long[size];
+        owners = new int[size];
+        for (int i = 0; i < size; i++) {
+            points[i] = hashes[order[i]];
+            owners[i] = order[i] / virtualNodes;
+        }
+    }
+
+    /**
+     * Index, in the node list, of the node the id belongs to.
+     */
+    int ownerOf(String id) {
+        int at = Arrays.binarySearch(points, hash(id));
+        if (at < 0) {
+            at = -at - 1;
+        }
+        return owners[at == points.length ? 0 : at];
+    }
+
+    static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,189 @@
+package br.com.drsm.ebanx_test_api.cluster;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Calls one peer's {@link RpcServer} over a small pool of connections, opened on first use and
+ * again after a failure. Calls are spread over the connections in turn and pipelined: each is
+ * written as soon as it is made, under the connection's write lock, without waiting for the
+ * answers to earlier ones, and a reader thread per connection completes each call's future
+ * from the answer carrying its id.
+ */
+@Slf4j
+class RpcClient implements Closeable {
+    private final InetSocketAddress address;
+    private final Connection[] connections;
+    private final long timeoutNanos;
+    private final AtomicInteger next = new AtomicInteger();
+    private final AtomicLong requestIds = new AtomicLong();
+    private volatile boolean running = true;
+
+    RpcClient(InetSocketAddress address, int connections, Duration timeout) {
+        this.address = address;
+        this.connections = new Connection[connections];
+        this.timeoutNanos = timeout.toNanos();
+    }
+
+    InetSocketAddress address() {
+        return address;
+    }
+
+    /**
+     * Sends a request whose payload the writer puts into the frame, at most
+     * {@link RpcServer#MAX_FRAME_SIZE} bytes. The future completes with the answer, positioned
+     * at its status byte, or fails with {@link ClusterUnavailableException} when the peer cannot
+     * be reached or does not answer within the timeout.
+     */
+    CompletableFuture<ByteBuffer> call(byte op, Consumer<ByteBuffer> payload) {
+        long id = requestIds.incrementAndGet();
+        CompletableFuture<ByteBuffer> answer = new CompletableFuture<>();
+        Connection connection;
+        try {
+            connection = connection(Math.floorMod(next.getAndIncrement(), connections.length));
+            connection.send(id, op, payload, answer);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(new ClusterUnavailableException("Cannot reach " + address + ": " + e.getMessage()));
+        }
+        return answer.orTimeout(timeoutNanos, TimeUnit.NANOSECONDS).handle((response, failure) -> {
+            if (null == failure) {
+                return response;
+            }
+            connection.pending.remove(id);
+            if (failure instanceof TimeoutException) {
+                throw new ClusterUnavailableException(address + " did not answer in time");
+            }
+            throw failure instanceof ClusterUnavailableException unavailable ? unavailable
+                    : new ClusterUnavailableException(address + " failed: " + failure.getMessage());
+        });
+    }
+
+    /**
+     * Like {@link #call}, waiting for the answer.
+     */
+    ByteBuffer callAndWait(byte op, Consumer<ByteBuffer> payload) {
+        try {
+            return call(op, payload).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private Connection connection(int slot) throws IOException {
+        Connection connection = connections[slot];
+        if (null != connection && connection.open) {
+            return connection;
+        }
+        synchronized (connections) {
+            connection = connections[slot];
+            if (null == connection || !connection.open) {
+                if (!running) {
+                    throw new IOException("Client is closed");
+                }
+                connection = new Connection(SocketChannel.open(address), slot);
+                connections[slot] = connection;
+            }
+            return connection;
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        synchronized (connections) {
+            for (Connection connection : connections) {
+                if (null != connection) {
+                    connection.close(new ClusterUnavailableException("Client closed"));
+                }
+            }
+        }
+    }
+
+    private final class Connection implements Runnable {
+        final SocketChannel channel;
+        final Map<Long, CompletableFuture<ByteBuffer>> pending = new ConcurrentHashMap<>();
+        final ReentrantLock writeLock = new ReentrantLock();
+        final ByteBuffer out = ByteBuffer.allocate(RpcServer.MAX_FRAME_SIZE + Integer.BYTES);
+        volatile boolean open = true;
+
+        Connection(SocketChannel channel, int slot) throws IOException {
+            this.channel = channel;
+            channel.socket().setTcpNoDelay(true);
+            Thread reader = new Thread(this, "cluster-rpc-client-" + address.getPort() + "-" + slot);
+            reader.setDaemon(true);
+            reader.start();
+        }
+
+        void send(long id, byte op, Consumer<ByteBuffer> payload, CompletableFuture<ByteBuffer> answer) throws IOException {
+            pending.put(id, answer);
+            writeLock.lock();
+            try {
+                out.clear();
+                out.putInt(0).putLong(id).put(op);
+                payload.accept(out);
+                out.putInt(0, out.position() - Integer.BYTES);
+                RpcServer.flush(channel, out);
+            } catch (IOException e) {
+                pending.remove(id);
+                close(new ClusterUnavailableException("Cannot reach " + address + ": " + e.getMessage()));
+                throw e;
+            } finally {
+                writeLock.unlock();
+            }
+        }
+
+        @Override
+        public void run() {
+            ByteBuffer in = ByteBuffer.allocate(2 * RpcServer.MAX_FRAME_SIZE);
+            in.flip();
+            try {
+                while (open) {
+                    if (!RpcServer.hasFrame(in, RpcServer.REQUEST_HEADER_SIZE)) {
+                        RpcServer.fill(channel, in);
+                        continue;
+                    }
+                    int length = in.getInt();
+                    long id = in.getLong();
+                    byte[] answer = new byte[length - Long.BYTES];
+                    in.get(answer);
+                    CompletableFuture<ByteBuffer> call = pending.remove(id);
+                    if (null != call) {
+                        call.complete(ByteBuffer.wrap(answer));
+                    }
+                }
+            } catch (IOException e) {
+                close(new ClusterUnavailableException("Lost connection to " + address + ": " + e.getMessage()));
+            }
+        }
+
+        void close(ClusterUnavailableException failure) {
+            open = false;
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.debug("Closing the connection to {} failed", address, e);
+            }
+            pending.values().forEach(call -> call.completeExceptionally(failure));
+            pending.clear();
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package br.com.drsm.ebanx_test_api.cluster;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Answers one RPC request: reads its payload from {@code request}, writes the answer's payload
+ * into {@code response} and returns the answer's status.
+ */
+@FunctionalInterface
+interface RpcHandler {
+    byte handle(byte op, ByteBuffer request, ByteBuffer response);
+}
@@ -0,0 +1,172 @@
+package br.com.drsm.ebanx_test_api.cluster;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serves the cluster RPC: one thread per connection reads request frames, answers each in turn
+ * with the {@link RpcHandler}, and writes the answers out once no complete request is left in
+ * what it has read, so a pipelined burst of requests is answered with a single write.
+ * <p>
+ * A request frame is its length (of what follows), the request id, the op and the payload; an
+ * answer frame is its length, the id of the request it answers, the status and the payload.
+ */
+@Slf4j
+class RpcServer implements Closeable {
+    static final int MAX_FRAME_SIZE = 64 * 1024;
+    static final int REQUEST_HEADER_SIZE = Long.BYTES + 1;
+    /**
+     * Status of an answer to a request the handler failed on, with the error message.
+     */
+    static final byte FAILED = -1;
+    private static final int MAX_MESSAGE_LENGTH = 256;
+
+    private final RpcHandler handler;
+    private final ServerSocketChannel server;
+    private final Thread acceptor;
+    private final Set<SocketChannel> connections = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger connectionIds = new AtomicInteger();
+    private volatile boolean running = true;
+
+    RpcServer(int port, RpcHandler handler) {
+        this.handler = handler;
+        try {
+            this.server = ServerSocketChannel.open().bind(new InetSocketAddress(port));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot listen for cluster requests on port " + port, e);
+        }
+        this.acceptor = new Thread(this::accept, "cluster-rpc-acceptor");
+        this.acceptor.setDaemon(true);
+        this.acceptor.start();
+    }
+
+    int port() {
+        return server.socket().getLocalPort();
+    }
+
+    private void accept() {
+        while (running) {
+            try {
+                SocketChannel channel = server.accept();
+                channel.socket().setTcpNoDelay(true);
+                connections.add(channel);
+                Thread thread = new Thread(() -> serve(channel), "cluster-rpc-" + connectionIds.incrementAndGet());
+                thread.setDaemon(true);
+                thread.start();
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                log.warn("Accepting a cluster connection failed", e);
+            }
+        }
+    }
+
+    private void serve(SocketChannel channel) {
+        ByteBuffer in = ByteBuffer.allocate(2 * MAX_FRAME_SIZE);
+        ByteBuffer out = ByteBuffer.allocate(4 * MAX_FRAME_SIZE);
+        ByteBuffer payload = ByteBuffer.allocate(MAX_FRAME_SIZE);
+        in.flip();
+        try (channel) {
+            while (running) {
+                if (!hasFrame(in, REQUEST_HEADER_SIZE)) {
+                    flush(channel, out);
+                    fill(channel, in);
+                    continue;
+                }
+                int length = in.getInt();
+                long id = in.getLong();
+                byte op = in.get();
+                ByteBuffer request = in.slice(in.position(), length - REQUEST_HEADER_SIZE);
+                in.position(in.position() + length - REQUEST_HEADER_SIZE);
+                payload.clear();
+                byte status;
+                try {
+                    status = handler.handle(op, request, payload);
+                } catch (RuntimeException e) {
+                    log.warn("Cluster request {} failed", op, e);
+                    payload.clear();
+                    String message = String.valueOf(e.getMessage());
+                    ClusterNode.putString(payload, message.length() > MAX_MESSAGE_LENGTH
+                            ? message.substring(0, MAX_MESSAGE_LENGTH) : message);
+                    status = FAILED;
+                }
+                payload.flip();
+                if (out.remaining() < Integer.BYTES + REQUEST_HEADER_SIZE + payload.remaining()) {
+                    flush(channel, out);
+                }
+                out.putInt(REQUEST_HEADER_SIZE + payload.remaining()).putLong(id).put(status).put(payload);
+            }
+        } catch (IOException e) {
+            if (running) {
+                log.debug("Cluster connection closed: {}", e.getMessage());
+            }
+        } finally {
+            connections.remove(channel);
+        }
+    }
+
+    /**
+     * Whether a whole frame of at least {@code minLength} bytes after its length is buffered.
+     */
+    static boolean hasFrame(ByteBuffer in, int minLength) throws IOException {
+        if (in.remaining() < Integer.BYTES) {
+            return false;
+        }
+        int length = in.getInt(in.position());
+        if (length < minLength || length > MAX_FRAME_SIZE) {
+            throw new IOException("Invalid cluster frame length " + length);
+        }
+        return in.remaining() >= Integer.BYTES + length;
+    }
+
+    static void fill(SocketChannel channel, ByteBuffer in) throws IOException {
+        in.compact();
+        if (channel.read(in) < 0) {
+            throw new EOFException("Peer closed the connection");
+        }
+        in.flip();
+    }
+
+    static void flush(SocketChannel channel, ByteBuffer out) throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+        out.clear();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        try {
+            server.close();
+        } catch (IOException e) {
+            log.warn("Closing the cluster port failed", e);
+        }
+        for (SocketChannel channel : connections) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.debug("Closing a cluster connection failed", e);
+            }
+        }
+        try {
+            acceptor.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,587 @@
+package br.com.drsm.ebanx_test_api.codec;
+
+import br.com.drsm.ebanx_test_api.dto.AccountDTO;
+import br.com.drsm.ebanx_test_api.dto.EventType;
+import br.com.drsm.ebanx_test_api.dto.TransactionRequestDTO;
+import br.com.drsm.ebanx_test_api.dto.TransactionResponseDTO;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.regex.Pattern;
+
+/**
+ * JSON codec for the fixed shapes of {@code /event} and {@code /balance}: a
+ * {@link TransactionRequestDTO} is parsed straight from the request bytes, and a
+ * {@link TransactionResponseDTO} or a balance is written straight into a byte buffer, producing
+ * the same text as Jackson. Field names and the event type are matched as bytes, so the only
+ * strings created are the ids.
+ * <p>
+ * Both buffers belong to the codec and are reused by every call, so an instance must only be
+ * used by one thread at a time.
+ */
+public class EventJsonCodec {
+    private static final int INITIAL_BUFFER_SIZE = 512;
+    private static final Pattern DECIMAL = Pattern.compile("-?(0|[1-9][0-9]*)(\\.[0-9]+)?([eE][+-]?[0-9]+)?");
+    private static final byte[] TYPE = bytes("type");
+    private static final byte[] ORIGIN = bytes("origin");
+    private static final byte[] DESTINATION = bytes("destination");
+    private static final byte[] AMOUNT = bytes("amount");
+    private static final byte[] IDEMPOTENCY_KEY = bytes("idempotencyKey");
+    private static final byte[] NULL = bytes("null");
+    private static final byte[][] TYPE_VALUES = Arrays.stream(EventType.values()).map(t -> bytes(t.value())).toArray(byte[][]::new);
+    private static final byte[] DESTINATION_FIELD = bytes("{\"destination\":");
+    private static final byte[] ORIGIN_FIELD = bytes("\"origin\":");
+    private static final byte[] ID_FIELD = bytes("{\"id\":");
+    private static final byte[] BALANCE_FIELD = bytes(",\"balance\":");
+    private static final byte[] HEX = bytes("0123456789ABCDEF");
+    private static final byte[] SHORT_ESCAPES = new byte[0x20];
+    private static final double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12,
+            1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+    static {
+        SHORT_ESCAPES['\b'] = 'b';
+        SHORT_ESCAPES['\t'] = 't';
+        SHORT_ESCAPES['\n'] = 'n';
+        SHORT_ESCAPES['\f'] = 'f';
+        SHORT_ESCAPES['\r'] = 'r';
+    }
+
+    /**
+     * Largest number of digits whose value is exactly representable as a long and a double.
+     */
+    private static final int MAX_FAST_DIGITS = 15;
+    /**
+     * Below this, Java and Jackson write doubles in plain rather than scientific notation.
+     */
+    private static final long MAX_PLAIN_CENTS = 1_000_000_000L;
+
+    private final int maxInputSize;
+    private byte[] in = new byte[INITIAL_BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private byte[] out = new byte[INITIAL_BUFFER_SIZE];
+    private int length;
+
+    public EventJsonCodec(int maxInputSize) {
+        this.maxInputSize = maxInputSize;
+    }
+
+    /**
+     * Reads the whole stream into the input buffer and parses it.
+     */
+    public TransactionRequestDTO readRequest(InputStream body) throws IOException {
+        int size = 0;
+        int read;
+        while ((read = body.read(in, size, in.length - size)) >= 0) {
+            size += read;
+            if (size == in.length) {
+                if (size >= maxInputSize) {
+                    throw new IllegalArgumentException("Request body larger than " + maxInputSize + " bytes");
+                }
+                in = Arrays.copyOf(in, Math.min(maxInputSize, size * 2));
+            }
+        }
+        return parseRequest(in, 0, size);
+    }
+
+    public TransactionRequestDTO readRequest(byte[] bytes) {
+        return parseRequest(bytes, 0, bytes.length);
+    }
+
+    private TransactionRequestDTO parseRequest(byte[] bytes, int offset, int size) {
+        byte[] saved = in;
+        in = bytes;
+        position = offset;
+        limit = offset + size;
+        try {
+            TransactionRequestDTO request = TransactionRequestDTO.builder().build();
+            expect('{');
+            if (peek() == '}') {
+                position++;
+            } else {
+                readField(request);
+                while (endOfMember('}')) {
+                    readField(request);
+                }
+            }
+            skipWhitespace();
+            if (position != limit) {
+                fail("end of input");
+            }
+            return request;
+        } finally {
+            in = saved;
+        }
+    }
+
+    private void readField(TransactionRequestDTO request) {
+        expect('"');
+        int start = position;
+        while (position < limit && in[position] != '"' && in[position] != '\\') {
+            position++;
+        }
+        int end = position;
+        if (position < limit && in[position] == '\\') {
+            // escaped names are never one of ours
+            position = start - 1;
+            readString();
+            end = start;
+        } else {
+            position++;
+        }
+        expect(':');
+        skipWhitespace();
+        if (matches(start, end, TYPE)) {
+            request.setType(readType());
+        } else if (matches(start, end, ORIGIN)) {
+            request.setOrigin(readNullableString());
+        } else if (matches(start, end, DESTINATION)) {
+            request.setDestination(readNullableString());
+        } else if (matches(start, end, AMOUNT)) {
+            readAmount(request);
+        } else if (matches(start, end, IDEMPOTENCY_KEY)) {
+            request.setIdempotencyKey(readNullableString());
+        } else {
+            skipValue();
+        }
+    }
+
+    /**
+     * Event type matched in place; unknown values give null, like {@link EventType#of}.
+     */
+    private EventType readType() {
+        if (readNull()) {
+            return null;
+        }
+        if (peek() != '"') {
+            fail("string");
+        }
+        int start = position + 1;
+        int end = start;
+        while (end < limit && in[end] != '"' && in[end] != '\\') {
+            end++;
+        }
+        if (end < limit && in[end] == '"') {
+            position = end + 1;
+            for (int i = 0; i < TYPE_VALUES.length; i++) {
+                if (matches(start, end, TYPE_VALUES[i])) {
+                    return EventType.values()[i];
+                }
+            }
+            return null;
+        }
+        return EventType.of(readString());
+    }
+
+    private String readNullableString() {
+        return readNull() ? null : readString();
+    }
+
+    private String readString() {
+        expect('"');
+        int start = position;
+        boolean ascii = true;
+        while (position < limit) {
+            byte b = in[position];
+            if (b == '"') {
+                position++;
+                return new String(in, start, position - 1 - start, ascii ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8);
+            }
+            if (b == '\\') {
+                return readEscapedString(start);
+            }
+            if (b >= 0 && b < 0x20) {
+                fail("string character");
+            }
+            ascii &= b >= 0;
+            position++;
+        }
+        return fail("'\"'");
+    }
+
+    private String readEscapedString(int start) {
+        StringBuilder value = new StringBuilder(new String(in, start, position - start, StandardCharsets.UTF_8));
+        int chunk = position;
+        while (position < limit) {
+            byte b = in[position];
+            if (b == '"') {
+                value.append(new String(in, chunk, position - chunk, StandardCharsets.UTF_8));
+                position++;
+                return value.toString();
+            }
+            if (b >= 0 && b < 0x20) {
+                fail("string character");
+            }
+            if (b != '\\') {
+                position++;
+                continue;
+            }
+            value.append(new String(in, chunk, position - chunk, StandardCharsets.UTF_8));
+            if (++position >= limit) {
+                break;
+            }
+            switch (in[position++]) {
+                case '"' -> value.append('"');
+                case '\\' -> value.append('\\');
+                case '/' -> value.append('/');
+                case 'b' -> value.append('\b');
+                case 'f' -> value.append('\f');
+                case 'n' -> value.append('\n');
+                case 'r' -> value.append('\r');
+                case 't' -> value.append('\t');
+                case 'u' -> {
+                    if (position + 4 > limit) {
+                        fail("unicode escape");
+                    }
+                    int c = 0;
+                    for (int i = 0; i < 4; i++) {
+                        int digit = Character.digit(in[position++], 16);
+                        if (digit < 0) {
+                            fail("hex digit");
+                        }
+                        c = c << 4 | digit;
+                    }
+                    value.append((char) c);
+                }
+                default -> fail("escape character");
+            }
+            chunk = position;
+        }
+        return fail("'\"'");
+    }
+
+    /**
+     * The amount, kept missing when it is null or a blank string. A quoted number is coerced the
+     * way Jackson coerces scalars, but only a JSON number may be quoted: {@code Double.parseDouble}
+     * would also take {@code NaN}, {@code Infinity} and hex floats. Unlike a skipped number, the
+     * amount must also be finite.
+     */
+    private void readAmount(TransactionRequestDTO request) {
+        int start = position;
+        if (readNull()) {
+            request.clearAmount();
+            return;
+        }
+        double amount;
+        if (peek() == '"') {
+            String text = readString().trim();
+            if (text.isEmpty()) {
+                request.clearAmount();
+                return;
+            }
+            if (!DECIMAL.matcher(text).matches()) {
+                position = start;
+                fail("number");
+            }
+            amount = Double.parseDouble(text);
+        } else {
+            amount = readNumber();
+        }
+        if (!Double.isFinite(amount)) {
+            position = start;
+            fail("finite number");
+        }
+        request.setAmount(amount);
+    }
+
+    private double readNumber() {
+        int start = position;
+        boolean negative = peek() == '-';
+        if (negative) {
+            position++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        int integerStart = position;
+        while (position < limit && isDigit(in[position])) {
+            mantissa = mantissa * 10 + (in[position++] - '0');
+            digits++;
+        }
+        if (position == integerStart || (in[integerStart] == '0' && position - integerStart > 1)) {
+            fail("number");
+        }
+        if (position < limit && in[position] == '.') {
+            int fractionStart = ++position;
+            while (position < limit && isDigit(in[position])) {
+                mantissa = mantissa * 10 + (in[position++] - '0');
+                digits++;
+            }
+            fractionDigits = position - fractionStart;
+            if (fractionDigits == 0) {
+                fail("digit");
+            }
+        }
+        if (position < limit && (in[position] == 'e' || in[position] == 'E') || digits > MAX_FAST_DIGITS) {
+            return parseSlowly(start);
+        }
+        double value = mantissa / POWERS_OF_TEN[fractionDigits];
+        return negative ? -value : value;
+    }
+
+    private double parseSlowly(int start) {
+        if (position < limit && (in[position] == 'e' || in[position] == 'E')) {
+            position++;
+            if (position < limit && (in[position] == '+' || in[position] == '-')) {
+                position++;
+            }
+            int exponentStart = position;
+            while (position < limit && isDigit(in[position])) {
+                position++;
+            }
+            if (position == exponentStart) {
+                fail("digit");
+            }
+        }
+        return Double.parseDouble(new String(in, start, position - start, StandardCharsets.ISO_8859_1));
+    }
+
+    private boolean readNull() {
+        if (matches(position, Math.min(limit, position + NULL.length), NULL)) {
+            position += NULL.length;
+            return true;
+        }
+        return false;
+    }
+
+    private void skipValue() {
+        byte b = peek();
+        switch (b) {
+            case '"' -> readString();
+            case '{', '[' -> {
+                position++;
+                char close = b == '{' ? '}' : ']';
+                if (peek() == close) {
+                    position++;
+                    return;
+                }
+                do {
+                    if (b == '{') {
+                        readString();
+                        expect(':');
+                        skipWhitespace();
+                    }
+                    skipValue();
+                } while (endOfMember(close));
+            }
+            case 't' -> skipLiteral("true");
+            case 'f' -> skipLiteral("false");
+            case 'n' -> skipLiteral("null");
+            default -> readNumber();
+        }
+    }
+
+    /**
+     * Consumes the separator after an object member or array element: true for a comma, false
+     * for the closing bracket.
+     */
+    private boolean endOfMember(char close) {
+        byte b = next();
+        if (b == ',') {
+            return true;
+        }
+        if (b != close) {
+            position--;
+            fail("',' or '" + (char) close + "'");
+        }
+        return false;
+    }
+
+    private void skipLiteral(String literal) {
+        if (position + literal.length() > limit
+                || !new String(in, position, literal.length(), StandardCharsets.ISO_8859_1).equals(literal)) {
+            fail(literal);
+        }
+        position += literal.length();
+    }
+
+    private boolean matches(int start, int end, byte[] expected) {
+        return Arrays.equals(in, start, end, expected, 0, expected.length);
+    }
+
+    private void expect(char c) {
+        if (peek() != c) {
+            fail("'" + c + "'");
+        }
+        position++;
+    }
+
+    /**
+     * Next non-whitespace byte, consumed.
+     */
+    private byte next() {
+        byte b = peek();
+        position++;
+        return b;
+    }
+
+    /**
+     * Next non-whitespace byte, left in place.
+     */
+    private byte peek() {
+        skipWhitespace();
+        if (position >= limit) {
+            fail("more input");
+        }
+        return in[position];
+    }
+
+    private void skipWhitespace() {
+        while (position < limit) {
+            byte b = in[position];
+            if (b != ' ' && b != '\n' && b != '\r' && b != '\t') {
+                return;
+            }
+            position++;
+        }
+    }
+
+    private <T> T fail(String expected) {
+        throw new IllegalArgumentException("Malformed JSON: expected " + expected + " at offset " + position);
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    /**
+     * Writes the response into the output buffer, see {@link #output()} and {@link #length()}.
+     */
+    public void writeResponse(TransactionResponseDTO response) {
+        length = 0;
+        if (null == response.getDestination()) {
+            write((byte) '{');
+        } else {
+            write(DESTINATION_FIELD);
+            writeAccount(response.getDestination());
+        }
+        if (null != response.getOrigin()) {
+            if (null != response.getDestination()) {
+                write((byte) ',');
+            }
+            write(ORIGIN_FIELD);
+            writeAccount(response.getOrigin());
+        }
+        write((byte) '}');
+    }
+
+    public void writeBalance(double balance) {
+        length = 0;
+        writeNumber(balance);
+    }
+
+    public byte[] output() {
+        return out;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    private void writeAccount(AccountDTO account) {
+        write(ID_FIELD);
+        writeString(account.getId());
+        write(BALANCE_FIELD);
+        writeNumber(account.getBalance());
+        write((byte) '}');
+    }
+
+    private void writeString(String value) {
+        if (null == value) {
+            write(NULL);
+            return;
+        }
+        ensureCapacity(value.length() * 6 + 2);
+        out[length++] = '"';
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out[length++] = '\\';
+                out[length++] = (byte) c;
+            } else if (c < 0x20 && SHORT_ESCAPES[c] != 0) {
+                out[length++] = '\\';
+                out[length++] = SHORT_ESCAPES[c];
+            } else if (c < 0x20) {
+                out[length++] = '\\';
+                out[length++] = 'u';
+                out[length++] = '0';
+                out[length++] = '0';
+                out[length++] = HEX[c >> 4];
+                out[length++] = HEX[c & 0xf];
+            } else if (c < 0x80) {
+                out[length++] = (byte) c;
+            } else {
+                int codePoint = Character.isHighSurrogate(c) && i + 1 < value.length() ? value.codePointAt(i) : c;
+                if (Character.isSupplementaryCodePoint(codePoint)) {
+                    i++;
+                }
+                byte[] encoded = new String(Character.toChars(codePoint)).getBytes(StandardCharsets.UTF_8);
+                System.arraycopy(encoded, 0, out, length, encoded.length);
+                length += encoded.length;
+            }
+        }
+        out[length++] = '"';
+    }
+
+    /**
+     * Writes whole cents as {@code 10.0}, {@code 10.5} or {@code 10.25}, which is what
+     * {@link Double#toString} and Jackson give for them in plain notation; anything else goes
+     * through {@link Double#toString}.
+     */
+    private void writeNumber(double value) {
+        double scaled = value * 100;
+        long cents = (long) scaled;
+        if (cents != scaled || cents / 100.0 != value || Math.abs(cents) >= MAX_PLAIN_CENTS
+                || (cents == 0 && 1 / value < 0)) {
+            write(Double.toString(value).getBytes(StandardCharsets.ISO_8859_1));
+            return;
+        }
+        ensureCapacity(24);
+        if (cents < 0) {
+            out[length++] = '-';
+            cents = -cents;
+        }
+        writeDigits(cents / 100);
+        out[length++] = '.';
+        int fraction = (int) (cents % 100);
+        out[length++] = (byte) ('0' + fraction / 10);
+        if (fraction % 10 != 0) {
+            out[length++] = (byte) ('0' + fraction % 10);
+        }
+    }
+
+    private void writeDigits(long value) {
+        int start = length;
+        do {
+            out[length++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value > 0);
+        for (int i = start, j = length - 1; i < j; i++, j--) {
+            byte swap = out[i];
+            out[i] = out[j];
+            out[j] = swap;
+        }
+    }
+
+    private void write(byte b) {
+        ensureCapacity(1);
+        out[length++] = b;
+    }
+
+    private void write(byte[] bytes) {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, out, length, bytes.length);
+        length += bytes.length;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (length + extra > out.length) {
+            out = Arrays.copyOf(out, Math.max(out.length * 2, length + extra));
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
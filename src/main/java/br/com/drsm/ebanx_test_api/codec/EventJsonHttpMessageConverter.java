@@ -0,0 +1,62 @@
+package br.com.drsm.ebanx_test_api.codec;
+
+import br.com.drsm.ebanx_test_api.dto.TransactionRequestDTO;
+import br.com.drsm.ebanx_test_api.dto.TransactionResponseDTO;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+
+/**
+ * Reads {@link TransactionRequestDTO} and writes {@link TransactionResponseDTO} and balances
+ * with an {@link EventJsonCodec}, one per thread so its buffers are reused across requests.
+ * Every other type is left to the Jackson converter behind it.
+ */
+public class EventJsonHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+    private static final int MAX_BODY_SIZE = 64 * 1024;
+
+    private final ThreadLocal<EventJsonCodec> codecs = ThreadLocal.withInitial(() -> new EventJsonCodec(MAX_BODY_SIZE));
+
+    public EventJsonHttpMessageConverter() {
+        super(MediaType.APPLICATION_JSON);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz == TransactionRequestDTO.class || clazz == TransactionResponseDTO.class || clazz == Double.class;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return clazz == TransactionRequestDTO.class && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return (clazz == TransactionResponseDTO.class || clazz == Double.class) && canWrite(mediaType);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        try {
+            return codecs.get().readRequest(inputMessage.getBody());
+        } catch (IllegalArgumentException e) {
+            throw new HttpMessageNotReadableException(e.getMessage(), e, inputMessage);
+        }
+    }
+
+    @Override
+    protected void writeInternal(Object value, HttpOutputMessage outputMessage) throws IOException {
+        EventJsonCodec codec = codecs.get();
+        if (value instanceof Double balance) {
+            codec.writeBalance(balance);
+        } else {
+            codec.writeResponse((TransactionResponseDTO) value);
+        }
+        outputMessage.getHeaders().setContentLength(codec.length());
+        outputMessage.getBody().write(codec.output(), 0, codec.length());
+    }
+}
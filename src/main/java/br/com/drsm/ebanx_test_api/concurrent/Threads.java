@@ -0,0 +1,19 @@
+package br.com.drsm.ebanx_test_api.concurrent;
+
+/**
+ * Thread identity for the lock words and striped cells that are keyed by thread.
+ */
+public final class Threads {
+
+    private Threads() {
+    }
+
+    /**
+     * The thread's id. {@code Thread.getId()} is deprecated from Java 19 in favour of
+     * {@code threadId()}, which the Java 17 baseline does not have, so the call is kept here.
+     */
+    @SuppressWarnings("deprecation")
+    public static long idOf(Thread thread) {
+        return thread.getId();
+    }
+}
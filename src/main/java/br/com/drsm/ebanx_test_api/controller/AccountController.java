@@ -1,49 +1,184 @@
 package br.com.drsm.ebanx_test_api.controller;
 
+import br.com.drsm.ebanx_test_api.admission.Admission;
+import br.com.drsm.ebanx_test_api.admission.AdmissionPriority;
+import br.com.drsm.ebanx_test_api.admission.Permit;
+import br.com.drsm.ebanx_test_api.cluster.Cluster;
+import br.com.drsm.ebanx_test_api.dto.TransactionPageDTO;
 import br.com.drsm.ebanx_test_api.dto.TransactionRequestDTO;
 import br.com.drsm.ebanx_test_api.dto.TransactionResponseDTO;
+import br.com.drsm.ebanx_test_api.engine.EventDispatcher;
+import br.com.drsm.ebanx_test_api.replication.Replication;
 import br.com.drsm.ebanx_test_api.service.AccountService;
+import br.com.drsm.ebanx_test_api.service.Outcome;
 import jakarta.websocket.server.PathParam;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Instant;
+
 
 @Slf4j
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping
 public class AccountController {
+    /**
+     * Sequence number of the last entry the answering node applied, which a client sends back
+     * on a read to see its own writes on any node.
+     */
+    public static final String POSITION_HEADER = "Replication-Position";
+    private static final String RETRY_AFTER_SECONDS = "1";
+
     private final AccountService service;
+    private final EventDispatcher dispatcher;
+    private final Replication replication;
+    private final Cluster cluster;
+    private final Admission admission;
 
-    public AccountController(AccountService service) {
+    public AccountController(AccountService service, EventDispatcher dispatcher, Replication replication,
+                             Cluster cluster, Admission admission) {
         log.info("AccountController created");
         this.service = service;
+        this.dispatcher = dispatcher;
+        this.replication = replication;
+        this.cluster = cluster;
+        this.admission = admission;
     }
 
     @PostMapping("/reset")
-    public ResponseEntity<String> reset() {
+    public ResponseEntity<?> reset() {
         log.info("reset called");
+        if (!replication.isLeader()) {
+            return unavailable();
+        }
         service.reset();
+        cluster.resetOthers();
         return new ResponseEntity<>("OK", HttpStatus.OK);
     }
 
+    /**
+     * Current balance, or with {@code at}, an ISO-8601 instant, the balance at that time. On a
+     * replication follower the read waits until the node has applied the position in the
+     * {@code Replication-Position} header, or without one until it is within the staleness
+     * bound, and answers 503 when that takes longer than the read timeout. In a cluster the
+     * balance of an account kept by another node is read from that node. Reads are admitted
+     * ahead of deposits when admission control is on.
+     */
     @GetMapping("/balance")
-    public ResponseEntity<Double> getBalance(@PathParam("account_id") String account_id) {
-        log.info("getBalance called for {}", account_id);
-        return new ResponseEntity<>(service.getBalance(account_id), HttpStatus.OK);
+    public ResponseEntity<?> getBalance(@PathParam("account_id") String account_id,
+                                        @RequestParam(value = "at", required = false) Instant at,
+                                        @RequestHeader(value = POSITION_HEADER, required = false) Long position) {
+        log.debug("getBalance called for {}", account_id);
+        if (!replication.awaitReadable(null == position ? 0 : position)) {
+            return unavailable();
+        }
+        Permit permit = admission.tryAcquire(AdmissionPriority.CRITICAL);
+        if (!permit.isAdmitted()) {
+            return rejected(AdmissionPriority.CRITICAL);
+        }
+        Outcome<Double> balance;
+        try {
+            if (!cluster.owns(account_id)) {
+                balance = cluster.findBalance(account_id, at);
+            } else {
+                balance = null == at ? service.findBalance(account_id) : service.findBalanceAt(account_id, at);
+            }
+        } finally {
+            permit.release();
+        }
+        return balance.isPresent() ? withPosition(HttpStatus.OK).body(balance.value()) : failure(balance);
+    }
+
+    /**
+     * History of an account, oldest first; {@code from} and {@code to} are ISO-8601 instants and
+     * the response's {@code next} is the {@code from} of the following page.
+     */
+    @GetMapping("/accounts/{id}/transactions")
+    public ResponseEntity<TransactionPageDTO> getTransactions(@PathVariable("id") String id,
+                                                              @RequestParam(value = "from", required = false) Instant from,
+                                                              @RequestParam(value = "to", required = false) Instant to,
+                                                              @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        log.debug("getTransactions called for {}", id);
+        return new ResponseEntity<>(service.getTransactions(id, from, to, limit), HttpStatus.OK);
     }
 
     @PostMapping("/event")
-    public ResponseEntity<TransactionResponseDTO> event(@RequestBody TransactionRequestDTO request) {
-        log.info("event called for {}", request);
-        TransactionResponseDTO transaction = switch (request.getType()) {
-            case "deposit" -> service.processDeposit(request);
-            case "withdraw" -> service.processWithdraw(request);
-            case "transfer" -> service.processTransfer(request);
-            default -> throw new IllegalArgumentException("Invalid type: " + request.getType());
-        };
-        log.info("event returned {}", transaction);
-        return new ResponseEntity<>(transaction, HttpStatus.CREATED);
+    public ResponseEntity<?> event(@RequestBody TransactionRequestDTO request,
+                                                        @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        if (null != idempotencyKey) {
+            request.setIdempotencyKey(idempotencyKey);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("event called: type={}, origin={}, destination={}, amount={}",
+                    request.getType(), request.getOrigin(), request.getDestination(), request.getAmount());
+        }
+        if (!replication.isLeader()) {
+            return unavailable();
+        }
+        AdmissionPriority priority = AdmissionPriority.of(request.getType());
+        Permit permit = admission.tryAcquire(priority);
+        if (!permit.isAdmitted()) {
+            return rejected(priority);
+        }
+        Outcome<TransactionResponseDTO> transaction;
+        try {
+            transaction = dispatcher.tryDispatch(request);
+        } finally {
+            permit.release();
+        }
+        return transaction.isPresent() ? withPosition(HttpStatus.CREATED).body(transaction.value()) : failure(transaction);
+    }
+
+    /**
+     * Response carrying this node's replication position, read after the change it answers so
+     * that it covers it.
+     */
+    private ResponseEntity.BodyBuilder withPosition(HttpStatus status) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(status);
+        long position = replication.position();
+        if (0 != position) {
+            response.header(POSITION_HEADER, Long.toString(position));
+        }
+        return response;
+    }
+
+    /**
+     * Writes sent to a follower, and reads it cannot answer in time, are turned away with a 503
+     * and a body of 0, to be retried on the leader or later.
+     */
+    private static ResponseEntity<?> unavailable() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                .body(0);
+    }
+
+    /**
+     * Requests turned away by admission control: a 503 when even critical requests no longer
+     * fit, a 429 for lower priorities shed to make room for them, both with a body of 0.
+     */
+    private static ResponseEntity<?> rejected(AdmissionPriority priority) {
+        log.debug("Request turned away by admission control: {}", priority);
+        return ResponseEntity.status(priority == AdmissionPriority.CRITICAL
+                        ? HttpStatus.SERVICE_UNAVAILABLE : HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                .body(0);
+    }
+
+    /**
+     * Same answers as {@code AccountControllerAdvice} gives the exceptions: 404 for a missing
+     * account and 400 for an invalid request, both with a body of 0.
+     */
+    private static ResponseEntity<?> failure(Outcome<?> outcome) {
+        if (outcome.failure() == Outcome.Failure.NOT_FOUND) {
+            log.debug("Account not found: {}", outcome.detail());
+            return new ResponseEntity<>(0, HttpStatus.NOT_FOUND);
+        }
+        log.debug("Invalid request: {}", outcome.detail());
+        return new ResponseEntity<>(0, HttpStatus.BAD_REQUEST);
     }
 }
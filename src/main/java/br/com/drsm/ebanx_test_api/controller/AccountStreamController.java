@@ -0,0 +1,43 @@
+package br.com.drsm.ebanx_test_api.controller;
+
+import br.com.drsm.ebanx_test_api.dto.ImportSummaryDTO;
+import br.com.drsm.ebanx_test_api.service.AccountStreamService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+
+@Slf4j
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/accounts")
+public class AccountStreamController {
+    private final AccountStreamService service;
+
+    public AccountStreamController(AccountStreamService service) {
+        this.service = service;
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ImportSummaryDTO> importAccounts(HttpServletRequest request) throws IOException {
+        log.info("import called");
+        return new ResponseEntity<>(service.importNdjson(request.getInputStream()), HttpStatus.OK);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportAccounts() {
+        log.info("export called");
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(service::exportNdjson);
+    }
+}
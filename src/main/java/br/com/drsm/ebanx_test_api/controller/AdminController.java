@@ -0,0 +1,67 @@
+package br.com.drsm.ebanx_test_api.controller;
+
+import br.com.drsm.ebanx_test_api.dto.AuditDTO;
+import br.com.drsm.ebanx_test_api.dto.ReplicationStatusDTO;
+import br.com.drsm.ebanx_test_api.replication.Replication;
+import br.com.drsm.ebanx_test_api.service.AccountService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@Slf4j
+@RestController
+@RequestMapping("/admin")
+public class AdminController {
+    private final AccountService service;
+    private final Replication replication;
+
+    public AdminController(AccountService service, Replication replication) {
+        this.service = service;
+        this.replication = replication;
+    }
+
+    /**
+     * Account count, total balance and the {@code limit} most negative accounts, scanned in
+     * parallel while events keep being applied.
+     */
+    @GetMapping("/audit")
+    public ResponseEntity<AuditDTO> audit(@RequestParam(value = "limit", defaultValue = "100") int limit) {
+        log.info("audit called");
+        return new ResponseEntity<>(service.audit(limit), HttpStatus.OK);
+    }
+
+    /**
+     * This node's role, position and, on a follower, how far behind its leader it is.
+     */
+    @GetMapping("/replication")
+    public ResponseEntity<ReplicationStatusDTO> replication() {
+        return new ResponseEntity<>(replication.status(), HttpStatus.OK);
+    }
+
+    /**
+     * Makes a follower the leader, taking writes from the last entry it applied. Other
+     * followers are then pointed at it with {@code /admin/replication/follow}.
+     */
+    @PostMapping("/replication/promote")
+    public ResponseEntity<ReplicationStatusDTO> promote() {
+        log.info("promote called");
+        replication.promote();
+        return new ResponseEntity<>(replication.status(), HttpStatus.OK);
+    }
+
+    /**
+     * Makes this node follow the leader at {@code host:port}, its replication port. A former
+     * leader starts over from a snapshot.
+     */
+    @PostMapping("/replication/follow")
+    public ResponseEntity<ReplicationStatusDTO> follow(@RequestParam("leader") String leader) {
+        log.info("follow called: {}", leader);
+        replication.follow(leader);
+        return new ResponseEntity<>(replication.status(), HttpStatus.OK);
+    }
+}
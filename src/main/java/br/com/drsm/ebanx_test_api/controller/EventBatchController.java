@@ -0,0 +1,111 @@
+package br.com.drsm.ebanx_test_api.controller;
+
+import br.com.drsm.ebanx_test_api.dto.EventResultDTO;
+import br.com.drsm.ebanx_test_api.dto.TransactionRequestDTO;
+import br.com.drsm.ebanx_test_api.engine.EventBatchProcessor;
+import br.com.drsm.ebanx_test_api.replication.NotLeaderException;
+import br.com.drsm.ebanx_test_api.replication.Replication;
+import br.com.drsm.ebanx_test_api.service.AccountService;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@code POST /events}: a JSON array or an NDJSON stream of {@code /event} requests, answered
+ * with one {@link EventResultDTO} per event, in order and in the same format. Events are read
+ * and results written as the batch progresses, except for atomic batches, which are read whole
+ * before being applied, up to {@link AccountService#MAX_ATOMIC_BATCH} events: a longer one is
+ * rejected as soon as the event past the limit starts, without reading the rest. Like
+ * {@code /event}, a replication follower answers with a 503 and {@code Retry-After}.
+ */
+@Slf4j
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class EventBatchController {
+    private final EventBatchProcessor processor;
+    private final Replication replication;
+    private final ObjectReader requestReader;
+    private final ObjectWriter resultWriter;
+
+    public EventBatchController(EventBatchProcessor processor, Replication replication, ObjectMapper mapper) {
+        this.processor = processor;
+        this.replication = replication;
+        this.requestReader = mapper.readerFor(TransactionRequestDTO.class);
+        this.resultWriter = mapper.writerFor(EventResultDTO.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    @PostMapping(value = "/events", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<StreamingResponseBody> events(HttpServletRequest request,
+                                                        @RequestParam(defaultValue = "false") boolean atomic) throws IOException {
+        log.debug("events called, atomic: {}", atomic);
+        if (!replication.isLeader()) {
+            throw new NotLeaderException();
+        }
+        boolean ndjson = MediaType.APPLICATION_NDJSON.isCompatibleWith(MediaType.parseMediaType(request.getContentType()));
+        MappingIterator<TransactionRequestDTO> requests = requestReader.readValues(request.getInputStream());
+        StreamingResponseBody body;
+        if (atomic) {
+            List<EventResultDTO> results = processor.processAtomically(readAtomicBatch(requests));
+            body = out -> {
+                try (SequenceWriter writer = open(out, ndjson)) {
+                    writer.writeAll(results);
+                }
+            };
+        } else {
+            body = out -> {
+                try (SequenceWriter writer = open(out, ndjson); requests) {
+                    processor.process(requests, chunk -> write(writer, chunk));
+                }
+            };
+        }
+        return ResponseEntity.ok()
+                .contentType(ndjson ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    private static List<TransactionRequestDTO> readAtomicBatch(MappingIterator<TransactionRequestDTO> requests) throws IOException {
+        List<TransactionRequestDTO> batch = new ArrayList<>();
+        try (requests) {
+            while (requests.hasNextValue()) {
+                if (batch.size() == AccountService.MAX_ATOMIC_BATCH) {
+                    throw new IllegalArgumentException("Atomic batches are limited to " + AccountService.MAX_ATOMIC_BATCH + " events");
+                }
+                batch.add(requests.nextValue());
+            }
+        }
+        return batch;
+    }
+
+    private SequenceWriter open(OutputStream out, boolean ndjson) throws IOException {
+        return ndjson
+                ? resultWriter.withRootValueSeparator("\n").writeValues(out)
+                : resultWriter.writeValuesAsArray(out);
+    }
+
+    private static void write(SequenceWriter writer, List<EventResultDTO> chunk) {
+        try {
+            writer.writeAll(chunk);
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
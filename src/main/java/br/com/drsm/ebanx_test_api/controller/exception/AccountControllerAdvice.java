@@ -1,7 +1,11 @@
 package br.com.drsm.ebanx_test_api.controller.exception;
 
+import br.com.drsm.ebanx_test_api.cluster.ClusterUnavailableException;
+import br.com.drsm.ebanx_test_api.replication.NotLeaderException;
 import br.com.drsm.ebanx_test_api.service.exception.AccountNotFoundException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -10,17 +14,41 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 
 @Slf4j
 @ControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class AccountControllerAdvice {
 
+    /**
+     * Missing accounts are a routine answer, already counted by the service metrics, so they are
+     * only logged at debug and without a stack trace.
+     */
     @ExceptionHandler(AccountNotFoundException.class)
     public ResponseEntity<?> handleUserNotFoundException(AccountNotFoundException ex, WebRequest request) {
-        log.error(ex.getMessage(), ex);
+        log.debug("Account not found: {}", ex.getMessage());
         return new ResponseEntity<>(0, HttpStatus.NOT_FOUND);
     }
 
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<?> handleIllegalArgumentException(IllegalArgumentException ex, WebRequest request) {
-        log.error(ex.getMessage(), ex);
+        log.debug("Invalid request: {}", ex.getMessage());
         return new ResponseEntity<>(0, HttpStatus.BAD_REQUEST);
     }
+
+    /**
+     * Changes that reach a replication follower by a path other than {@code /event}, such as
+     * batches and imports.
+     */
+    @ExceptionHandler(NotLeaderException.class)
+    public ResponseEntity<?> handleNotLeaderException(NotLeaderException ex, WebRequest request) {
+        log.debug("Write refused: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(0);
+    }
+
+    /**
+     * Requests whose accounts are kept by a cluster node that cannot be reached.
+     */
+    @ExceptionHandler(ClusterUnavailableException.class)
+    public ResponseEntity<?> handleClusterUnavailableException(ClusterUnavailableException ex, WebRequest request) {
+        log.warn("Cluster node unavailable: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(0);
+    }
 }
@@ -1,6 +1,7 @@
 package br.com.drsm.ebanx_test_api.dto;
 
-import br.com.drsm.ebanx_test_api.model.Account;
+import br.com.drsm.ebanx_test_api.model.Money;
+import br.com.drsm.ebanx_test_api.store.AccountHandle;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
@@ -11,12 +12,9 @@ import lombok.Setter;
 @Setter
 public class AccountDTO {
     private String id;
-    private Double balance;
+    private double balance;
 
-    public static AccountDTO from(Account saved) {
-        return AccountDTO.builder()
-                .id(saved.getId())
-                .balance(saved.getBalance())
-                .build();
+    public static AccountDTO from(AccountHandle saved) {
+        return new AccountDTO(saved.getId(), Money.toDouble(saved.getBalance()));
     }
 }
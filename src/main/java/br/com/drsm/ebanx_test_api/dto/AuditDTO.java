@@ -0,0 +1,23 @@
+package br.com.drsm.ebanx_test_api.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Result of a scan over every account: how many there are, the total of their balances next to
+ * the running total kept as events are applied, and how many have a negative balance, with the
+ * most negative ones first.
+ */
+@Builder
+@Getter
+@Setter
+public class AuditDTO {
+    private long accounts;
+    private double totalBalance;
+    private double runningTotalBalance;
+    private long negativeAccounts;
+    private List<AccountDTO> negative;
+}
@@ -0,0 +1,29 @@
+package br.com.drsm.ebanx_test_api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Outcome of one event of a batch: the HTTP status {@code /event} would have answered with,
+ * and either its response body or the reason it failed.
+ */
+@Builder
+@Getter
+@Setter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class EventResultDTO {
+    private int status;
+    private AccountDTO destination;
+    private AccountDTO origin;
+    private String error;
+
+    public static EventResultDTO created(TransactionResponseDTO response) {
+        return new EventResultDTO(201, response.getDestination(), response.getOrigin(), null);
+    }
+
+    public static EventResultDTO failed(int status, String error) {
+        return new EventResultDTO(status, null, null, error);
+    }
+}
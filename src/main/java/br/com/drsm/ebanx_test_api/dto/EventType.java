@@ -0,0 +1,40 @@
+package br.com.drsm.ebanx_test_api.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * Type of an event, written as its lower-case value in JSON.
+ */
+public enum EventType {
+    DEPOSIT("deposit"),
+    WITHDRAW("withdraw"),
+    TRANSFER("transfer");
+
+    private static final EventType[] VALUES = values();
+
+    private final String value;
+
+    EventType(String value) {
+        this.value = value;
+    }
+
+    @JsonValue
+    public String value() {
+        return value;
+    }
+
+    /**
+     * Type with the given value, or null when there is none, so that an unknown type is reported
+     * by the service like any other invalid event instead of failing the whole body.
+     */
+    @JsonCreator
+    public static EventType of(String value) {
+        for (EventType type : VALUES) {
+            if (type.value.equals(value)) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
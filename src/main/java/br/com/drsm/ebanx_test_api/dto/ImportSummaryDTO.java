@@ -0,0 +1,18 @@
+package br.com.drsm.ebanx_test_api.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Counts of what an account import applied: account records, event records, and records that
+ * were rejected.
+ */
+@Builder
+@Getter
+@Setter
+public class ImportSummaryDTO {
+    private long accounts;
+    private long events;
+    private long failed;
+}
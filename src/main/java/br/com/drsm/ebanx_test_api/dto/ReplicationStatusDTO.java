@@ -0,0 +1,24 @@
+package br.com.drsm.ebanx_test_api.dto;
+
+import br.com.drsm.ebanx_test_api.replication.ReplicationRole;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Where a node stands in replication: its role, the last entry it applied, the leader's last
+ * entry as far as it knows, and for a follower how long ago it was last caught up (-1 when it
+ * never was). A leader lists the followers streaming from it.
+ */
+@Builder
+@Getter
+@Setter
+public class ReplicationStatusDTO {
+    private ReplicationRole role;
+    private long position;
+    private long leaderPosition;
+    private long lag;
+    private long stalenessMillis;
+    private String leader;
+    private int followers;
+}
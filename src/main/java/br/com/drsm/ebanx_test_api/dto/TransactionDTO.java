@@ -0,0 +1,23 @@
+package br.com.drsm.ebanx_test_api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * One entry of an account's history, the amount being negative when money left the account.
+ */
+@Builder
+@Getter
+@Setter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TransactionDTO {
+    private Instant timestamp;
+    private String type;
+    private String counterparty;
+    private double amount;
+    private double balance;
+}
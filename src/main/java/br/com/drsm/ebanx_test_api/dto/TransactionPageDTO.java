@@ -0,0 +1,22 @@
+package br.com.drsm.ebanx_test_api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * A page of an account's history, with the {@code from} to ask for the next one when the range
+ * has more entries.
+ */
+@Builder
+@Getter
+@Setter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TransactionPageDTO {
+    private List<TransactionDTO> transactions;
+    private Instant next;
+}
@@ -1,16 +1,69 @@
 package br.com.drsm.ebanx_test_api.dto;
 
 
+import com.fasterxml.jackson.annotation.JsonSetter;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Builder
+@NoArgsConstructor
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
 @Getter
 @Setter
 public class TransactionRequestDTO {
-    private String type;
+    private EventType type;
     private String destination;
     private String origin;
-    private Double amount;
+    /**
+     * Only meaningful when {@link #hasAmount()}: a missing amount is tracked with a flag rather
+     * than a {@code Double}, so that reading an event does not box it.
+     */
+    @Setter(AccessLevel.NONE)
+    private double amount;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean amountPresent;
+    /**
+     * Optional key making retries of the same event safe, also accepted as an
+     * {@code Idempotency-Key} header.
+     */
+    private String idempotencyKey;
+
+    public void setAmount(double amount) {
+        this.amount = amount;
+        this.amountPresent = true;
+    }
+
+    /**
+     * Jackson's setter, for which a null amount leaves it missing instead of reading as 0.
+     */
+    @JsonSetter("amount")
+    void readAmount(Double amount) {
+        if (null == amount) {
+            clearAmount();
+        } else {
+            setAmount(amount);
+        }
+    }
+
+    public void clearAmount() {
+        this.amount = 0;
+        this.amountPresent = false;
+    }
+
+    public boolean hasAmount() {
+        return amountPresent;
+    }
+
+    public static class TransactionRequestDTOBuilder {
+        public TransactionRequestDTOBuilder amount(double amount) {
+            this.amount = amount;
+            this.amountPresent = true;
+            return this;
+        }
+    }
 }
@@ -1,6 +1,6 @@
 package br.com.drsm.ebanx_test_api.dto;
 
-import br.com.drsm.ebanx_test_api.model.Account;
+import br.com.drsm.ebanx_test_api.store.AccountHandle;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Builder;
 import lombok.Getter;
@@ -14,21 +14,11 @@ public class TransactionResponseDTO {
     private AccountDTO destination;
     private AccountDTO origin;
 
-    public static TransactionResponseDTO fillReturn(Account origin, Account destination, String type) {
+    public static TransactionResponseDTO fillReturn(AccountHandle origin, AccountHandle destination, EventType type) {
         return switch (type) {
-            case "deposit" -> TransactionResponseDTO.builder()
-                    .destination(AccountDTO.from(destination))
-                    .origin(null)
-                    .build();
-            case "withdraw" -> TransactionResponseDTO.builder()
-                    .destination(null)
-                    .origin(AccountDTO.from(origin))
-                    .build();
-            case "transfer" -> TransactionResponseDTO.builder()
-                    .destination(AccountDTO.from(destination))
-                    .origin(AccountDTO.from(origin))
-                    .build();
-            default -> throw new IllegalArgumentException("Invalid type: " + type);
+            case DEPOSIT -> new TransactionResponseDTO(AccountDTO.from(destination), null);
+            case WITHDRAW -> new TransactionResponseDTO(null, AccountDTO.from(origin));
+            case TRANSFER -> new TransactionResponseDTO(AccountDTO.from(destination), AccountDTO.from(origin));
         };
     }
 }
@@ -0,0 +1,50 @@
+package br.com.drsm.ebanx_test_api.engine;
+
+import br.com.drsm.ebanx_test_api.dto.TransactionRequestDTO;
+import br.com.drsm.ebanx_test_api.dto.TransactionResponseDTO;
+import br.com.drsm.ebanx_test_api.service.AccountService;
+import br.com.drsm.ebanx_test_api.service.DurabilityBatch;
+import br.com.drsm.ebanx_test_api.service.Outcome;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Applies events on the calling thread, relying on the per-account locks of {@link AccountService}.
+ * Asynchronous dispatch applies the event the same way but completes its future when the journal
+ * has made it durable, instead of waiting for it.
+ */
+public class DirectEventDispatcher implements EventDispatcher {
+    static final String INVALID_TYPE = "Invalid type";
+
+    private final AccountService service;
+
+    public DirectEventDispatcher(AccountService service) {
+        this.service = service;
+    }
+
+    @Override
+    public Outcome<TransactionResponseDTO> tryDispatch(TransactionRequestDTO request) {
+        if (null == request.getType()) {
+            return Outcome.invalid(INVALID_TYPE);
+        }
+        return service.tryProcess(request);
+    }
+
+    @Override
+    public CompletableFuture<Outcome<TransactionResponseDTO>> dispatchAsync(TransactionRequestDTO request) {
+        if (null == request.getType()) {
+            return CompletableFuture.completedFuture(Outcome.invalid(INVALID_TYPE));
+        }
+        DurabilityBatch batch = service.newBatch();
+        Outcome<TransactionResponseDTO> outcome;
+        try {
+            outcome = service.tryProcess(request, batch);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        if (!outcome.isPresent()) {
+            return CompletableFuture.completedFuture(outcome);
+        }
+        return batch.whenDurable().thenApply(durable -> outcome);
+    }
+}
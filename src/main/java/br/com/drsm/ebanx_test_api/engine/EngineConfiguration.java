@@ -0,0 +1,32 @@
+package br.com.drsm.ebanx_test_api.engine;
+
+import br.com.drsm.ebanx_test_api.cluster.Cluster;
+import br.com.drsm.ebanx_test_api.cluster.ClusterEventDispatcher;
+import br.com.drsm.ebanx_test_api.service.AccountService;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties({EngineProperties.class, IdempotencyProperties.class})
+public class EngineConfiguration {
+
+    @Bean
+    public EventDispatcher eventDispatcher(AccountService service, EngineProperties properties,
+                                           IdempotencyProperties idempotency, Cluster cluster) {
+        EventDispatcher dispatcher;
+        if (properties.getMode() == EngineMode.SHARDED) {
+            int shards = properties.getShards() > 0 ? properties.getShards() : Runtime.getRuntime().availableProcessors();
+            dispatcher = new ShardedEventDispatcher(service, shards, properties.getRingSize());
+        } else {
+            dispatcher = new DirectEventDispatcher(service);
+        }
+        if (cluster != Cluster.NONE) {
+            dispatcher = new ClusterEventDispatcher(dispatcher, cluster);
+        }
+        if (idempotency.isEnabled()) {
+            dispatcher = new IdempotentEventDispatcher(dispatcher, idempotency.getMaximumSize(), idempotency.getTtl());
+        }
+        return dispatcher;
+    }
+}
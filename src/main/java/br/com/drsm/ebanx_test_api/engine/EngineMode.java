@@ -0,0 +1,13 @@
+package br.com.drsm.ebanx_test_api.engine;
+
+public enum EngineMode {
+    /**
+     * Request threads apply their own events, serialized by per-account locks.
+     */
+    LOCKING,
+    /**
+     * Accounts are partitioned into shards, each applied by a single thread fed through a ring
+     * buffer; see {@link ShardedEventDispatcher}.
+     */
+    SHARDED
+}
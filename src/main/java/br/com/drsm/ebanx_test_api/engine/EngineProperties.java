@@ -0,0 +1,20 @@
+package br.com.drsm.ebanx_test_api.engine;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties("ebanx.engine")
+public class EngineProperties {
+    private EngineMode mode = EngineMode.LOCKING;
+    /**
+     * Number of shards in {@link EngineMode#SHARDED} mode, 0 for one per available processor.
+     */
+    private int shards = 0;
+    /**
+     * Capacity of each shard's ring buffer, rounded up to a power of two.
+     */
+    private int ringSize = 1024;
+}
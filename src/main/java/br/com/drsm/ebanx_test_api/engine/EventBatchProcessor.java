@@ -0,0 +1,176 @@
+package br.com.drsm.ebanx_test_api.engine;
+
+import br.com.drsm.ebanx_test_api.admission.Admission;
+import br.com.drsm.ebanx_test_api.admission.AdmissionPriority;
+import br.com.drsm.ebanx_test_api.admission.Permit;
+import br.com.drsm.ebanx_test_api.cluster.Cluster;
+import br.com.drsm.ebanx_test_api.cluster.ClusterUnavailableException;
+import br.com.drsm.ebanx_test_api.dto.EventResultDTO;
+import br.com.drsm.ebanx_test_api.dto.TransactionRequestDTO;
+import br.com.drsm.ebanx_test_api.dto.TransactionResponseDTO;
+import br.com.drsm.ebanx_test_api.replication.NotLeaderException;
+import br.com.drsm.ebanx_test_api.service.AccountService;
+import br.com.drsm.ebanx_test_api.service.DurabilityBatch;
+import br.com.drsm.ebanx_test_api.service.Outcome;
+import br.com.drsm.ebanx_test_api.service.exception.AccountNotFoundException;
+import br.com.drsm.ebanx_test_api.service.exception.BatchItemException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+
+/**
+ * Applies batches of events with the semantics of {@code /event}, one result per event in the
+ * order received.
+ */
+@Slf4j
+@Service
+public class EventBatchProcessor {
+    static final int CHUNK_SIZE = 256;
+    static final String ATOMIC_IN_CLUSTER = "Atomic batches are not supported in a cluster";
+    static final String ATOMIC_IDEMPOTENCY_KEY = "Idempotency keys are not supported in atomic batches";
+    static final String TURNED_AWAY = "Turned away by admission control";
+
+    private final AccountService service;
+    private final EventDispatcher dispatcher;
+    private final Cluster cluster;
+    private final Admission admission;
+
+    public EventBatchProcessor(AccountService service, EventDispatcher dispatcher, Cluster cluster, Admission admission) {
+        this.service = service;
+        this.dispatcher = dispatcher;
+        this.cluster = cluster;
+        this.admission = admission;
+    }
+
+    /**
+     * Applies the events one by one as they are read, each succeeding or failing on its own and
+     * each going through the {@link EventDispatcher} and admission control like an
+     * {@code /event} request. Results are handed over in chunks, once the chunk's events are
+     * durable, so one journal flush covers a whole chunk. In sharded mode the events of a chunk
+     * are applied by their shards as concurrent {@code /event} requests would be, so two events
+     * of different shards may be applied in either order.
+     */
+    public void process(Iterator<TransactionRequestDTO> requests, Consumer<List<EventResultDTO>> results) {
+        List<CompletableFuture<EventResultDTO>> chunk = new ArrayList<>(CHUNK_SIZE);
+        while (requests.hasNext()) {
+            chunk.add(dispatch(requests.next()));
+            if (chunk.size() == CHUNK_SIZE) {
+                results.accept(join(chunk));
+                chunk = new ArrayList<>(CHUNK_SIZE);
+            }
+        }
+        results.accept(join(chunk));
+    }
+
+    /**
+     * Applies all the events or none. When one is rejected, it gets its own failure and every
+     * other event is reported as {@link HttpStatus#FAILED_DEPENDENCY}. The batch locks all its
+     * accounts on this node, so it is refused in a cluster, and its events cannot carry
+     * idempotency keys.
+     */
+    public List<EventResultDTO> processAtomically(List<TransactionRequestDTO> requests) {
+        if (cluster != Cluster.NONE) {
+            throw new IllegalArgumentException(ATOMIC_IN_CLUSTER);
+        }
+        List<EventResultDTO> results = new ArrayList<>(requests.size());
+        Permit permit = admission.tryAcquire(AdmissionPriority.NORMAL);
+        if (!permit.isAdmitted()) {
+            EventResultDTO rejected = rejected(AdmissionPriority.NORMAL);
+            for (int i = 0; i < requests.size(); i++) {
+                results.add(rejected);
+            }
+            return results;
+        }
+        DurabilityBatch batch = service.newBatch();
+        try {
+            for (int i = 0; i < requests.size(); i++) {
+                if (null != requests.get(i).getIdempotencyKey()) {
+                    throw new BatchItemException(i, new IllegalArgumentException(ATOMIC_IDEMPOTENCY_KEY));
+                }
+            }
+            List<TransactionResponseDTO> responses = service.processAtomically(requests, batch);
+            batch.awaitDurable();
+            for (TransactionResponseDTO response : responses) {
+                results.add(EventResultDTO.created(response));
+            }
+        } catch (BatchItemException e) {
+            log.debug("Atomic batch rejected: {}", e.getMessage());
+            EventResultDTO skipped = EventResultDTO.failed(HttpStatus.FAILED_DEPENDENCY.value(), "Batch rejected by event " + e.getIndex());
+            for (int i = 0; i < requests.size(); i++) {
+                results.add(i == e.getIndex() ? failure(e.getCause()) : skipped);
+            }
+        } finally {
+            permit.release();
+        }
+        return results;
+    }
+
+    private CompletableFuture<EventResultDTO> dispatch(TransactionRequestDTO request) {
+        AdmissionPriority priority = AdmissionPriority.of(request.getType());
+        Permit permit = admission.tryAcquire(priority);
+        if (!permit.isAdmitted()) {
+            return CompletableFuture.completedFuture(rejected(priority));
+        }
+        return dispatcher.dispatchAsync(request).handle((outcome, failure) -> {
+            permit.release();
+            return null == failure ? result(outcome) : failure(failure);
+        });
+    }
+
+    private static List<EventResultDTO> join(List<CompletableFuture<EventResultDTO>> chunk) {
+        List<EventResultDTO> results = new ArrayList<>(chunk.size());
+        try {
+            for (CompletableFuture<EventResultDTO> result : chunk) {
+                results.add(result.join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return results;
+    }
+
+    private static EventResultDTO result(Outcome<TransactionResponseDTO> outcome) {
+        if (outcome.isPresent()) {
+            return EventResultDTO.created(outcome.value());
+        }
+        HttpStatus status = outcome.failure() == Outcome.Failure.NOT_FOUND ? HttpStatus.NOT_FOUND : HttpStatus.BAD_REQUEST;
+        return EventResultDTO.failed(status.value(), outcome.detail());
+    }
+
+    /**
+     * Same statuses as {@code AccountControllerAdvice} gives the exceptions; anything else fails
+     * the whole batch.
+     */
+    private static EventResultDTO failure(Throwable e) {
+        Throwable cause = e instanceof CompletionException && null != e.getCause() ? e.getCause() : e;
+        HttpStatus status;
+        if (cause instanceof AccountNotFoundException) {
+            status = HttpStatus.NOT_FOUND;
+        } else if (cause instanceof IllegalArgumentException) {
+            status = HttpStatus.BAD_REQUEST;
+        } else if (cause instanceof NotLeaderException || cause instanceof ClusterUnavailableException) {
+            status = HttpStatus.SERVICE_UNAVAILABLE;
+        } else {
+            throw cause instanceof RuntimeException runtime ? runtime : new CompletionException(cause);
+        }
+        return EventResultDTO.failed(status.value(), cause.getMessage());
+    }
+
+    /**
+     * Events turned away by admission control get the status {@code /event} would answer with.
+     */
+    private static EventResultDTO rejected(AdmissionPriority priority) {
+        HttpStatus status = priority == AdmissionPriority.CRITICAL ? HttpStatus.SERVICE_UNAVAILABLE : HttpStatus.TOO_MANY_REQUESTS;
+        return EventResultDTO.failed(status.value(), TURNED_AWAY);
+    }
+}
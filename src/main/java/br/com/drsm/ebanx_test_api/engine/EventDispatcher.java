@@ -0,0 +1,36 @@
+package br.com.drsm.ebanx_test_api.engine;
+
+import br.com.drsm.ebanx_test_api.dto.TransactionRequestDTO;
+import br.com.drsm.ebanx_test_api.dto.TransactionResponseDTO;
+import br.com.drsm.ebanx_test_api.service.Outcome;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Runs {@code /event} requests against {@code AccountService}, choosing which thread applies
+ * them. Missing origins and invalid events come back as failed {@link Outcome}s.
+ */
+public interface EventDispatcher {
+    Outcome<TransactionResponseDTO> tryDispatch(TransactionRequestDTO request);
+
+    /**
+     * Like {@link #tryDispatch}, throwing the failure as {@code AccountNotFoundException} or
+     * {@link IllegalArgumentException}.
+     */
+    default TransactionResponseDTO dispatch(TransactionRequestDTO request) {
+        return tryDispatch(request).orElseThrow();
+    }
+
+    /**
+     * Like {@link #tryDispatch}, for callers that must not block: the future completes once the
+     * event is applied and durable. Dispatchers that cannot do better run {@code tryDispatch}
+     * on the calling thread.
+     */
+    default CompletableFuture<Outcome<TransactionResponseDTO>> dispatchAsync(TransactionRequestDTO request) {
+        try {
+            return CompletableFuture.completedFuture(tryDispatch(request));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
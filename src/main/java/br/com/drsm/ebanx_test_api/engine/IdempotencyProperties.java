@@ -0,0 +1,22 @@
+package br.com.drsm.ebanx_test_api.engine;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties("ebanx.idempotency")
+public class IdempotencyProperties {
+    private boolean enabled = true;
+    /**
+     * Most results kept; the least valuable ones are evicted beyond it.
+     */
+    private long maximumSize = 100_000;
+    /**
+     * How long a result is kept after the event was applied.
+     */
+    private Duration ttl = Duration.ofMinutes(10);
+}
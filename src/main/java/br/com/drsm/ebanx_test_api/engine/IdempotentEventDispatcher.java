@@ -0,0 +1,168 @@
+package br.com.drsm.ebanx_test_api.engine;
+
+import br.com.drsm.ebanx_test_api.dto.EventType;
+import br.com.drsm.ebanx_test_api.dto.TransactionRequestDTO;
+import br.com.drsm.ebanx_test_api.dto.TransactionResponseDTO;
+import br.com.drsm.ebanx_test_api.service.Outcome;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.Getter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Applies each event carrying an idempotency key at most once: the result is kept in a bounded
+ * cache, evicted by size and age, and a retry with the same key gets it back without reaching the
+ * delegate. Events without a key go straight to the delegate.
+ * <p>
+ * The cache holds futures, so a duplicate arriving while the first request is still running
+ * waits for that execution instead of starting its own. Failed events leave nothing in the
+ * cache, since they changed nothing and can simply be retried. A retry is a plain read of
+ * Caffeine's concurrent map, so requests with different keys do not contend, and the cache's
+ * eviction work is done in small steps by the callers instead of being handed to another thread.
+ */
+public class IdempotentEventDispatcher implements EventDispatcher, Closeable {
+    public static final int MAX_KEY_LENGTH = 255;
+
+    private static final String KEY_TOO_LONG = "Idempotency keys are limited to " + MAX_KEY_LENGTH + " characters";
+
+    @Getter
+    private final EventDispatcher delegate;
+    private final AsyncCache<String, Completed> results;
+
+    public IdempotentEventDispatcher(EventDispatcher delegate, long maximumSize, Duration ttl) {
+        this.delegate = delegate;
+        this.results = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .executor(Runnable::run)
+                .buildAsync();
+    }
+
+    @Override
+    public Outcome<TransactionResponseDTO> tryDispatch(TransactionRequestDTO request) {
+        String key = request.getIdempotencyKey();
+        if (null == key) {
+            return delegate.tryDispatch(request);
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            return Outcome.invalid(KEY_TOO_LONG);
+        }
+        CompletableFuture<Completed> previous = results.getIfPresent(key);
+        CompletableFuture<Completed> execution = null;
+        if (null == previous) {
+            execution = new CompletableFuture<>();
+            previous = results.asMap().putIfAbsent(key, execution);
+        }
+        Completed completed;
+        if (null == previous) {
+            try {
+                completed = new Completed(request, delegate.tryDispatch(request));
+            } catch (RuntimeException e) {
+                execution.completeExceptionally(e);
+                throw e;
+            }
+            complete(key, execution, completed);
+            return completed.outcome();
+        }
+        try {
+            completed = previous.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return completed.outcomeFor(request, key);
+    }
+
+    /**
+     * Like {@link #dispatch}, chaining on the futures instead of joining them: a retry gets the
+     * first execution's future, and a new key starts an asynchronous dispatch of the delegate.
+     */
+    @Override
+    public CompletableFuture<Outcome<TransactionResponseDTO>> dispatchAsync(TransactionRequestDTO request) {
+        String key = request.getIdempotencyKey();
+        if (null == key) {
+            return delegate.dispatchAsync(request);
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            return CompletableFuture.completedFuture(Outcome.invalid(KEY_TOO_LONG));
+        }
+        CompletableFuture<Completed> previous = results.getIfPresent(key);
+        CompletableFuture<Completed> execution = null;
+        if (null == previous) {
+            execution = new CompletableFuture<>();
+            previous = results.asMap().putIfAbsent(key, execution);
+        }
+        if (null == previous) {
+            CompletableFuture<Completed> started = execution;
+            delegate.dispatchAsync(request).whenComplete((outcome, failure) -> {
+                if (null == failure) {
+                    complete(key, started, new Completed(request, outcome));
+                } else {
+                    started.completeExceptionally(failure instanceof CompletionException && null != failure.getCause()
+                            ? failure.getCause() : failure);
+                }
+            });
+            return started.thenApply(Completed::outcome);
+        }
+        return previous.thenApply(completed -> completed.outcomeFor(request, key));
+    }
+
+    /**
+     * Publishes the result to the duplicates waiting on it, dropping a failure from the cache so
+     * that a retry runs the event again.
+     */
+    private void complete(String key, CompletableFuture<Completed> execution, Completed completed) {
+        if (!completed.outcome().isPresent()) {
+            results.asMap().remove(key, execution);
+        }
+        execution.complete(completed);
+    }
+
+    /**
+     * Number of results currently kept.
+     */
+    public long cachedResults() {
+        return results.synchronous().estimatedSize();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (delegate instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+
+    /**
+     * Result of an applied event, with what identifies the event so that a key reused for a
+     * different one is caught.
+     */
+    private record Completed(EventType type, String origin, String destination, boolean hasAmount, double amount,
+                             Outcome<TransactionResponseDTO> outcome) {
+
+        Completed(TransactionRequestDTO request, Outcome<TransactionResponseDTO> outcome) {
+            this(request.getType(), request.getOrigin(), request.getDestination(), request.hasAmount(), request.getAmount(),
+                    outcome);
+        }
+
+        Outcome<TransactionResponseDTO> outcomeFor(TransactionRequestDTO request, String key) {
+            return matches(request) ? outcome
+                    : Outcome.invalid("Idempotency key " + key + " was used for a different event");
+        }
+
+        boolean matches(TransactionRequestDTO request) {
+            return type == request.getType()
+                    && Objects.equals(origin, request.getOrigin())
+                    && Objects.equals(destination, request.getDestination())
+                    && hasAmount == request.hasAmount()
+                    && amount == request.getAmount();
+        }
+    }
+}
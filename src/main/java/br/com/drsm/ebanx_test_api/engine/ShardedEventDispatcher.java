@@ -0,0 +1,270 @@
+package br.com.drsm.ebanx_test_api.engine;
+
+import br.com.drsm.ebanx_test_api.dto.TransactionRequestDTO;
+import br.com.drsm.ebanx_test_api.dto.TransactionResponseDTO;
+import br.com.drsm.ebanx_test_api.service.AccountService;
+import br.com.drsm.ebanx_test_api.service.DurabilityBatch;
+import br.com.drsm.ebanx_test_api.service.Outcome;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Partitions accounts into shards by id hash and applies each shard's events on a single thread
+ * fed through a lock-free {@link MpscRingBuffer}. The request thread submits the event and waits
+ * for the future its shard completes.
+ * <p>
+ * A shard never waits for the journal: it applies each event with its own
+ * {@link DurabilityBatch}, completes the event's future once that batch is durable and moves on
+ * to the next event, so with group commit the events of a shard share flushes instead of taking
+ * one each.
+ * <p>
+ * A transfer between two shards is handed off in two phases, always from the lower shard index
+ * to the higher one: the lower shard takes the event in its turn, forwards it to the higher
+ * shard and waits until that shard has applied it, not until it is durable. Both shards are then idle for everything but
+ * this transfer, so neither account can be touched by anyone else, and since a shard only ever
+ * waits on higher shards no cycle of waits can form.
+ */
+@Slf4j
+public class ShardedEventDispatcher implements EventDispatcher, Closeable {
+    private static final int SPINS = 100;
+    private static final int YIELDS = 10;
+    private static final long PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final AccountService service;
+    private final Shard[] shards;
+    private volatile boolean running = true;
+
+    public ShardedEventDispatcher(AccountService service, int shardCount, int ringSize) {
+        this.service = service;
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(i, ringSize);
+        }
+        for (Shard shard : shards) {
+            shard.thread.start();
+        }
+        log.info("Sharded event engine started with {} shards", shardCount);
+    }
+
+    @Override
+    public Outcome<TransactionResponseDTO> tryDispatch(TransactionRequestDTO request) {
+        if (null == request.getType()) {
+            return Outcome.invalid(DirectEventDispatcher.INVALID_TYPE);
+        }
+        Task task = submit(request);
+        try {
+            return task.result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Hands the event to its shard and returns the future the shard completes, so the caller
+     * never waits for the shard.
+     */
+    @Override
+    public CompletableFuture<Outcome<TransactionResponseDTO>> dispatchAsync(TransactionRequestDTO request) {
+        if (null == request.getType()) {
+            return CompletableFuture.completedFuture(Outcome.invalid(DirectEventDispatcher.INVALID_TYPE));
+        }
+        try {
+            return submit(request).result;
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private Task submit(TransactionRequestDTO request) {
+        return switch (request.getType()) {
+            case DEPOSIT -> submit(request, shardOf(request.getDestination()), -1);
+            case WITHDRAW -> submit(request, shardOf(request.getOrigin()), -1);
+            case TRANSFER -> {
+                int origin = shardOf(request.getOrigin());
+                int destination = shardOf(request.getDestination());
+                yield origin == destination
+                        ? submit(request, origin, -1)
+                        : submit(request, Math.min(origin, destination), Math.max(origin, destination));
+            }
+        };
+    }
+
+    /**
+     * Number of events waiting in the given shard's ring buffer.
+     */
+    public int queueDepth(int shard) {
+        return shards[shard].queue.size();
+    }
+
+    public int shardCount() {
+        return shards.length;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        for (Shard shard : shards) {
+            LockSupport.unpark(shard.thread);
+        }
+        for (Shard shard : shards) {
+            try {
+                shard.thread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    int shardOf(String id) {
+        if (null == id) {
+            return 0;
+        }
+        int hash = id.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), shards.length);
+    }
+
+    private Task submit(TransactionRequestDTO request, int shard, int second) {
+        if (!running) {
+            throw new IllegalStateException("Event engine is stopped");
+        }
+        Task task = new Task(request, second);
+        shards[shard].submit(task);
+        return task;
+    }
+
+    private static final class Task {
+        final TransactionRequestDTO request;
+        final CompletableFuture<Outcome<TransactionResponseDTO>> result = new CompletableFuture<>();
+        /**
+         * Completed once the event has been applied or has failed, before it is durable; the
+         * lower shard of a cross-shard transfer waits on it.
+         */
+        final CompletableFuture<Void> applied = new CompletableFuture<>();
+        /**
+         * Higher shard of a cross-shard transfer, -1 when a single shard owns the event.
+         */
+        final int second;
+        /**
+         * Set once the lower shard has handed the transfer to the higher one; published by the
+         * ring buffer.
+         */
+        boolean handedOff;
+
+        Task(TransactionRequestDTO request, int second) {
+            this.request = request;
+            this.second = second;
+        }
+
+        void fail(RuntimeException e) {
+            applied.complete(null);
+            result.completeExceptionally(e);
+        }
+    }
+
+    private final class Shard implements Runnable {
+        final MpscRingBuffer<Task> queue;
+        final Thread thread;
+        volatile boolean parked;
+
+        Shard(int index, int ringSize) {
+            this.queue = new MpscRingBuffer<>(ringSize);
+            this.thread = new Thread(this, "event-shard-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        void submit(Task task) {
+            int attempts = 0;
+            while (!queue.offer(task)) {
+                backOff(++attempts);
+            }
+            if (parked) {
+                LockSupport.unpark(thread);
+            }
+        }
+
+        @Override
+        public void run() {
+            int idle = 0;
+            while (running) {
+                Task task = queue.poll();
+                if (null == task) {
+                    idle++;
+                    if (idle > SPINS + YIELDS) {
+                        parked = true;
+                        if (queue.isEmpty() && running) {
+                            LockSupport.parkNanos(this, PARK_NANOS);
+                        }
+                        parked = false;
+                    } else {
+                        backOff(idle);
+                    }
+                    continue;
+                }
+                idle = 0;
+                if (task.second < 0 || task.handedOff) {
+                    apply(task);
+                } else if (running) {
+                    task.handedOff = true;
+                    shards[task.second].submit(task);
+                    awaitApplied(task);
+                } else {
+                    task.fail(new IllegalStateException("Event engine is stopped"));
+                }
+            }
+            drain();
+        }
+
+        private void apply(Task task) {
+            DurabilityBatch batch = service.newBatch();
+            Outcome<TransactionResponseDTO> outcome;
+            try {
+                outcome = service.tryProcess(task.request, batch);
+            } catch (RuntimeException e) {
+                task.fail(e);
+                return;
+            }
+            task.applied.complete(null);
+            if (!outcome.isPresent()) {
+                task.result.complete(outcome);
+                return;
+            }
+            batch.whenDurable().whenComplete((durable, failure) -> {
+                if (null == failure) {
+                    task.result.complete(outcome);
+                } else {
+                    task.result.completeExceptionally(failure);
+                }
+            });
+        }
+
+        private void awaitApplied(Task task) {
+            task.applied.join();
+        }
+
+        private void drain() {
+            Task task;
+            while (null != (task = queue.poll())) {
+                task.fail(new IllegalStateException("Event engine is stopped"));
+            }
+        }
+    }
+
+    private static void backOff(int attempts) {
+        if (attempts <= SPINS) {
+            Thread.onSpinWait();
+        } else if (attempts <= SPINS + YIELDS) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package br.com.drsm.ebanx_test_api.hot;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(HotAccountProperties.class)
+public class HotAccountConfiguration {
+
+    @Bean
+    public HotAccounts hotAccounts(HotAccountProperties properties) {
+        if (!properties.isEnabled()) {
+            return HotAccounts.NONE;
+        }
+        int cells = properties.getCells() > 0 ? properties.getCells() : Runtime.getRuntime().availableProcessors();
+        return new HotAccounts(properties.getThreshold(), properties.getMaxAccounts(), cells);
+    }
+}
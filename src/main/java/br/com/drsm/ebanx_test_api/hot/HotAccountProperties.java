@@ -0,0 +1,24 @@
+package br.com.drsm.ebanx_test_api.hot;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties("ebanx.hot-accounts")
+public class HotAccountProperties {
+    private boolean enabled = false;
+    /**
+     * Deposits that found an account's lock taken, within a recent window, for it to be striped.
+     */
+    private int threshold = 64;
+    /**
+     * Most accounts striped at once.
+     */
+    private int maxAccounts = 64;
+    /**
+     * Cells per striped account, 0 for one per available processor.
+     */
+    private int cells = 0;
+}
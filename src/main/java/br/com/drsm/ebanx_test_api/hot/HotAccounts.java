@@ -0,0 +1,90 @@
+package br.com.drsm.ebanx_test_api.hot;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Finds the accounts whose deposits keep finding their lock taken and gives each a
+ * {@link StripedBalance}, so that deposits to them stop queueing on the lock.
+ * <p>
+ * Contended deposits are counted in a small table indexed by id hash, halved every
+ * {@value #DECAY_EVERY} counts so that accounts that cooled down fade out. An account whose
+ * count reaches the threshold is striped until the next reset. Ids sharing a slot only make a
+ * cold account striped too, which costs nothing but a few idle cells.
+ */
+@Slf4j
+public class HotAccounts {
+    /**
+     * Never stripes anything.
+     */
+    public static final HotAccounts NONE = new HotAccounts(0, 0, 0);
+
+    private static final int SLOTS = 1 << 10;
+    private static final int DECAY_EVERY = 1 << 14;
+
+    private final int threshold;
+    private final int maxAccounts;
+    private final int cells;
+    private final AtomicIntegerArray contention = new AtomicIntegerArray(SLOTS);
+    private final AtomicLong contended = new AtomicLong();
+    private final ConcurrentMap<String, StripedBalance> striped = new ConcurrentHashMap<>();
+
+    /**
+     * @param threshold   contended deposits, give or take the decay, after which an account is striped
+     * @param maxAccounts how many accounts can be striped at once, 0 for none
+     * @param cells       cells per striped account, rounded up to a power of two
+     */
+    public HotAccounts(int threshold, int maxAccounts, int cells) {
+        this.threshold = threshold;
+        this.maxAccounts = maxAccounts;
+        this.cells = cells;
+    }
+
+    /**
+     * Pending deposits of the account, or null when it is not striped.
+     */
+    public StripedBalance get(String id) {
+        return striped.isEmpty() ? null : striped.get(id);
+    }
+
+    /**
+     * Counts a deposit that found the account locked, striping the account once it is hot.
+     */
+    public void recordContention(String id) {
+        if (0 == maxAccounts) {
+            return;
+        }
+        int slot = (id.hashCode() * 0x9E3779B9 >>> 22) & (SLOTS - 1);
+        if (contention.incrementAndGet(slot) >= threshold && striped.size() < maxAccounts) {
+            contention.set(slot, 0);
+            striped.computeIfAbsent(id, key -> {
+                log.info("Account {} is hot, striping its deposits over {} cells", key, cells);
+                return new StripedBalance(cells);
+            });
+        }
+        if (0 == contended.incrementAndGet() % DECAY_EVERY) {
+            for (int i = 0; i < SLOTS; i++) {
+                contention.set(i, contention.get(i) >> 1);
+            }
+        }
+    }
+
+    public int size() {
+        return striped.size();
+    }
+
+    /**
+     * Forgets every striped account and count, as a reset does with the accounts. Pending
+     * deposits are dropped with them.
+     */
+    public void clear() {
+        striped.clear();
+        for (int i = 0; i < SLOTS; i++) {
+            contention.set(i, 0);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package br.com.drsm.ebanx_test_api.hot;
+
+import br.com.drsm.ebanx_test_api.concurrent.Threads;
+import br.com.drsm.ebanx_test_api.store.AccountHandle;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Deposits to a hot account that have not been added to its balance yet, spread over cells so
+ * that threads depositing at once each update their own. Each cell holds the cents deposited
+ * through it, the highest journal sequence number among them and how many deposits are running
+ * through it; cells sit a cache line pair apart so that they never share one.
+ * <p>
+ * A deposit {@link #enter() enters} a cell, appends its journal entry, {@link #add adds} to the
+ * cell and {@link #exit exits}. {@link #fold} moves the cells into the account's balance while
+ * the account is locked: it raises a flag that turns new deposits away, waits for the ones
+ * running to exit, and only then reads the cells, so no deposit is ever half folded.
+ */
+public final class StripedBalance {
+    private static final int STRIDE = 16;
+    private static final int VALUE = 0;
+    private static final int MAX_SEQ = 1;
+    private static final int IN_FLIGHT = 2;
+
+    private final AtomicLongArray cells;
+    private final int mask;
+    private volatile boolean folding;
+
+    StripedBalance(int cellCount) {
+        int size = Integer.highestOneBit(Math.max(1, cellCount - 1)) << 1;
+        cells = new AtomicLongArray(size * STRIDE);
+        mask = size - 1;
+    }
+
+    /**
+     * Takes the calling thread's cell for one deposit, or returns -1 while the cells are being
+     * folded, in which case the deposit goes through the account's lock instead.
+     */
+    public int enter() {
+        int cell = cellOf(Thread.currentThread()) * STRIDE;
+        cells.getAndIncrement(cell + IN_FLIGHT);
+        if (folding) {
+            cells.getAndDecrement(cell + IN_FLIGHT);
+            return -1;
+        }
+        return cell;
+    }
+
+    public void add(int cell, long cents, long seq) {
+        cells.getAndAdd(cell + VALUE, cents);
+        long max = cells.get(cell + MAX_SEQ);
+        while (seq > max && !cells.compareAndSet(cell + MAX_SEQ, max, seq)) {
+            max = cells.get(cell + MAX_SEQ);
+        }
+    }
+
+    public void exit(int cell) {
+        cells.getAndDecrement(cell + IN_FLIGHT);
+    }
+
+    /**
+     * Cents deposited and not folded yet. Deposits running alongside may or may not be included.
+     */
+    public long sum() {
+        long sum = 0;
+        for (int cell = 0; cell < cells.length(); cell += STRIDE) {
+            sum += cells.get(cell + VALUE);
+        }
+        return sum;
+    }
+
+    /**
+     * Credits the account with everything deposited through the cells and empties them. The
+     * account must be locked by the caller. Returns whether anything was moved.
+     */
+    public boolean fold(AccountHandle account) {
+        folding = true;
+        try {
+            long cents = 0;
+            long maxSeq = 0;
+            for (int cell = 0; cell < cells.length(); cell += STRIDE) {
+                while (0 != cells.get(cell + IN_FLIGHT)) {
+                    Thread.onSpinWait();
+                }
+                cents += cells.get(cell + VALUE);
+                maxSeq = Math.max(maxSeq, cells.get(cell + MAX_SEQ));
+                cells.set(cell + VALUE, 0);
+                cells.set(cell + MAX_SEQ, 0);
+            }
+            if (0 == cents && 0 == maxSeq) {
+                return false;
+            }
+            account.credit(cents);
+            account.setLastSeq(Math.max(account.getLastSeq(), maxSeq));
+            return true;
+        } finally {
+            folding = false;
+        }
+    }
+
+    int cellCount() {
+        return mask + 1;
+    }
+
+    private int cellOf(Thread thread) {
+        long id = Threads.idOf(thread) * 0x9E3779B97F4A7C15L;
+        return (int) (id >>> 32) & mask;
+    }
+}
@@ -0,0 +1,140 @@
+package br.com.drsm.ebanx_test_api.io;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Binary encoding of account ids shared by the journal and snapshot files: a short byte count,
+ * -1 for a null id, followed by the UTF-8 bytes. Ids are encoded straight into the buffer
+ * without an intermediate byte array.
+ */
+public final class BinaryIds {
+    public static final int MAX_ID_LENGTH = 1024;
+    /**
+     * Largest encoded size of an id of at most {@link #MAX_ID_LENGTH} chars.
+     */
+    public static final int MAX_ENCODED_SIZE = Short.BYTES + 3 * MAX_ID_LENGTH;
+
+    private BinaryIds() {
+    }
+
+    public static void checkLength(String id) {
+        if (null != id && id.length() > MAX_ID_LENGTH) {
+            throw new IllegalArgumentException("Account id longer than " + MAX_ID_LENGTH + " characters");
+        }
+    }
+
+    public static void put(ByteBuffer buffer, String id) {
+        buffer.position(buffer.position() + put(buffer, buffer.position(), id));
+    }
+
+    /**
+     * Writes the id at the given index without moving the buffer's position, returning the
+     * number of bytes written.
+     */
+    public static int put(ByteBuffer buffer, int index, String id) {
+        if (null == id) {
+            buffer.putShort(index, (short) -1);
+            return Short.BYTES;
+        }
+        int at = index + Short.BYTES;
+        for (int i = 0; i < id.length(); i++) {
+            int c = id.codePointAt(i);
+            if (Character.isSupplementaryCodePoint(c)) {
+                i++;
+            }
+            if (c < 0x80) {
+                buffer.put(at++, (byte) c);
+            } else if (c < 0x800) {
+                buffer.put(at++, (byte) (0xC0 | (c >> 6)));
+                buffer.put(at++, (byte) (0x80 | (c & 0x3F)));
+            } else if (c < 0x10000) {
+                buffer.put(at++, (byte) (0xE0 | (c >> 12)));
+                buffer.put(at++, (byte) (0x80 | ((c >> 6) & 0x3F)));
+                buffer.put(at++, (byte) (0x80 | (c & 0x3F)));
+            } else {
+                buffer.put(at++, (byte) (0xF0 | (c >> 18)));
+                buffer.put(at++, (byte) (0x80 | ((c >> 12) & 0x3F)));
+                buffer.put(at++, (byte) (0x80 | ((c >> 6) & 0x3F)));
+                buffer.put(at++, (byte) (0x80 | (c & 0x3F)));
+            }
+        }
+        buffer.putShort(index, (short) (at - index - Short.BYTES));
+        return at - index;
+    }
+
+    /**
+     * Number of bytes {@link #put} writes for the id.
+     */
+    public static int encodedSize(String id) {
+        if (null == id) {
+            return Short.BYTES;
+        }
+        int size = Short.BYTES;
+        for (int i = 0; i < id.length(); i++) {
+            char c = id.charAt(i);
+            if (c < 0x80) {
+                size++;
+            } else if (c < 0x800) {
+                size += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < id.length() && Character.isLowSurrogate(id.charAt(i + 1))) {
+                size += 4;
+                i++;
+            } else {
+                size += 3;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Whether the id encoded at the given index is the given one, compared without decoding it.
+     */
+    public static boolean matches(ByteBuffer buffer, int index, String id) {
+        int length = buffer.getShort(index);
+        int at = index + Short.BYTES;
+        int end = at + length;
+        for (int i = 0; i < id.length(); i++) {
+            char c = id.charAt(i);
+            if (c >= 0x80) {
+                return id.equals(get(buffer, index, new byte[length]));
+            }
+            if (at == end || buffer.get(at++) != c) {
+                return false;
+            }
+        }
+        return at == end;
+    }
+
+    /**
+     * Reads an id, using {@code scratch} (at least {@link #MAX_ENCODED_SIZE} bytes) when the
+     * buffer has no accessible array.
+     */
+    public static String get(ByteBuffer buffer, byte[] scratch) {
+        short length = buffer.getShort();
+        if (length < 0) {
+            return null;
+        }
+        String id;
+        if (buffer.hasArray()) {
+            id = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+        } else {
+            buffer.get(scratch, 0, length);
+            id = new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+        return id;
+    }
+
+    /**
+     * Reads the id at the given index without moving the buffer's position.
+     */
+    public static String get(ByteBuffer buffer, int index, byte[] scratch) {
+        short length = buffer.getShort(index);
+        if (length < 0) {
+            return null;
+        }
+        buffer.get(index + Short.BYTES, scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,21 @@
+package br.com.drsm.ebanx_test_api.journal;
+
+/**
+ * When an accepted event is considered durable, and therefore when its request may return.
+ */
+public enum DurabilityMode {
+    /**
+     * Every event is written and fsynced on its own before the request returns.
+     */
+    FSYNC,
+    /**
+     * The request waits for an fsync covering its event, and every request waiting at the same
+     * time shares that fsync (group commit).
+     */
+    GROUP,
+    /**
+     * The request returns as soon as the event is buffered; a background task writes and fsyncs
+     * the journal every flush interval, so a crash may lose the most recent events.
+     */
+    ASYNC
+}
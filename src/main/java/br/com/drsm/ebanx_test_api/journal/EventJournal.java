@@ -0,0 +1,81 @@
+package br.com.drsm.ebanx_test_api.journal;
+
+import java.io.Closeable;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Append-only log of the events accepted by {@code AccountService}.
+ * <p>
+ * Events are appended while the accounts they touch are locked, so the journal order matches
+ * the order in which each account saw them, and callers then wait for durability outside the
+ * locks with {@link #awaitDurable(long)}.
+ */
+public interface EventJournal extends Closeable {
+
+    /**
+     * Journal used when persistence is disabled: nothing is written and everything is durable.
+     */
+    EventJournal NONE = new EventJournal() {
+        @Override
+        public long append(JournalEntryType type, String origin, String destination, long amount) {
+            return 0;
+        }
+
+        @Override
+        public void awaitDurable(long seq) {
+        }
+
+        @Override
+        public JournalPosition position() {
+            return JournalPosition.START;
+        }
+
+        @Override
+        public void recover(JournalPosition from, Consumer<JournalRecord> consumer) {
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    /**
+     * Buffers an entry and returns its sequence number. Amounts are in cents.
+     */
+    long append(JournalEntryType type, String origin, String destination, long amount);
+
+    /**
+     * Blocks until the entry with the given sequence number is as durable as the configured
+     * {@link DurabilityMode} requires.
+     */
+    void awaitDurable(long seq);
+
+    /**
+     * Completes once the entry with the given sequence number is as durable as
+     * {@link #awaitDurable(long)} would wait for, without blocking the caller. Journals that
+     * cannot wait asynchronously wait before returning.
+     */
+    default CompletableFuture<Void> whenDurable(long seq) {
+        awaitDurable(seq);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Position right after the last appended entry.
+     */
+    JournalPosition position();
+
+    /**
+     * Feeds every valid entry stored after {@code from} to the consumer in order and positions
+     * the journal for appending after the last one. Must be called once, before the first append.
+     */
+    void recover(JournalPosition from, Consumer<JournalRecord> consumer);
+
+    default void recover(Consumer<JournalRecord> consumer) {
+        recover(JournalPosition.START, consumer);
+    }
+
+    @Override
+    void close();
+}
@@ -0,0 +1,375 @@
+package br.com.drsm.ebanx_test_api.journal;
+
+import br.com.drsm.ebanx_test_api.io.BinaryIds;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * {@link EventJournal} kept in a single file.
+ * <p>
+ * Each entry is stored as {@code [int length][long seq][byte type][long amount][origin][destination][int crc32c]},
+ * ids being a short byte count (-1 for null) followed by their UTF-8 bytes. Entries are encoded
+ * into an in-memory buffer and written to the file when it fills up or when the journal is
+ * flushed; recovery stops at the first torn or corrupted entry and truncates the file there.
+ * <p>
+ * {@link #whenDurable(long)} queues a future instead of blocking: a single syncer thread
+ * flushes while futures are waiting and completes every one the fsync covered, so asynchronous
+ * callers share fsyncs the same way blocked ones do.
+ */
+@Slf4j
+public class FileEventJournal implements EventJournal {
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final int FIXED_BODY_SIZE = Long.BYTES + Byte.BYTES + Long.BYTES + 2 * Short.BYTES;
+    private static final int MAX_RECORD_SIZE = Integer.BYTES + FIXED_BODY_SIZE + 2 * BinaryIds.MAX_ENCODED_SIZE + Integer.BYTES;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final DurabilityMode durability;
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final CRC32C crc = new CRC32C();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Condition flushed = flushLock.newCondition();
+    private final ScheduledExecutorService flusher;
+    private final PriorityQueue<PendingSync> pendingSyncs = new PriorityQueue<>(Comparator.comparingLong(PendingSync::seq));
+    private ExecutorService syncer;
+    private boolean syncScheduled;
+    private long lastSeq;
+    private volatile long durableSeq;
+    private boolean flushing;
+    private boolean recovered;
+
+    public FileEventJournal(Path path, DurabilityMode durability, Duration flushInterval) {
+        this.path = path;
+        this.durability = durability;
+        try {
+            if (null != path.getParent()) {
+                Files.createDirectories(path.getParent());
+            }
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open journal " + path, e);
+        }
+        if (durability == DurabilityMode.ASYNC) {
+            flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "journal-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long interval = Math.max(1, flushInterval.toMillis());
+            flusher.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+        } else {
+            flusher = null;
+        }
+    }
+
+    @Override
+    public long append(JournalEntryType type, String origin, String destination, long amount) {
+        BinaryIds.checkLength(origin);
+        BinaryIds.checkLength(destination);
+        appendLock.lock();
+        try {
+            if (!recovered) {
+                throw new IllegalStateException("Journal " + path + " must be recovered before appending");
+            }
+            if (buffer.remaining() < MAX_RECORD_SIZE) {
+                writeBufferLocked();
+            }
+            long seq = ++lastSeq;
+            int start = buffer.position();
+            buffer.position(start + Integer.BYTES);
+            buffer.putLong(seq).put(type.code()).putLong(amount);
+            BinaryIds.put(buffer, origin);
+            BinaryIds.put(buffer, destination);
+            int end = buffer.position();
+            buffer.putInt(start, end - start - Integer.BYTES);
+            buffer.limit(end).position(start + Integer.BYTES);
+            crc.reset();
+            crc.update(buffer);
+            buffer.limit(buffer.capacity());
+            buffer.putInt((int) crc.getValue());
+            if (durability == DurabilityMode.FSYNC) {
+                writeBufferLocked();
+                channel.force(false);
+                durableSeq = seq;
+            }
+            return seq;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot append to journal " + path, e);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    @Override
+    public void awaitDurable(long seq) {
+        if (durability == DurabilityMode.ASYNC || durableSeq >= seq) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            while (durableSeq < seq) {
+                if (flushing) {
+                    flushed.awaitUninterruptibly();
+                    continue;
+                }
+                flushing = true;
+                flushLock.unlock();
+                try {
+                    flush();
+                } finally {
+                    flushLock.lock();
+                    flushing = false;
+                    flushed.signalAll();
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> whenDurable(long seq) {
+        if (durability == DurabilityMode.ASYNC || durableSeq >= seq) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        flushLock.lock();
+        try {
+            pendingSyncs.add(new PendingSync(seq, future));
+            if (!syncScheduled) {
+                syncScheduled = true;
+                if (null == syncer) {
+                    syncer = Executors.newSingleThreadExecutor(r -> {
+                        Thread thread = new Thread(r, "journal-syncer");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                }
+                syncer.execute(this::syncPending);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+        return future;
+    }
+
+    /**
+     * Flushes until no future is waiting, taking turns with blocked callers through the same
+     * {@code flushing} flag, and completes the futures outside the lock.
+     */
+    private void syncPending() {
+        while (true) {
+            List<PendingSync> completed = new ArrayList<>();
+            RuntimeException failure = null;
+            boolean more;
+            flushLock.lock();
+            try {
+                while (flushing) {
+                    flushed.awaitUninterruptibly();
+                }
+                if (!pendingSyncs.isEmpty() && durableSeq < pendingSyncs.peek().seq()) {
+                    flushing = true;
+                    flushLock.unlock();
+                    try {
+                        flush();
+                    } catch (RuntimeException e) {
+                        failure = e;
+                    } finally {
+                        flushLock.lock();
+                        flushing = false;
+                        flushed.signalAll();
+                    }
+                }
+                while (!pendingSyncs.isEmpty() && (null != failure || pendingSyncs.peek().seq() <= durableSeq)) {
+                    completed.add(pendingSyncs.poll());
+                }
+                more = !pendingSyncs.isEmpty();
+                syncScheduled = more;
+            } finally {
+                flushLock.unlock();
+            }
+            for (PendingSync sync : completed) {
+                if (null == failure) {
+                    sync.future().complete(null);
+                } else {
+                    sync.future().completeExceptionally(failure);
+                }
+            }
+            if (!more) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Writes everything appended so far and fsyncs it. The write happens under the append lock,
+     * which keeps the file in sequence order, but the fsync does not, so appends keep going
+     * while it runs.
+     */
+    public void flush() {
+        try {
+            long upTo;
+            appendLock.lock();
+            try {
+                upTo = lastSeq;
+                writeBufferLocked();
+            } finally {
+                appendLock.unlock();
+            }
+            channel.force(false);
+            if (upTo > durableSeq) {
+                durableSeq = upTo;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot flush journal " + path, e);
+        }
+    }
+
+    @Override
+    public JournalPosition position() {
+        appendLock.lock();
+        try {
+            return new JournalPosition(lastSeq, channel.position() + buffer.position());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read position of journal " + path, e);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    @Override
+    public void recover(JournalPosition from, Consumer<JournalRecord> consumer) {
+        appendLock.lock();
+        try {
+            lastSeq = from.seq();
+            if (from.offset() > channel.size()) {
+                log.warn("Journal {} ends before offset {}, nothing to replay", path, from.offset());
+                from = new JournalPosition(from.seq(), channel.size());
+            }
+            long validEnd = replay(from.offset(), consumer);
+            if (validEnd < channel.size()) {
+                log.warn("Truncating journal {} from {} to {} bytes after a torn or corrupted entry", path, channel.size(), validEnd);
+                channel.truncate(validEnd);
+            }
+            channel.position(validEnd);
+            durableSeq = lastSeq;
+            recovered = true;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot recover journal " + path, e);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (null != flusher) {
+            flusher.shutdown();
+        }
+        flushLock.lock();
+        try {
+            if (null != syncer) {
+                syncer.shutdown();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+        try {
+            if (recovered) {
+                flush();
+            }
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot close journal " + path, e);
+        }
+    }
+
+    private long replay(long offset, Consumer<JournalRecord> consumer) throws IOException {
+        ByteBuffer in = ByteBuffer.allocate(BUFFER_SIZE).flip();
+        JournalRecord record = new JournalRecord();
+        CRC32C check = new CRC32C();
+        long filePosition = offset;
+        long validEnd = offset;
+        boolean eof = false;
+        while (true) {
+            if (!eof && in.remaining() < MAX_RECORD_SIZE) {
+                in.compact();
+                int read;
+                while (in.hasRemaining() && (read = channel.read(in, filePosition)) > 0) {
+                    filePosition += read;
+                }
+                eof = in.hasRemaining();
+                in.flip();
+            }
+            if (in.remaining() < Integer.BYTES) {
+                return validEnd;
+            }
+            int start = in.position();
+            int length = in.getInt(start);
+            if (length < FIXED_BODY_SIZE || length > MAX_RECORD_SIZE || in.remaining() < Integer.BYTES + length + Integer.BYTES) {
+                return validEnd;
+            }
+            int bodyStart = start + Integer.BYTES;
+            int bodyEnd = bodyStart + length;
+            int dataLimit = in.limit();
+            check.reset();
+            check.update(in.limit(bodyEnd).position(bodyStart));
+            in.limit(dataLimit);
+            if ((int) check.getValue() != in.getInt(bodyEnd)) {
+                return validEnd;
+            }
+            in.position(bodyStart);
+            long seq = in.getLong();
+            JournalEntryType type = JournalEntryType.of(in.get());
+            long amount = in.getLong();
+            String origin = BinaryIds.get(in, null);
+            String destination = BinaryIds.get(in, null);
+            in.position(bodyEnd + Integer.BYTES);
+            record.set(seq, type, origin, destination, amount);
+            consumer.accept(record);
+            lastSeq = seq;
+            validEnd += Integer.BYTES + length + Integer.BYTES;
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Background flush of journal {} failed", path, e);
+        }
+    }
+
+    private record PendingSync(long seq, CompletableFuture<Void> future) {
+    }
+
+    private void writeBufferLocked() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,32 @@
+package br.com.drsm.ebanx_test_api.journal;
+
+import br.com.drsm.ebanx_test_api.replication.ReplicationLog;
+import br.com.drsm.ebanx_test_api.replication.ReplicationProperties;
+import br.com.drsm.ebanx_test_api.replication.ReplicationRole;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Slf4j
+@Configuration
+@EnableConfigurationProperties({JournalProperties.class, ReplicationProperties.class})
+public class JournalConfiguration {
+
+    /**
+     * With replication on, the journal is wrapped in the {@link ReplicationLog} followers stream
+     * from. Followers keep no journal of their own: what they apply comes from their leader.
+     */
+    @Bean
+    public EventJournal eventJournal(JournalProperties properties, ReplicationProperties replication) {
+        EventJournal journal = EventJournal.NONE;
+        if (properties.isEnabled()) {
+            if (replication.isEnabled() && replication.getRole() == ReplicationRole.FOLLOWER) {
+                log.info("Replication followers do not journal, ignoring ebanx.journal.enabled");
+            } else {
+                journal = new FileEventJournal(properties.getPath(), properties.getDurability(), properties.getFlushInterval());
+            }
+        }
+        return replication.isEnabled() ? new ReplicationLog(journal, replication.getLogCapacity()) : journal;
+    }
+}
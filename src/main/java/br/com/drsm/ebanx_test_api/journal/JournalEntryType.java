@@ -0,0 +1,58 @@
+package br.com.drsm.ebanx_test_api.journal;
+
+/**
+ * Kinds of journal entries, with the byte each one is stored as.
+ */
+public enum JournalEntryType {
+    DEPOSIT(1),
+    WITHDRAW(2),
+    TRANSFER(3),
+    RESET(4),
+    /**
+     * Sets the destination's balance to the amount, as done by account imports.
+     */
+    IMPORT(5),
+    /**
+     * Debits the origin for a transfer to an account kept by another cluster node; the
+     * destination holds the transfer's id instead of an account.
+     */
+    TRANSFER_OUT(6),
+    /**
+     * Credits the destination for a transfer from an account kept by another cluster node; the
+     * origin holds the transfer's id instead of an account.
+     */
+    TRANSFER_IN(7),
+    /**
+     * A transfer between two other cluster nodes that this node has started, written before
+     * the origin is debited. Its id is the epoch in force and the entry's sequence number.
+     */
+    TRANSFER_PENDING(8),
+    /**
+     * Closes the pending transfer whose id is held by the origin, once credited or refused.
+     */
+    TRANSFER_SETTLED(9),
+    /**
+     * Starts a cluster node's epoch, the amount, under which its pending transfers are numbered.
+     */
+    CLUSTER_EPOCH(10);
+
+    private static final JournalEntryType[] BY_CODE = {null, DEPOSIT, WITHDRAW, TRANSFER, RESET, IMPORT,
+            TRANSFER_OUT, TRANSFER_IN, TRANSFER_PENDING, TRANSFER_SETTLED, CLUSTER_EPOCH};
+
+    private final byte code;
+
+    JournalEntryType(int code) {
+        this.code = (byte) code;
+    }
+
+    public byte code() {
+        return code;
+    }
+
+    public static JournalEntryType of(byte code) {
+        if (code <= 0 || code >= BY_CODE.length) {
+            throw new IllegalArgumentException("Invalid journal entry type: " + code);
+        }
+        return BY_CODE[code];
+    }
+}
@@ -0,0 +1,9 @@
+package br.com.drsm.ebanx_test_api.journal;
+
+/**
+ * A point in the journal: every entry with a sequence number up to {@code seq} is stored before
+ * byte {@code offset}, and every later entry after it.
+ */
+public record JournalPosition(long seq, long offset) {
+    public static final JournalPosition START = new JournalPosition(0, 0);
+}
@@ -0,0 +1,24 @@
+package br.com.drsm.ebanx_test_api.journal;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties("ebanx.journal")
+public class JournalProperties {
+    /**
+     * Whether accepted events are journaled and replayed on startup.
+     */
+    private boolean enabled = false;
+    private Path path = Path.of("data", "events.journal");
+    private DurabilityMode durability = DurabilityMode.GROUP;
+    /**
+     * How often the journal is written and fsynced in {@link DurabilityMode#ASYNC} mode.
+     */
+    private Duration flushInterval = Duration.ofMillis(10);
+}
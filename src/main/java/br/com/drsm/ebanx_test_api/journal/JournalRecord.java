@@ -0,0 +1,28 @@
+package br.com.drsm.ebanx_test_api.journal;
+
+import lombok.Getter;
+
+/**
+ * A decoded journal entry. Replay reuses one instance for every entry, so consumers must copy
+ * what they need to keep.
+ */
+@Getter
+public class JournalRecord {
+    private long seq;
+    private JournalEntryType type;
+    private String origin;
+    private String destination;
+    private long amount;
+
+    /**
+     * Fills the record, for entries that come from somewhere other than the journal file, such
+     * as a replication stream.
+     */
+    public void set(long seq, JournalEntryType type, String origin, String destination, long amount) {
+        this.seq = seq;
+        this.type = type;
+        this.origin = origin;
+        this.destination = destination;
+        this.amount = amount;
+    }
+}
@@ -0,0 +1,354 @@
+package br.com.drsm.ebanx_test_api.ledger;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@link TransactionLedger} kept in memory as columns: entries are appended to chunks of
+ * primitive arrays, one per field, so an entry costs about 33 bytes and no object. Each account
+ * has an index of the positions of its entries, in time order since timestamps only grow, which
+ * range queries binary search for their start and then read in sequence.
+ * <p>
+ * Accounts are spread by hash over a stripe per processor, each with its own entries and append
+ * lock, so appends for accounts of different stripes do not wait for each other and an append
+ * holds its stripe for a few array writes. Queries take no lock: an account's index
+ * publishes its entry count after the entry is written, and a reader only looks at the entries
+ * it counted. Timestamps are microseconds since the epoch, never going back, and moved forward
+ * within an account when its clock has not, so an account's timestamps are unique and a page can
+ * start right after the last entry of the previous one. Both sides of a transfer usually share
+ * theirs when they fall in the same stripe.
+ * <p>
+ * Balances at a point in time come from the balance each entry left. To find the entry, every
+ * {@code checkpointEvery}-th entry of an account is copied with its timestamp into a compact
+ * per-account checkpoint array by {@link #checkpoint()}, which runs in the background and only
+ * looks at what each account added since its last pass. A query binary searches the checkpoints,
+ * then the few entries between two of them; entries not checkpointed yet are searched the same
+ * way, just over a longer stretch.
+ */
+public class ColumnarTransactionLedger implements TransactionLedger {
+    private static final int CHUNK_BITS = 16;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int MIN_INDEX_CAPACITY = 4;
+    public static final int DEFAULT_CHECKPOINT_EVERY = 64;
+
+    private final Clock clock;
+    private final int checkpointEvery;
+    private final Stripe[] stripes;
+
+    public ColumnarTransactionLedger() {
+        this(Clock.systemUTC(), DEFAULT_CHECKPOINT_EVERY);
+    }
+
+    public ColumnarTransactionLedger(Clock clock) {
+        this(clock, DEFAULT_CHECKPOINT_EVERY);
+    }
+
+    public ColumnarTransactionLedger(Clock clock, int checkpointEvery) {
+        this(clock, checkpointEvery, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param stripeCount rounded up to a power of two
+     */
+    ColumnarTransactionLedger(Clock clock, int checkpointEvery, int stripeCount) {
+        if (checkpointEvery <= 0) {
+            throw new IllegalArgumentException("checkpointEvery must be positive");
+        }
+        this.clock = clock;
+        this.checkpointEvery = checkpointEvery;
+        this.stripes = new Stripe[stripeCount <= 1 ? 1 : Integer.highestOneBit(stripeCount - 1) << 1];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    @Override
+    public void record(String account, LedgerEntryType type, String counterparty, long amount, long balance) {
+        Stripe stripe = stripeOf(account);
+        stripe.lock.lock();
+        try {
+            stripe.entries.append(account, type, counterparty, amount, balance, now());
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean contains(String account) {
+        Index index = stripeOf(account).entries.accounts.get(account);
+        return null != index && index.count > 0;
+    }
+
+    @Override
+    public int history(String account, long from, long to, int limit, LedgerVisitor visitor) {
+        Entries current = stripeOf(account).entries;
+        Index index = current.accounts.get(account);
+        if (null == index) {
+            return 0;
+        }
+        int count = index.count;
+        int[] positions = index.positions;
+        Chunk[] chunks = current.chunks;
+        String[] names = current.names;
+        int visited = 0;
+        for (int i = firstFrom(chunks, positions, count, from); i < count && visited < limit; i++) {
+            int position = positions[i];
+            Chunk chunk = chunks[position >>> CHUNK_BITS];
+            int at = position & (CHUNK_SIZE - 1);
+            long timestamp = chunk.timestamps[at];
+            if (timestamp > to) {
+                break;
+            }
+            int counterparty = chunk.counterparties[at];
+            visitor.visit(timestamp, LedgerEntryType.of(chunk.types[at]), counterparty < 0 ? null : names[counterparty],
+                    chunk.amounts[at], chunk.balances[at]);
+            visited++;
+        }
+        return visited;
+    }
+
+    @Override
+    public long balanceAt(String account, long at, long otherwise) {
+        Entries current = stripeOf(account).entries;
+        Index index = current.accounts.get(account);
+        if (null == index) {
+            return otherwise;
+        }
+        int checkpointCount = index.checkpointCount;
+        long[] checkpoints = index.checkpoints;
+        int count = index.count;
+        int[] positions = index.positions;
+        Chunk[] chunks = current.chunks;
+        if (count == 0) {
+            return otherwise;
+        }
+        int passed = 0;
+        int high = checkpointCount;
+        while (passed < high) {
+            int middle = (passed + high) >>> 1;
+            if (checkpoints[2 * middle] <= at) {
+                passed = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        int from = passed == 0 ? 0 : checkpointEntry(passed - 1);
+        int to = passed < checkpointCount ? checkpointEntry(passed) : count;
+        int last = (at == Long.MAX_VALUE ? to : firstFrom(chunks, positions, from, to, at + 1)) - 1;
+        if (last < 0) {
+            int position = positions[0];
+            Chunk chunk = chunks[position >>> CHUNK_BITS];
+            int offset = position & (CHUNK_SIZE - 1);
+            return chunk.balances[offset] - chunk.amounts[offset];
+        }
+        if (passed > 0 && last == from) {
+            return checkpoints[2 * (passed - 1) + 1];
+        }
+        int position = positions[last];
+        return chunks[position >>> CHUNK_BITS].balances[position & (CHUNK_SIZE - 1)];
+    }
+
+    /**
+     * Extends the checkpoints of every account that has grown by a full interval since the last
+     * pass. Only one pass should run at a time.
+     */
+    @Override
+    public void checkpoint() {
+        for (Stripe stripe : stripes) {
+            checkpoint(stripe.entries);
+        }
+    }
+
+    private void checkpoint(Entries current) {
+        for (Index index : current.accounts.values()) {
+            int count = index.count;
+            int next = checkpointEntry(index.checkpointCount);
+            if (next >= count) {
+                continue;
+            }
+            int[] positions = index.positions;
+            Chunk[] chunks = current.chunks;
+            for (; next < count; next += checkpointEvery) {
+                int position = positions[next];
+                Chunk chunk = chunks[position >>> CHUNK_BITS];
+                int offset = position & (CHUNK_SIZE - 1);
+                index.addCheckpoint(chunk.timestamps[offset], chunk.balances[offset]);
+            }
+        }
+    }
+
+    /**
+     * Starts over with no entries; queries already running finish on the old ones.
+     */
+    @Override
+    public void clear() {
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                stripe.entries = new Entries();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Number of entries of every account.
+     */
+    public long size() {
+        long size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.entries.size;
+        }
+        return size;
+    }
+
+    private Stripe stripeOf(String account) {
+        int hash = account.hashCode();
+        return stripes[(hash ^ hash >>> 16) & (stripes.length - 1)];
+    }
+
+    private long now() {
+        Instant now = clock.instant();
+        return now.getEpochSecond() * 1_000_000 + now.getNano() / 1_000;
+    }
+
+    /**
+     * Position in the account's entries of its {@code checkpoint}-th checkpoint.
+     */
+    private int checkpointEntry(int checkpoint) {
+        return checkpoint * checkpointEvery;
+    }
+
+    private static int firstFrom(Chunk[] chunks, int[] positions, int count, long from) {
+        return firstFrom(chunks, positions, 0, count, from);
+    }
+
+    /**
+     * Index in {@code positions}, between {@code low} and {@code high}, of the first entry
+     * timestamped {@code from} or later.
+     */
+    private static int firstFrom(Chunk[] chunks, int[] positions, int low, int high, long from) {
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int position = positions[middle];
+            if (chunks[position >>> CHUNK_BITS].timestamps[position & (CHUNK_SIZE - 1)] < from) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static final class Chunk {
+        final long[] timestamps = new long[CHUNK_SIZE];
+        final byte[] types = new byte[CHUNK_SIZE];
+        final int[] counterparties = new int[CHUNK_SIZE];
+        final long[] amounts = new long[CHUNK_SIZE];
+        final long[] balances = new long[CHUNK_SIZE];
+    }
+
+    /**
+     * Positions of one account's entries. Also numbers the account, so that entries can refer to
+     * it as a counterparty with an int.
+     */
+    private static final class Index {
+        final int number;
+        volatile int[] positions = new int[MIN_INDEX_CAPACITY];
+        volatile int count;
+        long lastTimestamp = Long.MIN_VALUE;
+        /**
+         * {@code [timestamp, balance]} pairs of every {@code checkpointEvery}-th entry, written by
+         * {@link #checkpoint()} alone.
+         */
+        volatile long[] checkpoints = new long[0];
+        volatile int checkpointCount;
+
+        Index(int number) {
+            this.number = number;
+        }
+
+        void add(int position) {
+            int[] current = positions;
+            if (count == current.length) {
+                current = Arrays.copyOf(current, current.length * 2);
+                positions = current;
+            }
+            current[count] = position;
+            count = count + 1;
+        }
+
+        void addCheckpoint(long timestamp, long balance) {
+            long[] current = checkpoints;
+            int at = 2 * checkpointCount;
+            if (at == current.length) {
+                current = Arrays.copyOf(current, Math.max(2 * MIN_INDEX_CAPACITY, current.length * 2));
+                checkpoints = current;
+            }
+            current[at] = timestamp;
+            current[at + 1] = balance;
+            checkpointCount = checkpointCount + 1;
+        }
+    }
+
+    private static final class Stripe {
+        final ReentrantLock lock = new ReentrantLock();
+        volatile Entries entries = new Entries();
+    }
+
+    /**
+     * Every entry and index of a stripe; replaced as a whole on {@link #clear()}. Only changed
+     * under the stripe's lock.
+     */
+    private static final class Entries {
+        final Map<String, Index> accounts = new ConcurrentHashMap<>();
+        volatile Chunk[] chunks = new Chunk[0];
+        volatile String[] names = new String[16];
+        volatile int size;
+        int accountCount;
+        long lastTimestamp;
+
+        void append(String account, LedgerEntryType type, String counterparty, long amount, long balance, long now) {
+            int position = size;
+            if (position == Integer.MAX_VALUE) {
+                throw new IllegalStateException("Transaction ledger is full");
+            }
+            Index index = index(account);
+            int other = null == counterparty ? -1 : index(counterparty).number;
+            if ((position >>> CHUNK_BITS) == chunks.length) {
+                Chunk[] grown = Arrays.copyOf(chunks, chunks.length + 1);
+                grown[chunks.length] = new Chunk();
+                chunks = grown;
+            }
+            Chunk chunk = chunks[position >>> CHUNK_BITS];
+            int at = position & (CHUNK_SIZE - 1);
+            lastTimestamp = Math.max(now, lastTimestamp);
+            index.lastTimestamp = Math.max(lastTimestamp, index.lastTimestamp + 1);
+            chunk.timestamps[at] = index.lastTimestamp;
+            chunk.types[at] = (byte) type.ordinal();
+            chunk.counterparties[at] = other;
+            chunk.amounts[at] = amount;
+            chunk.balances[at] = balance;
+            index.add(position);
+            size = position + 1;
+        }
+
+        private Index index(String account) {
+            Index index = accounts.get(account);
+            if (null == index) {
+                if (accountCount == names.length) {
+                    names = Arrays.copyOf(names, names.length * 2);
+                }
+                names[accountCount] = account;
+                index = new Index(accountCount++);
+                accounts.put(account, index);
+            }
+            return index;
+        }
+    }
+}
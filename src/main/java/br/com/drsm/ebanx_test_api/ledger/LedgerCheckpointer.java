@@ -0,0 +1,54 @@
+package br.com.drsm.ebanx_test_api.ledger;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Brings the ledger checkpoints up to date every {@code ebanx.ledger.checkpoint-interval} on a
+ * background thread. Events keep being recorded meanwhile; the ledger's append lock is never
+ * taken.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "ebanx.ledger.enabled", havingValue = "true", matchIfMissing = true)
+public class LedgerCheckpointer {
+    private final TransactionLedger ledger;
+    private final LedgerProperties properties;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "ledger-checkpoint");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public LedgerCheckpointer(TransactionLedger ledger, LedgerProperties properties) {
+        this.ledger = ledger;
+        this.properties = properties;
+    }
+
+    @PostConstruct
+    public void start() {
+        long interval = properties.getCheckpointInterval().toMillis();
+        executor.scheduleWithFixedDelay(this::checkpoint, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    private void checkpoint() {
+        try {
+            ledger.checkpoint();
+        } catch (RuntimeException e) {
+            log.error("Ledger checkpoint failed", e);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package br.com.drsm.ebanx_test_api.ledger;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+
+@Configuration
+@EnableConfigurationProperties(LedgerProperties.class)
+public class LedgerConfiguration {
+
+    @Bean
+    public TransactionLedger transactionLedger(LedgerProperties properties) {
+        if (!properties.isEnabled()) {
+            return TransactionLedger.NONE;
+        }
+        return new ColumnarTransactionLedger(Clock.systemUTC(), properties.getCheckpointEvery());
+    }
+}
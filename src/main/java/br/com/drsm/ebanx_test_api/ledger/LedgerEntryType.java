@@ -0,0 +1,27 @@
+package br.com.drsm.ebanx_test_api.ledger;
+
+import java.util.Locale;
+
+/**
+ * What happened to an account in a {@link TransactionLedger} entry. A transfer leaves one entry
+ * on each side.
+ */
+public enum LedgerEntryType {
+    DEPOSIT,
+    WITHDRAW,
+    TRANSFER_IN,
+    TRANSFER_OUT,
+    IMPORT;
+
+    private static final LedgerEntryType[] VALUES = values();
+
+    private final String value = name().toLowerCase(Locale.ROOT);
+
+    public String value() {
+        return value;
+    }
+
+    static LedgerEntryType of(byte ordinal) {
+        return VALUES[ordinal];
+    }
+}
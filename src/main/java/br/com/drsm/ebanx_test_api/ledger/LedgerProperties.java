@@ -0,0 +1,23 @@
+package br.com.drsm.ebanx_test_api.ledger;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties("ebanx.ledger")
+public class LedgerProperties {
+    /**
+     * Whether every account keeps the history served by {@code /accounts/{id}/transactions}.
+     * Off by default, since the history grows with every event for the life of the process.
+     */
+    private boolean enabled;
+    /**
+     * Every how many entries of an account a checkpoint is kept for point-in-time balances.
+     */
+    private int checkpointEvery = ColumnarTransactionLedger.DEFAULT_CHECKPOINT_EVERY;
+    private Duration checkpointInterval = Duration.ofSeconds(1);
+}
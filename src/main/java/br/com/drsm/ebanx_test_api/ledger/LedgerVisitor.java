@@ -0,0 +1,10 @@
+package br.com.drsm.ebanx_test_api.ledger;
+
+/**
+ * Receives ledger entries one at a time, without an object per entry. Amounts and balances are
+ * in cents, timestamps in microseconds since the epoch.
+ */
+@FunctionalInterface
+public interface LedgerVisitor {
+    void visit(long timestamp, LedgerEntryType type, String counterparty, long amount, long balance);
+}
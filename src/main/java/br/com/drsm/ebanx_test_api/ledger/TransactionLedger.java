@@ -0,0 +1,75 @@
+package br.com.drsm.ebanx_test_api.ledger;
+
+/**
+ * Per-account history of the events applied by {@code AccountService}, recorded while the
+ * account is locked so that each account's entries are in the order it saw them.
+ */
+public interface TransactionLedger {
+
+    /**
+     * Ledger used when history is disabled: nothing is recorded and every history is empty.
+     */
+    TransactionLedger NONE = new TransactionLedger() {
+        @Override
+        public void record(String account, LedgerEntryType type, String counterparty, long amount, long balance) {
+        }
+
+        @Override
+        public boolean contains(String account) {
+            return false;
+        }
+
+        @Override
+        public int history(String account, long from, long to, int limit, LedgerVisitor visitor) {
+            return 0;
+        }
+
+        @Override
+        public long balanceAt(String account, long at, long otherwise) {
+            return otherwise;
+        }
+
+        @Override
+        public void checkpoint() {
+        }
+
+        @Override
+        public void clear() {
+        }
+    };
+
+    /**
+     * Appends an entry to the account's history, timestamped now. {@code amount} is signed, from
+     * the account's point of view, and {@code balance} is the balance it left.
+     */
+    void record(String account, LedgerEntryType type, String counterparty, long amount, long balance);
+
+    /**
+     * Whether the account has any entry.
+     */
+    boolean contains(String account);
+
+    /**
+     * Feeds the account's entries timestamped from {@code from} to {@code to}, both inclusive, in
+     * time order, stopping after {@code limit} of them. Returns how many were visited.
+     */
+    int history(String account, long from, long to, int limit, LedgerVisitor visitor);
+
+    /**
+     * Balance the account had at the given time: the one left by its last entry up to then, or
+     * the one it had before its first entry when it only has later ones. Accounts without any
+     * entry get {@code otherwise}.
+     */
+    long balanceAt(String account, long at, long otherwise);
+
+    /**
+     * Brings the per-account checkpoints that speed up {@link #balanceAt} up to date with the
+     * entries recorded since the last call. Meant to run in the background.
+     */
+    void checkpoint();
+
+    /**
+     * Drops every entry, as a reset does with the accounts.
+     */
+    void clear();
+}
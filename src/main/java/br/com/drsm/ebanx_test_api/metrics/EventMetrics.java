@@ -0,0 +1,50 @@
+package br.com.drsm.ebanx_test_api.metrics;
+
+import br.com.drsm.ebanx_test_api.service.Outcome;
+
+/**
+ * Records the cost and outcome of account operations. It is called on every event, so
+ * implementations must not allocate or take locks.
+ */
+public interface EventMetrics {
+
+    /**
+     * Discards everything, for services that run without a meter registry.
+     */
+    EventMetrics NONE = new EventMetrics() {
+        @Override
+        public long nanoTime() {
+            return 0;
+        }
+
+        @Override
+        public void recordLatency(Operation operation, long nanos) {
+        }
+
+        @Override
+        public void recordFailure(Operation operation, Outcome.Failure failure) {
+        }
+
+        @Override
+        public void recordLockContention() {
+        }
+    };
+
+    /**
+     * Clock the latencies are measured with; lets implementations that discard them skip
+     * reading the clock.
+     */
+    long nanoTime();
+
+    void recordLatency(Operation operation, long nanos);
+
+    /**
+     * Counts a rejected operation, telling missing accounts apart from invalid requests.
+     */
+    void recordFailure(Operation operation, Outcome.Failure failure);
+
+    /**
+     * Counts an account lock that was already held when an operation tried to take it.
+     */
+    void recordLockContention();
+}
@@ -0,0 +1,71 @@
+package br.com.drsm.ebanx_test_api.metrics;
+
+import org.HdrHistogram.AtomicHistogram;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency recorder cheap enough for every event: a value is recorded with a couple of atomic
+ * increments into an HdrHistogram {@link AtomicHistogram}, with no lock and no allocation.
+ * <p>
+ * Values are kept in two histograms that swap every window. Percentiles are read from the last
+ * complete window, so they describe recent latency and stay stable between scrapes; a writer
+ * that still holds the old histogram during a swap lands in the window that just closed. Count
+ * and total time accumulate across windows.
+ */
+class LatencyHistogram {
+    private static final long MAX_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final int SIGNIFICANT_DIGITS = 2;
+
+    private final long windowNanos;
+    private volatile AtomicHistogram active = newHistogram();
+    private AtomicHistogram completed = newHistogram();
+    private long windowStart = System.nanoTime();
+    private long retiredCount;
+    private double retiredNanos;
+
+    LatencyHistogram(long windowNanos) {
+        this.windowNanos = windowNanos;
+    }
+
+    void record(long nanos) {
+        active.recordValue(Math.min(Math.max(nanos, 1), MAX_NANOS));
+    }
+
+    synchronized long count() {
+        rotateIfDue();
+        return retiredCount + active.getTotalCount();
+    }
+
+    synchronized double totalNanos() {
+        rotateIfDue();
+        AtomicHistogram current = active;
+        return retiredNanos + current.getMean() * current.getTotalCount();
+    }
+
+    /**
+     * Value at the given quantile (0 to 1) over the last complete window, 0 when it was empty.
+     */
+    synchronized long valueAtQuantile(double quantile) {
+        rotateIfDue();
+        return completed.getTotalCount() == 0 ? 0 : completed.getValueAtPercentile(quantile * 100);
+    }
+
+    private void rotateIfDue() {
+        long now = System.nanoTime();
+        if (now - windowStart < windowNanos) {
+            return;
+        }
+        AtomicHistogram closed = active;
+        completed.reset();
+        active = completed;
+        completed = closed;
+        retiredCount += closed.getTotalCount();
+        retiredNanos += closed.getMean() * closed.getTotalCount();
+        windowStart = now;
+    }
+
+    private static AtomicHistogram newHistogram() {
+        return new AtomicHistogram(1, MAX_NANOS, SIGNIFICANT_DIGITS);
+    }
+}
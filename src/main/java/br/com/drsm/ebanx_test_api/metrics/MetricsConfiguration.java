@@ -0,0 +1,54 @@
+package br.com.drsm.ebanx_test_api.metrics;
+
+import br.com.drsm.ebanx_test_api.engine.EventDispatcher;
+import br.com.drsm.ebanx_test_api.engine.IdempotentEventDispatcher;
+import br.com.drsm.ebanx_test_api.engine.ShardedEventDispatcher;
+import br.com.drsm.ebanx_test_api.service.AccountService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfiguration {
+
+    @Bean
+    public EventMetrics eventMetrics(MeterRegistry registry) {
+        return new MicrometerEventMetrics(registry);
+    }
+
+    @Bean
+    public MeterBinder accountGauges(AccountService service) {
+        return registry -> {
+            Gauge.builder("ebanx.accounts", service, AccountService::accountCount)
+                    .description("Number of accounts")
+                    .register(registry);
+            Gauge.builder("ebanx.balance.total", service, AccountService::totalBalance)
+                    .description("Sum of every account balance")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder engineGauges(EventDispatcher dispatcher) {
+        return registry -> {
+            EventDispatcher engine = dispatcher;
+            if (engine instanceof IdempotentEventDispatcher idempotent) {
+                Gauge.builder("ebanx.idempotency.results", idempotent, IdempotentEventDispatcher::cachedResults)
+                        .description("Event results kept for idempotent retries")
+                        .register(registry);
+                engine = idempotent.getDelegate();
+            }
+            if (engine instanceof ShardedEventDispatcher sharded) {
+                for (int shard = 0; shard < sharded.shardCount(); shard++) {
+                    int index = shard;
+                    Gauge.builder("ebanx.engine.queue.depth", sharded, d -> d.queueDepth(index))
+                            .description("Events waiting in a shard's ring buffer")
+                            .tag("shard", String.valueOf(shard))
+                            .register(registry);
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,90 @@
+package br.com.drsm.ebanx_test_api.metrics;
+
+import br.com.drsm.ebanx_test_api.service.Outcome;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link EventMetrics} exposed through Micrometer. Latencies go to a {@link LatencyHistogram} per
+ * operation and are only turned into meters when the registry reads them, so recording an event
+ * costs a few atomic increments; failure counters are registered up front and looked up by
+ * ordinal.
+ * <p>
+ * {@code ebanx.operations} is a timer per operation (count and total time),
+ * {@code ebanx.operations.percentile} gives its percentiles over the last minute,
+ * {@code ebanx.operations.failed} counts failures per operation and reason, and
+ * {@code ebanx.locks.contended} counts contended account locks.
+ */
+public class MicrometerEventMetrics implements EventMetrics {
+    private static final long WINDOW_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+    private static final String NOT_FOUND = "not_found";
+    private static final String INVALID = "invalid";
+
+    private final LatencyHistogram[] latency;
+    private final Counter[] notFound;
+    private final Counter[] invalid;
+    private final Counter contention;
+
+    public MicrometerEventMetrics(MeterRegistry registry) {
+        Operation[] operations = Operation.values();
+        latency = new LatencyHistogram[operations.length];
+        notFound = new Counter[operations.length];
+        invalid = new Counter[operations.length];
+        for (Operation operation : operations) {
+            int i = operation.ordinal();
+            LatencyHistogram histogram = new LatencyHistogram(WINDOW_NANOS);
+            latency[i] = histogram;
+            FunctionTimer.builder("ebanx.operations", histogram, LatencyHistogram::count,
+                            LatencyHistogram::totalNanos, TimeUnit.NANOSECONDS)
+                    .description("Time spent applying account operations")
+                    .tag("operation", operation.tag())
+                    .register(registry);
+            for (double quantile : QUANTILES) {
+                Gauge.builder("ebanx.operations.percentile", histogram, h -> h.valueAtQuantile(quantile) / 1e9)
+                        .description("Account operation latency percentiles over the last minute")
+                        .baseUnit("seconds")
+                        .tag("operation", operation.tag())
+                        .tag("quantile", String.valueOf(quantile))
+                        .register(registry);
+            }
+            notFound[i] = failureCounter(registry, operation, NOT_FOUND);
+            invalid[i] = failureCounter(registry, operation, INVALID);
+        }
+        contention = Counter.builder("ebanx.locks.contended")
+                .description("Account locks that were held by another operation when requested")
+                .register(registry);
+    }
+
+    private static Counter failureCounter(MeterRegistry registry, Operation operation, String reason) {
+        return Counter.builder("ebanx.operations.failed")
+                .description("Account operations rejected, by reason")
+                .tag("operation", operation.tag())
+                .tag("reason", reason)
+                .register(registry);
+    }
+
+    @Override
+    public long nanoTime() {
+        return System.nanoTime();
+    }
+
+    @Override
+    public void recordLatency(Operation operation, long nanos) {
+        latency[operation.ordinal()].record(nanos);
+    }
+
+    @Override
+    public void recordFailure(Operation operation, Outcome.Failure failure) {
+        (failure == Outcome.Failure.NOT_FOUND ? notFound : invalid)[operation.ordinal()].increment();
+    }
+
+    @Override
+    public void recordLockContention() {
+        contention.increment();
+    }
+}
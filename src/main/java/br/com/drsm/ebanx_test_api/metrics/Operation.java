@@ -0,0 +1,23 @@
+package br.com.drsm.ebanx_test_api.metrics;
+
+import java.util.Locale;
+
+/**
+ * Operations {@link EventMetrics} keeps separate latency and failure figures for. Events whose
+ * type is not recognized are counted as {@link #UNKNOWN}.
+ */
+public enum Operation {
+    DEPOSIT,
+    WITHDRAW,
+    TRANSFER,
+    BALANCE,
+    TRANSACTIONS,
+    RESET,
+    UNKNOWN;
+
+    private final String tag = name().toLowerCase(Locale.ROOT);
+
+    public String tag() {
+        return tag;
+    }
+}
@@ -1,21 +1,100 @@
 package br.com.drsm.ebanx_test_api.model;
 
 import br.com.drsm.ebanx_test_api.dto.TransactionRequestDTO;
+import br.com.drsm.ebanx_test_api.store.AccountHandle;
+import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
 
-@Builder
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Mutable account updated in place. The balance is kept in cents, and {@code lastSeq} is the
+ * sequence number of the last journal entry applied to it.
+ * <p>
+ * Updates are serialized with the account's {@link #lock()} rather than a monitor: the journal
+ * append done while holding it may block on I/O, and a virtual thread blocked inside
+ * {@code synchronized} would pin its carrier thread. Taking and releasing the lock also moves a
+ * seqlock stamp, odd while locked, which lets reads skip the lock.
+ */
 @Getter
 @Setter
-public class Account {
+public class Account implements AccountHandle {
     private String id;
-    private Double balance;
+    private long balance;
+    private long lastSeq;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private final ReentrantLock lock = new ReentrantLock();
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile long stamp;
+
+    @Builder
+    public Account(String id, long balance, long lastSeq) {
+        this.id = id;
+        this.balance = balance;
+        this.lastSeq = lastSeq;
+    }
+
+    @Override
+    public boolean tryLock() {
+        if (!lock.tryLock()) {
+            return false;
+        }
+        beginWrite();
+        return true;
+    }
+
+    @Override
+    public void lock() {
+        lock.lock();
+        beginWrite();
+    }
+
+    @Override
+    public void unlock() {
+        if (lock.getHoldCount() == 1) {
+            stamp = stamp + 1;
+        }
+        lock.unlock();
+    }
+
+    @Override
+    public long tryOptimisticRead() {
+        long current = stamp;
+        return (current & 1) == 0 ? current + 1 : 0;
+    }
+
+    @Override
+    public boolean validate(long stamp) {
+        VarHandle.loadLoadFence();
+        return this.stamp == stamp - 1;
+    }
+
+    private void beginWrite() {
+        if (lock.getHoldCount() == 1) {
+            stamp = stamp + 1;
+            VarHandle.storeStoreFence();
+        }
+    }
+
+    @Override
+    public void credit(long cents) {
+        balance = Math.addExact(balance, cents);
+    }
+
+    @Override
+    public void debit(long cents) {
+        balance = Math.subtractExact(balance, cents);
+    }
 
     public static Account from(TransactionRequestDTO request) {
         return Account.builder()
                 .id(request.getDestination())
-                .balance(request.getAmount())
+                .balance(Money.toCents(request.getAmount()))
                 .build();
     }
 }
@@ -0,0 +1,30 @@
+package br.com.drsm.ebanx_test_api.model;
+
+/**
+ * Converts between the decimal amounts used on the API and the cents kept internally.
+ */
+public final class Money {
+    private static final double CENTS_PER_UNIT = 100.0;
+    /**
+     * Amounts at or past this many units have more cents than a long holds.
+     */
+    private static final double MAX_UNITS = Long.MAX_VALUE / CENTS_PER_UNIT;
+
+    private Money() {
+    }
+
+    /**
+     * Rejects amounts that are not finite or whose cents do not fit in a long, which would
+     * otherwise round to 0 or saturate.
+     */
+    public static long toCents(double amount) {
+        if (!(Math.abs(amount) < MAX_UNITS)) {
+            throw new IllegalArgumentException("Amount out of range: " + amount);
+        }
+        return Math.round(amount * CENTS_PER_UNIT);
+    }
+
+    public static double toDouble(long cents) {
+        return cents / CENTS_PER_UNIT;
+    }
+}
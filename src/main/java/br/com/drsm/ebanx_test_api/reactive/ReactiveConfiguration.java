@@ -0,0 +1,51 @@
+package br.com.drsm.ebanx_test_api.reactive;
+
+import br.com.drsm.ebanx_test_api.cluster.Cluster;
+import br.com.drsm.ebanx_test_api.engine.EngineMode;
+import br.com.drsm.ebanx_test_api.engine.EngineProperties;
+import br.com.drsm.ebanx_test_api.engine.EventDispatcher;
+import br.com.drsm.ebanx_test_api.service.AccountService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.scheduler.Schedulers;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.GET;
+import static org.springframework.web.reactive.function.server.RequestPredicates.POST;
+
+/**
+ * The API on Reactor Netty, for {@code spring.main.web-application-type=reactive} (the
+ * {@code reactive} profile). Tomcat stays on the classpath for the servlet variant, so the
+ * Netty factory is declared here, ahead of Boot's, which would otherwise pick Tomcat.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveConfiguration {
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    /**
+     * Only the sharded engine without a cluster dispatches without blocking; otherwise events
+     * are applied off the event loop.
+     */
+    @Bean
+    public ReactiveEventHandler reactiveEventHandler(AccountService service, EventDispatcher dispatcher,
+                                                     EngineProperties engine, Cluster cluster) {
+        boolean handsOff = engine.getMode() == EngineMode.SHARDED && cluster == Cluster.NONE;
+        return new ReactiveEventHandler(service, dispatcher, handsOff ? Schedulers.immediate() : Schedulers.boundedElastic());
+    }
+
+    @Bean
+    public RouterFunction<ServerResponse> eventRoutes(ReactiveEventHandler handler) {
+        return RouterFunctions.route(POST("/reset"), handler::reset)
+                .andRoute(GET("/balance"), handler::balance)
+                .andRoute(POST("/event"), handler::event);
+    }
+}
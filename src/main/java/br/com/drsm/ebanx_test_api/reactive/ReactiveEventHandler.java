@@ -0,0 +1,169 @@
+package br.com.drsm.ebanx_test_api.reactive;
+
+import br.com.drsm.ebanx_test_api.cluster.ClusterUnavailableException;
+import br.com.drsm.ebanx_test_api.codec.EventJsonCodec;
+import br.com.drsm.ebanx_test_api.dto.TransactionRequestDTO;
+import br.com.drsm.ebanx_test_api.dto.TransactionResponseDTO;
+import br.com.drsm.ebanx_test_api.engine.EventDispatcher;
+import br.com.drsm.ebanx_test_api.replication.NotLeaderException;
+import br.com.drsm.ebanx_test_api.service.AccountService;
+import br.com.drsm.ebanx_test_api.service.Outcome;
+import br.com.drsm.ebanx_test_api.service.exception.AccountNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+
+/**
+ * {@code /reset}, {@code /balance} and {@code /event} for the reactive server, answering as
+ * {@code AccountController} and {@code AccountControllerAdvice} do. Balances are read on the
+ * event loop, without locks. Events are dispatched on the scheduler the handler is given: the
+ * bounded elastic one when dispatching applies the event on the calling thread, under account
+ * locks or over the cluster network, and the loop itself only when it merely hands the event
+ * to a shard. Either way they are answered when the journal reports them durable. A reset,
+ * which waits for the changes in flight, also runs on the bounded elastic scheduler.
+ * <p>
+ * Bodies go through an {@link EventJsonCodec} per event loop thread, so the only copy of a
+ * response is the one handed to Netty.
+ */
+@Slf4j
+public class ReactiveEventHandler {
+    private static final int MAX_BODY_SIZE = 64 * 1024;
+    private static final byte[] ZERO = {'0'};
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    private final AccountService service;
+    private final EventDispatcher dispatcher;
+    private final Scheduler dispatchScheduler;
+    private final ThreadLocal<EventJsonCodec> codecs = ThreadLocal.withInitial(() -> new EventJsonCodec(MAX_BODY_SIZE));
+
+    public ReactiveEventHandler(AccountService service, EventDispatcher dispatcher, Scheduler dispatchScheduler) {
+        this.service = service;
+        this.dispatcher = dispatcher;
+        this.dispatchScheduler = dispatchScheduler;
+    }
+
+    public Mono<ServerResponse> reset(ServerRequest request) {
+        log.info("reset called");
+        return Mono.fromRunnable(service::reset)
+                .subscribeOn(Schedulers.boundedElastic())
+                .then(ServerResponse.ok().contentType(MediaType.TEXT_PLAIN).bodyValue("OK"));
+    }
+
+    /**
+     * Current balance, or with {@code at}, an ISO-8601 instant, the balance at that time.
+     */
+    public Mono<ServerResponse> balance(ServerRequest request) {
+        String id = request.queryParam("account_id").orElse(null);
+        log.debug("getBalance called for {}", id);
+        String at = request.queryParam("at").orElse(null);
+        Outcome<Double> balance;
+        if (null == at) {
+            balance = service.findBalance(id);
+        } else {
+            try {
+                balance = service.findBalanceAt(id, Instant.parse(at));
+            } catch (DateTimeParseException e) {
+                balance = Outcome.invalid(e.getMessage());
+            }
+        }
+        if (!balance.isPresent()) {
+            return failure(balance);
+        }
+        EventJsonCodec codec = codecs.get();
+        codec.writeBalance(balance.value());
+        return json(HttpStatus.OK, Arrays.copyOf(codec.output(), codec.length()));
+    }
+
+    public Mono<ServerResponse> event(ServerRequest request) {
+        String idempotencyKey = request.headers().firstHeader("Idempotency-Key");
+        return request.bodyToMono(byte[].class)
+                .defaultIfEmpty(new byte[0])
+                .flatMap(body -> {
+                    TransactionRequestDTO event;
+                    try {
+                        event = codecs.get().readRequest(body);
+                    } catch (IllegalArgumentException e) {
+                        return failure(Outcome.invalid(e.getMessage()));
+                    }
+                    if (null != idempotencyKey) {
+                        event.setIdempotencyKey(idempotencyKey);
+                    }
+                    if (log.isDebugEnabled()) {
+                        log.debug("event called: type={}, origin={}, destination={}, amount={}",
+                                event.getType(), event.getOrigin(), event.getDestination(), event.getAmount());
+                    }
+                    return Mono.defer(() -> Mono.fromFuture(dispatcher.dispatchAsync(event)))
+                            .subscribeOn(dispatchScheduler)
+                            .flatMap(this::created);
+                })
+                .onErrorResume(ReactiveEventHandler::isAnswered, ReactiveEventHandler::error);
+    }
+
+    private Mono<ServerResponse> created(Outcome<TransactionResponseDTO> outcome) {
+        if (!outcome.isPresent()) {
+            return failure(outcome);
+        }
+        EventJsonCodec codec = codecs.get();
+        codec.writeResponse(outcome.value());
+        return json(HttpStatus.CREATED, Arrays.copyOf(codec.output(), codec.length()));
+    }
+
+    /**
+     * Same answers as {@code AccountController}: 404 for missing accounts and 400 for invalid
+     * requests, both with a body of 0.
+     */
+    private static Mono<ServerResponse> failure(Outcome<?> outcome) {
+        if (outcome.failure() == Outcome.Failure.NOT_FOUND) {
+            log.debug("Account not found: {}", outcome.detail());
+            return json(HttpStatus.NOT_FOUND, ZERO);
+        }
+        log.debug("Invalid request: {}", outcome.detail());
+        return json(HttpStatus.BAD_REQUEST, ZERO);
+    }
+
+    private static boolean isAnswered(Throwable e) {
+        return e instanceof AccountNotFoundException || e instanceof IllegalArgumentException
+                || e instanceof NotLeaderException || e instanceof ClusterUnavailableException;
+    }
+
+    /**
+     * The answers {@code AccountControllerAdvice} gives the same exceptions, with a body of 0:
+     * 404 and 400 as above, and 503 with {@code Retry-After} for a follower or an unreachable
+     * cluster node.
+     */
+    private static Mono<ServerResponse> error(Throwable e) {
+        if (e instanceof AccountNotFoundException) {
+            return failure(Outcome.notFound(e.getMessage()));
+        }
+        if (e instanceof IllegalArgumentException) {
+            return failure(Outcome.invalid(e.getMessage()));
+        }
+        if (e instanceof ClusterUnavailableException) {
+            log.warn("Cluster node unavailable: {}", e.getMessage());
+        } else {
+            log.debug("Write refused: {}", e.getMessage());
+        }
+        return ServerResponse.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                .contentType(MediaType.APPLICATION_JSON)
+                .contentLength(ZERO.length)
+                .bodyValue(ZERO);
+    }
+
+    private static Mono<ServerResponse> json(HttpStatus status, byte[] body) {
+        return ServerResponse.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .contentLength(body.length)
+                .bodyValue(body);
+    }
+}
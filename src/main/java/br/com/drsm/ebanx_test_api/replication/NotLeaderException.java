@@ -0,0 +1,12 @@
+package br.com.drsm.ebanx_test_api.replication;
+
+/**
+ * Thrown when a change reaches a node that follows another one. Followers turn writers away
+ * routinely, so no stack trace is captured.
+ */
+public class NotLeaderException extends RuntimeException {
+
+    public NotLeaderException() {
+        super("This node is a replication follower", null, false, false);
+    }
+}
@@ -0,0 +1,79 @@
+package br.com.drsm.ebanx_test_api.replication;
+
+import br.com.drsm.ebanx_test_api.dto.ReplicationStatusDTO;
+
+import java.io.Closeable;
+
+/**
+ * This node's place in replication: whether it takes writes and how current its accounts are.
+ */
+public interface Replication extends Closeable {
+
+    /**
+     * Used when replication is disabled: the node is its own leader and always current.
+     */
+    Replication NONE = new Replication() {
+        @Override
+        public boolean isLeader() {
+            return true;
+        }
+
+        @Override
+        public long position() {
+            return 0;
+        }
+
+        @Override
+        public boolean awaitReadable(long minPosition) {
+            return true;
+        }
+
+        @Override
+        public void promote() {
+        }
+
+        @Override
+        public void follow(String leader) {
+            throw new IllegalStateException("Replication is disabled");
+        }
+
+        @Override
+        public ReplicationStatusDTO status() {
+            return ReplicationStatusDTO.builder().role(ReplicationRole.LEADER).build();
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    boolean isLeader();
+
+    /**
+     * Sequence number of the last entry this node applied, which a client passes back as a
+     * read's minimum position to read its own writes on any node. 0 when nothing is numbered.
+     */
+    long position();
+
+    /**
+     * Waits, for at most the configured read timeout, until this node has applied
+     * {@code minPosition} and is within the configured staleness of its leader. Returns whether
+     * it got there; a leader always does.
+     */
+    boolean awaitReadable(long minPosition);
+
+    /**
+     * Stops following and starts taking writes, continuing the log from the last entry applied.
+     */
+    void promote();
+
+    /**
+     * Drops what this node is doing and follows the leader at {@code host:port}.
+     */
+    void follow(String leader);
+
+    ReplicationStatusDTO status();
+
+    @Override
+    void close();
+}
@@ -0,0 +1,246 @@
+package br.com.drsm.ebanx_test_api.replication;
+
+import br.com.drsm.ebanx_test_api.io.BinaryIds;
+import br.com.drsm.ebanx_test_api.journal.JournalEntryType;
+import br.com.drsm.ebanx_test_api.journal.JournalRecord;
+import br.com.drsm.ebanx_test_api.model.Account;
+import br.com.drsm.ebanx_test_api.service.AccountService;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Follows a leader's {@link ReplicationServer} on a background thread: applies every entry it
+ * streams through {@link AccountService#replicate}, in order, and adds it to this node's
+ * {@link ReplicationLog}, so reads with a position can wait for it and the node can take over
+ * the stream once promoted. A snapshot replaces the accounts; reads with a position wait until
+ * it is fully installed. A lost connection is retried with a growing pause, resuming after the
+ * last entry applied.
+ * <p>
+ * The follower counts itself caught up whenever a heartbeat arrives for an entry it has already
+ * applied, which is how {@link #awaitFresh} bounds staleness: it measures from when the
+ * heartbeat was received, so it leaves out the time the heartbeat spent on the network.
+ */
+@Slf4j
+class ReplicationClient implements Runnable, Closeable {
+    private static final long MIN_BACKOFF_MILLIS = 50;
+    private static final long MAX_BACKOFF_MILLIS = 1_000;
+    /**
+     * Asks the leader for a snapshot: no ring holds an entry this far ahead.
+     */
+    private static final long RESYNC = Long.MAX_VALUE;
+
+    private final ReplicationLog journal;
+    private final AccountService service;
+    private final InetSocketAddress leader;
+    private final Thread thread;
+    private final ByteBuffer buffer = ByteBuffer.allocate(ReplicationServer.BUFFER_SIZE);
+    private final byte[] scratch = new byte[BinaryIds.MAX_ENCODED_SIZE];
+    private final JournalRecord record = new JournalRecord();
+    private volatile SocketChannel channel;
+    private volatile boolean running = true;
+    private volatile long leaderHead;
+    /**
+     * {@link System#nanoTime()} of the last heartbeat that found this node caught up, 0 while
+     * it is not known to be.
+     */
+    private volatile long caughtUpAt;
+    /**
+     * Whether the next connection asks for a snapshot whatever this node has applied.
+     */
+    private boolean resync;
+
+    /**
+     * @param resync whether to start from a snapshot, as a former leader must since it may hold
+     *               entries its new leader never saw
+     */
+    ReplicationClient(ReplicationLog journal, AccountService service, InetSocketAddress leader, boolean resync) {
+        this.journal = journal;
+        this.service = service;
+        this.leader = leader;
+        this.resync = resync;
+        this.thread = new Thread(this, "replication-follower");
+        this.thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    InetSocketAddress leader() {
+        return leader;
+    }
+
+    long leaderHead() {
+        return Math.max(leaderHead, journal.head());
+    }
+
+    /**
+     * Nanoseconds since this node was last caught up, or -1 when it is not known to be.
+     */
+    long staleness() {
+        long at = caughtUpAt;
+        return 0 == at ? -1 : System.nanoTime() - at;
+    }
+
+    /**
+     * Waits until this node was caught up within {@code maxStaleness} nanoseconds, until
+     * {@code deadline} at most. Returns whether it was.
+     */
+    boolean awaitFresh(long maxStaleness, long deadline) {
+        if (isFresh(maxStaleness)) {
+            return true;
+        }
+        synchronized (this) {
+            while (!isFresh(maxStaleness)) {
+                long left = deadline - System.nanoTime();
+                if (left <= 0) {
+                    return false;
+                }
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(this, left);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private boolean isFresh(long maxStaleness) {
+        long at = caughtUpAt;
+        return 0 != at && System.nanoTime() - at <= maxStaleness;
+    }
+
+    private synchronized void caughtUp() {
+        caughtUpAt = System.nanoTime();
+        notifyAll();
+    }
+
+    @Override
+    public void run() {
+        long backoff = MIN_BACKOFF_MILLIS;
+        while (running) {
+            try (SocketChannel connected = SocketChannel.open(leader)) {
+                channel = connected;
+                backoff = MIN_BACKOFF_MILLIS;
+                connected.socket().setTcpNoDelay(true);
+                follow(connected);
+            } catch (IOException e) {
+                if (running) {
+                    log.info("Replication from {} interrupted: {}", leader, e.getMessage());
+                }
+            }
+            if (running) {
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                backoff = Math.min(MAX_BACKOFF_MILLIS, backoff * 2);
+            }
+        }
+    }
+
+    private void follow(SocketChannel connected) throws IOException {
+        ByteBuffer hello = ByteBuffer.allocate(Long.BYTES).putLong(0, resync ? RESYNC : journal.head() + 1);
+        while (hello.hasRemaining()) {
+            connected.write(hello);
+        }
+        log.info("Following {} from {}", leader, resync ? "a snapshot" : journal.head() + 1);
+        buffer.clear().flip();
+        while (running) {
+            ensure(connected, 1);
+            switch (buffer.get()) {
+                case ReplicationServer.ENTRY -> {
+                    ensure(connected, Long.BYTES + 1);
+                    long seq = buffer.getLong();
+                    JournalEntryType type = JournalEntryType.of(buffer.get());
+                    String origin = readId(connected);
+                    String destination = readId(connected);
+                    ensure(connected, Long.BYTES);
+                    record.set(seq, type, origin, destination, buffer.getLong());
+                    service.replicate(record);
+                    journal.appendReplicated(record);
+                }
+                case ReplicationServer.SNAPSHOT_BEGIN -> {
+                    ensure(connected, Long.BYTES);
+                    long position = buffer.getLong();
+                    log.info("Installing a snapshot at {} from {}", position, leader);
+                    caughtUpAt = 0;
+                    journal.resetTo(0);
+                    record.set(0, JournalEntryType.RESET, null, null, 0);
+                    service.replicate(record);
+                }
+                case ReplicationServer.ACCOUNT -> {
+                    String id = readId(connected);
+                    ensure(connected, 2 * Long.BYTES);
+                    service.saveAccount(Account.builder().id(id).balance(buffer.getLong()).lastSeq(buffer.getLong()).build());
+                }
+                case ReplicationServer.SNAPSHOT_END -> {
+                    ensure(connected, Long.BYTES);
+                    journal.resetTo(buffer.getLong());
+                    resync = false;
+                }
+                case ReplicationServer.HEARTBEAT -> {
+                    ensure(connected, Long.BYTES);
+                    long head = buffer.getLong();
+                    leaderHead = head;
+                    if (journal.head() >= head) {
+                        caughtUp();
+                    }
+                }
+                default -> throw new IOException("Unknown replication frame from " + leader);
+            }
+        }
+    }
+
+    private String readId(SocketChannel connected) throws IOException {
+        ensure(connected, Short.BYTES);
+        int length = buffer.getShort(buffer.position());
+        ensure(connected, Short.BYTES + Math.max(0, length));
+        return BinaryIds.get(buffer, scratch);
+    }
+
+    /**
+     * Reads until at least {@code bytes} bytes are buffered.
+     */
+    private void ensure(SocketChannel connected, int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) {
+            return;
+        }
+        buffer.compact();
+        while (buffer.position() < bytes) {
+            if (connected.read(buffer) < 0) {
+                throw new EOFException("Leader closed the connection");
+            }
+        }
+        buffer.flip();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        SocketChannel connected = channel;
+        if (null != connected) {
+            try {
+                connected.close();
+            } catch (IOException e) {
+                log.debug("Closing the connection to {} failed", leader, e);
+            }
+        }
+        thread.interrupt();
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package br.com.drsm.ebanx_test_api.replication;
+
+import br.com.drsm.ebanx_test_api.journal.EventJournal;
+import br.com.drsm.ebanx_test_api.service.AccountService;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(ReplicationProperties.class)
+public class ReplicationConfiguration {
+
+    @Bean
+    public Replication replication(ReplicationProperties properties, EventJournal journal, AccountService service) {
+        if (!properties.isEnabled() || !(journal instanceof ReplicationLog log)) {
+            return Replication.NONE;
+        }
+        return new ReplicationNode(log, service, properties.getRole(), properties.getPort(), properties.getLeader(),
+                properties.getMaxStaleness(), properties.getHeartbeatInterval(), properties.getReadTimeout());
+    }
+}
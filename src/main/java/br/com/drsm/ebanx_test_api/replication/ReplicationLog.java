@@ -0,0 +1,230 @@
+package br.com.drsm.ebanx_test_api.replication;
+
+import br.com.drsm.ebanx_test_api.journal.EventJournal;
+import br.com.drsm.ebanx_test_api.journal.JournalEntryType;
+import br.com.drsm.ebanx_test_api.journal.JournalPosition;
+import br.com.drsm.ebanx_test_api.journal.JournalRecord;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Journal wrapper that keeps the latest entries in memory, in a ring of a fixed number of
+ * slots, for {@link ReplicationServer} to stream to followers. Entries are numbered by the
+ * wrapped journal, or by the ring itself when the journal numbers nothing, so the sequence
+ * numbers followers receive are the ones the accounts carry.
+ * <p>
+ * Appends take the ring's lock around the journal append, which keeps the ring in sequence
+ * order; the file journal already serializes appends the same way. On a follower the ring is
+ * filled with the entries it applies instead, so that it can serve them once promoted, and
+ * local appends fail with {@link NotLeaderException}.
+ */
+public class ReplicationLog implements EventJournal {
+    private final EventJournal journal;
+    private final int mask;
+    private final byte[] types;
+    private final String[] origins;
+    private final String[] destinations;
+    private final long[] amounts;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    private int waiting;
+    /**
+     * Lowest sequence number still in the ring; entries before it were overwritten.
+     */
+    private long first = 1;
+    private volatile long head;
+    private volatile boolean leader = true;
+
+    /**
+     * @param capacity entries kept in memory, rounded up to a power of two
+     */
+    public ReplicationLog(EventJournal journal, int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.journal = journal;
+        this.mask = size - 1;
+        this.types = new byte[size];
+        this.origins = new String[size];
+        this.destinations = new String[size];
+        this.amounts = new long[size];
+    }
+
+    @Override
+    public long append(JournalEntryType type, String origin, String destination, long amount) {
+        lock.lock();
+        try {
+            if (!leader) {
+                throw new NotLeaderException();
+            }
+            long seq = journal.append(type, origin, destination, amount);
+            if (0 == seq) {
+                seq = head + 1;
+            }
+            put(seq, type, origin, destination, amount);
+            return seq;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds an entry received from the leader and already applied, without journaling it.
+     */
+    void appendReplicated(JournalRecord record) {
+        lock.lock();
+        try {
+            put(record.getSeq(), record.getType(), record.getOrigin(), record.getDestination(), record.getAmount());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Empties the ring and continues after {@code seq}, as when a follower installs a snapshot
+     * taken there.
+     */
+    void resetTo(long seq) {
+        lock.lock();
+        try {
+            first = seq + 1;
+            head = seq;
+            if (waiting > 0) {
+                appended.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void put(long seq, JournalEntryType type, String origin, String destination, long amount) {
+        if (seq != head + 1) {
+            first = seq;
+        } else if (seq - first > mask) {
+            first = seq - mask;
+        }
+        int slot = (int) seq & mask;
+        types[slot] = type.code();
+        origins[slot] = origin;
+        destinations[slot] = destination;
+        amounts[slot] = amount;
+        head = seq;
+        if (waiting > 0) {
+            appended.signalAll();
+        }
+    }
+
+    /**
+     * Sequence number of the last entry appended, or applied on a follower.
+     */
+    public long head() {
+        return head;
+    }
+
+    boolean isLeader() {
+        return leader;
+    }
+
+    void setLeader(boolean leader) {
+        lock.lock();
+        try {
+            this.leader = leader;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Visitor of ring entries, which returns false to stop, for instance when its buffer is full.
+     */
+    @FunctionalInterface
+    interface EntryVisitor {
+        boolean visit(long seq, JournalEntryType type, String origin, String destination, long amount);
+    }
+
+    /**
+     * Visits the entries from {@code from} on, in order, until the visitor stops or the ring
+     * ends, under the ring's lock. Returns the sequence number to read next, or -1 when
+     * {@code from} is no longer in the ring.
+     */
+    long read(long from, EntryVisitor visitor) {
+        lock.lock();
+        try {
+            if (from < first || from > head + 1) {
+                return -1;
+            }
+            long seq = from;
+            for (; seq <= head; seq++) {
+                int slot = (int) seq & mask;
+                if (!visitor.visit(seq, JournalEntryType.of(types[slot]), origins[slot], destinations[slot], amounts[slot])) {
+                    break;
+                }
+            }
+            return seq;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until an entry after {@code seq} is in the ring, for at most the given time. Returns
+     * whether there is one.
+     */
+    boolean awaitAfter(long seq, long nanos) {
+        if (head > seq) {
+            return true;
+        }
+        lock.lock();
+        try {
+            waiting++;
+            try {
+                while (head <= seq && nanos > 0) {
+                    nanos = appended.awaitNanos(nanos);
+                }
+            } finally {
+                waiting--;
+            }
+            return head > seq;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return head > seq;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void awaitDurable(long seq) {
+        journal.awaitDurable(seq);
+    }
+
+    @Override
+    public CompletableFuture<Void> whenDurable(long seq) {
+        return journal.whenDurable(seq);
+    }
+
+    @Override
+    public JournalPosition position() {
+        return journal.position();
+    }
+
+    /**
+     * Recovers the journal and starts the ring after the last entry recovered, or after the
+     * snapshot position when nothing follows it.
+     */
+    @Override
+    public void recover(JournalPosition from, Consumer<JournalRecord> consumer) {
+        long[] last = {from.seq()};
+        journal.recover(from, record -> {
+            last[0] = Math.max(last[0], record.getSeq());
+            consumer.accept(record);
+        });
+        resetTo(last[0]);
+    }
+
+    @Override
+    public void close() {
+        journal.close();
+    }
+}
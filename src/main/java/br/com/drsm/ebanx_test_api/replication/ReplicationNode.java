@@ -0,0 +1,158 @@
+package br.com.drsm.ebanx_test_api.replication;
+
+import br.com.drsm.ebanx_test_api.dto.ReplicationStatusDTO;
+import br.com.drsm.ebanx_test_api.service.AccountService;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A node of a replicated deployment. Every node streams its {@link ReplicationLog} on its
+ * replication port, so a follower serves its own followers the entries it applies and keeps
+ * doing so once promoted. A follower also runs a {@link ReplicationClient} following its leader
+ * and turns writes away with {@link NotLeaderException}.
+ */
+@Slf4j
+public class ReplicationNode implements Replication {
+    private final ReplicationLog journal;
+    private final AccountService service;
+    private final ReplicationServer server;
+    private final long maxStalenessNanos;
+    private final long readTimeoutNanos;
+    private volatile ReplicationClient client;
+
+    /**
+     * @param leader {@code host:port} of the leader's replication port, for a follower
+     */
+    public ReplicationNode(ReplicationLog journal, AccountService service, ReplicationRole role, int port,
+                           String leader, Duration maxStaleness, Duration heartbeatInterval, Duration readTimeout) {
+        this.journal = journal;
+        this.service = service;
+        this.maxStalenessNanos = maxStaleness.toNanos();
+        this.readTimeoutNanos = readTimeout.toNanos();
+        if (role == ReplicationRole.LEADER) {
+            continueAfterStoredAccounts();
+        }
+        this.server = new ReplicationServer(journal, service, port, heartbeatInterval);
+        if (role == ReplicationRole.FOLLOWER) {
+            journal.setLeader(false);
+            client = new ReplicationClient(journal, service, address(leader), false);
+            client.start();
+        }
+        log.info("Replication {} streaming on port {}", role, server.port());
+    }
+
+    /**
+     * Numbers new entries after the last one any stored account has seen, which a persistent
+     * store kept across a restart without a journal would otherwise number again.
+     */
+    private void continueAfterStoredAccounts() {
+        long[] last = {journal.head()};
+        service.forEachAccount((id, balance, lastSeq) -> last[0] = Math.max(last[0], lastSeq));
+        if (last[0] > journal.head()) {
+            journal.resetTo(last[0]);
+        }
+    }
+
+    static InetSocketAddress address(String hostAndPort) {
+        int colon = hostAndPort.lastIndexOf(':');
+        if (colon < 0) {
+            throw new IllegalArgumentException("Leader must be host:port: " + hostAndPort);
+        }
+        return new InetSocketAddress(hostAndPort.substring(0, colon), Integer.parseInt(hostAndPort.substring(colon + 1)));
+    }
+
+    /**
+     * Port this node streams on, which is picked by the system when configured as 0.
+     */
+    public int port() {
+        return server.port();
+    }
+
+    @Override
+    public boolean isLeader() {
+        return journal.isLeader();
+    }
+
+    @Override
+    public long position() {
+        return journal.head();
+    }
+
+    /**
+     * A read with a position only waits for that entry, which is the read-your-writes guarantee
+     * it asks for; one without waits to be within the staleness bound.
+     */
+    @Override
+    public boolean awaitReadable(long minPosition) {
+        ReplicationClient following = client;
+        if (null == following) {
+            return true;
+        }
+        if (minPosition > 0) {
+            return journal.awaitAfter(minPosition - 1, readTimeoutNanos);
+        }
+        return following.awaitFresh(maxStalenessNanos, System.nanoTime() + readTimeoutNanos);
+    }
+
+    @Override
+    public synchronized void promote() {
+        ReplicationClient following = client;
+        if (null == following) {
+            return;
+        }
+        following.close();
+        client = null;
+        journal.setLeader(true);
+        log.info("Promoted to leader at {}", journal.head());
+    }
+
+    @Override
+    public synchronized void follow(String leader) {
+        InetSocketAddress address = address(leader);
+        journal.setLeader(false);
+        ReplicationClient following = client;
+        if (null != following) {
+            following.close();
+        }
+        client = new ReplicationClient(journal, service, address, null == following);
+        client.start();
+        log.info("Following {}", leader);
+    }
+
+    @Override
+    public ReplicationStatusDTO status() {
+        ReplicationClient following = client;
+        long position = journal.head();
+        if (null == following) {
+            return ReplicationStatusDTO.builder()
+                    .role(ReplicationRole.LEADER)
+                    .position(position)
+                    .leaderPosition(position)
+                    .followers(server.followerCount())
+                    .build();
+        }
+        long leaderPosition = following.leaderHead();
+        long staleness = following.staleness();
+        return ReplicationStatusDTO.builder()
+                .role(ReplicationRole.FOLLOWER)
+                .position(position)
+                .leaderPosition(leaderPosition)
+                .lag(Math.max(0, leaderPosition - position))
+                .stalenessMillis(staleness < 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(staleness))
+                .leader(following.leader().getHostString() + ":" + following.leader().getPort())
+                .followers(server.followerCount())
+                .build();
+    }
+
+    @Override
+    public void close() {
+        ReplicationClient following = client;
+        if (null != following) {
+            following.close();
+        }
+        server.close();
+    }
+}
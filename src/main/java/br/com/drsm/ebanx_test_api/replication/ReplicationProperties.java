@@ -0,0 +1,39 @@
+package br.com.drsm.ebanx_test_api.replication;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties("ebanx.replication")
+public class ReplicationProperties {
+    private boolean enabled = false;
+    private ReplicationRole role = ReplicationRole.LEADER;
+    /**
+     * Port the node streams its log on, to its followers and to whoever follows it once promoted.
+     */
+    private int port = 7070;
+    /**
+     * Host and replication port of the leader, for followers.
+     */
+    private String leader = "localhost:7070";
+    /**
+     * Entries kept in memory for followers to catch up from; one further behind gets a snapshot.
+     */
+    private int logCapacity = 1 << 20;
+    /**
+     * How far behind the leader a follower may be to answer a read without a position.
+     */
+    private Duration maxStaleness = Duration.ofSeconds(1);
+    /**
+     * How often an idle leader tells its followers where it is.
+     */
+    private Duration heartbeatInterval = Duration.ofMillis(100);
+    /**
+     * How long a read waits for its follower to catch up before giving up with a 503.
+     */
+    private Duration readTimeout = Duration.ofSeconds(1);
+}
@@ -0,0 +1,12 @@
+package br.com.drsm.ebanx_test_api.replication;
+
+public enum ReplicationRole {
+    /**
+     * Applies events and streams them to followers.
+     */
+    LEADER,
+    /**
+     * Applies what its leader streams and serves reads.
+     */
+    FOLLOWER
+}
@@ -0,0 +1,230 @@
+package br.com.drsm.ebanx_test_api.replication;
+
+import br.com.drsm.ebanx_test_api.io.BinaryIds;
+import br.com.drsm.ebanx_test_api.journal.JournalEntryType;
+import br.com.drsm.ebanx_test_api.service.AccountService;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Streams the {@link ReplicationLog} to followers over TCP, one sending thread per follower so a
+ * slow one only holds up itself.
+ * <p>
+ * A follower opens with the sequence number it wants next. When that is still in the ring the
+ * server streams entries from there; otherwise it sends a snapshot of every account, taken as
+ * {@link AccountService#snapshot()} takes one while events keep running, then streams from the
+ * position it was taken at. Each batch of entries that reaches the end of the ring is followed
+ * by a heartbeat carrying the last one, and an idle leader repeats the heartbeat every
+ * heartbeat interval, so followers know how current they are.
+ * <p>
+ * Frames are a kind byte followed by big-endian fields, with ids encoded by {@link BinaryIds}:
+ * <ul>
+ *     <li>{@code ENTRY}: seq, type code, origin, destination, amount</li>
+ *     <li>{@code SNAPSHOT_BEGIN}: position</li>
+ *     <li>{@code ACCOUNT}: id, balance, last seq</li>
+ *     <li>{@code SNAPSHOT_END}: position</li>
+ *     <li>{@code HEARTBEAT}: last seq sent</li>
+ * </ul>
+ */
+@Slf4j
+class ReplicationServer implements Closeable {
+    static final byte ENTRY = 1;
+    static final byte SNAPSHOT_BEGIN = 2;
+    static final byte ACCOUNT = 3;
+    static final byte SNAPSHOT_END = 4;
+    static final byte HEARTBEAT = 5;
+    static final int BUFFER_SIZE = 256 * 1024;
+
+    private static final int MAX_ENTRY_SIZE = 1 + Long.BYTES + 1 + 2 * BinaryIds.MAX_ENCODED_SIZE + Long.BYTES;
+    private static final int MAX_ACCOUNT_SIZE = 1 + BinaryIds.MAX_ENCODED_SIZE + 2 * Long.BYTES;
+
+    private final ReplicationLog journal;
+    private final AccountService service;
+    private final long heartbeatNanos;
+    private final ServerSocketChannel server;
+    private final Thread acceptor;
+    private final Set<Follower> followers = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger followerIds = new AtomicInteger();
+    private volatile boolean running = true;
+
+    ReplicationServer(ReplicationLog journal, AccountService service, int port, Duration heartbeatInterval) {
+        this.journal = journal;
+        this.service = service;
+        this.heartbeatNanos = heartbeatInterval.toNanos();
+        try {
+            this.server = ServerSocketChannel.open().bind(new InetSocketAddress(port));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot listen for followers on port " + port, e);
+        }
+        this.acceptor = new Thread(this::accept, "replication-acceptor");
+        this.acceptor.setDaemon(true);
+        this.acceptor.start();
+    }
+
+    int port() {
+        return server.socket().getLocalPort();
+    }
+
+    int followerCount() {
+        return followers.size();
+    }
+
+    private void accept() {
+        while (running) {
+            try {
+                SocketChannel channel = server.accept();
+                channel.socket().setTcpNoDelay(true);
+                Follower follower = new Follower(channel, followerIds.incrementAndGet());
+                followers.add(follower);
+                follower.thread.start();
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                log.warn("Accepting a follower failed", e);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        try {
+            server.close();
+        } catch (IOException e) {
+            log.warn("Closing the replication port failed", e);
+        }
+        for (Follower follower : followers) {
+            follower.close();
+        }
+        try {
+            acceptor.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private final class Follower implements Runnable, ReplicationLog.EntryVisitor {
+        final SocketChannel channel;
+        final Thread thread;
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        /**
+         * Whether the last read stopped because the buffer was full rather than at the end of
+         * the ring.
+         */
+        boolean full;
+
+        Follower(SocketChannel channel, int id) {
+            this.channel = channel;
+            this.thread = new Thread(this, "replication-sender-" + id);
+            this.thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            try {
+                long next = readNext();
+                log.info("Follower {} connected from {}", thread.getName(), next);
+                while (running) {
+                    full = false;
+                    long read = journal.read(next, this);
+                    if (read < 0) {
+                        next = sendSnapshot() + 1;
+                        continue;
+                    }
+                    next = read;
+                    if (!full) {
+                        buffer.put(HEARTBEAT).putLong(next - 1);
+                    }
+                    flush();
+                    if (!full) {
+                        journal.awaitAfter(next - 1, heartbeatNanos);
+                    }
+                }
+            } catch (IOException | UncheckedIOException e) {
+                if (running) {
+                    log.info("Follower {} disconnected: {}", thread.getName(), e.getMessage());
+                }
+            } finally {
+                followers.remove(this);
+                close();
+            }
+        }
+
+        private long readNext() throws IOException {
+            ByteBuffer hello = ByteBuffer.allocate(Long.BYTES);
+            while (hello.hasRemaining()) {
+                if (channel.read(hello) < 0) {
+                    throw new EOFException("Follower closed the connection");
+                }
+            }
+            return hello.getLong(0);
+        }
+
+        @Override
+        public boolean visit(long seq, JournalEntryType type, String origin, String destination, long amount) {
+            if (buffer.remaining() < MAX_ENTRY_SIZE) {
+                full = true;
+                return false;
+            }
+            buffer.put(ENTRY).putLong(seq).put(type.code());
+            BinaryIds.put(buffer, origin);
+            BinaryIds.put(buffer, destination);
+            buffer.putLong(amount);
+            return true;
+        }
+
+        /**
+         * Sends every account as of the current head and returns that position.
+         */
+        private long sendSnapshot() throws IOException {
+            long position = journal.head();
+            log.info("Sending a snapshot at {} to follower {}", position, thread.getName());
+            buffer.put(SNAPSHOT_BEGIN).putLong(position);
+            service.forEachAccount((id, balance, lastSeq) -> {
+                if (buffer.remaining() < MAX_ACCOUNT_SIZE) {
+                    try {
+                        flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                buffer.put(ACCOUNT);
+                BinaryIds.put(buffer, id);
+                buffer.putLong(balance).putLong(lastSeq);
+            });
+            buffer.put(SNAPSHOT_END).putLong(position);
+            flush();
+            return position;
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.debug("Closing follower {} failed", thread.getName(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package br.com.drsm.ebanx_test_api.service;
+
+import br.com.drsm.ebanx_test_api.dto.AccountDTO;
+import br.com.drsm.ebanx_test_api.dto.AuditDTO;
+import br.com.drsm.ebanx_test_api.model.Money;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * What one fork-join task of {@link AccountService#audit} found in its part of the store, merged
+ * with the other parts as the tasks join. Negative balances are kept in a heap holding the
+ * {@code limit} most negative ones seen, the least negative of them on top.
+ */
+final class AccountAudit {
+    private final int limit;
+    private final PriorityQueue<AccountDTO> negative;
+    private long accounts;
+    private long total;
+    private long negativeAccounts;
+
+    AccountAudit(int limit) {
+        this.limit = limit;
+        this.negative = new PriorityQueue<>(Comparator.comparingDouble(AccountDTO::getBalance).reversed());
+    }
+
+    void add(String id, long balance) {
+        accounts++;
+        total += balance;
+        if (balance < 0) {
+            negativeAccounts++;
+            keep(AccountDTO.builder().id(id).balance(Money.toDouble(balance)).build());
+        }
+    }
+
+    void merge(AccountAudit other) {
+        accounts += other.accounts;
+        total += other.total;
+        negativeAccounts += other.negativeAccounts;
+        other.negative.forEach(this::keep);
+    }
+
+    private void keep(AccountDTO account) {
+        if (negative.size() < limit) {
+            negative.add(account);
+        } else if (limit > 0 && account.getBalance() < negative.peek().getBalance()) {
+            negative.poll();
+            negative.add(account);
+        }
+    }
+
+    AuditDTO toDTO(long runningTotal) {
+        List<AccountDTO> mostNegative = new ArrayList<>(negative);
+        mostNegative.sort(Comparator.comparingDouble(AccountDTO::getBalance).thenComparing(AccountDTO::getId));
+        return AuditDTO.builder()
+                .accounts(accounts)
+                .totalBalance(Money.toDouble(total))
+                .runningTotalBalance(Money.toDouble(runningTotal))
+                .negativeAccounts(negativeAccounts)
+                .negative(mostNegative)
+                .build();
+    }
+}
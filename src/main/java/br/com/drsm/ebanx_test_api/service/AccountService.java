@@ -1,104 +1,1129 @@
 package br.com.drsm.ebanx_test_api.service;
 
+import br.com.drsm.ebanx_test_api.dto.AccountDTO;
+import br.com.drsm.ebanx_test_api.dto.AuditDTO;
+import br.com.drsm.ebanx_test_api.dto.EventType;
+import br.com.drsm.ebanx_test_api.dto.TransactionDTO;
+import br.com.drsm.ebanx_test_api.dto.TransactionPageDTO;
 import br.com.drsm.ebanx_test_api.dto.TransactionRequestDTO;
 import br.com.drsm.ebanx_test_api.dto.TransactionResponseDTO;
+import br.com.drsm.ebanx_test_api.hot.HotAccounts;
+import br.com.drsm.ebanx_test_api.hot.StripedBalance;
+import br.com.drsm.ebanx_test_api.io.BinaryIds;
+import br.com.drsm.ebanx_test_api.journal.EventJournal;
+import br.com.drsm.ebanx_test_api.journal.JournalEntryType;
+import br.com.drsm.ebanx_test_api.journal.JournalPosition;
+import br.com.drsm.ebanx_test_api.journal.JournalRecord;
+import br.com.drsm.ebanx_test_api.ledger.LedgerEntryType;
+import br.com.drsm.ebanx_test_api.ledger.TransactionLedger;
+import br.com.drsm.ebanx_test_api.metrics.EventMetrics;
+import br.com.drsm.ebanx_test_api.metrics.Operation;
 import br.com.drsm.ebanx_test_api.model.Account;
+import br.com.drsm.ebanx_test_api.model.Money;
 import br.com.drsm.ebanx_test_api.service.exception.AccountNotFoundException;
+import br.com.drsm.ebanx_test_api.service.exception.BatchItemException;
+import br.com.drsm.ebanx_test_api.snapshot.SnapshotStore;
+import br.com.drsm.ebanx_test_api.store.AccountHandle;
+import br.com.drsm.ebanx_test_api.store.AccountStore;
+import lombok.AccessLevel;
 import lombok.Getter;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.util.Map;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.StreamSupport;
 
+/**
+ * Keeps the accounts in an {@link AccountStore} and serializes balance updates with the
+ * account's own lock, so operations on different accounts never contend with each other.
+ * Transfers lock both accounts ordered by id to avoid deadlocks between opposite transfers.
+ * Reads take no lock: they read optimistically and retry only when a write overlapped them, so
+ * balance queries and snapshots never hold up events.
+ * <p>
+ * Accepted events are appended to the {@link EventJournal} while their accounts are locked, and
+ * the request waits for durability after releasing them, so concurrent requests can share one
+ * fsync. On startup the latest snapshot is loaded and the journal is replayed from the position
+ * the snapshot was taken at.
+ * <p>
+ * The journal also carries the bookkeeping of transfers between cluster nodes: debits and
+ * credits name the transfer they belong to, and the node coordinating a transfer journals it
+ * until it is settled. Recovery hands these entries to the cluster node, which can hold later
+ * snapshots back to a journal position it still needs replayed.
+ * <p>
+ * Every operation reports its latency and failures to {@link EventMetrics}, and the total of all
+ * balances is kept up to date as events are applied so that it can be read without a scan.
+ * Each change is also recorded, with the balance it left, in the account's
+ * {@link TransactionLedger} history.
+ * <p>
+ * Deposits to an account that {@link HotAccounts} found hot skip its lock and add to a
+ * {@link StripedBalance} instead, which every other operation folds into the balance right
+ * after locking the account. Reads add what is still striped to the balance they read.
+ * <p>
+ * Changes pass through a {@link MutationGate}, which a reset closes just long enough to journal
+ * itself and swap in empty accounts, so it never waits on the size of the store and no change
+ * straddles it. Audits scan the store in parallel on the fork-join pool while events run.
+ */
 @Slf4j
 @Service
 @Getter
 public class AccountService {
+    public static final int MAX_ATOMIC_BATCH = 1_000;
+    public static final int MAX_HISTORY_PAGE = 1_000;
+    public static final int MAX_AUDIT_NEGATIVES = 1_000;
+
+    private static final String INVALID_TYPE = "Invalid type";
+    private static final String MISSING_DESTINATION = "Missing destination";
+    private static final String MISSING_AMOUNT = "Missing amount";
+    private static final String HISTORY_DISABLED = "Transaction history is disabled";
+    private static final int READ_SPINS = 100;
+
+    private final AccountStore store;
+    @Getter(AccessLevel.NONE)
+    private final EventJournal journal;
+    @Getter(AccessLevel.NONE)
+    private final SnapshotStore snapshots;
+    @Getter(AccessLevel.NONE)
+    private final EventMetrics metrics;
+    @Getter(AccessLevel.NONE)
+    private final TransactionLedger ledger;
+    @Getter(AccessLevel.NONE)
+    private final HotAccounts hotAccounts;
+    @Getter(AccessLevel.NONE)
+    private final LongAdder totalBalance = new LongAdder();
+    @Getter(AccessLevel.NONE)
+    private List<JournalRecord> recoveredTransfers = new ArrayList<>();
+    @Getter(AccessLevel.NONE)
+    private JournalPosition recoveredFrom = JournalPosition.START;
+    @Getter(AccessLevel.NONE)
+    private volatile Supplier<JournalPosition> retainedJournal = () -> null;
+    @Getter(AccessLevel.NONE)
+    private final MutationGate gate = new MutationGate(Runtime.getRuntime().availableProcessors());
+
+    public AccountService(EventJournal journal, SnapshotStore snapshots, EventMetrics metrics, AccountStore store,
+                          TransactionLedger ledger, HotAccounts hotAccounts) {
+        this.store = store;
+        this.journal = journal;
+        this.snapshots = snapshots;
+        this.metrics = metrics;
+        this.ledger = ledger;
+        this.hotAccounts = hotAccounts;
+    }
+
+    /**
+     * Loads the latest snapshot and replays the journal after it. A persistent store that still
+     * holds its accounts is used as it is instead of the snapshot, and the journal is replayed
+     * from the start, each account skipping the entries it already reflects.
+     */
+    @PostConstruct
+    public void recover() {
+        JournalPosition from;
+        if (store.size() > 0) {
+            store.forEach(account -> totalBalance.add(account.getBalance()));
+            from = JournalPosition.START;
+        } else {
+            from = snapshots.load((id, balance, lastSeq) -> {
+                AccountHandle account = store.getOrCreate(id);
+                account.setBalance(balance);
+                account.setLastSeq(lastSeq);
+                store.commit(account);
+                totalBalance.add(balance);
+            });
+        }
+        recoveredFrom = from;
+        journal.recover(from, record -> {
+            replay(record);
+            keepTransfer(record);
+        });
+        log.info("Recovered {} accounts", store.size());
+    }
+
+    /**
+     * Writes a snapshot without stopping the event flow: each account is copied consistently
+     * on its own, and recovery replays the journal from the position taken before the first copy,
+     * or from the earlier position {@link #retainJournal} asks for.
+     */
+    public void snapshot() {
+        JournalPosition position = journal.position();
+        JournalPosition retained = retainedJournal.get();
+        snapshots.write(null != retained && retained.seq() < position.seq() ? retained : position, this::forEachAccount);
+    }
+
+    /**
+     * Has snapshots keep the journal replayable from the position the supplier returns, or
+     * null for none, so that what recovery hands to {@link #takeRecoveredTransfers()} survives
+     * them.
+     */
+    public void retainJournal(Supplier<JournalPosition> retained) {
+        this.retainedJournal = retained;
+    }
+
+    public JournalPosition journalPosition() {
+        return journal.position();
+    }
 
-    private final Map<String, Account> accountsMap = new HashMap<>();
+    /**
+     * Position the last recovery replayed the journal from.
+     */
+    public JournalPosition recoveredFrom() {
+        return recoveredFrom;
+    }
+
+    /**
+     * The entries of cross-node transfers replayed by the last recovery, in journal order,
+     * handed over once.
+     */
+    public List<JournalRecord> takeRecoveredTransfers() {
+        List<JournalRecord> transfers = recoveredTransfers;
+        recoveredTransfers = new ArrayList<>();
+        return transfers;
+    }
+
+    /**
+     * Journals an entry of a cross-node transfer that changes no account, leaving durability
+     * to the caller through the batch.
+     *
+     * @return the entry's sequence number, 0 when nothing is journaled
+     */
+    public long journalTransfer(JournalEntryType type, String origin, String destination, long amount, DurabilityBatch batch) {
+        long seq = journal.append(type, origin, destination, amount);
+        batch.add(seq);
+        return seq;
+    }
 
+    private void keepTransfer(JournalRecord record) {
+        switch (record.getType()) {
+            case TRANSFER_OUT, TRANSFER_IN, TRANSFER_PENDING, TRANSFER_SETTLED, CLUSTER_EPOCH -> {
+                JournalRecord copy = new JournalRecord();
+                copy.set(record.getSeq(), record.getType(), record.getOrigin(), record.getDestination(), record.getAmount());
+                recoveredTransfers.add(copy);
+            }
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * Visits every account, each one read consistently without locking it. Striped accounts are
+     * locked just long enough to fold their deposits, so that the balance visited goes with its
+     * sequence number.
+     */
+    public void forEachAccount(AccountVisitor visitor) {
+        store.forEach(account -> {
+            if (null != hotAccounts.get(account.getId())) {
+                lock(account);
+                account.unlock();
+            }
+            long balance;
+            long lastSeq;
+            for (int attempts = 0; ; awaitWriter(++attempts)) {
+                long stamp = account.tryOptimisticRead();
+                balance = account.getBalance();
+                lastSeq = account.getLastSeq();
+                if (0 != stamp && account.validate(stamp)) {
+                    break;
+                }
+            }
+            visitor.visit(account.getId(), balance, lastSeq);
+        });
+    }
+
+    /**
+     * Empties every account at once: changes already running finish first, later ones see the
+     * empty store, and the old accounts are reclaimed in the background where the store allows.
+     */
     public void reset() {
+        long start = metrics.nanoTime();
         log.info("reset called");
-        log.info("accountsMap size: {}", accountsMap.size());
-        accountsMap.clear();
+        log.info("account count: {}", store.size());
+        long[] seq = new long[1];
+        gate.runExclusively(() -> {
+            seq[0] = journal.append(JournalEntryType.RESET, null, null, 0);
+            store.clear();
+            hotAccounts.clear();
+            ledger.clear();
+            totalBalance.reset();
+        });
+        journal.awaitDurable(seq[0]);
+        metrics.recordLatency(Operation.RESET, metrics.nanoTime() - start);
         log.info("reset successful");
     }
 
+    public int accountCount() {
+        return store.size();
+    }
+
+    /**
+     * Sum of every balance. Concurrent events may or may not be included.
+     */
+    public double totalBalance() {
+        return Money.toDouble(totalBalance.sum());
+    }
+
+    /**
+     * Counts the accounts, sums their balances and finds the {@code negativeLimit} most negative
+     * ones in one pass over the store, split across the fork-join pool. Events keep running
+     * meanwhile: each account is read consistently on its own, so under traffic the scanned
+     * total can drift from the running one by the events applied during the scan.
+     */
+    public AuditDTO audit(int negativeLimit) {
+        if (negativeLimit < 0 || negativeLimit > MAX_AUDIT_NEGATIVES) {
+            throw new IllegalArgumentException("limit must be between 0 and " + MAX_AUDIT_NEGATIVES);
+        }
+        long runningTotal = totalBalance.sum();
+        AccountAudit audit = StreamSupport.stream(store.spliterator(), true)
+                .collect(() -> new AccountAudit(negativeLimit),
+                        (partial, account) -> partial.add(account.getId(), balanceOf(account)),
+                        AccountAudit::merge);
+        return audit.toDTO(runningTotal);
+    }
+
+    /**
+     * Copy of the account as it is now, or null when there is none.
+     */
     public Account getAccount(String id) {
-        log.info("getAccount called for {}", id);
-        return accountsMap.get(id);
+        log.debug("getAccount called for {}", id);
+        AccountHandle account = store.get(id);
+        if (null == account) {
+            return null;
+        }
+        for (int attempts = 0; ; awaitWriter(++attempts)) {
+            long stamp = account.tryOptimisticRead();
+            long balance = account.getBalance() + pending(account);
+            long lastSeq = account.getLastSeq();
+            if (0 != stamp && account.validate(stamp)) {
+                return Account.builder().id(account.getId()).balance(balance).lastSeq(lastSeq).build();
+            }
+        }
     }
 
+    /**
+     * Creates the account or overwrites it with the given balance and sequence number, without
+     * journaling anything.
+     */
     public void saveAccount(Account account) {
-        log.info("saveAccount called for {}", account.getId());
-        accountsMap.put(account.getId(), account);
+        log.debug("saveAccount called for {}", account.getId());
+        int cell = gate.enter();
+        try {
+            AccountHandle stored = store.getOrCreate(account.getId());
+            lock(stored);
+            try {
+                totalBalance.add(account.getBalance() - stored.getBalance());
+                stored.setBalance(account.getBalance());
+                stored.setLastSeq(account.getLastSeq());
+                store.commit(stored);
+            } finally {
+                stored.unlock();
+            }
+        } finally {
+            gate.exit(cell);
+        }
+    }
+
+    public double getBalance(String id) {
+        return findBalance(id).orElseThrow();
+    }
+
+    /**
+     * Current balance of the account, or a not found outcome when there is none.
+     */
+    public Outcome<Double> findBalance(String id) {
+        long start = metrics.nanoTime();
+        log.debug("getBalance called for {}", id);
+        try {
+            AccountHandle acc = store.get(id);
+            if (null == acc) {
+                log.debug("Account not found: {}", id);
+                metrics.recordFailure(Operation.BALANCE, Outcome.Failure.NOT_FOUND);
+                return Outcome.notFound(id);
+            }
+            return Outcome.of(Money.toDouble(balanceOf(acc)));
+        } finally {
+            metrics.recordLatency(Operation.BALANCE, metrics.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Balances of several accounts as they all were at one point in time, as a transfer between
+     * them leaves both or neither changed.
+     */
+    public double[] getBalances(String... ids) {
+        long start = metrics.nanoTime();
+        try {
+            AccountHandle[] accounts = new AccountHandle[ids.length];
+            for (int i = 0; i < ids.length; i++) {
+                accounts[i] = store.get(ids[i]);
+                if (null == accounts[i]) {
+                    throw new AccountNotFoundException(ids[i]);
+                }
+            }
+            long[] stamps = new long[accounts.length];
+            double[] balances = new double[accounts.length];
+            for (int attempts = 0; ; awaitWriter(++attempts)) {
+                boolean unlocked = true;
+                for (int i = 0; i < accounts.length; i++) {
+                    stamps[i] = accounts[i].tryOptimisticRead();
+                    unlocked &= 0 != stamps[i];
+                }
+                for (int i = 0; i < accounts.length; i++) {
+                    balances[i] = Money.toDouble(accounts[i].getBalance() + pending(accounts[i]));
+                }
+                if (unlocked && validate(accounts, stamps)) {
+                    return balances;
+                }
+            }
+        } catch (AccountNotFoundException e) {
+            metrics.recordFailure(Operation.BALANCE, Outcome.Failure.NOT_FOUND);
+            throw e;
+        } finally {
+            metrics.recordLatency(Operation.BALANCE, metrics.nanoTime() - start);
+        }
+    }
+
+    private static boolean validate(AccountHandle[] accounts, long[] stamps) {
+        for (int i = 0; i < accounts.length; i++) {
+            if (!accounts[i].validate(stamps[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long balanceOf(AccountHandle account) {
+        for (int attempts = 0; ; awaitWriter(++attempts)) {
+            long stamp = account.tryOptimisticRead();
+            long balance = account.getBalance() + pending(account);
+            if (0 != stamp && account.validate(stamp)) {
+                return balance;
+            }
+        }
+    }
+
+    /**
+     * Deposits striped for the account and not folded yet. Looked up after taking the read
+     * stamp, so a fold in between is caught by the stamp.
+     */
+    private long pending(AccountHandle account) {
+        StripedBalance striped = hotAccounts.get(account.getId());
+        return null == striped ? 0 : striped.sum();
+    }
+
+    /**
+     * Spins, then yields, while a writer holds the account a reader wants; readers never park,
+     * since writers only hold an account while applying one event to it.
+     */
+    private static void awaitWriter(int attempts) {
+        if (attempts < READ_SPINS) {
+            Thread.onSpinWait();
+        } else {
+            Thread.yield();
+        }
+    }
+
+    /**
+     * Page of the account's history between {@code from} and {@code to}, both inclusive and
+     * optional, oldest first. An account is known when it exists or has history left from before
+     * it was emptied.
+     */
+    public TransactionPageDTO getTransactions(String id, Instant from, Instant to, int limit) {
+        long start = metrics.nanoTime();
+        log.debug("getTransactions called for {}", id);
+        try {
+            if (limit <= 0 || limit > MAX_HISTORY_PAGE) {
+                throw new IllegalArgumentException("limit must be between 1 and " + MAX_HISTORY_PAGE);
+            }
+            if (ledger == TransactionLedger.NONE) {
+                throw new IllegalArgumentException(HISTORY_DISABLED);
+            }
+            if (null == store.get(id) && !ledger.contains(id)) {
+                log.debug("Account not found: {}", id);
+                throw new AccountNotFoundException(id);
+            }
+            List<TransactionDTO> transactions = new ArrayList<>(Math.min(limit + 1, 16));
+            ledger.history(id, null == from ? Long.MIN_VALUE : micros(from), null == to ? Long.MAX_VALUE : micros(to), limit + 1,
+                    (timestamp, type, counterparty, amount, balance) -> transactions.add(TransactionDTO.builder()
+                            .timestamp(Instant.ofEpochSecond(Math.floorDiv(timestamp, 1_000_000), Math.floorMod(timestamp, 1_000_000) * 1_000L))
+                            .type(type.value())
+                            .counterparty(counterparty)
+                            .amount(Money.toDouble(amount))
+                            .balance(Money.toDouble(balance))
+                            .build()));
+            Instant next = null;
+            if (transactions.size() > limit) {
+                next = transactions.remove(limit).getTimestamp();
+            }
+            return TransactionPageDTO.builder().transactions(transactions).next(next).build();
+        } catch (AccountNotFoundException | IllegalArgumentException e) {
+            metrics.recordFailure(Operation.TRANSACTIONS, Outcome.Failure.of(e));
+            throw e;
+        } finally {
+            metrics.recordLatency(Operation.TRANSACTIONS, metrics.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Microseconds since the epoch, saturated for instants too far away to be in the ledger.
+     */
+    private static long micros(Instant instant) {
+        try {
+            return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000L), instant.getNano() / 1_000);
+        } catch (ArithmeticException e) {
+            return instant.isBefore(Instant.EPOCH) ? Long.MIN_VALUE : Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Balance the account had at the given time, from its ledger history. History starts at
+     * startup, so earlier times get the balance the account had then.
+     */
+    public double getBalanceAt(String id, Instant at) {
+        return findBalanceAt(id, at).orElseThrow();
+    }
+
+    /**
+     * Like {@link #getBalanceAt}, returning a failed outcome instead of throwing.
+     */
+    public Outcome<Double> findBalanceAt(String id, Instant at) {
+        long start = metrics.nanoTime();
+        log.debug("getBalanceAt called for {} at {}", id, at);
+        try {
+            if (ledger == TransactionLedger.NONE) {
+                metrics.recordFailure(Operation.BALANCE, Outcome.Failure.INVALID);
+                return Outcome.invalid(HISTORY_DISABLED);
+            }
+            AccountHandle acc = store.get(id);
+            if (null == acc && !ledger.contains(id)) {
+                log.debug("Account not found: {}", id);
+                metrics.recordFailure(Operation.BALANCE, Outcome.Failure.NOT_FOUND);
+                return Outcome.notFound(id);
+            }
+            long current = null == acc ? 0 : balanceOf(acc);
+            return Outcome.of(Money.toDouble(ledger.balanceAt(id, micros(at), current)));
+        } finally {
+            metrics.recordLatency(Operation.BALANCE, metrics.nanoTime() - start);
+        }
+    }
+
+    public DurabilityBatch newBatch() {
+        return new DurabilityBatch(journal);
+    }
+
+    /**
+     * Applies an event like the matching {@code process*} method, but leaves waiting for
+     * durability to the caller through the batch.
+     */
+    public TransactionResponseDTO process(TransactionRequestDTO request, DurabilityBatch batch) {
+        return tryProcess(request, batch).orElseThrow();
+    }
+
+    /**
+     * Applies an event of any type and waits until it is durable, returning a failed outcome for
+     * a missing origin or an invalid event instead of throwing.
+     */
+    public Outcome<TransactionResponseDTO> tryProcess(TransactionRequestDTO request) {
+        return apply(operationOf(request), request, null);
+    }
+
+    /**
+     * Like {@link #process}, returning a failed outcome instead of throwing.
+     */
+    public Outcome<TransactionResponseDTO> tryProcess(TransactionRequestDTO request, DurabilityBatch batch) {
+        return apply(operationOf(request), request, batch);
+    }
+
+    private static Operation operationOf(TransactionRequestDTO request) {
+        return null == request.getType() ? Operation.UNKNOWN : switch (request.getType()) {
+            case DEPOSIT -> Operation.DEPOSIT;
+            case WITHDRAW -> Operation.WITHDRAW;
+            case TRANSFER -> Operation.TRANSFER;
+        };
+    }
+
+    private Outcome<TransactionResponseDTO> apply(Operation operation, TransactionRequestDTO request, DurabilityBatch batch) {
+        int cell = gate.enter();
+        try {
+            return run(operation, request, batch);
+        } finally {
+            gate.exit(cell);
+        }
+    }
+
+    /**
+     * Runs an event, recording its latency and failure if any. The caller has entered the gate.
+     */
+    private Outcome<TransactionResponseDTO> run(Operation operation, TransactionRequestDTO request, DurabilityBatch batch) {
+        long start = metrics.nanoTime();
+        try {
+            Outcome<TransactionResponseDTO> outcome = switch (operation) {
+                case DEPOSIT -> deposit(request, batch);
+                case WITHDRAW -> withdraw(request, batch);
+                case TRANSFER -> transfer(request, batch);
+                default -> Outcome.invalid(INVALID_TYPE);
+            };
+            if (!outcome.isPresent()) {
+                metrics.recordFailure(operation, outcome.failure());
+            }
+            return outcome;
+        } finally {
+            metrics.recordLatency(operation, metrics.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Applies every event or none. The events are validated first, against the accounts that
+     * exist and the ones the batch itself creates: type, amount and its range, id lengths and
+     * origins. Then every account the batch refers to, including the destinations it creates, is
+     * locked in id order for the whole batch, the balances the events would leave are checked
+     * against those accounts, and only then are the events applied. Every rejection is therefore
+     * reported as a {@link BatchItemException} before anything changed; what remains is the
+     * journal failing to take an entry, which leaves the events before it applied, as it would
+     * for a run of {@code /event} requests. Durability is left to the caller through the batch.
+     * <p>
+     * Accounts are only removed by a reset, which waits for the gate, so the accounts validation
+     * found are still there once locked; and since destinations are created before any lock is
+     * taken, no account is locked out of order while others are held.
+     */
+    public List<TransactionResponseDTO> processAtomically(List<TransactionRequestDTO> requests, DurabilityBatch batch) {
+        if (requests.size() > MAX_ATOMIC_BATCH) {
+            throw new IllegalArgumentException("Atomic batches are limited to " + MAX_ATOMIC_BATCH + " events");
+        }
+        int cell = gate.enter();
+        try {
+            return processLocked(requests, batch);
+        } finally {
+            gate.exit(cell);
+        }
+    }
+
+    private List<TransactionResponseDTO> processLocked(List<TransactionRequestDTO> requests, DurabilityBatch batch) {
+        validateAtomically(requests);
+        TreeMap<String, AccountHandle> accounts = new TreeMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            TransactionRequestDTO request = requests.get(i);
+            try {
+                if (request.getType() != EventType.DEPOSIT) {
+                    accounts.computeIfAbsent(request.getOrigin(), store::get);
+                }
+                if (request.getType() != EventType.WITHDRAW) {
+                    accounts.computeIfAbsent(request.getDestination(), store::getOrCreate);
+                }
+            } catch (IllegalArgumentException e) {
+                throw new BatchItemException(i, e);
+            }
+        }
+        List<AccountHandle> held = new ArrayList<>(accounts.size());
+        try {
+            for (AccountHandle account : accounts.values()) {
+                lock(account);
+                held.add(account);
+            }
+            checkBalancesAtomically(requests, accounts);
+            List<TransactionResponseDTO> responses = new ArrayList<>(requests.size());
+            for (TransactionRequestDTO request : requests) {
+                responses.add(run(operationOf(request), request, batch).orElseThrow());
+            }
+            return responses;
+        } finally {
+            for (int i = held.size() - 1; i >= 0; i--) {
+                held.get(i).unlock();
+            }
+        }
+    }
+
+    private void validateAtomically(List<TransactionRequestDTO> requests) {
+        Set<String> created = new HashSet<>();
+        for (int i = 0; i < requests.size(); i++) {
+            TransactionRequestDTO request = requests.get(i);
+            try {
+                EventType type = request.getType();
+                if (null == type) {
+                    throw new IllegalArgumentException(INVALID_TYPE);
+                }
+                if (!request.hasAmount()) {
+                    throw new IllegalArgumentException(MISSING_AMOUNT);
+                }
+                Money.toCents(request.getAmount());
+                BinaryIds.checkLength(request.getOrigin());
+                BinaryIds.checkLength(request.getDestination());
+                if (type != EventType.DEPOSIT && !created.contains(request.getOrigin())
+                        && (null == request.getOrigin() || null == store.get(request.getOrigin()))) {
+                    throw new AccountNotFoundException(request.getOrigin());
+                }
+                if (type != EventType.WITHDRAW) {
+                    if (null == request.getDestination()) {
+                        throw new IllegalArgumentException(MISSING_DESTINATION);
+                    }
+                    created.add(request.getDestination());
+                }
+            } catch (AccountNotFoundException | IllegalArgumentException e) {
+                throw new BatchItemException(i, e);
+            }
+        }
     }
 
-    public Double getBalance(String id) {
-        log.info("getBalance called for {}", id);
-        Account acc = getAccount(id);
-        if (null == acc) {
-            log.warn("Account not found: {}", id);
-            throw new AccountNotFoundException(id);
+    /**
+     * Replays the batch on the balances of its locked accounts, rejecting the first event that
+     * would take one past what a long holds.
+     */
+    private static void checkBalancesAtomically(List<TransactionRequestDTO> requests, Map<String, AccountHandle> accounts) {
+        Map<String, Long> balances = new HashMap<>();
+        accounts.forEach((id, account) -> balances.put(id, account.getBalance()));
+        for (int i = 0; i < requests.size(); i++) {
+            TransactionRequestDTO request = requests.get(i);
+            long amount = Money.toCents(request.getAmount());
+            try {
+                if (request.getType() != EventType.DEPOSIT) {
+                    balances.put(request.getOrigin(), checkBalance(request.getOrigin(), balances.get(request.getOrigin()), -amount));
+                }
+                if (request.getType() != EventType.WITHDRAW) {
+                    balances.put(request.getDestination(), checkBalance(request.getDestination(), balances.get(request.getDestination()), amount));
+                }
+            } catch (IllegalArgumentException e) {
+                throw new BatchItemException(i, e);
+            }
         }
-        return acc.getBalance();
     }
 
     public TransactionResponseDTO processTransfer(TransactionRequestDTO request) {
-        var origin = processOrigin(request);
+        return apply(Operation.TRANSFER, request, null).orElseThrow();
+    }
 
+    private Outcome<TransactionResponseDTO> transfer(TransactionRequestDTO request, DurabilityBatch batch) {
+        if (!request.hasAmount()) {
+            return Outcome.invalid(MISSING_AMOUNT);
+        }
+        long amount = Money.toCents(request.getAmount());
+        var origin = processOrigin(request);
+        if (null == origin) {
+            return Outcome.notFound(request.getOrigin());
+        }
         var destination = processDestination(request);
-
-        return executeTransfer(request.getAmount(), origin, destination);
+        if (null == destination) {
+            return Outcome.invalid(MISSING_DESTINATION);
+        }
+        return Outcome.of(executeTransfer(amount, origin, destination, batch));
     }
 
-    private static TransactionResponseDTO executeTransfer(Double amount, Account origin, Account destination) {
-        origin.setBalance(origin.getBalance() - amount);
-        log.info("origin balance: {}", origin.getBalance());
-        destination.setBalance(destination.getBalance() + amount);
-        log.info("destination balance: {}", destination.getBalance());
+    private TransactionResponseDTO executeTransfer(long amount, AccountHandle origin, AccountHandle destination, DurabilityBatch batch) {
+        AccountHandle first = origin.getId().compareTo(destination.getId()) <= 0 ? origin : destination;
+        AccountHandle second = first == origin ? destination : origin;
+        TransactionResponseDTO response;
+        long seq;
+        lock(first);
+        lock(second);
+        try {
+            checkBalance(origin, -amount);
+            checkBalance(destination, amount);
+            seq = journal.append(JournalEntryType.TRANSFER, origin.getId(), destination.getId(), amount);
+            origin.debit(amount);
+            origin.setLastSeq(seq);
+            destination.credit(amount);
+            destination.setLastSeq(seq);
+            store.commit(origin, destination);
+            ledger.record(origin.getId(), LedgerEntryType.TRANSFER_OUT, destination.getId(), -amount, origin.getBalance());
+            ledger.record(destination.getId(), LedgerEntryType.TRANSFER_IN, origin.getId(), amount, destination.getBalance());
+            if (log.isDebugEnabled()) {
+                log.debug("origin balance: {}, destination balance: {}", origin.getBalance(), destination.getBalance());
+            }
 
-        return TransactionResponseDTO.fillReturn(origin, destination, "transfer");
+            response = TransactionResponseDTO.fillReturn(origin, destination, EventType.TRANSFER);
+        } finally {
+            second.unlock();
+            first.unlock();
+        }
+        awaitDurable(seq, batch);
+        return response;
     }
 
     public TransactionResponseDTO processDeposit(TransactionRequestDTO request) {
-        double amount = request.getAmount();
+        return apply(Operation.DEPOSIT, request, null).orElseThrow();
+    }
+
+    private Outcome<TransactionResponseDTO> deposit(TransactionRequestDTO request, DurabilityBatch batch) {
+        if (!request.hasAmount()) {
+            return Outcome.invalid(MISSING_AMOUNT);
+        }
+        long amount = Money.toCents(request.getAmount());
         var destination = processDestination(request);
+        if (null == destination) {
+            return Outcome.invalid(MISSING_DESTINATION);
+        }
+        StripedBalance striped = hotAccounts.get(destination.getId());
+        if (null != striped) {
+            TransactionResponseDTO response = depositStriped(amount, destination, striped, batch);
+            if (null != response) {
+                return Outcome.of(response);
+            }
+        }
 
-        destination.setBalance(destination.getBalance() + amount);
-        saveAccount(destination);
-        log.info("Destination created: {}", destination);
-        return TransactionResponseDTO.fillReturn(null, destination, request.getType());
+        TransactionResponseDTO response;
+        long seq;
+        if (!destination.tryLock()) {
+            metrics.recordLockContention();
+            hotAccounts.recordContention(destination.getId());
+            destination.lock();
+        }
+        try {
+            fold(destination);
+            checkBalance(destination, amount);
+            seq = journal.append(JournalEntryType.DEPOSIT, null, destination.getId(), amount);
+            destination.credit(amount);
+            totalBalance.add(amount);
+            destination.setLastSeq(seq);
+            store.commit(destination);
+            ledger.record(destination.getId(), LedgerEntryType.DEPOSIT, null, amount, destination.getBalance());
+            if (log.isDebugEnabled()) {
+                log.debug("destination balance: {}", destination.getBalance());
+            }
+            response = TransactionResponseDTO.fillReturn(null, destination, EventType.DEPOSIT);
+        } finally {
+            destination.unlock();
+        }
+        awaitDurable(seq, batch);
+        return Outcome.of(response);
+    }
+
+    /**
+     * Deposits into the account's cells without locking it, or returns null when they are being
+     * folded and the deposit has to take the lock. The history entry carries the balance read
+     * right after, which may already include deposits running alongside.
+     */
+    private TransactionResponseDTO depositStriped(long amount, AccountHandle destination, StripedBalance striped,
+                                                  DurabilityBatch batch) {
+        int cell = striped.enter();
+        if (cell < 0) {
+            return null;
+        }
+        long seq;
+        try {
+            seq = journal.append(JournalEntryType.DEPOSIT, null, destination.getId(), amount);
+            striped.add(cell, amount, seq);
+            totalBalance.add(amount);
+        } finally {
+            striped.exit(cell);
+        }
+        long balance = balanceOf(destination);
+        ledger.record(destination.getId(), LedgerEntryType.DEPOSIT, null, amount, balance);
+        if (log.isDebugEnabled()) {
+            log.debug("destination balance: {}", balance);
+        }
+        awaitDurable(seq, batch);
+        return TransactionResponseDTO.builder()
+                .destination(AccountDTO.builder().id(destination.getId()).balance(Money.toDouble(balance)).build())
+                .build();
     }
 
     public TransactionResponseDTO processWithdraw(TransactionRequestDTO request) {
-        double amount = request.getAmount();
-        Account origin = processOrigin(request);
+        return apply(Operation.WITHDRAW, request, null).orElseThrow();
+    }
+
+    private Outcome<TransactionResponseDTO> withdraw(TransactionRequestDTO request, DurabilityBatch batch) {
+        if (!request.hasAmount()) {
+            return Outcome.invalid(MISSING_AMOUNT);
+        }
+        long amount = Money.toCents(request.getAmount());
+        AccountHandle origin = processOrigin(request);
+        if (null == origin) {
+            return Outcome.notFound(request.getOrigin());
+        }
 
-        origin.setBalance(origin.getBalance() - amount);
-        saveAccount(origin);
-        log.info("origin balance: {}", origin.getBalance());
-        return TransactionResponseDTO.fillReturn(origin, null, request.getType());
+        TransactionResponseDTO response;
+        long seq;
+        lock(origin);
+        try {
+            checkBalance(origin, -amount);
+            seq = journal.append(JournalEntryType.WITHDRAW, origin.getId(), null, amount);
+            origin.debit(amount);
+            totalBalance.add(-amount);
+            origin.setLastSeq(seq);
+            store.commit(origin);
+            ledger.record(origin.getId(), LedgerEntryType.WITHDRAW, null, -amount, origin.getBalance());
+            if (log.isDebugEnabled()) {
+                log.debug("origin balance: {}", origin.getBalance());
+            }
+            response = TransactionResponseDTO.fillReturn(origin, null, EventType.WITHDRAW);
+        } finally {
+            origin.unlock();
+        }
+        awaitDurable(seq, batch);
+        return Outcome.of(response);
+    }
+
+    /**
+     * Debits the origin of a transfer whose destination is kept by another node, journaled with
+     * the transfer's id and recorded in the history as a transfer out. The caller delivers the
+     * credit.
+     */
+    public Outcome<AccountDTO> transferOut(String transferId, String originId, String destinationId, long amount) {
+        long start = metrics.nanoTime();
+        AccountDTO response;
+        long seq;
+        int cell = gate.enter();
+        try {
+            AccountHandle origin = store.get(originId);
+            if (null == origin) {
+                metrics.recordFailure(Operation.TRANSFER, Outcome.Failure.NOT_FOUND);
+                return Outcome.notFound(originId);
+            }
+            lock(origin);
+            try {
+                seq = journal.append(JournalEntryType.TRANSFER_OUT, origin.getId(), transferId, amount);
+                origin.debit(amount);
+                totalBalance.add(-amount);
+                origin.setLastSeq(seq);
+                store.commit(origin);
+                ledger.record(origin.getId(), LedgerEntryType.TRANSFER_OUT, destinationId, -amount, origin.getBalance());
+                response = AccountDTO.from(origin);
+            } finally {
+                origin.unlock();
+            }
+        } finally {
+            gate.exit(cell);
+        }
+        journal.awaitDurable(seq);
+        metrics.recordLatency(Operation.TRANSFER, metrics.nanoTime() - start);
+        return Outcome.of(response);
+    }
+
+    /**
+     * Credits the destination of a transfer debited on another node, creating it if needed,
+     * journaled with the transfer's id and recorded in the history as a transfer in.
+     */
+    public AccountDTO transferIn(String transferId, String originId, String destinationId, long amount) {
+        if (null == destinationId) {
+            throw new IllegalArgumentException(MISSING_DESTINATION);
+        }
+        AccountDTO response;
+        long seq;
+        int cell = gate.enter();
+        try {
+            AccountHandle destination = store.getOrCreate(destinationId);
+            lock(destination);
+            try {
+                seq = journal.append(JournalEntryType.TRANSFER_IN, transferId, destination.getId(), amount);
+                destination.credit(amount);
+                totalBalance.add(amount);
+                destination.setLastSeq(seq);
+                store.commit(destination);
+                ledger.record(destination.getId(), LedgerEntryType.TRANSFER_IN, originId, amount, destination.getBalance());
+                response = AccountDTO.from(destination);
+            } finally {
+                destination.unlock();
+            }
+        } finally {
+            gate.exit(cell);
+        }
+        journal.awaitDurable(seq);
+        return response;
+    }
+
+    /**
+     * Creates the account or overwrites its balance, as when loading accounts from another system.
+     */
+    public void importAccount(String id, long balance, DurabilityBatch batch) {
+        if (null == id) {
+            throw new IllegalArgumentException("Missing account id");
+        }
+        long seq;
+        int cell = gate.enter();
+        try {
+            AccountHandle account = store.getOrCreate(id);
+            lock(account);
+            try {
+                seq = journal.append(JournalEntryType.IMPORT, null, id, balance);
+                long change = balance - account.getBalance();
+                totalBalance.add(change);
+                account.setBalance(balance);
+                account.setLastSeq(seq);
+                store.commit(account);
+                ledger.record(id, LedgerEntryType.IMPORT, null, change, balance);
+            } finally {
+                account.unlock();
+            }
+        } finally {
+            gate.exit(cell);
+        }
+        awaitDurable(seq, batch);
+    }
+
+    private void lock(AccountHandle account) {
+        if (!account.tryLock()) {
+            metrics.recordLockContention();
+            account.lock();
+        }
+        try {
+            fold(account);
+        } catch (RuntimeException | Error e) {
+            account.unlock();
+            throw e;
+        }
+    }
+
+    /**
+     * Moves the deposits striped for a locked account into its balance, so that whoever locked
+     * it sees the whole balance.
+     */
+    private void fold(AccountHandle account) {
+        StripedBalance striped = hotAccounts.get(account.getId());
+        if (null != striped && striped.fold(account)) {
+            store.commit(account);
+        }
     }
 
-    private Account processOrigin(TransactionRequestDTO request) {
-        Account origin = getAccount(request.getOrigin());
+    /**
+     * Rejects a change that would take a locked account's balance past what a long holds,
+     * before it is journaled.
+     */
+    private static void checkBalance(AccountHandle account, long cents) {
+        checkBalance(account.getId(), account.getBalance(), cents);
+    }
+
+    private static long checkBalance(String id, long balance, long cents) {
+        if (cents > 0 ? balance > Long.MAX_VALUE - cents : balance < Long.MIN_VALUE - cents) {
+            throw new IllegalArgumentException("Balance of account " + id + " out of range");
+        }
+        return balance + cents;
+    }
+
+    private void awaitDurable(long seq, DurabilityBatch batch) {
+        if (null == batch) {
+            journal.awaitDurable(seq);
+        } else {
+            batch.add(seq);
+        }
+    }
+
+    /**
+     * Origin account of the event, or null when it does not exist.
+     */
+    private AccountHandle processOrigin(TransactionRequestDTO request) {
+        AccountHandle origin = store.get(request.getOrigin());
         if(null == origin) {
-            log.info("Account not found: {}", request.getOrigin());
-            throw new AccountNotFoundException(request.getOrigin());
+            log.debug("Account not found: {}", request.getOrigin());
+            return null;
         }
-        log.info("origin: {}", origin);
+        log.debug("origin: {}", origin.getId());
         return origin;
     }
 
-    private Account processDestination(TransactionRequestDTO request) {
-        Account destination = getAccount(request.getDestination());
-        if(null == destination) {
-            log.info("Creating destination account");
-            destination = Account.builder().id(request.getDestination()).balance(0.0).build();
+    /**
+     * Destination account of the event, created if needed, or null when the event has none.
+     */
+    private AccountHandle processDestination(TransactionRequestDTO request) {
+        if (null == request.getDestination()) {
+            return null;
+        }
+        return store.getOrCreate(request.getDestination());
+    }
+
+    /**
+     * Applies an entry streamed from the replication leader while reads run, without journaling
+     * it. The accounts it touches are locked as the leader locked them, so readers see it whole,
+     * and a reset swaps the store as {@link #reset()} does.
+     */
+    public void replicate(JournalRecord record) {
+        switch (record.getType()) {
+            case TRANSFER_PENDING, TRANSFER_SETTLED, CLUSTER_EPOCH -> {
+                return;
+            }
+            default -> {
+            }
+        }
+        if (JournalEntryType.RESET == record.getType()) {
+            gate.runExclusively(() -> {
+                store.clear();
+                hotAccounts.clear();
+                ledger.clear();
+                totalBalance.reset();
+            });
+            return;
+        }
+        int cell = gate.enter();
+        try {
+            AccountHandle first;
+            AccountHandle second = null;
+            if (JournalEntryType.TRANSFER == record.getType() && !record.getOrigin().equals(record.getDestination())) {
+                boolean ordered = record.getOrigin().compareTo(record.getDestination()) < 0;
+                first = store.getOrCreate(ordered ? record.getOrigin() : record.getDestination());
+                second = store.getOrCreate(ordered ? record.getDestination() : record.getOrigin());
+            } else {
+                first = store.getOrCreate(JournalEntryType.WITHDRAW == record.getType()
+                        || JournalEntryType.TRANSFER == record.getType()
+                        || JournalEntryType.TRANSFER_OUT == record.getType() ? record.getOrigin() : record.getDestination());
+            }
+            lock(first);
+            if (null != second) {
+                lock(second);
+            }
+            try {
+                replay(record);
+            } finally {
+                if (null != second) {
+                    second.unlock();
+                }
+                first.unlock();
+            }
+        } finally {
+            gate.exit(cell);
+        }
+    }
+
+    /**
+     * Applies a journaled event during recovery, when no request is running yet. Each account
+     * only takes entries newer than the last one it has seen, since the snapshot it was loaded
+     * from may already include some of the entries being replayed. Missing accounts are created
+     * so that the journal is reproduced as written.
+     */
+    private void replay(JournalRecord record) {
+        long seq = record.getSeq();
+        switch (record.getType()) {
+            case DEPOSIT -> replayCredit(record.getDestination(), seq, record.getAmount());
+            case WITHDRAW, TRANSFER_OUT -> replayCredit(record.getOrigin(), seq, -record.getAmount());
+            case TRANSFER_IN -> replayCredit(record.getDestination(), seq, record.getAmount());
+            case TRANSFER -> {
+                if (record.getOrigin().equals(record.getDestination())) {
+                    replayCredit(record.getOrigin(), seq, 0);
+                } else {
+                    replayCredit(record.getOrigin(), seq, -record.getAmount());
+                    replayCredit(record.getDestination(), seq, record.getAmount());
+                }
+            }
+            case RESET -> {
+                store.clear();
+                hotAccounts.clear();
+                totalBalance.reset();
+            }
+            case IMPORT -> {
+                AccountHandle account = store.getOrCreate(record.getDestination());
+                if (seq > account.getLastSeq()) {
+                    totalBalance.add(record.getAmount() - account.getBalance());
+                    account.setBalance(record.getAmount());
+                    account.setLastSeq(seq);
+                    store.commit(account);
+                }
+            }
+            case TRANSFER_PENDING, TRANSFER_SETTLED, CLUSTER_EPOCH -> {
+            }
+        }
+    }
+
+    private void replayCredit(String id, long seq, long amount) {
+        AccountHandle account = store.getOrCreate(id);
+        if (seq > account.getLastSeq()) {
+            account.credit(amount);
+            totalBalance.add(amount);
+            account.setLastSeq(seq);
+            store.commit(account);
         }
-        return destination;
     }
 
 
@@ -0,0 +1,165 @@
+package br.com.drsm.ebanx_test_api.service;
+
+import br.com.drsm.ebanx_test_api.dto.EventType;
+import br.com.drsm.ebanx_test_api.dto.ImportSummaryDTO;
+import br.com.drsm.ebanx_test_api.dto.TransactionRequestDTO;
+import br.com.drsm.ebanx_test_api.dto.TransactionResponseDTO;
+import br.com.drsm.ebanx_test_api.model.Money;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Set;
+
+/**
+ * Imports and exports accounts as NDJSON without holding the whole document in memory: records
+ * are parsed and applied one at a time as the input is read, and exported accounts are written
+ * straight to the output. Both sides block on the underlying stream, so a slow peer slows the
+ * import or the export down instead of making it buffer.
+ */
+@Slf4j
+@Service
+public class AccountStreamService {
+    private static final int CHUNK_SIZE = 256;
+    private static final Set<String> RECORD_FIELDS = Set.of("id", "balance", "type", "origin", "destination", "amount");
+
+    private final AccountService service;
+    private final JsonFactory jsonFactory;
+
+    public AccountStreamService(AccountService service, ObjectMapper mapper) {
+        this.service = service;
+        this.jsonFactory = mapper.getFactory();
+    }
+
+    /**
+     * Reads account records ({@code {"id":"100","balance":10}}) and event records (the body of
+     * {@code /event}). Account records set the balance, event records are applied like
+     * {@code /event}; records that fail, or whose amount, balance or ids are not a number or a
+     * string as expected, are counted and skipped. Malformed JSON stops the import
+     * with an {@link IllegalArgumentException}, keeping what was applied before it.
+     */
+    public ImportSummaryDTO importNdjson(InputStream in) throws IOException {
+        DurabilityBatch batch = service.newBatch();
+        TransactionRequestDTO event = TransactionRequestDTO.builder().build();
+        long accounts = 0;
+        long events = 0;
+        long failed = 0;
+        try (JsonParser parser = jsonFactory.createParser(in)) {
+            JsonToken token;
+            while (null != (token = parser.nextToken())) {
+                if (token != JsonToken.START_OBJECT) {
+                    throw new IllegalArgumentException("Expected a JSON object at line " + parser.currentLocation().getLineNr());
+                }
+                String id = null;
+                Double balance = null;
+                boolean hasType = false;
+                boolean wellFormed = true;
+                event.setType(null);
+                event.setOrigin(null);
+                event.setDestination(null);
+                event.clearAmount();
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    if (parser.nextToken().isStructStart()) {
+                        parser.skipChildren();
+                        wellFormed &= !RECORD_FIELDS.contains(field);
+                        continue;
+                    }
+                    switch (field) {
+                        case "id" -> id = parser.getValueAsString();
+                        case "balance" -> {
+                            balance = numberOrNull(parser);
+                            wellFormed &= null != balance;
+                        }
+                        case "type" -> {
+                            event.setType(EventType.of(parser.getValueAsString()));
+                            hasType = true;
+                        }
+                        case "origin" -> event.setOrigin(parser.getValueAsString());
+                        case "destination" -> event.setDestination(parser.getValueAsString());
+                        case "amount" -> {
+                            if (parser.currentToken().isNumeric()) {
+                                event.setAmount(parser.getDoubleValue());
+                            } else {
+                                wellFormed = false;
+                            }
+                        }
+                        default -> {
+                        }
+                    }
+                }
+                try {
+                    if (!wellFormed) {
+                        throw new IllegalArgumentException("Record has a field of the wrong type");
+                    } else if (hasType) {
+                        Outcome<TransactionResponseDTO> outcome = service.tryProcess(event, batch);
+                        if (outcome.isPresent()) {
+                            events++;
+                        } else {
+                            log.debug("Import record rejected: {}", outcome.detail());
+                            failed++;
+                        }
+                    } else if (null != balance) {
+                        service.importAccount(id, Money.toCents(balance), batch);
+                        accounts++;
+                    } else {
+                        throw new IllegalArgumentException("Record is neither an account nor an event");
+                    }
+                } catch (IllegalArgumentException e) {
+                    log.debug("Import record rejected: {}", e.getMessage());
+                    failed++;
+                }
+                if ((accounts + events + failed) % CHUNK_SIZE == 0) {
+                    batch.awaitDurable();
+                }
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed import record: " + e.getOriginalMessage(), e);
+        } finally {
+            batch.awaitDurable();
+        }
+        log.info("Imported {} accounts and {} events, {} records rejected", accounts, events, failed);
+        return ImportSummaryDTO.builder().accounts(accounts).events(events).failed(failed).build();
+    }
+
+    /**
+     * The number the parser is on, or null when it is on anything else, so that a string or a
+     * null is not read as 0.
+     */
+    private static Double numberOrNull(JsonParser parser) throws IOException {
+        return parser.currentToken().isNumeric() ? parser.getDoubleValue() : null;
+    }
+
+    /**
+     * Writes one {@code {"id":"100","balance":10.0}} line per account.
+     */
+    public void exportNdjson(OutputStream out) throws IOException {
+        try (JsonGenerator generator = jsonFactory.createGenerator(out)) {
+            generator.setRootValueSeparator(null);
+            try {
+                service.forEachAccount((id, balance, lastSeq) -> {
+                    try {
+                        generator.writeStartObject();
+                        generator.writeStringField("id", id);
+                        generator.writeNumberField("balance", Money.toDouble(balance));
+                        generator.writeEndObject();
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
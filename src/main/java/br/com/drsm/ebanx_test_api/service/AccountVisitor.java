@@ -0,0 +1,10 @@
+package br.com.drsm.ebanx_test_api.service;
+
+/**
+ * Receives the state of one account: its balance in cents and the sequence number of the last
+ * journal entry applied to it.
+ */
+@FunctionalInterface
+public interface AccountVisitor {
+    void visit(String id, long balance, long lastSeq);
+}
@@ -0,0 +1,35 @@
+package br.com.drsm.ebanx_test_api.service;
+
+import br.com.drsm.ebanx_test_api.journal.EventJournal;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Collects the journal entries of several events so that their requester waits for durability
+ * once, after the last one, instead of once per event.
+ */
+public class DurabilityBatch {
+    private final EventJournal journal;
+    private long lastSeq;
+
+    DurabilityBatch(EventJournal journal) {
+        this.journal = journal;
+    }
+
+    void add(long seq) {
+        if (seq > lastSeq) {
+            lastSeq = seq;
+        }
+    }
+
+    public void awaitDurable() {
+        journal.awaitDurable(lastSeq);
+    }
+
+    /**
+     * Like {@link #awaitDurable()}, completing a future instead of blocking.
+     */
+    public CompletableFuture<Void> whenDurable() {
+        return journal.whenDurable(lastSeq);
+    }
+}
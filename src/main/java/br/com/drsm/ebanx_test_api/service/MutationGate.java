@@ -0,0 +1,96 @@
+package br.com.drsm.ebanx_test_api.service;
+
+import br.com.drsm.ebanx_test_api.concurrent.Threads;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Lets changes to the accounts run side by side and a reset run alone between them, without
+ * the changes sharing a counter: each one counts itself in a cell picked by thread, cells a
+ * cache line pair apart. {@link #runExclusively} closes the gate, waits for the cells to drain
+ * and runs its action while changes wait at {@link #enter()}. The action is meant to take
+ * constant time, such as swapping a table, so the wait is as short as the longest change
+ * already running.
+ * <p>
+ * A thread must not enter twice: a reset waiting for it would wait forever.
+ */
+final class MutationGate {
+    private static final int STRIDE = 16;
+    private static final int SPINS = 100;
+    private static final int YIELDS = 10;
+    private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final AtomicLongArray inFlight;
+    private final int mask;
+    private final ReentrantLock exclusive = new ReentrantLock();
+    private volatile boolean closed;
+
+    MutationGate(int cellCount) {
+        int size = Integer.highestOneBit(Math.max(1, cellCount - 1)) << 1;
+        inFlight = new AtomicLongArray(size * STRIDE);
+        mask = size - 1;
+    }
+
+    /**
+     * Counts a change in, waiting while the gate is closed. Returns the cell to pass to
+     * {@link #exit(int)}.
+     */
+    int enter() {
+        int cell = cellOf(Thread.currentThread()) * STRIDE;
+        while (true) {
+            inFlight.getAndIncrement(cell);
+            if (!closed) {
+                return cell;
+            }
+            inFlight.getAndDecrement(cell);
+            for (int attempts = 0; closed; attempts++) {
+                await(attempts);
+            }
+        }
+    }
+
+    void exit(int cell) {
+        inFlight.getAndDecrement(cell);
+    }
+
+    /**
+     * Runs the action once every change that entered before has exited, holding new ones back
+     * until it returns.
+     */
+    void runExclusively(Runnable action) {
+        exclusive.lock();
+        try {
+            closed = true;
+            try {
+                for (int cell = 0; cell < inFlight.length(); cell += STRIDE) {
+                    for (int attempts = 0; 0 != inFlight.get(cell); attempts++) {
+                        await(attempts);
+                    }
+                }
+                action.run();
+            } finally {
+                closed = false;
+            }
+        } finally {
+            exclusive.unlock();
+        }
+    }
+
+    private static void await(int attempts) {
+        if (attempts < SPINS) {
+            Thread.onSpinWait();
+        } else if (attempts < SPINS + YIELDS) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+    }
+
+    private int cellOf(Thread thread) {
+        long id = Threads.idOf(thread) * 0x9E3779B97F4A7C15L;
+        return (int) (id >>> 32) & mask;
+    }
+}
@@ -0,0 +1,100 @@
+package br.com.drsm.ebanx_test_api.service;
+
+import br.com.drsm.ebanx_test_api.service.exception.AccountNotFoundException;
+
+/**
+ * Value of an operation that a request can make fail, or the reason it failed. Unknown accounts
+ * and invalid events are routine answers, so the service returns them as outcomes instead of
+ * throwing: a miss costs one small object, like a hit, with no stack trace to capture and no
+ * handler lookup. {@link #orElseThrow()} turns a failure back into the exception the throwing
+ * methods raise.
+ */
+public final class Outcome<T> {
+
+    public enum Failure {
+        /**
+         * The account the operation needs does not exist; the detail is its id.
+         */
+        NOT_FOUND,
+        /**
+         * The request is malformed; the detail says why.
+         */
+        INVALID;
+
+        /**
+         * Failure an exception thrown by the service stands for.
+         */
+        public static Failure of(RuntimeException e) {
+            return e instanceof AccountNotFoundException ? NOT_FOUND : INVALID;
+        }
+    }
+
+    private final T value;
+    private final Failure failure;
+    private final String detail;
+
+    private Outcome(T value, Failure failure, String detail) {
+        this.value = value;
+        this.failure = failure;
+        this.detail = detail;
+    }
+
+    public static <T> Outcome<T> of(T value) {
+        return new Outcome<>(value, null, null);
+    }
+
+    public static <T> Outcome<T> notFound(String id) {
+        return new Outcome<>(null, Failure.NOT_FOUND, id);
+    }
+
+    public static <T> Outcome<T> invalid(String reason) {
+        return new Outcome<>(null, Failure.INVALID, reason);
+    }
+
+    public boolean isPresent() {
+        return null == failure;
+    }
+
+    /**
+     * The value, or null when the operation failed.
+     */
+    public T value() {
+        return value;
+    }
+
+    /**
+     * Why the operation failed, or null when it did not.
+     */
+    public Failure failure() {
+        return failure;
+    }
+
+    public String detail() {
+        return detail;
+    }
+
+    /**
+     * The same failure for a different value type.
+     */
+    @SuppressWarnings("unchecked")
+    public <U> Outcome<U> asFailure() {
+        if (isPresent()) {
+            throw new IllegalStateException("Outcome is not a failure");
+        }
+        return (Outcome<U>) this;
+    }
+
+    /**
+     * The value, or throws {@link AccountNotFoundException} or {@link IllegalArgumentException}
+     * for the failure.
+     */
+    public T orElseThrow() {
+        if (null == failure) {
+            return value;
+        }
+        throw switch (failure) {
+            case NOT_FOUND -> new AccountNotFoundException(detail);
+            case INVALID -> new IllegalArgumentException(detail);
+        };
+    }
+}
@@ -1,8 +1,12 @@
 package br.com.drsm.ebanx_test_api.service.exception;
 
+/**
+ * Thrown by the service methods that throw instead of returning an outcome. A missing account is
+ * a routine answer rather than a bug, so no stack trace is captured.
+ */
 public class AccountNotFoundException extends RuntimeException {
 
     public AccountNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
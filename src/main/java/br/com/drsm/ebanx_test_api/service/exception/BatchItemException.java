@@ -0,0 +1,16 @@
+package br.com.drsm.ebanx_test_api.service.exception;
+
+import lombok.Getter;
+
+/**
+ * Rejection of an atomic batch because of one of its events, identified by its position.
+ */
+@Getter
+public class BatchItemException extends RuntimeException {
+    private final int index;
+
+    public BatchItemException(int index, RuntimeException cause) {
+        super("Event " + index + " rejected: " + cause.getMessage(), cause);
+        this.index = index;
+    }
+}
@@ -0,0 +1,187 @@
+package br.com.drsm.ebanx_test_api.snapshot;
+
+import br.com.drsm.ebanx_test_api.io.BinaryIds;
+import br.com.drsm.ebanx_test_api.journal.JournalPosition;
+import br.com.drsm.ebanx_test_api.service.AccountVisitor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * {@link SnapshotStore} keeping the latest snapshot in one file.
+ * <p>
+ * Layout: {@code [int magic][int version][long seq][long offset]}, then one
+ * {@code [id][long balance][long lastSeq]} per account, then {@code [long count][int crc32c]}
+ * where the checksum covers the account records. A snapshot is written to a temporary file and
+ * renamed over the previous one, and is read back through memory-mapped windows.
+ */
+@Slf4j
+public class FileSnapshotStore implements SnapshotStore {
+    private static final int MAGIC = 0x45425853;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 2 * Integer.BYTES + 2 * Long.BYTES;
+    private static final int FOOTER_SIZE = Long.BYTES + Integer.BYTES;
+    private static final int MAX_RECORD_SIZE = BinaryIds.MAX_ENCODED_SIZE + 2 * Long.BYTES;
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final long WINDOW_SIZE = 1L << 30;
+
+    private final Path path;
+    private final Path tempPath;
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    public FileSnapshotStore(Path path) {
+        this.path = path;
+        this.tempPath = path.resolveSibling(path.getFileName() + ".tmp");
+    }
+
+    @Override
+    public void write(JournalPosition position, Consumer<AccountVisitor> accounts) {
+        writeLock.lock();
+        try {
+            long start = System.nanoTime();
+            if (null != path.getParent()) {
+                Files.createDirectories(path.getParent());
+            }
+            long count;
+            try (FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                Writer writer = new Writer(channel);
+                writer.buffer.putInt(MAGIC).putInt(VERSION).putLong(position.seq()).putLong(position.offset());
+                writer.write();
+                accounts.accept(writer);
+                writer.finish();
+                count = writer.count;
+                channel.force(true);
+            }
+            Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Snapshot of {} accounts at journal seq {} written in {} ms", count, position.seq(),
+                    (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write snapshot " + path, e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public JournalPosition load(AccountVisitor visitor) {
+        if (!Files.exists(path)) {
+            return JournalPosition.START;
+        }
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE + FOOTER_SIZE) {
+                log.warn("Ignoring truncated snapshot {}", path);
+                return JournalPosition.START;
+            }
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            MappedByteBuffer footer = channel.map(FileChannel.MapMode.READ_ONLY, size - FOOTER_SIZE, FOOTER_SIZE);
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                log.warn("Ignoring snapshot {} with an unknown format", path);
+                return JournalPosition.START;
+            }
+            JournalPosition position = new JournalPosition(header.getLong(), header.getLong());
+            long count = footer.getLong();
+            long end = size - FOOTER_SIZE;
+            if (checksum(channel, end) != footer.getInt()) {
+                log.warn("Ignoring snapshot {} with a bad checksum", path);
+                return JournalPosition.START;
+            }
+            read(channel, end, visitor);
+            log.info("Loaded {} accounts from snapshot at journal seq {} in {} ms", count, position.seq(),
+                    (System.nanoTime() - start) / 1_000_000);
+            return position;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read snapshot " + path, e);
+        }
+    }
+
+    private static int checksum(FileChannel channel, long end) throws IOException {
+        CRC32C crc = new CRC32C();
+        for (long position = HEADER_SIZE; position < end; position += WINDOW_SIZE) {
+            crc.update(channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW_SIZE, end - position)));
+        }
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Reads the account records, remapping the window whenever less than a full record is left
+     * in it.
+     */
+    private static void read(FileChannel channel, long end, AccountVisitor visitor) throws IOException {
+        byte[] scratch = new byte[BinaryIds.MAX_ENCODED_SIZE];
+        long windowStart = HEADER_SIZE;
+        MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, Math.min(WINDOW_SIZE, end - windowStart));
+        while (windowStart + window.position() < end) {
+            if (window.remaining() < MAX_RECORD_SIZE && windowStart + window.limit() < end) {
+                windowStart += window.position();
+                window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, Math.min(WINDOW_SIZE, end - windowStart));
+            }
+            String id = BinaryIds.get(window, scratch);
+            visitor.visit(id, window.getLong(), window.getLong());
+        }
+    }
+
+    private static class Writer implements AccountVisitor {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private final CRC32C crc = new CRC32C();
+        private long count;
+
+        Writer(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public void visit(String id, long balance, long lastSeq) {
+            BinaryIds.checkLength(id);
+            if (buffer.remaining() < MAX_RECORD_SIZE) {
+                checksumAndWrite();
+            }
+            BinaryIds.put(buffer, id);
+            buffer.putLong(balance).putLong(lastSeq);
+            count++;
+        }
+
+        void finish() {
+            checksumAndWrite();
+            buffer.putLong(count).putInt((int) crc.getValue());
+            write();
+        }
+
+        private void checksumAndWrite() {
+            buffer.flip();
+            crc.update(buffer);
+            buffer.rewind();
+            drain();
+        }
+
+        void write() {
+            buffer.flip();
+            drain();
+        }
+
+        private void drain() {
+            try {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                buffer.clear();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package br.com.drsm.ebanx_test_api.snapshot;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(SnapshotProperties.class)
+public class SnapshotConfiguration {
+
+    @Bean
+    public SnapshotStore snapshotStore(SnapshotProperties properties) {
+        if (!properties.isEnabled()) {
+            return SnapshotStore.NONE;
+        }
+        return new FileSnapshotStore(properties.getPath());
+    }
+}
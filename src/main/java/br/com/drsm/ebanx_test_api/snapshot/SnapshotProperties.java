@@ -0,0 +1,20 @@
+package br.com.drsm.ebanx_test_api.snapshot;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties("ebanx.snapshot")
+public class SnapshotProperties {
+    /**
+     * Whether the accounts are periodically snapshotted and loaded from the snapshot on startup.
+     */
+    private boolean enabled = false;
+    private Path path = Path.of("data", "accounts.snapshot");
+    private Duration interval = Duration.ofMinutes(5);
+}
@@ -0,0 +1,55 @@
+package br.com.drsm.ebanx_test_api.snapshot;
+
+import br.com.drsm.ebanx_test_api.service.AccountService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Takes a snapshot every {@code ebanx.snapshot.interval} on a background thread, and a last one
+ * on shutdown so the next start has little to replay.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "ebanx.snapshot.enabled", havingValue = "true")
+public class SnapshotScheduler {
+    private final AccountService service;
+    private final SnapshotProperties properties;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public SnapshotScheduler(AccountService service, SnapshotProperties properties) {
+        this.service = service;
+        this.properties = properties;
+    }
+
+    @PostConstruct
+    public void start() {
+        long interval = properties.getInterval().toMillis();
+        executor.scheduleWithFixedDelay(this::snapshot, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+        snapshot();
+    }
+
+    private void snapshot() {
+        try {
+            service.snapshot();
+        } catch (RuntimeException e) {
+            log.error("Snapshot failed", e);
+        }
+    }
+}
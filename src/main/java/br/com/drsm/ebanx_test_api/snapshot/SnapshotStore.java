@@ -0,0 +1,43 @@
+package br.com.drsm.ebanx_test_api.snapshot;
+
+import br.com.drsm.ebanx_test_api.journal.JournalPosition;
+import br.com.drsm.ebanx_test_api.service.AccountVisitor;
+
+import java.util.function.Consumer;
+
+/**
+ * Stores the latest copy of every account together with the journal position it was taken at.
+ * <p>
+ * Snapshots are fuzzy: accounts are read one at a time while events keep flowing, so entries
+ * after the snapshot position may or may not be reflected in it. Each account carries the
+ * sequence number of the last entry applied to it, which lets recovery replay the journal from
+ * that position and skip, per account, what the snapshot already contains.
+ */
+public interface SnapshotStore {
+
+    /**
+     * Store used when snapshots are disabled: nothing is written and recovery replays the whole
+     * journal.
+     */
+    SnapshotStore NONE = new SnapshotStore() {
+        @Override
+        public void write(JournalPosition position, Consumer<AccountVisitor> accounts) {
+        }
+
+        @Override
+        public JournalPosition load(AccountVisitor visitor) {
+            return JournalPosition.START;
+        }
+    };
+
+    /**
+     * Writes a new snapshot from the accounts fed to the given visitor and makes it the latest.
+     */
+    void write(JournalPosition position, Consumer<AccountVisitor> accounts);
+
+    /**
+     * Feeds every account of the latest snapshot to the visitor and returns the journal position
+     * to replay from, {@link JournalPosition#START} when there is no usable snapshot.
+     */
+    JournalPosition load(AccountVisitor visitor);
+}
@@ -0,0 +1,48 @@
+package br.com.drsm.ebanx_test_api.store;
+
+/**
+ * An account as held by an {@link AccountStore}: its balance in cents, the sequence number of
+ * the last journal entry applied to it, and the lock that serializes updates to both. The lock
+ * is reentrant, and two accounts must be locked in id order.
+ * <p>
+ * Reads need no lock: a reader takes a stamp with {@link #tryOptimisticRead()}, reads, and keeps
+ * what it read only if {@link #validate(long)} says no lock was taken in between, so readers
+ * never hold up writers and only retry when a write overlapped them.
+ */
+public interface AccountHandle {
+    String getId();
+
+    long getBalance();
+
+    void setBalance(long balance);
+
+    long getLastSeq();
+
+    void setLastSeq(long lastSeq);
+
+    boolean tryLock();
+
+    void lock();
+
+    void unlock();
+
+    /**
+     * Returns a stamp to pass to {@link #validate(long)} after reading, 0 while the account is
+     * locked.
+     */
+    long tryOptimisticRead();
+
+    /**
+     * Whether the account was not locked since the stamp was returned, which means everything
+     * read from it in between belongs to one state.
+     */
+    boolean validate(long stamp);
+
+    default void credit(long cents) {
+        setBalance(Math.addExact(getBalance(), cents));
+    }
+
+    default void debit(long cents) {
+        setBalance(Math.subtractExact(getBalance(), cents));
+    }
+}
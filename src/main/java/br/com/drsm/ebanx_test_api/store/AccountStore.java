@@ -0,0 +1,61 @@
+package br.com.drsm.ebanx_test_api.store;
+
+import java.io.Closeable;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Holds every account by id. Handles stay usable after the store is cleared, but no longer
+ * refer to anything in it.
+ */
+public interface AccountStore extends Closeable {
+
+    /**
+     * Handle on the account, or null when there is none.
+     */
+    AccountHandle get(String id);
+
+    /**
+     * Handle on the account, created with a zero balance when there is none.
+     */
+    AccountHandle getOrCreate(String id);
+
+    int size();
+
+    /**
+     * Removes every account. Callers see an empty store as soon as it returns; stores that can
+     * swap in a new table do so and leave the old one to be reclaimed in the background, instead
+     * of emptying it in place.
+     */
+    void clear();
+
+    /**
+     * Feeds a handle on every account to the action, which must not keep it once it returns.
+     */
+    void forEach(Consumer<AccountHandle> action);
+
+    /**
+     * Handles on every account, for parallel streams: the spliterator splits so that fork-join
+     * workers each visit their own part of the store. As with {@link #forEach}, handles must not
+     * be kept once visited.
+     */
+    Spliterator<AccountHandle> spliterator();
+
+    /**
+     * Marks the end of a change made to a locked account, for stores that need to know what
+     * belongs together to keep it consistent across a crash. In-memory stores have nothing to do.
+     */
+    default void commit(AccountHandle account) {
+    }
+
+    /**
+     * Like {@link #commit(AccountHandle)} for a change to two accounts that must survive a crash
+     * together or not at all.
+     */
+    default void commit(AccountHandle first, AccountHandle second) {
+    }
+
+    @Override
+    default void close() {
+    }
+}
@@ -0,0 +1,47 @@
+package br.com.drsm.ebanx_test_api.store;
+
+import br.com.drsm.ebanx_test_api.model.Account;
+
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Keeps one {@link Account} object per account in a {@link ConcurrentHashMap}.
+ */
+public class HeapAccountStore implements AccountStore {
+    private volatile ConcurrentHashMap<String, AccountHandle> accounts = new ConcurrentHashMap<>();
+
+    @Override
+    public AccountHandle get(String id) {
+        return null == id ? null : accounts.get(id);
+    }
+
+    @Override
+    public AccountHandle getOrCreate(String id) {
+        return accounts.computeIfAbsent(id, key -> Account.builder().id(key).build());
+    }
+
+    @Override
+    public int size() {
+        return accounts.size();
+    }
+
+    /**
+     * Starts over with an empty map; the old one is collected once nothing refers to it.
+     */
+    @Override
+    public void clear() {
+        accounts = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public void forEach(Consumer<AccountHandle> action) {
+        accounts.values().forEach(action);
+    }
+
+    @Override
+    public Spliterator<AccountHandle> spliterator() {
+        return accounts.values().spliterator();
+    }
+}
@@ -0,0 +1,592 @@
+package br.com.drsm.ebanx_test_api.store;
+
+import br.com.drsm.ebanx_test_api.io.BinaryIds;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * {@link AccountStore} whose hash table is a memory-mapped file, updated in place: accounts
+ * survive a restart without replaying anything, and the OS page cache decides what stays in
+ * memory.
+ * <p>
+ * Layout: a 4 KB header {@code [int magic][int version][int slots][int clean][int count][long
+ * version]}, a ring of redo records, then a power-of-two number of 128-byte slots found by
+ * linear probing:
+ * {@code [long lock][long stamp][int idSize][int idHash][byte current][byte dirty]...[copy 0][copy 1][id]},
+ * each copy being {@code [long balance][long lastSeq][long version][int checksum]} and the id
+ * stored in the {@link BinaryIds} encoding in the last 34 bytes, which limits ids to 32 bytes.
+ * <p>
+ * The first change to a slot after a commit goes to the copy that is not current; committing
+ * gives it a new version and its checksum, which makes it the current one. A slot torn by a
+ * crash therefore still has its previous copy, since recovery takes the valid copy with the
+ * highest version. A change to two slots first writes both new copies to a redo record, which
+ * recovery applies to any slot still older than it, so a transfer is never found half done.
+ * <p>
+ * Changes reach the file when the OS writes the pages back, so a crash of the process loses
+ * nothing; surviving a power loss needs the journal. The header is marked clean on
+ * {@link #close()}, which lets the next start skip the recovery scan.
+ */
+@Slf4j
+public class MappedAccountStore implements AccountStore {
+    private static final int MAGIC = 0x45425841;
+    private static final int FORMAT = 2;
+    private static final int HEADER_SIZE = 4096;
+    private static final int SLOTS_AT = 8;
+    private static final int CLEAN_AT = 12;
+    private static final int COUNT_AT = 16;
+    private static final int VERSION_AT = 24;
+    private static final int REDO_RECORDS = 1024;
+    private static final int REDO_SIZE = 64;
+    private static final int SLOT_SIZE = 128;
+    private static final int LOCK = 0;
+    private static final int STAMP = 8;
+    private static final int ID_SIZE = 16;
+    private static final int ID_HASH = 20;
+    private static final int CURRENT = 24;
+    private static final int DIRTY = 25;
+    private static final int COPIES = 32;
+    private static final int COPY_SIZE = 32;
+    private static final int BALANCE = 0;
+    private static final int LAST_SEQ = 8;
+    private static final int VERSION = 16;
+    private static final int CHECKSUM = 24;
+    private static final int ID = 94;
+    public static final int MAX_ID_BYTES = SLOT_SIZE - ID - Short.BYTES;
+    private static final int WINDOW_BITS = 23;
+    private static final int CLEAR_CHUNK = 1 << 20;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private final MappedByteBuffer[] windows;
+    private final int mask;
+    private final int capacity;
+    private final ReentrantLock insertLock = new ReentrantLock();
+    private final AtomicInteger count = new AtomicInteger();
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * Opens the store at the given path, creating it for {@code capacity} accounts when missing.
+     * An existing store keeps its own capacity; see {@link #open} to change it.
+     */
+    public MappedAccountStore(Path path, int capacity) {
+        this.path = path;
+        try {
+            if (null != path.getParent()) {
+                Files.createDirectories(path.getParent());
+            }
+            boolean exists = Files.exists(path) && Files.size(path) > 0;
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) REDO_RECORDS * REDO_SIZE);
+            header.order(ByteOrder.nativeOrder());
+            int slots;
+            if (exists) {
+                if (header.getInt(0) != MAGIC || header.getInt(4) != FORMAT) {
+                    throw new IllegalStateException("Account store " + path + " has an unknown format");
+                }
+                slots = header.getInt(SLOTS_AT);
+            } else {
+                slots = slotsFor(capacity);
+                header.putInt(0, MAGIC).putInt(4, FORMAT).putInt(SLOTS_AT, slots).putInt(CLEAN_AT, 1);
+            }
+            this.mask = slots - 1;
+            this.capacity = slots / 4 * 3;
+            this.windows = new MappedByteBuffer[Math.max(1, slots >>> WINDOW_BITS)];
+            long start = HEADER_SIZE + (long) REDO_RECORDS * REDO_SIZE;
+            for (int i = 0; i < windows.length; i++) {
+                long size = (long) Math.min(slots, 1 << WINDOW_BITS) * SLOT_SIZE;
+                windows[i] = channel.map(FileChannel.MapMode.READ_WRITE, start + (long) i * size, size);
+                windows[i].order(ByteOrder.nativeOrder());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open account store " + path, e);
+        }
+        recoverIfNeeded();
+    }
+
+    /**
+     * Opens the store, rebuilding it first when it exists with a different capacity.
+     */
+    public static MappedAccountStore open(Path path, int capacity) {
+        MappedAccountStore store = new MappedAccountStore(path, capacity);
+        if (store.mask + 1 == slotsFor(capacity)) {
+            return store;
+        }
+        Path rebuilt = path.resolveSibling(path.getFileName() + ".rebuild");
+        try {
+            Files.deleteIfExists(rebuilt);
+            try (MappedAccountStore target = new MappedAccountStore(rebuilt, capacity)) {
+                store.forEach(account -> {
+                    AccountHandle copy = target.getOrCreate(account.getId());
+                    copy.setBalance(account.getBalance());
+                    copy.setLastSeq(account.getLastSeq());
+                    target.commit(copy);
+                });
+            }
+            store.close();
+            Files.move(rebuilt, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot resize account store " + path, e);
+        }
+        log.info("Resized account store {} for {} accounts", path, capacity);
+        return new MappedAccountStore(path, capacity);
+    }
+
+    @Override
+    public AccountHandle get(String id) {
+        if (null == id) {
+            return null;
+        }
+        int hash = hash(id);
+        int slot = find(hash, id);
+        return slot < 0 ? null : new Handle(slot, id);
+    }
+
+    @Override
+    public AccountHandle getOrCreate(String id) {
+        int hash = hash(id);
+        int slot = find(hash, id);
+        if (slot >= 0) {
+            return new Handle(slot, id);
+        }
+        int size = BinaryIds.encodedSize(id);
+        if (size - Short.BYTES > MAX_ID_BYTES) {
+            throw new IllegalArgumentException("Account id longer than " + MAX_ID_BYTES + " bytes");
+        }
+        insertLock.lock();
+        try {
+            slot = hash & mask;
+            while (true) {
+                ByteBuffer window = window(slot);
+                int offset = offset(slot);
+                int stored = (int) RecordLocks.INTS.getAcquire(window, offset + ID_SIZE);
+                if (stored == 0) {
+                    break;
+                }
+                if (window.getInt(offset + ID_HASH) == hash && BinaryIds.matches(window, offset + ID, id)) {
+                    return new Handle(slot, id);
+                }
+                slot = (slot + 1) & mask;
+            }
+            if (count.get() >= capacity) {
+                throw new IllegalStateException("Account store " + path + " is full at " + capacity + " accounts");
+            }
+            ByteBuffer window = window(slot);
+            int offset = offset(slot);
+            BinaryIds.put(window, offset + ID, id);
+            window.putLong(offset + LOCK, 0).putLong(offset + STAMP, 0).putInt(offset + ID_HASH, hash).put(offset + CURRENT, (byte) 0).put(offset + DIRTY, (byte) 0);
+            writeCopy(window, copy(offset, 0), 0, 0, 0, hash);
+            writeCopy(window, copy(offset, 1), 0, 0, 0, 0);
+            RecordLocks.INTS.setRelease(window, offset + ID_SIZE, size);
+            count.incrementAndGet();
+            return new Handle(slot, id);
+        } finally {
+            insertLock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        return count.get();
+    }
+
+    /**
+     * Zeroes every slot and the redo ring. The file is the table, so there is nothing to swap:
+     * the slots are zeroed in place, split across the fork-join pool. Like clearing a map, it is
+     * not coordinated with changes in flight.
+     */
+    @Override
+    public void clear() {
+        insertLock.lock();
+        try {
+            for (int at = HEADER_SIZE; at < header.capacity(); at += Long.BYTES) {
+                header.putLong(at, 0);
+            }
+            int chunksPerWindow = Math.max(1, windows[0].capacity() / CLEAR_CHUNK);
+            IntStream.range(0, windows.length * chunksPerWindow).parallel().forEach(chunk -> {
+                MappedByteBuffer window = windows[chunk / chunksPerWindow];
+                int size = window.capacity() / chunksPerWindow;
+                for (int at = chunk % chunksPerWindow * size, end = at + size; at < end; at += Long.BYTES) {
+                    window.putLong(at, 0);
+                }
+            });
+            count.set(0);
+        } finally {
+            insertLock.unlock();
+        }
+    }
+
+    @Override
+    public void forEach(Consumer<AccountHandle> action) {
+        byte[] scratch = new byte[BinaryIds.MAX_ENCODED_SIZE];
+        for (int slot = 0; slot <= mask; slot++) {
+            ByteBuffer window = window(slot);
+            int offset = offset(slot);
+            if ((int) RecordLocks.INTS.getAcquire(window, offset + ID_SIZE) != 0) {
+                action.accept(new Handle(slot, BinaryIds.get(window, offset + ID, scratch)));
+            }
+        }
+    }
+
+    @Override
+    public Spliterator<AccountHandle> spliterator() {
+        return new SlotSpliterator(0, mask + 1, false, (slot, scratch) -> {
+            ByteBuffer window = window(slot);
+            int offset = offset(slot);
+            if ((int) RecordLocks.INTS.getAcquire(window, offset + ID_SIZE) == 0) {
+                return null;
+            }
+            return new Handle(slot, BinaryIds.get(window, offset + ID, scratch));
+        });
+    }
+
+    @Override
+    public void commit(AccountHandle account) {
+        Handle handle = (Handle) account;
+        if (handle.window.get(handle.offset + DIRTY) != 0) {
+            commit(handle, version.incrementAndGet());
+        }
+    }
+
+    /**
+     * Logs both new copies to the redo ring before committing them. A record is only needed until
+     * both commits are done, long before the ring comes back to it.
+     */
+    @Override
+    public void commit(AccountHandle first, AccountHandle second) {
+        Handle a = (Handle) first;
+        Handle b = (Handle) second;
+        if (a.slot == b.slot) {
+            commit(a);
+            return;
+        }
+        long next = version.incrementAndGet();
+        int at = HEADER_SIZE + (int) (next % REDO_RECORDS) * REDO_SIZE;
+        long balanceA = a.getBalance();
+        long lastSeqA = a.getLastSeq();
+        long balanceB = b.getBalance();
+        long lastSeqB = b.getLastSeq();
+        header.putLong(at, next).putInt(at + 8, a.slot).putInt(at + 12, b.slot)
+                .putLong(at + 16, balanceA).putLong(at + 24, lastSeqA).putLong(at + 32, balanceB).putLong(at + 40, lastSeqB)
+                .putInt(at + 48, redoChecksum(next, a.slot, b.slot, balanceA, lastSeqA, balanceB, lastSeqB));
+        VarHandle.storeStoreFence();
+        commit(a, next);
+        commit(b, next);
+    }
+
+    /**
+     * Writes everything to disk.
+     */
+    public void force() {
+        for (MappedByteBuffer window : windows) {
+            window.force();
+        }
+        header.putInt(COUNT_AT, count.get()).putLong(VERSION_AT, version.get());
+        header.force();
+    }
+
+    @Override
+    public void close() {
+        if (!channel.isOpen()) {
+            return;
+        }
+        force();
+        header.putInt(CLEAN_AT, 1);
+        header.force();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot close account store " + path, e);
+        }
+    }
+
+    /**
+     * After a clean close the header has everything; otherwise every slot is checked, its
+     * current copy chosen, locks left by the dead process dropped, and the redo ring applied.
+     */
+    private void recoverIfNeeded() {
+        long start = System.nanoTime();
+        if (header.getInt(CLEAN_AT) == 1) {
+            count.set(header.getInt(COUNT_AT));
+            version.set(header.getLong(VERSION_AT));
+        } else {
+            recover();
+            log.info("Recovered account store {} with {} accounts in {} ms", path, count.get(),
+                    (System.nanoTime() - start) / 1_000_000);
+        }
+        header.putInt(CLEAN_AT, 0);
+        header.force();
+    }
+
+    private void recover() {
+        int accounts = 0;
+        long latest = 0;
+        for (int slot = 0; slot <= mask; slot++) {
+            ByteBuffer window = window(slot);
+            int offset = offset(slot);
+            if (window.getInt(offset + ID_SIZE) == 0) {
+                continue;
+            }
+            accounts++;
+            int hash = window.getInt(offset + ID_HASH);
+            int current = -1;
+            long currentVersion = -1;
+            for (int i = 0; i < 2; i++) {
+                int copy = copy(offset, i);
+                long copyVersion = window.getLong(copy + VERSION);
+                if (copyVersion > currentVersion && validCopy(window, copy, hash)) {
+                    current = i;
+                    currentVersion = copyVersion;
+                }
+            }
+            if (current < 0) {
+                log.error("Account {} in store {} has no valid copy, resetting it", BinaryIds.get(window, offset + ID,
+                        new byte[BinaryIds.MAX_ENCODED_SIZE]), path);
+                current = 0;
+                currentVersion = 0;
+                writeCopy(window, copy(offset, 0), 0, 0, 0, hash);
+            }
+            window.putLong(offset + LOCK, 0).putLong(offset + STAMP, 0).put(offset + CURRENT, (byte) current).put(offset + DIRTY, (byte) 0);
+            latest = Math.max(latest, currentVersion);
+        }
+        for (int i = 0; i < REDO_RECORDS; i++) {
+            latest = Math.max(latest, replayRedo(HEADER_SIZE + i * REDO_SIZE));
+        }
+        count.set(accounts);
+        version.set(latest);
+    }
+
+    /**
+     * Applies a valid redo record to either of its slots still older than it, returning its
+     * version.
+     */
+    private long replayRedo(int at) {
+        long recordVersion = header.getLong(at);
+        int slotA = header.getInt(at + 8);
+        int slotB = header.getInt(at + 12);
+        long balanceA = header.getLong(at + 16);
+        long lastSeqA = header.getLong(at + 24);
+        long balanceB = header.getLong(at + 32);
+        long lastSeqB = header.getLong(at + 40);
+        if (recordVersion == 0 || header.getInt(at + 48) != redoChecksum(recordVersion, slotA, slotB, balanceA, lastSeqA,
+                balanceB, lastSeqB) || slotA < 0 || slotA > mask || slotB < 0 || slotB > mask) {
+            return 0;
+        }
+        redo(slotA, recordVersion, balanceA, lastSeqA);
+        redo(slotB, recordVersion, balanceB, lastSeqB);
+        return recordVersion;
+    }
+
+    private void redo(int slot, long recordVersion, long balance, long lastSeq) {
+        ByteBuffer window = window(slot);
+        int offset = offset(slot);
+        int current = window.get(offset + CURRENT);
+        if (window.getInt(offset + ID_SIZE) == 0 || window.getLong(copy(offset, current) + VERSION) >= recordVersion) {
+            return;
+        }
+        int next = 1 - current;
+        writeCopy(window, copy(offset, next), balance, lastSeq, recordVersion, window.getInt(offset + ID_HASH));
+        window.put(offset + CURRENT, (byte) next);
+    }
+
+    private void commit(Handle handle, long next) {
+        ByteBuffer window = handle.window;
+        int offset = handle.offset;
+        if (window.get(offset + DIRTY) == 0) {
+            return;
+        }
+        int working = 1 - window.get(offset + CURRENT);
+        int copy = copy(offset, working);
+        window.putLong(copy + VERSION, next);
+        VarHandle.storeStoreFence();
+        window.putInt(copy + CHECKSUM, checksum(window.getLong(copy + BALANCE), window.getLong(copy + LAST_SEQ), next,
+                window.getInt(offset + ID_HASH)));
+        window.put(offset + CURRENT, (byte) working).put(offset + DIRTY, (byte) 0);
+    }
+
+    private int find(int hash, String id) {
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            ByteBuffer window = window(slot);
+            int offset = offset(slot);
+            if ((int) RecordLocks.INTS.getAcquire(window, offset + ID_SIZE) == 0) {
+                return -1;
+            }
+            if (window.getInt(offset + ID_HASH) == hash && BinaryIds.matches(window, offset + ID, id)) {
+                return slot;
+            }
+        }
+    }
+
+    private ByteBuffer window(int slot) {
+        return windows[slot >>> WINDOW_BITS];
+    }
+
+    private static int offset(int slot) {
+        return (slot & ((1 << WINDOW_BITS) - 1)) * SLOT_SIZE;
+    }
+
+    private static int copy(int offset, int index) {
+        return offset + COPIES + index * COPY_SIZE;
+    }
+
+    private static void writeCopy(ByteBuffer window, int copy, long balance, long lastSeq, long version, int hash) {
+        window.putLong(copy + BALANCE, balance).putLong(copy + LAST_SEQ, lastSeq).putLong(copy + VERSION, version)
+                .putInt(copy + CHECKSUM, 0 == hash ? 0 : checksum(balance, lastSeq, version, hash));
+    }
+
+    private static boolean validCopy(ByteBuffer window, int copy, int hash) {
+        return window.getInt(copy + CHECKSUM) == checksum(window.getLong(copy + BALANCE), window.getLong(copy + LAST_SEQ),
+                window.getLong(copy + VERSION), hash);
+    }
+
+    /**
+     * Never 0, so that a copy that was never written is not valid.
+     */
+    private static int checksum(long balance, long lastSeq, long version, int hash) {
+        long h = mix(balance ^ 0x9E3779B97F4A7C15L);
+        h = mix(h ^ lastSeq);
+        h = mix(h ^ version);
+        h = mix(h ^ hash);
+        return (int) (h ^ (h >>> 32)) | 1;
+    }
+
+    private static int redoChecksum(long version, int slotA, int slotB, long balanceA, long lastSeqA, long balanceB,
+                                    long lastSeqB) {
+        return checksum(balanceA ^ mix(balanceB), lastSeqA ^ mix(lastSeqB), version, slotA * 31 + slotB);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        return h ^ (h >>> 33);
+    }
+
+    /**
+     * Spread id hash, never 0 so that it can mark a copy that was never written.
+     */
+    private static int hash(String id) {
+        int h = id.hashCode() * 0x9E3779B9;
+        h ^= h >>> 16;
+        return 0 == h ? 1 : h;
+    }
+
+    private static int slotsFor(int capacity) {
+        int slots = 1 << 10;
+        while (slots / 4 * 3 < capacity) {
+            slots <<= 1;
+        }
+        return slots;
+    }
+
+    /**
+     * Reads and writes the copy being worked on since the slot's last commit, which starts as a
+     * copy of the current one.
+     */
+    private final class Handle implements AccountHandle {
+        private final int slot;
+        private final ByteBuffer window;
+        private final int offset;
+        private final String id;
+
+        Handle(int slot, String id) {
+            this.slot = slot;
+            this.window = window(slot);
+            this.offset = offset(slot);
+            this.id = id;
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public long getBalance() {
+            return window.getLong(readable() + BALANCE);
+        }
+
+        @Override
+        public void setBalance(long balance) {
+            window.putLong(writable() + BALANCE, balance);
+        }
+
+        @Override
+        public long getLastSeq() {
+            return window.getLong(readable() + LAST_SEQ);
+        }
+
+        @Override
+        public void setLastSeq(long lastSeq) {
+            window.putLong(writable() + LAST_SEQ, lastSeq);
+        }
+
+        @Override
+        public boolean tryLock() {
+            return RecordLocks.tryLock(window, offset + LOCK) > 0;
+        }
+
+        @Override
+        public void lock() {
+            RecordLocks.lock(window, offset + LOCK);
+        }
+
+        @Override
+        public void unlock() {
+            RecordLocks.unlock(window, offset + LOCK, id);
+        }
+
+        @Override
+        public long tryOptimisticRead() {
+            return RecordLocks.tryOptimisticRead(window, offset + LOCK);
+        }
+
+        @Override
+        public boolean validate(long stamp) {
+            return RecordLocks.validate(window, offset + LOCK, stamp);
+        }
+
+        private int readable() {
+            int current = window.get(offset + CURRENT);
+            return copy(offset, window.get(offset + DIRTY) != 0 ? 1 - current : current);
+        }
+
+        /**
+         * Copies the current state into the working copy on the first change since the last
+         * commit. Its old checksum no longer matches from the first write on, so a crash before
+         * the commit leaves it invalid.
+         */
+        private int writable() {
+            int current = window.get(offset + CURRENT);
+            int working = copy(offset, 1 - current);
+            if (window.get(offset + DIRTY) == 0) {
+                int from = copy(offset, current);
+                window.putInt(working + CHECKSUM, 0);
+                VarHandle.storeStoreFence();
+                window.putLong(working + BALANCE, window.getLong(from + BALANCE))
+                        .putLong(working + LAST_SEQ, window.getLong(from + LAST_SEQ))
+                        .putLong(working + VERSION, window.getLong(from + VERSION));
+                window.put(offset + DIRTY, (byte) 1);
+            }
+            return working;
+        }
+    }
+}
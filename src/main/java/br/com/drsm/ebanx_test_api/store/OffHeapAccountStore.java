@@ -0,0 +1,344 @@
+package br.com.drsm.ebanx_test_api.store;
+
+import br.com.drsm.ebanx_test_api.io.BinaryIds;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * {@link AccountStore} keeping every account in direct memory, so the heap holds a few hundred
+ * buffers whatever the number of accounts and the garbage collector has nothing to trace.
+ * <p>
+ * Accounts get consecutive slots in a table of fixed 40-byte records
+ * {@code [long balance][long lastSeq][long lock][long stamp][long idAddress]}, the id being stored once, in
+ * the {@link BinaryIds} encoding, in an append-only arena. Ids are found through an
+ * open-addressing index split into segments by hash, each entry holding the id hash and the
+ * slot. Lookups read the index without locking, since entries are only ever added and are
+ * published after the record they point to; inserts take their segment's lock, and a segment
+ * that fills up is rehashed on its own, so growing the table never stops more than one segment
+ * for a fraction of the accounts. Accounts are locked, and read optimistically, with a
+ * {@link RecordLocks} word and stamp kept in their record.
+ * <p>
+ * Direct memory is limited by {@code -XX:MaxDirectMemorySize}, which defaults to the maximum
+ * heap size; about 65 bytes are needed per account with short ids.
+ */
+public class OffHeapAccountStore implements AccountStore {
+    private static final int SEGMENT_BITS = 6;
+    private static final int SEGMENTS = 1 << SEGMENT_BITS;
+    private static final int RECORD_SIZE = 40;
+    private static final int BALANCE = 0;
+    private static final int LAST_SEQ = 8;
+    private static final int LOCK = 16;
+    private static final int ID_ADDRESS = 32;
+    private static final int RECORD_CHUNK_BITS = 18;
+    private static final int ID_CHUNK_BITS = 23;
+    private static final int MIN_SEGMENT_CAPACITY = 64;
+
+    private final int initialCapacity;
+    private volatile Table table;
+
+    public OffHeapAccountStore(int initialCapacity) {
+        this.initialCapacity = initialCapacity;
+        this.table = new Table(initialCapacity);
+    }
+
+    @Override
+    public AccountHandle get(String id) {
+        if (null == id) {
+            return null;
+        }
+        Table current = table;
+        int slot = current.find(id);
+        return slot < 0 ? null : new Handle(current, slot, id);
+    }
+
+    @Override
+    public AccountHandle getOrCreate(String id) {
+        BinaryIds.checkLength(id);
+        Table current = table;
+        return new Handle(current, current.findOrInsert(id), id);
+    }
+
+    @Override
+    public int size() {
+        return table.size();
+    }
+
+    /**
+     * Starts over with an empty table; the old one is freed once no handle refers to it.
+     */
+    @Override
+    public void clear() {
+        table = new Table(initialCapacity);
+    }
+
+    @Override
+    public void forEach(Consumer<AccountHandle> action) {
+        Table current = table;
+        byte[] scratch = new byte[BinaryIds.MAX_ENCODED_SIZE];
+        for (int slot = 0, size = current.size(); slot < size; slot++) {
+            action.accept(new Handle(current, slot, current.id(slot, scratch)));
+        }
+    }
+
+    @Override
+    public Spliterator<AccountHandle> spliterator() {
+        Table current = table;
+        return new SlotSpliterator(0, current.size(), true, (slot, scratch) -> new Handle(current, slot, current.id(slot, scratch)));
+    }
+
+    /**
+     * Spreads the id hash so that both the segment, taken from the high bits, and the position
+     * in the segment, taken from the low ones, depend on every bit of it.
+     */
+    private static int hash(String id) {
+        int h = id.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static final class Handle implements AccountHandle {
+        private final ByteBuffer records;
+        private final int offset;
+        private final String id;
+
+        Handle(Table table, int slot, String id) {
+            this.records = table.records(slot);
+            this.offset = table.offset(slot);
+            this.id = id;
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public long getBalance() {
+            return records.getLong(offset + BALANCE);
+        }
+
+        @Override
+        public void setBalance(long balance) {
+            records.putLong(offset + BALANCE, balance);
+        }
+
+        @Override
+        public long getLastSeq() {
+            return records.getLong(offset + LAST_SEQ);
+        }
+
+        @Override
+        public void setLastSeq(long lastSeq) {
+            records.putLong(offset + LAST_SEQ, lastSeq);
+        }
+
+        @Override
+        public boolean tryLock() {
+            return RecordLocks.tryLock(records, offset + LOCK) > 0;
+        }
+
+        @Override
+        public void lock() {
+            RecordLocks.lock(records, offset + LOCK);
+        }
+
+        @Override
+        public void unlock() {
+            RecordLocks.unlock(records, offset + LOCK, id);
+        }
+
+        @Override
+        public long tryOptimisticRead() {
+            return RecordLocks.tryOptimisticRead(records, offset + LOCK);
+        }
+
+        @Override
+        public boolean validate(long stamp) {
+            return RecordLocks.validate(records, offset + LOCK, stamp);
+        }
+    }
+
+    /**
+     * Index of one segment: entries are {@code hash << 32 | slot + 1}, 0 marking a free entry.
+     */
+    private record Index(ByteBuffer entries, int mask) {
+        static Index withCapacity(int capacity) {
+            return new Index(ByteBuffer.allocateDirect(capacity * Long.BYTES).order(ByteOrder.nativeOrder()), capacity - 1);
+        }
+
+        long entry(int i) {
+            return (long) RecordLocks.LONGS.getAcquire(entries, i * Long.BYTES);
+        }
+
+        void publish(int i, long entry) {
+            RecordLocks.LONGS.setRelease(entries, i * Long.BYTES, entry);
+        }
+
+        int capacity() {
+            return mask + 1;
+        }
+    }
+
+    private static final class Segment {
+        final ReentrantLock lock = new ReentrantLock();
+        volatile Index index;
+        int count;
+
+        Segment(int capacity) {
+            index = Index.withCapacity(capacity);
+        }
+    }
+
+    private static final class Table {
+        final Segment[] segments = new Segment[SEGMENTS];
+        final ReentrantLock allocationLock = new ReentrantLock();
+        volatile ByteBuffer[] recordChunks = new ByteBuffer[0];
+        volatile ByteBuffer[] idChunks = new ByteBuffer[0];
+        volatile int size;
+        long idEnd;
+
+        Table(int capacity) {
+            int perSegment = MIN_SEGMENT_CAPACITY;
+            while (perSegment * 3L < capacity * 4L / SEGMENTS) {
+                perSegment <<= 1;
+            }
+            for (int i = 0; i < SEGMENTS; i++) {
+                segments[i] = new Segment(perSegment);
+            }
+        }
+
+        int size() {
+            return size;
+        }
+
+        ByteBuffer records(int slot) {
+            return recordChunks[slot >>> RECORD_CHUNK_BITS];
+        }
+
+        int offset(int slot) {
+            return (slot & ((1 << RECORD_CHUNK_BITS) - 1)) * RECORD_SIZE;
+        }
+
+        String id(int slot, byte[] scratch) {
+            long address = records(slot).getLong(offset(slot) + ID_ADDRESS);
+            return BinaryIds.get(idChunks[(int) (address >>> ID_CHUNK_BITS)], idOffset(address), scratch);
+        }
+
+        int find(String id) {
+            int hash = hash(id);
+            return find(segments[hash >>> (Integer.SIZE - SEGMENT_BITS)].index, hash, id);
+        }
+
+        int findOrInsert(String id) {
+            int hash = hash(id);
+            Segment segment = segments[hash >>> (Integer.SIZE - SEGMENT_BITS)];
+            int slot = find(segment.index, hash, id);
+            if (slot >= 0) {
+                return slot;
+            }
+            segment.lock.lock();
+            try {
+                slot = find(segment.index, hash, id);
+                if (slot < 0) {
+                    slot = allocate(id);
+                    if ((segment.count + 1) * 4L > segment.index.capacity() * 3L) {
+                        segment.index = grow(segment.index);
+                    }
+                    insert(segment.index, (long) hash << 32 | (slot + 1));
+                    segment.count++;
+                }
+                return slot;
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+
+        private int find(Index index, int hash, String id) {
+            for (int i = hash & index.mask(); ; i = (i + 1) & index.mask()) {
+                long entry = index.entry(i);
+                if (entry == 0) {
+                    return -1;
+                }
+                int slot = (int) entry - 1;
+                if ((int) (entry >>> 32) == hash && matches(slot, id)) {
+                    return slot;
+                }
+            }
+        }
+
+        private boolean matches(int slot, String id) {
+            long address = records(slot).getLong(offset(slot) + ID_ADDRESS);
+            return BinaryIds.matches(idChunks[(int) (address >>> ID_CHUNK_BITS)], idOffset(address), id);
+        }
+
+        private static void insert(Index index, long entry) {
+            int i = (int) (entry >>> 32) & index.mask();
+            while (index.entry(i) != 0) {
+                i = (i + 1) & index.mask();
+            }
+            index.publish(i, entry);
+        }
+
+        /**
+         * Rehashes into an index twice the size. Lookups keep reading the old one until the new
+         * one is published; whatever they miss meanwhile is looked up again under the lock
+         * before being inserted.
+         */
+        private static Index grow(Index index) {
+            Index grown = Index.withCapacity(index.capacity() * 2);
+            for (int i = 0; i < index.capacity(); i++) {
+                long entry = index.entry(i);
+                if (entry != 0) {
+                    insert(grown, entry);
+                }
+            }
+            return grown;
+        }
+
+        /**
+         * Takes the next slot and stores the id, both published with the index entry that
+         * follows.
+         */
+        private int allocate(String id) {
+            allocationLock.lock();
+            try {
+                int slot = size;
+                if ((slot >>> RECORD_CHUNK_BITS) == recordChunks.length) {
+                    recordChunks = append(recordChunks, RECORD_SIZE << RECORD_CHUNK_BITS);
+                }
+                int idSize = BinaryIds.encodedSize(id);
+                if (idOffset(idEnd) + idSize > 1 << ID_CHUNK_BITS) {
+                    idEnd = ((idEnd >>> ID_CHUNK_BITS) + 1) << ID_CHUNK_BITS;
+                }
+                if ((idEnd >>> ID_CHUNK_BITS) == idChunks.length) {
+                    idChunks = append(idChunks, 1 << ID_CHUNK_BITS);
+                }
+                long address = idEnd;
+                BinaryIds.put(idChunks[(int) (address >>> ID_CHUNK_BITS)], idOffset(address), id);
+                idEnd += idSize;
+                ByteBuffer records = records(slot);
+                int offset = offset(slot);
+                records.putLong(offset + BALANCE, 0).putLong(offset + LAST_SEQ, 0).putLong(offset + LOCK, 0)
+                        .putLong(offset + LOCK + Long.BYTES, 0).putLong(offset + ID_ADDRESS, address);
+                size = slot + 1;
+                return slot;
+            } finally {
+                allocationLock.unlock();
+            }
+        }
+
+        private static int idOffset(long address) {
+            return (int) (address & ((1 << ID_CHUNK_BITS) - 1));
+        }
+
+        private static ByteBuffer[] append(ByteBuffer[] chunks, int chunkSize) {
+            ByteBuffer[] grown = Arrays.copyOf(chunks, chunks.length + 1);
+            grown[chunks.length] = ByteBuffer.allocateDirect(chunkSize).order(ByteOrder.nativeOrder());
+            return grown;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package br.com.drsm.ebanx_test_api.store;
+
+import br.com.drsm.ebanx_test_api.concurrent.Threads;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Reentrant lock held in a long of a record outside the heap: the owning thread's id and a hold
+ * count, 0 when free. A thread that finds it taken spins, then yields, then parks briefly until
+ * it is free.
+ * <p>
+ * The long after it is a stamp for optimistic reads, a seqlock: taking the lock makes it odd and
+ * releasing it makes it even again, so a reader that finds the same even stamp before and after
+ * reading the record knows no write overlapped its read.
+ */
+final class RecordLocks {
+    static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    static final VarHandle INTS = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+    private static final int HOLD_BITS = 20;
+    private static final long HOLD_MASK = (1L << HOLD_BITS) - 1;
+    private static final int SPINS = 100;
+    private static final int YIELDS = 10;
+    private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final int STAMP = Long.BYTES;
+
+    private RecordLocks() {
+    }
+
+    /**
+     * Returns the hold count after taking the lock, 0 when another thread holds it.
+     */
+    static long tryLock(ByteBuffer buffer, int at) {
+        long owner = Threads.idOf(Thread.currentThread());
+        long word = (long) LONGS.getVolatile(buffer, at);
+        if (word == 0) {
+            if (!LONGS.compareAndSet(buffer, at, 0L, owner << HOLD_BITS | 1)) {
+                return 0;
+            }
+            LONGS.setOpaque(buffer, at + STAMP, (long) LONGS.getOpaque(buffer, at + STAMP) + 1);
+            VarHandle.storeStoreFence();
+            return 1;
+        }
+        if (word >>> HOLD_BITS == owner) {
+            LONGS.setOpaque(buffer, at, word + 1);
+            return (word & HOLD_MASK) + 1;
+        }
+        return 0;
+    }
+
+    static long lock(ByteBuffer buffer, int at) {
+        int attempts = 0;
+        long holds;
+        while ((holds = tryLock(buffer, at)) == 0) {
+            backOff(++attempts);
+        }
+        return holds;
+    }
+
+    /**
+     * Returns the hold count left after releasing the lock once.
+     */
+    static long unlock(ByteBuffer buffer, int at, String id) {
+        long word = (long) LONGS.getOpaque(buffer, at);
+        if (word >>> HOLD_BITS != Threads.idOf(Thread.currentThread())) {
+            throw new IllegalMonitorStateException("Account " + id + " is not locked by this thread");
+        }
+        long holds = (word & HOLD_MASK) - 1;
+        if (holds == 0) {
+            LONGS.setRelease(buffer, at + STAMP, (long) LONGS.getOpaque(buffer, at + STAMP) + 1);
+        }
+        LONGS.setRelease(buffer, at, holds == 0 ? 0L : word - 1);
+        return holds;
+    }
+
+    /**
+     * Returns a stamp for {@link #validate}, 0 while the lock is held.
+     */
+    static long tryOptimisticRead(ByteBuffer buffer, int at) {
+        long stamp = (long) LONGS.getAcquire(buffer, at + STAMP);
+        return (stamp & 1) == 0 ? stamp + 1 : 0;
+    }
+
+    /**
+     * Whether the lock was not taken since the stamp was returned, which makes the reads done
+     * in between consistent.
+     */
+    static boolean validate(ByteBuffer buffer, int at, long stamp) {
+        VarHandle.loadLoadFence();
+        return (long) LONGS.getOpaque(buffer, at + STAMP) == stamp - 1;
+    }
+
+    private static void backOff(int attempts) {
+        if (attempts <= SPINS) {
+            Thread.onSpinWait();
+        } else if (attempts <= SPINS + YIELDS) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+    }
+}
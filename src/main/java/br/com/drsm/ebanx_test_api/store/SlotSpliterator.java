@@ -0,0 +1,82 @@
+package br.com.drsm.ebanx_test_api.store;
+
+import br.com.drsm.ebanx_test_api.io.BinaryIds;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Visits the accounts of a store laid out in numbered slots, halving the range on every split
+ * so that a parallel stream hands each fork-join worker a run of adjacent slots. Every split has
+ * its own buffer for decoding ids.
+ */
+final class SlotSpliterator implements Spliterator<AccountHandle> {
+    private static final int MIN_SPLIT = 1 << 12;
+
+    /**
+     * Reads the account in a slot, or returns null when the slot is empty.
+     */
+    @FunctionalInterface
+    interface SlotReader {
+        AccountHandle read(int slot, byte[] scratch);
+    }
+
+    private final SlotReader reader;
+    private final byte[] scratch = new byte[BinaryIds.MAX_ENCODED_SIZE];
+    private final int characteristics;
+    private int from;
+    private final int to;
+
+    /**
+     * @param dense whether every slot in the range holds an account, which makes the size exact
+     */
+    SlotSpliterator(int from, int to, boolean dense, SlotReader reader) {
+        this.from = from;
+        this.to = to;
+        this.reader = reader;
+        this.characteristics = NONNULL | DISTINCT | (dense ? SIZED | SUBSIZED : 0);
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super AccountHandle> action) {
+        while (from < to) {
+            AccountHandle account = reader.read(from++, scratch);
+            if (null != account) {
+                action.accept(account);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super AccountHandle> action) {
+        for (; from < to; from++) {
+            AccountHandle account = reader.read(from, scratch);
+            if (null != account) {
+                action.accept(account);
+            }
+        }
+    }
+
+    @Override
+    public Spliterator<AccountHandle> trySplit() {
+        if (to - from < 2 * MIN_SPLIT) {
+            return null;
+        }
+        int middle = (from + to) >>> 1;
+        SlotSpliterator prefix = new SlotSpliterator(from, middle, (characteristics & SIZED) != 0, reader);
+        from = middle;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return to - from;
+    }
+
+    @Override
+    public int characteristics() {
+        return characteristics;
+    }
+}
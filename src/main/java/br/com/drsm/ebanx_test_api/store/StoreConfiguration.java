@@ -0,0 +1,19 @@
+package br.com.drsm.ebanx_test_api.store;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(StoreProperties.class)
+public class StoreConfiguration {
+
+    @Bean
+    public AccountStore accountStore(StoreProperties properties) {
+        return switch (properties.getType()) {
+            case HEAP -> new HeapAccountStore();
+            case OFF_HEAP -> new OffHeapAccountStore(properties.getInitialCapacity());
+            case MAPPED -> MappedAccountStore.open(properties.getPath(), properties.getCapacity());
+        };
+    }
+}
@@ -0,0 +1,24 @@
+package br.com.drsm.ebanx_test_api.store;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+
+@Getter
+@Setter
+@ConfigurationProperties("ebanx.store")
+public class StoreProperties {
+    private StoreType type = StoreType.HEAP;
+    /**
+     * Number of accounts the off-heap store is sized for up front; it grows past that as needed.
+     */
+    private int initialCapacity = 1 << 16;
+    private Path path = Path.of("data", "accounts.store");
+    /**
+     * Number of accounts the mapped store is sized for. It cannot grow past it while running; an
+     * existing store of another capacity is rebuilt on startup.
+     */
+    private int capacity = 1 << 20;
+}
@@ -0,0 +1,16 @@
+package br.com.drsm.ebanx_test_api.store;
+
+public enum StoreType {
+    /**
+     * One object per account on the Java heap.
+     */
+    HEAP,
+    /**
+     * Accounts packed into direct memory outside the heap, see {@link OffHeapAccountStore}.
+     */
+    OFF_HEAP,
+    /**
+     * Accounts kept in a memory-mapped file that survives restarts, see {@link MappedAccountStore}.
+     */
+    MAPPED
+}
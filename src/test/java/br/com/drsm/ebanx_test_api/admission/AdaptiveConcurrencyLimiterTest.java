@@ -0,0 +1,106 @@
+package br.com.drsm.ebanx_test_api.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+    private static final double[] SHARES = {1.0, 0.9, 0.5};
+    private static final int WINDOW = 10;
+
+    private long now;
+
+    @Test
+    void testLimitGrowsWhileLatencyHolds() {
+        AdaptiveConcurrencyLimiter limiter = limiter(20);
+
+        for (int round = 0; round < 20; round++) {
+            fill(limiter, TimeUnit.MILLISECONDS.toNanos(1));
+        }
+
+        assertTrue(limiter.limit() > 20, "limit " + limiter.limit());
+    }
+
+    @Test
+    void testLimitShrinksOnceRequestsQueue() {
+        AdaptiveConcurrencyLimiter limiter = limiter(100);
+        for (int round = 0; round < 5; round++) {
+            fill(limiter, TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        int steady = limiter.limit();
+
+        for (int round = 0; round < 20; round++) {
+            fill(limiter, TimeUnit.MILLISECONDS.toNanos(10));
+        }
+
+        assertTrue(limiter.limit() < steady / 2, "limit " + limiter.limit() + " from " + steady);
+    }
+
+    @Test
+    void testIdleWindowsLeaveTheLimitAlone() {
+        AdaptiveConcurrencyLimiter limiter = limiter(20);
+
+        for (int i = 0; i < WINDOW * 10; i++) {
+            Permit permit = limiter.tryAcquire(AdmissionPriority.CRITICAL);
+            now += TimeUnit.MILLISECONDS.toNanos(1);
+            permit.release();
+        }
+
+        assertEquals(20, limiter.limit());
+    }
+
+    @Test
+    void testLowerPrioritiesAreTurnedAwayFirst() {
+        AdaptiveConcurrencyLimiter limiter = limiter(10);
+        List<Permit> permits = new ArrayList<>();
+
+        for (int i = 0; i < 5; i++) {
+            permits.add(limiter.tryAcquire(AdmissionPriority.BULK));
+        }
+        assertFalse(limiter.tryAcquire(AdmissionPriority.BULK).isAdmitted());
+        for (int i = 0; i < 4; i++) {
+            permits.add(limiter.tryAcquire(AdmissionPriority.NORMAL));
+        }
+        assertFalse(limiter.tryAcquire(AdmissionPriority.NORMAL).isAdmitted());
+        permits.add(limiter.tryAcquire(AdmissionPriority.CRITICAL));
+        assertFalse(limiter.tryAcquire(AdmissionPriority.CRITICAL).isAdmitted());
+
+        assertTrue(permits.stream().allMatch(Permit::isAdmitted));
+        assertEquals(10, limiter.inFlight());
+        assertEquals(1, limiter.rejected(AdmissionPriority.BULK));
+        assertEquals(1, limiter.rejected(AdmissionPriority.NORMAL));
+        assertEquals(1, limiter.rejected(AdmissionPriority.CRITICAL));
+
+        permits.forEach(Permit::release);
+        assertEquals(0, limiter.inFlight());
+        assertTrue(limiter.tryAcquire(AdmissionPriority.BULK).isAdmitted());
+    }
+
+    @Test
+    void testNoneAdmitsEverything() {
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(Admission.NONE.tryAcquire(AdmissionPriority.BULK).isAdmitted());
+        }
+    }
+
+    private AdaptiveConcurrencyLimiter limiter(int initialLimit) {
+        return new AdaptiveConcurrencyLimiter(initialLimit, 4, 1000, 1.5, 0.2, WINDOW, SHARES, () -> now);
+    }
+
+    /**
+     * Admits as many critical requests as the limit allows and answers them all after the
+     * latency.
+     */
+    private void fill(AdaptiveConcurrencyLimiter limiter, long latency) {
+        List<Permit> permits = new ArrayList<>();
+        for (Permit permit; (permit = limiter.tryAcquire(AdmissionPriority.CRITICAL)).isAdmitted(); ) {
+            permits.add(permit);
+        }
+        now += latency;
+        permits.forEach(Permit::release);
+    }
+}
@@ -0,0 +1,70 @@
+package br.com.drsm.ebanx_test_api.benchmark;
+
+import br.com.drsm.ebanx_test_api.dto.EventType;
+import br.com.drsm.ebanx_test_api.dto.TransactionRequestDTO;
+import br.com.drsm.ebanx_test_api.dto.TransactionResponseDTO;
+import br.com.drsm.ebanx_test_api.service.AccountService;
+import br.com.drsm.ebanx_test_api.service.AccountServiceBuilder;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures what the event path allocates once the request has been parsed. Run it with
+ * {@code -prof gc} and compare {@code gc.alloc.rate.norm}: only the response DTOs should remain.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccountServiceAllocationBenchmark {
+    private AccountService service;
+    private TransactionRequestDTO deposit;
+    private TransactionRequestDTO withdraw;
+    private TransactionRequestDTO transfer;
+
+    @Setup
+    public void setup() {
+        ((Logger) LoggerFactory.getLogger("br.com.drsm.ebanx_test_api")).setLevel(Level.WARN);
+        service = new AccountServiceBuilder().build();
+        deposit = TransactionRequestDTO.builder().type(EventType.DEPOSIT).destination("100").amount(10.0).build();
+        withdraw = TransactionRequestDTO.builder().type(EventType.WITHDRAW).origin("100").amount(5.0).build();
+        transfer = TransactionRequestDTO.builder().type(EventType.TRANSFER).origin("100").destination("200").amount(1.0).build();
+        service.processDeposit(deposit);
+        service.processDeposit(TransactionRequestDTO.builder().type(EventType.DEPOSIT).destination("200").amount(10.0).build());
+    }
+
+    @Benchmark
+    public TransactionResponseDTO deposit() {
+        return service.processDeposit(deposit);
+    }
+
+    @Benchmark
+    public TransactionResponseDTO withdraw() {
+        return service.processWithdraw(withdraw);
+    }
+
+    @Benchmark
+    public TransactionResponseDTO transfer() {
+        return service.processTransfer(transfer);
+    }
+
+    @Benchmark
+    public double getBalance() {
+        return service.getBalance("100");
+    }
+}
@@ -0,0 +1,125 @@
+package br.com.drsm.ebanx_test_api.benchmark;
+
+import br.com.drsm.ebanx_test_api.dto.EventType;
+import br.com.drsm.ebanx_test_api.dto.TransactionRequestDTO;
+import br.com.drsm.ebanx_test_api.dto.TransactionResponseDTO;
+import br.com.drsm.ebanx_test_api.model.Account;
+import br.com.drsm.ebanx_test_api.service.AccountService;
+import br.com.drsm.ebanx_test_api.service.AccountServiceBuilder;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the {@link AccountService} operations over a pre-populated store. Thread count
+ * is chosen on the command line ({@code -t 1}, {@code -t 4}, {@code -t max}); the account count
+ * and the key distribution are parameters, {@code zipf} sending most events to a few hot accounts.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+public class AccountServiceBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Store {
+        @Param({"1000", "1000000", "10000000"})
+        public int accounts;
+
+        @Param({"uniform", "zipf"})
+        public String distribution;
+
+        AccountService service;
+        String[] ids;
+
+        @Setup
+        public void setup() {
+            ((Logger) LoggerFactory.getLogger("br.com.drsm.ebanx_test_api")).setLevel(Level.WARN);
+            service = new AccountServiceBuilder().build();
+            ids = new String[accounts];
+            for (int i = 0; i < accounts; i++) {
+                ids[i] = String.valueOf(i);
+                service.saveAccount(Account.builder().id(ids[i]).balance(1_000_000).build());
+            }
+        }
+    }
+
+    /**
+     * Each thread replays its own precomputed sequence of account indexes, so drawing the next
+     * key costs an array read instead of a random number generation.
+     */
+    @State(Scope.Thread)
+    public static class Events {
+        private static final int SEQUENCE_SIZE = 1 << 16;
+
+        private final TransactionRequestDTO request = TransactionRequestDTO.builder().amount(1.0).build();
+        private int[] sequence;
+        private int next;
+
+        @Setup
+        public void setup(Store store) {
+            sequence = KeyDistribution.of(store.distribution)
+                    .sample(store.accounts, SEQUENCE_SIZE, new SplittableRandom(Thread.currentThread().getId()));
+        }
+
+        String nextId(Store store) {
+            return store.ids[sequence[next++ & (SEQUENCE_SIZE - 1)]];
+        }
+
+        TransactionRequestDTO deposit(Store store) {
+            request.setType(EventType.DEPOSIT);
+            request.setOrigin(null);
+            request.setDestination(nextId(store));
+            return request;
+        }
+
+        TransactionRequestDTO withdraw(Store store) {
+            request.setType(EventType.WITHDRAW);
+            request.setOrigin(nextId(store));
+            request.setDestination(null);
+            return request;
+        }
+
+        TransactionRequestDTO transfer(Store store) {
+            request.setType(EventType.TRANSFER);
+            request.setOrigin(nextId(store));
+            request.setDestination(nextId(store));
+            return request;
+        }
+    }
+
+    @Benchmark
+    public TransactionResponseDTO deposit(Store store, Events events) {
+        return store.service.processDeposit(events.deposit(store));
+    }
+
+    @Benchmark
+    public TransactionResponseDTO withdraw(Store store, Events events) {
+        return store.service.processWithdraw(events.withdraw(store));
+    }
+
+    @Benchmark
+    public TransactionResponseDTO transfer(Store store, Events events) {
+        return store.service.processTransfer(events.transfer(store));
+    }
+
+    @Benchmark
+    public double getBalance(Store store, Events events) {
+        return store.service.getBalance(events.nextId(store));
+    }
+}
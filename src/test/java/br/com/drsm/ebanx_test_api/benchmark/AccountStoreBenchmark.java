@@ -0,0 +1,129 @@
+package br.com.drsm.ebanx_test_api.benchmark;
+
+import br.com.drsm.ebanx_test_api.store.AccountHandle;
+import br.com.drsm.ebanx_test_api.store.AccountStore;
+import br.com.drsm.ebanx_test_api.store.HeapAccountStore;
+import br.com.drsm.ebanx_test_api.store.MappedAccountStore;
+import br.com.drsm.ebanx_test_api.store.OffHeapAccountStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Updates and lookups against the heap, off-heap and mapped stores holding {@code accounts} accounts,
+ * looked up with copies of the ids they were created with, as ids parsed from requests would be.
+ * After filling the store, setup prints the heap and direct memory it occupies and how long a
+ * full collection takes with it in place, which is what grows with the account count on the
+ * heap store. The mapped store lives in a temporary file, and its updates include the commit
+ * that makes them crash-safe.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx3g", "-XX:MaxDirectMemorySize=3g"})
+@State(Scope.Benchmark)
+public class AccountStoreBenchmark {
+    @Param({"heap", "off-heap", "mapped"})
+    public String store;
+
+    @Param({"1000000", "10000000"})
+    public int accounts;
+
+    private AccountStore accountStore;
+    private String[] ids;
+    private String[] keys;
+    private Path file;
+
+    @Setup
+    public void setup() throws IOException {
+        ids = new String[accounts];
+        for (int i = 0; i < accounts; i++) {
+            ids[i] = String.valueOf(i);
+        }
+        keys = new String[accounts];
+        for (int i = 0; i < accounts; i++) {
+            keys[i] = new String(ids[i].toCharArray());
+        }
+        long heapBefore = usedHeap();
+        accountStore = switch (store) {
+            case "heap" -> new HeapAccountStore();
+            case "off-heap" -> new OffHeapAccountStore(accounts);
+            default -> {
+                file = Files.createTempFile("store-benchmark", ".store");
+                yield new MappedAccountStore(file, accounts);
+            }
+        };
+        for (String id : ids) {
+            accountStore.getOrCreate(id).setBalance(1_000_000);
+        }
+        ids = null;
+        long heapAfter = usedHeap();
+        long start = System.nanoTime();
+        System.gc();
+        long gcMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        System.out.printf("%n%s store, %d accounts: heap %d MB, direct %d MB, full GC %d ms%n", store, accounts,
+                (heapAfter - heapBefore) >> 20, directMemory() >> 20, gcMillis);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        accountStore.close();
+        if (null != file) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Random {
+        final SplittableRandom random = new SplittableRandom();
+    }
+
+    @Benchmark
+    public long deposit(Random random) {
+        AccountHandle account = accountStore.getOrCreate(keys[random.random.nextInt(accounts)]);
+        account.lock();
+        try {
+            account.credit(1);
+            accountStore.commit(account);
+            return account.getBalance();
+        } finally {
+            account.unlock();
+        }
+    }
+
+    @Benchmark
+    public AccountHandle lookup(Random random) {
+        return accountStore.get(keys[random.random.nextInt(accounts)]);
+    }
+
+    private static long usedHeap() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static long directMemory() {
+        return ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class).stream()
+                .filter(pool -> pool.getName().equals("direct"))
+                .mapToLong(BufferPoolMXBean::getMemoryUsed)
+                .sum();
+    }
+}
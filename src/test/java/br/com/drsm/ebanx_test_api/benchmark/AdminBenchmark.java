@@ -0,0 +1,76 @@
+package br.com.drsm.ebanx_test_api.benchmark;
+
+import br.com.drsm.ebanx_test_api.dto.AuditDTO;
+import br.com.drsm.ebanx_test_api.model.Account;
+import br.com.drsm.ebanx_test_api.service.AccountService;
+import br.com.drsm.ebanx_test_api.service.AccountServiceBuilder;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Administrative operations over a full store: {@code reset}, which swaps in an empty store
+ * whatever the size of the old one (each measurement refills it first), and {@code audit}, the
+ * fork-join scan, next to {@code sequentialScan}, the same sums over
+ * {@link AccountService#forEachAccount}. Each measurement is a single operation.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+@State(Scope.Benchmark)
+public class AdminBenchmark {
+
+    @Param({"1000000"})
+    public int accounts;
+
+    private AccountService service;
+
+    @Setup(org.openjdk.jmh.annotations.Level.Iteration)
+    public void setup() {
+        ((Logger) LoggerFactory.getLogger("br.com.drsm.ebanx_test_api")).setLevel(Level.WARN);
+        service = new AccountServiceBuilder().build();
+        for (int i = 0; i < accounts; i++) {
+            service.saveAccount(Account.builder().id(String.valueOf(i)).balance(i % 100 == 0 ? -i : i).build());
+        }
+    }
+
+    @Benchmark
+    public int reset() {
+        service.reset();
+        return service.accountCount();
+    }
+
+    @Benchmark
+    public AuditDTO audit() {
+        return service.audit(100);
+    }
+
+    @Benchmark
+    public long sequentialScan() {
+        AtomicLong total = new AtomicLong();
+        AtomicLong negative = new AtomicLong();
+        service.forEachAccount((id, balance, lastSeq) -> {
+            total.addAndGet(balance);
+            if (balance < 0) {
+                negative.incrementAndGet();
+            }
+        });
+        return total.get() + negative.get();
+    }
+}
@@ -0,0 +1,68 @@
+package br.com.drsm.ebanx_test_api.benchmark;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Goodput and latency of one server driven from its saturation point to {@code maxLoad} times
+ * it, once without admission control and once with it. Load is the number of closed-loop
+ * connections of {@link LoadGenerator}, {@code saturation} at 1x, so at 2x twice as many requests
+ * are waiting to get in as at 1x. The server journals with group durability, so that events wait
+ * on fsync and queue behind each other as they would on a disk-bound server.
+ * <p>
+ * Without admission control the extra requests queue and every request waits behind them: p99
+ * grows with the load. With it, requests over the limit are answered at once with a 429 or 503,
+ * so the answered ones keep the latency and rate of the saturation point.
+ * <p>
+ * Arguments: {@code saturation durationSeconds mode maxLoad}, where mode is one of the load
+ * generator's. Server logs and journals go to {@code target/admission-overload}.
+ */
+public class AdmissionOverload {
+    private static final Duration WARMUP = Duration.ofSeconds(20);
+    private static final String DIRECTORY = "admission-overload";
+
+    public static void main(String[] args) throws Exception {
+        int saturation = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        Duration duration = Duration.ofSeconds(args.length > 1 ? Long.parseLong(args[1]) : 15);
+        String mode = args.length > 2 ? args[2] : "deposit";
+        int maxLoad = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+
+        LoadGenerator.Result[] without = measure(false, saturation, duration, mode, maxLoad);
+        LoadGenerator.Result[] with = measure(true, saturation, duration, mode, maxLoad);
+        System.out.println("load connections goodput(req/s) p99(ms) | admission: goodput(req/s) p99(ms) shed(req/s)");
+        for (int load = 1; load <= maxLoad; load++) {
+            System.out.printf("%3dx %11d %15.0f %7.2f | %26.0f %7.2f %11.0f%n", load, saturation * load,
+                    without[load].goodput(), without[load].p99Millis(),
+                    with[load].goodput(), with[load].p99Millis(), with[load].throughput() - with[load].goodput());
+        }
+    }
+
+    private static LoadGenerator.Result[] measure(boolean admission, int saturation, Duration duration, String mode,
+                                                  int maxLoad) throws Exception {
+        String name = admission ? "admission" : "no-admission";
+        File journal = new File("target/" + DIRECTORY, name + ".journal");
+        journal.delete();
+        int port = LocalServers.freePort();
+        String base = "http://localhost:" + port;
+        Process server = LocalServers.start(DIRECTORY, name, port, List.of(
+                "--ebanx.journal.enabled=true",
+                "--ebanx.journal.durability=group",
+                "--ebanx.journal.path=" + journal.getPath(),
+                "--ebanx.admission.enabled=" + admission));
+        try {
+            LocalServers.awaitHealthy(base);
+            LocalServers.seed(base);
+            String[] bases = {base};
+            LoadGenerator.run(bases, mode, saturation, WARMUP, Duration.ZERO);
+            LoadGenerator.Result[] results = new LoadGenerator.Result[maxLoad + 1];
+            for (int load = 1; load <= maxLoad; load++) {
+                System.out.printf("-- %s, %dx (%d connections)%n", name, load, saturation * load);
+                results[load] = LoadGenerator.run(bases, mode, saturation * load, duration, Duration.ZERO);
+            }
+            return results;
+        } finally {
+            LocalServers.stop(List.of(server));
+        }
+    }
+}
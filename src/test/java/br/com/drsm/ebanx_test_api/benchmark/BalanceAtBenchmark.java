@@ -0,0 +1,92 @@
+package br.com.drsm.ebanx_test_api.benchmark;
+
+import br.com.drsm.ebanx_test_api.ledger.ColumnarTransactionLedger;
+import br.com.drsm.ebanx_test_api.ledger.LedgerEntryType;
+import br.com.drsm.ebanx_test_api.ledger.LedgerVisitor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Point-in-time balance of one account whose {@code history} entries are interleaved with three
+ * times as many entries of other accounts, at a random time within that history:
+ * {@code balanceAt} with checkpoints up to date, {@code balanceAtUncheckpointed} on a ledger whose
+ * checkpoints never ran, and {@code scan}, which walks the history up to that time as a query
+ * without any index would.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xms3g", "-Xmx3g"})
+@State(Scope.Benchmark)
+public class BalanceAtBenchmark {
+    private static final long START = Instant.parse("2024-01-01T00:00:00Z").getEpochSecond() * 1_000_000;
+
+    @Param({"100", "10000", "1000000"})
+    public int history;
+
+    private ColumnarTransactionLedger checkpointed;
+    private ColumnarTransactionLedger uncheckpointed;
+
+    @Setup
+    public void setup() {
+        checkpointed = fill();
+        checkpointed.checkpoint();
+        uncheckpointed = fill();
+    }
+
+    private ColumnarTransactionLedger fill() {
+        ColumnarTransactionLedger ledger = new ColumnarTransactionLedger(Clock.fixed(Instant.ofEpochSecond(START / 1_000_000),
+                ZoneOffset.UTC), ColumnarTransactionLedger.DEFAULT_CHECKPOINT_EVERY);
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < history; i++) {
+            ledger.record("target", LedgerEntryType.DEPOSIT, null, 1, i + 1);
+            for (int j = 0; j < 3; j++) {
+                ledger.record(String.valueOf(random.nextInt(10_000)), LedgerEntryType.DEPOSIT, null, 1, 1);
+            }
+        }
+        return ledger;
+    }
+
+    @State(Scope.Thread)
+    public static class Query implements LedgerVisitor {
+        final SplittableRandom random = new SplittableRandom();
+        long balance;
+
+        @Override
+        public void visit(long timestamp, LedgerEntryType type, String counterparty, long amount, long balance) {
+            this.balance = balance;
+        }
+    }
+
+    @Benchmark
+    public long balanceAt(Query query) {
+        return checkpointed.balanceAt("target", START + query.random.nextInt(history), 0);
+    }
+
+    @Benchmark
+    public long balanceAtUncheckpointed(Query query) {
+        return uncheckpointed.balanceAt("target", START + query.random.nextInt(history), 0);
+    }
+
+    @Benchmark
+    public long scan(Query query) {
+        uncheckpointed.history("target", Long.MIN_VALUE, START + query.random.nextInt(history), Integer.MAX_VALUE, query);
+        return query.balance;
+    }
+}
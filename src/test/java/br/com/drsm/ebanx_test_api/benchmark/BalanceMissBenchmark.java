@@ -0,0 +1,100 @@
+package br.com.drsm.ebanx_test_api.benchmark;
+
+import br.com.drsm.ebanx_test_api.admission.Admission;
+import br.com.drsm.ebanx_test_api.cluster.Cluster;
+import br.com.drsm.ebanx_test_api.controller.AccountController;
+import br.com.drsm.ebanx_test_api.engine.DirectEventDispatcher;
+import br.com.drsm.ebanx_test_api.model.Account;
+import br.com.drsm.ebanx_test_api.replication.Replication;
+import br.com.drsm.ebanx_test_api.service.AccountService;
+import br.com.drsm.ebanx_test_api.service.AccountServiceBuilder;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code /balance} answered by the controller, without HTTP, for a mix of known and unknown ids
+ * ({@code missRatio} of them unknown). {@code outcome} is the controller as it is, turning a
+ * failed outcome into a 404; {@code exception} is how misses were answered before, the
+ * service throwing an exception with a full stack trace, as {@code AccountNotFoundException}
+ * used to have, and the handler catching it. Run with {@code -prof gc} to compare allocation per
+ * read too.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Thread)
+public class BalanceMissBenchmark {
+    private static final int SEQUENCE_SIZE = 1 << 12;
+
+    @Param({"0", "0.5", "0.9"})
+    public double missRatio;
+
+    private AccountService service;
+    private AccountController controller;
+    private String[] ids;
+    private int next;
+
+    @Setup
+    public void setup() {
+        ((Logger) LoggerFactory.getLogger("br.com.drsm.ebanx_test_api")).setLevel(Level.WARN);
+        service = new AccountServiceBuilder().build();
+        controller = new AccountController(service, new DirectEventDispatcher(service), Replication.NONE, Cluster.NONE,
+                Admission.NONE);
+        for (int i = 0; i < 1_000; i++) {
+            service.saveAccount(Account.builder().id(String.valueOf(i)).balance(100).build());
+        }
+        SplittableRandom random = new SplittableRandom(42);
+        ids = new String[SEQUENCE_SIZE];
+        for (int i = 0; i < SEQUENCE_SIZE; i++) {
+            ids[i] = String.valueOf(random.nextDouble() < missRatio ? 1_000 + random.nextInt(1_000) : random.nextInt(1_000));
+        }
+    }
+
+    @Benchmark
+    public ResponseEntity<?> outcome() {
+        return controller.getBalance(ids[next++ & (SEQUENCE_SIZE - 1)], null, null);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> exception() {
+        String id = ids[next++ & (SEQUENCE_SIZE - 1)];
+        try {
+            return new ResponseEntity<>(balance(id), HttpStatus.OK);
+        } catch (Miss e) {
+            return new ResponseEntity<>(0, HttpStatus.NOT_FOUND);
+        }
+    }
+
+    private double balance(String id) {
+        Double balance = service.findBalance(id).value();
+        if (null == balance) {
+            throw new Miss(id);
+        }
+        return balance;
+    }
+
+    private static final class Miss extends RuntimeException {
+        Miss(String id) {
+            super(id);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package br.com.drsm.ebanx_test_api.benchmark;
+
+import br.com.drsm.ebanx_test_api.dto.EventType;
+import br.com.drsm.ebanx_test_api.dto.TransactionRequestDTO;
+import br.com.drsm.ebanx_test_api.model.Account;
+import br.com.drsm.ebanx_test_api.model.Money;
+import br.com.drsm.ebanx_test_api.service.AccountService;
+import br.com.drsm.ebanx_test_api.service.AccountServiceBuilder;
+import br.com.drsm.ebanx_test_api.store.AccountHandle;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Balance reads mixed with deposits, 95 to 5, over a few accounts so that readers and writers
+ * meet on the same ones. {@code optimistic} reads through {@link AccountService#getBalance},
+ * {@code locked} takes each account's lock to read it, as reads did before. Run with
+ * {@code -t 1}, {@code -t 2} and {@code -t 4} to see how reads scale with threads.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class BalanceReadBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Store {
+        @Param({"optimistic", "locked"})
+        public String mode;
+
+        @Param({"16"})
+        public int accounts;
+
+        AccountService service;
+        String[] ids;
+
+        @Setup
+        public void setup() {
+            ((Logger) LoggerFactory.getLogger("br.com.drsm.ebanx_test_api")).setLevel(Level.WARN);
+            service = new AccountServiceBuilder().build();
+            ids = new String[accounts];
+            for (int i = 0; i < accounts; i++) {
+                ids[i] = String.valueOf(i);
+                service.saveAccount(Account.builder().id(ids[i]).balance(1_000_000).build());
+            }
+        }
+
+        double lockedBalance(String id) {
+            AccountHandle account = service.getStore().get(id);
+            account.lock();
+            try {
+                return Money.toDouble(account.getBalance());
+            } finally {
+                account.unlock();
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Events {
+        final SplittableRandom random = new SplittableRandom();
+        final TransactionRequestDTO request = TransactionRequestDTO.builder().type(EventType.DEPOSIT).amount(1.0).build();
+    }
+
+    @Benchmark
+    public double mixed(Store store, Events events) {
+        String id = store.ids[events.random.nextInt(store.accounts)];
+        if (events.random.nextInt(100) < 5) {
+            events.request.setDestination(id);
+            return store.service.processDeposit(events.request).getDestination().getBalance();
+        }
+        return "locked".equals(store.mode) ? store.lockedBalance(id) : store.service.getBalance(id);
+    }
+}
@@ -0,0 +1,67 @@
+package br.com.drsm.ebanx_test_api.benchmark;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Scaling of a cluster from 1 to {@code maxNodes} nodes, each a separate JVM on this machine
+ * started from the test classpath. For each size it starts the nodes, waits for them to be
+ * healthy, creates the load generator's accounts, warms them up, runs {@link LoadGenerator}
+ * against every node's URL and stops them, then prints the throughput of each size against a
+ * single node.
+ * <p>
+ * Arguments: {@code maxNodes connections durationSeconds mode}, where mode is one of the load
+ * generator's ({@code deposit}, {@code balance} or {@code transfer}). Nodes share the machine's
+ * cores with each other and with the load generator, so the scaling it shows is bounded by them;
+ * spread over machines the nodes each get their own. Node logs go to
+ * {@code target/cluster-scaling}.
+ */
+public class ClusterScaling {
+    private static final Duration WARMUP = Duration.ofSeconds(5);
+
+    public static void main(String[] args) throws Exception {
+        int maxNodes = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int connections = args.length > 1 ? Integer.parseInt(args[1]) : 256;
+        Duration duration = Duration.ofSeconds(args.length > 2 ? Long.parseLong(args[2]) : 20);
+        String mode = args.length > 3 ? args[3] : "deposit";
+
+        double[] throughput = new double[maxNodes + 1];
+        for (int nodes = 1; nodes <= maxNodes; nodes++) {
+            System.out.printf("-- %d node(s), %s%n", nodes, mode);
+            throughput[nodes] = measure(nodes, connections, duration, mode);
+        }
+        System.out.println("nodes throughput(req/s) speedup");
+        for (int nodes = 1; nodes <= maxNodes; nodes++) {
+            System.out.printf("%5d %16.0f %7.2f%n", nodes, throughput[nodes], throughput[nodes] / throughput[1]);
+        }
+    }
+
+    private static double measure(int size, int connections, Duration duration, String mode) throws Exception {
+        List<String> clusterAddresses = new ArrayList<>();
+        int[] ports = new int[size];
+        String[] bases = new String[size];
+        for (int i = 0; i < size; i++) {
+            clusterAddresses.add("localhost:" + LocalServers.freePort());
+            ports[i] = LocalServers.freePort();
+            bases[i] = "http://localhost:" + ports[i];
+        }
+        List<Process> processes = new ArrayList<>();
+        try {
+            for (int i = 0; i < size; i++) {
+                processes.add(LocalServers.start("cluster-scaling", "node-" + i, ports[i], List.of(
+                        "--ebanx.cluster.enabled=true",
+                        "--ebanx.cluster.nodes=" + String.join(",", clusterAddresses),
+                        "--ebanx.cluster.self=" + clusterAddresses.get(i))));
+            }
+            for (String base : bases) {
+                LocalServers.awaitHealthy(base);
+            }
+            LocalServers.seed(bases);
+            LoadGenerator.run(bases, mode, connections, WARMUP, Duration.ZERO);
+            return LoadGenerator.run(bases, mode, connections, duration, Duration.ZERO).throughput();
+        } finally {
+            LocalServers.stop(processes);
+        }
+    }
+}
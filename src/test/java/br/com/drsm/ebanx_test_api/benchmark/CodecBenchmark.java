@@ -0,0 +1,67 @@
+package br.com.drsm.ebanx_test_api.benchmark;
+
+import br.com.drsm.ebanx_test_api.codec.EventJsonCodec;
+import br.com.drsm.ebanx_test_api.dto.AccountDTO;
+import br.com.drsm.ebanx_test_api.dto.TransactionRequestDTO;
+import br.com.drsm.ebanx_test_api.dto.TransactionResponseDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading a transfer body and writing its response with {@link EventJsonCodec} against the
+ * Jackson mapper Spring would use. Run with {@code -prof gc} to compare allocation per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CodecBenchmark {
+    private final byte[] body = "{\"type\":\"transfer\",\"origin\":\"100\",\"amount\":15.25,\"destination\":\"300\"}"
+            .getBytes(StandardCharsets.UTF_8);
+    private final TransactionResponseDTO response = TransactionResponseDTO.builder()
+            .destination(AccountDTO.builder().id("300").balance(15.25).build())
+            .origin(AccountDTO.builder().id("100").balance(1234.5).build())
+            .build();
+    private final ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+    private final ObjectReader reader = mapper.readerFor(TransactionRequestDTO.class);
+    private final ObjectWriter writer = mapper.writerFor(TransactionResponseDTO.class);
+    private final EventJsonCodec codec = new EventJsonCodec(64 * 1024);
+
+    @Benchmark
+    public TransactionRequestDTO readJackson() throws IOException {
+        return reader.readValue(body);
+    }
+
+    @Benchmark
+    public TransactionRequestDTO readCodec() {
+        return codec.readRequest(body);
+    }
+
+    @Benchmark
+    public byte[] writeJackson() throws IOException {
+        return writer.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public int writeCodec() {
+        codec.writeResponse(response);
+        return codec.length();
+    }
+}
@@ -0,0 +1,107 @@
+package br.com.drsm.ebanx_test_api.benchmark;
+
+import br.com.drsm.ebanx_test_api.dto.EventType;
+import br.com.drsm.ebanx_test_api.dto.TransactionRequestDTO;
+import br.com.drsm.ebanx_test_api.dto.TransactionResponseDTO;
+import br.com.drsm.ebanx_test_api.engine.DirectEventDispatcher;
+import br.com.drsm.ebanx_test_api.engine.EngineMode;
+import br.com.drsm.ebanx_test_api.engine.EventDispatcher;
+import br.com.drsm.ebanx_test_api.engine.ShardedEventDispatcher;
+import br.com.drsm.ebanx_test_api.model.Account;
+import br.com.drsm.ebanx_test_api.service.AccountService;
+import br.com.drsm.ebanx_test_api.service.AccountServiceBuilder;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mixed workload (40% deposits, 40% withdrawals, 20% transfers) through each engine mode. Run it
+ * at increasing thread counts ({@code -t 1}, {@code -t 2}, ... {@code -t max}) to see how each
+ * mode scales; {@code shards=0} uses one shard per available processor.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventDispatcherBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Engine {
+        @Param({"LOCKING", "SHARDED"})
+        public EngineMode mode;
+
+        @Param({"0"})
+        public int shards;
+
+        @Param({"100000"})
+        public int accounts;
+
+        EventDispatcher dispatcher;
+        String[] ids;
+
+        @Setup
+        public void setup() {
+            ((Logger) LoggerFactory.getLogger("br.com.drsm.ebanx_test_api")).setLevel(Level.WARN);
+            AccountService service = new AccountServiceBuilder().build();
+            ids = new String[accounts];
+            for (int i = 0; i < accounts; i++) {
+                ids[i] = String.valueOf(i);
+                service.saveAccount(Account.builder().id(ids[i]).balance(1_000_000).build());
+            }
+            int shardCount = shards > 0 ? shards : Runtime.getRuntime().availableProcessors();
+            dispatcher = mode == EngineMode.SHARDED
+                    ? new ShardedEventDispatcher(service, shardCount, 1024)
+                    : new DirectEventDispatcher(service);
+        }
+
+        @TearDown
+        public void tearDown() {
+            if (dispatcher instanceof ShardedEventDispatcher sharded) {
+                sharded.close();
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Events {
+        final SplittableRandom random = new SplittableRandom(Thread.currentThread().getId());
+
+        TransactionRequestDTO next(Engine engine) {
+            int kind = random.nextInt(10);
+            TransactionRequestDTO request = TransactionRequestDTO.builder().amount(1.0).build();
+            if (kind < 4) {
+                request.setType(EventType.DEPOSIT);
+                request.setDestination(engine.ids[random.nextInt(engine.accounts)]);
+            } else if (kind < 8) {
+                request.setType(EventType.WITHDRAW);
+                request.setOrigin(engine.ids[random.nextInt(engine.accounts)]);
+            } else {
+                request.setType(EventType.TRANSFER);
+                request.setOrigin(engine.ids[random.nextInt(engine.accounts)]);
+                request.setDestination(engine.ids[random.nextInt(engine.accounts)]);
+            }
+            return request;
+        }
+    }
+
+    @Benchmark
+    public TransactionResponseDTO mixed(Engine engine, Events events) {
+        return engine.dispatcher.dispatch(events.next(engine));
+    }
+}
@@ -0,0 +1,82 @@
+package br.com.drsm.ebanx_test_api.benchmark;
+
+import br.com.drsm.ebanx_test_api.dto.TransactionRequestDTO;
+import br.com.drsm.ebanx_test_api.dto.TransactionResponseDTO;
+import br.com.drsm.ebanx_test_api.service.AccountService;
+import br.com.drsm.ebanx_test_api.service.AccountServiceBuilder;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the JSON side of {@code POST /event}: reading the request, writing the response, and
+ * both around the service call, using an ObjectMapper configured the way Spring Boot does.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventPipelineBenchmark {
+    private static final byte[] DEPOSIT = json("{\"type\":\"deposit\",\"destination\":\"100\",\"amount\":10}");
+    private static final byte[] TRANSFER = json("{\"type\":\"transfer\",\"origin\":\"100\",\"amount\":15,\"destination\":\"300\"}");
+
+    private ObjectReader requestReader;
+    private ObjectWriter responseWriter;
+    private AccountService service;
+    private TransactionResponseDTO transferResponse;
+
+    @Setup
+    public void setup() throws IOException {
+        ((Logger) LoggerFactory.getLogger("br.com.drsm.ebanx_test_api")).setLevel(Level.WARN);
+        ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+        requestReader = mapper.readerFor(TransactionRequestDTO.class);
+        responseWriter = mapper.writerFor(TransactionResponseDTO.class);
+        service = new AccountServiceBuilder().build();
+        service.processDeposit(requestReader.readValue(DEPOSIT));
+        transferResponse = service.processTransfer(requestReader.readValue(TRANSFER));
+    }
+
+    @Benchmark
+    public TransactionRequestDTO readRequest() throws IOException {
+        return requestReader.readValue(TRANSFER);
+    }
+
+    @Benchmark
+    public byte[] writeResponse() throws IOException {
+        return responseWriter.writeValueAsBytes(transferResponse);
+    }
+
+    @Benchmark
+    public byte[] depositEndToEnd() throws IOException {
+        return responseWriter.writeValueAsBytes(service.processDeposit(requestReader.readValue(DEPOSIT)));
+    }
+
+    @Benchmark
+    public byte[] transferEndToEnd() throws IOException {
+        return responseWriter.writeValueAsBytes(service.processTransfer(requestReader.readValue(TRANSFER)));
+    }
+
+    private static byte[] json(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
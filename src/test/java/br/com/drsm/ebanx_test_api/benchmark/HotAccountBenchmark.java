@@ -0,0 +1,107 @@
+package br.com.drsm.ebanx_test_api.benchmark;
+
+import br.com.drsm.ebanx_test_api.dto.EventType;
+import br.com.drsm.ebanx_test_api.dto.TransactionRequestDTO;
+import br.com.drsm.ebanx_test_api.hot.HotAccounts;
+import br.com.drsm.ebanx_test_api.model.Account;
+import br.com.drsm.ebanx_test_api.service.AccountService;
+import br.com.drsm.ebanx_test_api.service.AccountServiceBuilder;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deposits over Zipf-distributed accounts, so that a few of them take most of the traffic, with
+ * and without {@link HotAccounts} striping. {@code mixed} sends one event in ten to a withdrawal
+ * or a balance read, which makes striped accounts fold their cells. History is off, since its
+ * single append lock would serialize the deposits anyway. Run with {@code -t 1}, {@code -t 4}
+ * and {@code -t max}: striping only pays once several threads deposit at once.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class HotAccountBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Store {
+        @Param({"locked", "striped"})
+        public String mode;
+
+        @Param({"10000"})
+        public int accounts;
+
+        AccountService service;
+        String[] ids;
+
+        @Setup
+        public void setup() {
+            ((Logger) LoggerFactory.getLogger("br.com.drsm.ebanx_test_api")).setLevel(Level.WARN);
+            HotAccounts hotAccounts = "striped".equals(mode)
+                    ? new HotAccounts(64, 64, Runtime.getRuntime().availableProcessors())
+                    : HotAccounts.NONE;
+            service = new AccountServiceBuilder().hotAccounts(hotAccounts).build();
+            ids = new String[accounts];
+            for (int i = 0; i < accounts; i++) {
+                ids[i] = String.valueOf(i);
+                service.saveAccount(Account.builder().id(ids[i]).balance(1_000_000).build());
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Events {
+        private static final int SEQUENCE_SIZE = 1 << 16;
+
+        private final SplittableRandom random = new SplittableRandom();
+        private final TransactionRequestDTO deposit = TransactionRequestDTO.builder().type(EventType.DEPOSIT).amount(1.0).build();
+        private final TransactionRequestDTO withdraw = TransactionRequestDTO.builder().type(EventType.WITHDRAW).amount(1.0).build();
+        private int[] sequence;
+        private int next;
+
+        @Setup
+        public void setup(Store store) {
+            sequence = KeyDistribution.ZIPF.sample(store.accounts, SEQUENCE_SIZE, new SplittableRandom(Thread.currentThread().getId()));
+        }
+
+        String nextId(Store store) {
+            return store.ids[sequence[next++ & (SEQUENCE_SIZE - 1)]];
+        }
+    }
+
+    @Benchmark
+    public double deposit(Store store, Events events) {
+        events.deposit.setDestination(events.nextId(store));
+        return store.service.processDeposit(events.deposit).getDestination().getBalance();
+    }
+
+    @Benchmark
+    public double mixed(Store store, Events events) {
+        String id = events.nextId(store);
+        int kind = events.random.nextInt(20);
+        if (kind == 0) {
+            events.withdraw.setOrigin(id);
+            return store.service.processWithdraw(events.withdraw).getOrigin().getBalance();
+        }
+        if (kind == 1) {
+            return store.service.getBalance(id);
+        }
+        events.deposit.setDestination(id);
+        return store.service.processDeposit(events.deposit).getDestination().getBalance();
+    }
+}
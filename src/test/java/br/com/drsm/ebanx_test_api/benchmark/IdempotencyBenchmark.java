@@ -0,0 +1,83 @@
+package br.com.drsm.ebanx_test_api.benchmark;
+
+import br.com.drsm.ebanx_test_api.dto.EventType;
+import br.com.drsm.ebanx_test_api.dto.TransactionRequestDTO;
+import br.com.drsm.ebanx_test_api.dto.TransactionResponseDTO;
+import br.com.drsm.ebanx_test_api.engine.IdempotentEventDispatcher;
+import br.com.drsm.ebanx_test_api.service.Outcome;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cost the idempotency cache adds to an event, with a delegate that does nothing so only the
+ * cache is measured: {@code noKey} bypasses it, {@code replay} hits a cached key, {@code fresh}
+ * stores a new result and makes the cache evict once it is full. Run with {@code -t max} to see
+ * whether lookups contend.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IdempotencyBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Cache {
+        @Param({"100000"})
+        public int size;
+
+        IdempotentEventDispatcher dispatcher;
+        TransactionRequestDTO[] cached;
+        final AtomicLong next = new AtomicLong();
+
+        @Setup
+        public void setup() {
+            Outcome<TransactionResponseDTO> response = Outcome.of(TransactionResponseDTO.builder().build());
+            dispatcher = new IdempotentEventDispatcher(request -> response, size, Duration.ofMinutes(10));
+            cached = new TransactionRequestDTO[size];
+            for (int i = 0; i < size; i++) {
+                cached[i] = request("key-" + i);
+                dispatcher.dispatch(cached[i]);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Caller {
+        final SplittableRandom random = new SplittableRandom();
+        final TransactionRequestDTO unkeyed = request(null);
+    }
+
+    @Benchmark
+    public TransactionResponseDTO noKey(Cache cache, Caller caller) {
+        return cache.dispatcher.dispatch(caller.unkeyed);
+    }
+
+    @Benchmark
+    public TransactionResponseDTO replay(Cache cache, Caller caller) {
+        return cache.dispatcher.dispatch(cache.cached[caller.random.nextInt(cache.size)]);
+    }
+
+    @Benchmark
+    public TransactionResponseDTO fresh(Cache cache) {
+        return cache.dispatcher.dispatch(request("fresh-" + cache.next.incrementAndGet()));
+    }
+
+    private static TransactionRequestDTO request(String key) {
+        return TransactionRequestDTO.builder().type(EventType.DEPOSIT).destination("100").amount(1.0).idempotencyKey(key).build();
+    }
+}
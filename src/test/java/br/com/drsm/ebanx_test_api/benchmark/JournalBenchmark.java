@@ -0,0 +1,91 @@
+package br.com.drsm.ebanx_test_api.benchmark;
+
+import br.com.drsm.ebanx_test_api.dto.EventType;
+import br.com.drsm.ebanx_test_api.dto.TransactionRequestDTO;
+import br.com.drsm.ebanx_test_api.dto.TransactionResponseDTO;
+import br.com.drsm.ebanx_test_api.journal.DurabilityMode;
+import br.com.drsm.ebanx_test_api.journal.EventJournal;
+import br.com.drsm.ebanx_test_api.journal.FileEventJournal;
+import br.com.drsm.ebanx_test_api.service.AccountService;
+import br.com.drsm.ebanx_test_api.service.AccountServiceBuilder;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Events per second through {@link AccountService} for each journal durability mode, against
+ * the in-memory path ({@code MEMORY}). Group commit only pays off with several threads
+ * ({@code -t 8}), since that is when requests can share an fsync.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JournalBenchmark {
+    private static final int ACCOUNTS = 1_000;
+
+    @Param({"MEMORY", "FSYNC", "GROUP", "ASYNC"})
+    public String durability;
+
+    private Path file;
+    private EventJournal journal;
+    private AccountService service;
+    private String[] ids;
+
+    @Setup
+    public void setup() throws IOException {
+        ((Logger) LoggerFactory.getLogger("br.com.drsm.ebanx_test_api")).setLevel(Level.WARN);
+        if ("MEMORY".equals(durability)) {
+            journal = EventJournal.NONE;
+        } else {
+            file = Files.createTempFile("journal-benchmark", ".journal");
+            journal = new FileEventJournal(file, DurabilityMode.valueOf(durability), Duration.ofMillis(10));
+        }
+        service = new AccountServiceBuilder().journal(journal).build();
+        service.recover();
+        ids = new String[ACCOUNTS];
+        for (int i = 0; i < ACCOUNTS; i++) {
+            ids[i] = String.valueOf(i);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        journal.close();
+        if (null != file) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Request {
+        final TransactionRequestDTO deposit = TransactionRequestDTO.builder().type(EventType.DEPOSIT).amount(1.0).build();
+    }
+
+    @Benchmark
+    public TransactionResponseDTO deposit(Request request) {
+        request.deposit.setDestination(ids[ThreadLocalRandom.current().nextInt(ACCOUNTS)]);
+        return service.processDeposit(request.deposit);
+    }
+}
@@ -0,0 +1,39 @@
+package br.com.drsm.ebanx_test_api.benchmark;
+
+import java.util.SplittableRandom;
+
+/**
+ * How benchmark events pick their accounts.
+ */
+enum KeyDistribution {
+    UNIFORM {
+        @Override
+        int next(int accounts, SplittableRandom random) {
+            return random.nextInt(accounts);
+        }
+    },
+    /**
+     * Zipf with exponent 1, sampled through the inverse of its continuous approximation: the
+     * lowest indexes are the hot accounts.
+     */
+    ZIPF {
+        @Override
+        int next(int accounts, SplittableRandom random) {
+            return (int) Math.min(accounts - 1, (long) Math.exp(random.nextDouble() * Math.log(accounts + 1.0)) - 1);
+        }
+    };
+
+    abstract int next(int accounts, SplittableRandom random);
+
+    int[] sample(int accounts, int size, SplittableRandom random) {
+        int[] sequence = new int[size];
+        for (int i = 0; i < size; i++) {
+            sequence[i] = next(accounts, random);
+        }
+        return sequence;
+    }
+
+    static KeyDistribution of(String name) {
+        return valueOf(name.toUpperCase());
+    }
+}
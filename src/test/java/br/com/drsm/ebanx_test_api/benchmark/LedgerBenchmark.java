@@ -0,0 +1,100 @@
+package br.com.drsm.ebanx_test_api.benchmark;
+
+import br.com.drsm.ebanx_test_api.ledger.ColumnarTransactionLedger;
+import br.com.drsm.ebanx_test_api.ledger.LedgerEntryType;
+import br.com.drsm.ebanx_test_api.ledger.LedgerVisitor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Appends to and range queries against a ledger already holding {@code entries} entries spread
+ * over {@code accounts} accounts. A query asks one account for a page of up to {@code page}
+ * entries starting at a random point of its history. Setup prints the heap the entries take.
+ * <p>
+ * 100M entries need about 4 GB of heap; override the fork's {@code -Xmx} on smaller machines
+ * and stick to the smaller sizes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xms6g", "-Xmx6g"})
+@State(Scope.Benchmark)
+public class LedgerBenchmark {
+    @Param({"10000000", "100000000"})
+    public int entries;
+
+    @Param({"100000"})
+    public int accounts;
+
+    @Param({"100"})
+    public int page;
+
+    private ColumnarTransactionLedger ledger;
+    private String[] ids;
+    private long first;
+    private long last;
+
+    @Setup
+    public void setup() {
+        ids = new String[accounts];
+        for (int i = 0; i < accounts; i++) {
+            ids[i] = String.valueOf(i);
+        }
+        long heapBefore = usedHeap();
+        ledger = new ColumnarTransactionLedger();
+        SplittableRandom random = new SplittableRandom(42);
+        first = System.currentTimeMillis() * 1_000;
+        for (int i = 0; i < entries; i++) {
+            String id = ids[random.nextInt(accounts)];
+            if ((i & 7) == 0) {
+                ledger.record(id, LedgerEntryType.TRANSFER_OUT, ids[random.nextInt(accounts)], -100, i);
+            } else {
+                ledger.record(id, LedgerEntryType.DEPOSIT, null, 100, i);
+            }
+        }
+        last = System.currentTimeMillis() * 1_000;
+        System.out.printf("%n%d entries: heap %d MB%n", entries, (usedHeap() - heapBefore) >> 20);
+    }
+
+    @State(Scope.Thread)
+    public static class Query implements LedgerVisitor {
+        final SplittableRandom random = new SplittableRandom();
+        long sum;
+
+        @Override
+        public void visit(long timestamp, LedgerEntryType type, String counterparty, long amount, long balance) {
+            sum += balance;
+        }
+    }
+
+    @Benchmark
+    public void append(Query query) {
+        ledger.record(ids[query.random.nextInt(accounts)], LedgerEntryType.DEPOSIT, null, 100, 0);
+    }
+
+    @Benchmark
+    public long rangeQuery(Query query) {
+        long from = first + query.random.nextLong(Math.max(1, last - first));
+        ledger.history(ids[query.random.nextInt(accounts)], from, Long.MAX_VALUE, page, query);
+        return query.sum;
+    }
+
+    private static long usedHeap() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
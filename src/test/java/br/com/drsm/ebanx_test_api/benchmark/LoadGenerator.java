@@ -0,0 +1,155 @@
+package br.com.drsm.ebanx_test_api.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Closed-loop HTTP load against a running server: each of {@code connections} clients posts a
+ * deposit to one of 10,000 accounts, waits for the answer and posts the next one until the
+ * duration is over. Prints throughput and latency percentiles.
+ * <p>
+ * To compare thread modes, start the server with the journal on so events block on fsync, once
+ * with {@code spring.threads.virtual.enabled=false} and once with {@code =true} on Java 21, and
+ * raise {@code server.tomcat.max-connections} above the number of connections.
+ * <p>
+ * An optional fourth argument makes each client wait that many milliseconds between answer and
+ * next request, which keeps many connections open but mostly idle, the load where the reactive
+ * variant ({@code spring.profiles.active=reactive}) should hold connections that Tomcat cannot.
+ * <p>
+ * The first argument may list several base URLs separated by commas, which the clients are
+ * spread over, and an optional fifth argument, {@code balance}, makes them read balances instead
+ * of posting deposits (404s for accounts not created yet count as answers). Pointed at a
+ * replication leader and its followers, it measures the reads they serve together. With
+ * {@code transfer} they post transfers between two random accounts, which on a cluster mostly
+ * cross nodes (404s for origins not created yet count as answers).
+ * <p>
+ * Requests that get any other answer, such as those turned away by admission control, count as
+ * errors; goodput counts the answered ones only, and the latency percentiles are theirs.
+ */
+public class LoadGenerator {
+    static final int ACCOUNTS = 10_000;
+    private static final long BUCKET_MICROS = 10;
+    private static final int BUCKETS = 1_000_000;
+
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private final String[] bases;
+    private final String mode;
+    private final long deadline;
+    private final Executor afterThinkTime;
+    private final CountDownLatch done;
+    private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+
+    LoadGenerator(String[] bases, String mode, int connections, Duration duration, Duration thinkTime) {
+        this.bases = bases;
+        this.mode = mode;
+        this.deadline = System.nanoTime() + duration.toNanos();
+        this.afterThinkTime = thinkTime.isZero() ? Runnable::run
+                : CompletableFuture.delayedExecutor(thinkTime.toMillis(), TimeUnit.MILLISECONDS);
+        this.done = new CountDownLatch(connections);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        String[] bases = args[0].split(",");
+        int connections = Integer.parseInt(args[1]);
+        Duration duration = Duration.ofSeconds(Long.parseLong(args[2]));
+        Duration thinkTime = Duration.ofMillis(args.length > 3 ? Long.parseLong(args[3]) : 0);
+        String mode = args.length > 4 ? args[4] : "deposit";
+        run(bases, mode, connections, duration, thinkTime);
+    }
+
+    /**
+     * Requests per second sent and answered, and the 99th percentile latency of the answered ones.
+     */
+    record Result(double throughput, double goodput, double p99Millis) {
+    }
+
+    /**
+     * Runs the load and prints its report.
+     */
+    static Result run(String[] bases, String mode, int connections, Duration duration, Duration thinkTime)
+            throws InterruptedException {
+        LoadGenerator generator = new LoadGenerator(bases, mode, connections, duration, thinkTime);
+        long start = System.nanoTime();
+        for (int i = 0; i < connections; i++) {
+            generator.next(i % bases.length);
+        }
+        generator.done.await();
+        return generator.report(connections, System.nanoTime() - start);
+    }
+
+    private void next(int base) {
+        int account = ThreadLocalRandom.current().nextInt(ACCOUNTS);
+        HttpRequest request = switch (mode) {
+            case "balance" -> HttpRequest.newBuilder(URI.create(bases[base] + "/balance?account_id=" + account)).GET().build();
+            case "transfer" -> post(base, "{\"type\":\"transfer\",\"origin\":\"" + account + "\",\"destination\":\""
+                    + ThreadLocalRandom.current().nextInt(ACCOUNTS) + "\",\"amount\":1}");
+            default -> post(base, "{\"type\":\"deposit\",\"destination\":\"" + account + "\",\"amount\":1}");
+        };
+        long sent = System.nanoTime();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, failure) -> {
+            long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - sent);
+            requests.incrementAndGet();
+            if (null != failure || !answered(response.statusCode())) {
+                errors.incrementAndGet();
+            } else {
+                histogram.incrementAndGet((int) Math.min(BUCKETS - 1, micros / BUCKET_MICROS));
+            }
+            if (System.nanoTime() < deadline) {
+                afterThinkTime.execute(() -> next(base));
+            } else {
+                done.countDown();
+            }
+        });
+    }
+
+    private HttpRequest post(int base, String body) {
+        return HttpRequest.newBuilder(URI.create(bases[base] + "/event"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private boolean answered(int status) {
+        return switch (mode) {
+            case "balance" -> status == 200 || status == 404;
+            case "transfer" -> status == 201 || status == 404;
+            default -> status == 201;
+        };
+    }
+
+    private Result report(int connections, long elapsedNanos) {
+        long total = requests.get();
+        long answered = total - errors.get();
+        double seconds = elapsedNanos / 1e9;
+        System.out.printf("connections=%d requests=%d errors=%d throughput=%.0f req/s goodput=%.0f req/s%n",
+                connections, total, errors.get(), total / seconds, answered / seconds);
+        System.out.printf("p50=%.2f ms p90=%.2f ms p99=%.2f ms p99.9=%.2f ms max=%.2f ms%n",
+                percentile(answered, 0.5), percentile(answered, 0.9), percentile(answered, 0.99),
+                percentile(answered, 0.999), percentile(answered, 1.0));
+        return new Result(total / seconds, answered / seconds, percentile(answered, 0.99));
+    }
+
+    private double percentile(long total, double quantile) {
+        long rank = Math.max(1, (long) Math.ceil(total * quantile));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += histogram.get(i);
+            if (seen >= rank) {
+                return (i + 1) * BUCKET_MICROS / 1000.0;
+            }
+        }
+        return BUCKETS * BUCKET_MICROS / 1000.0;
+    }
+}
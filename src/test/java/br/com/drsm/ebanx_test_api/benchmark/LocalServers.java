@@ -0,0 +1,99 @@
+package br.com.drsm.ebanx_test_api.benchmark;
+
+import br.com.drsm.ebanx_test_api.EbanxTestApiApplication;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Servers started as separate JVMs from the test classpath, for the runners that measure them
+ * with {@link LoadGenerator}. Their logs go to {@code target/<directory>}.
+ */
+final class LocalServers {
+    private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(60);
+    private static final HttpClient CLIENT = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    private LocalServers() {
+    }
+
+    /**
+     * Starts a server on the port with the given {@code --name=value} arguments.
+     */
+    static Process start(String directory, String name, int port, List<String> arguments) throws IOException {
+        File logs = new File("target", directory);
+        logs.mkdirs();
+        List<String> command = new ArrayList<>(List.of(
+                new File(System.getProperty("java.home"), "bin/java").getPath(),
+                "-Xms1g", "-Xmx1g",
+                "-cp", System.getProperty("java.class.path"),
+                EbanxTestApiApplication.class.getName(),
+                "--server.port=" + port,
+                "--server.tomcat.max-connections=20000",
+                "--logging.level.root=WARN"));
+        command.addAll(arguments);
+        return new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(new File(logs, name + ".log"))
+                .start();
+    }
+
+    static void stop(List<Process> processes) throws InterruptedException {
+        for (Process process : processes) {
+            process.destroy();
+        }
+        for (Process process : processes) {
+            if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    static void awaitHealthy(String base) throws InterruptedException {
+        HttpRequest health = HttpRequest.newBuilder(URI.create(base + "/actuator/health")).GET().build();
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            try {
+                if (CLIENT.send(health, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // not listening yet
+            }
+            Thread.sleep(200);
+        }
+        throw new IllegalStateException(base + " did not start within " + STARTUP_TIMEOUT);
+    }
+
+    /**
+     * Creates every account the load generator uses, through the servers in turn, so that reads
+     * and transfers find them.
+     */
+    static void seed(String... bases) throws IOException, InterruptedException {
+        for (int account = 0; account < LoadGenerator.ACCOUNTS; account++) {
+            String body = "{\"type\":\"deposit\",\"destination\":\"" + account + "\",\"amount\":1000}";
+            HttpRequest request = HttpRequest.newBuilder(URI.create(bases[account % bases.length] + "/event"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+            int status = CLIENT.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            if (status != 201) {
+                throw new IllegalStateException("Seeding account " + account + " answered " + status);
+            }
+        }
+    }
+
+    static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
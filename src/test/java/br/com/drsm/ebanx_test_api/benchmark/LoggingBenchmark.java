@@ -0,0 +1,112 @@
+package br.com.drsm.ebanx_test_api.benchmark;
+
+import br.com.drsm.ebanx_test_api.admission.Admission;
+import br.com.drsm.ebanx_test_api.cluster.Cluster;
+import br.com.drsm.ebanx_test_api.controller.AccountController;
+import br.com.drsm.ebanx_test_api.dto.EventType;
+import br.com.drsm.ebanx_test_api.dto.TransactionRequestDTO;
+import br.com.drsm.ebanx_test_api.engine.DirectEventDispatcher;
+import br.com.drsm.ebanx_test_api.replication.Replication;
+import br.com.drsm.ebanx_test_api.service.AccountService;
+import br.com.drsm.ebanx_test_api.service.AccountServiceBuilder;
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@code /event} and {@code /balance} at the controller, with the log output
+ * formatted with the console pattern and discarded. {@code level=DEBUG} with a {@code SYNC}
+ * appender reproduces the former per-event logging, {@code level=INFO} with an {@code ASYNC}
+ * appender is the shipped configuration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoggingBenchmark {
+    private static final String PATTERN = "%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p %pid --- [%t] %-40.40logger{39} : %m%n";
+
+    @Param({"DEBUG", "INFO"})
+    public String level;
+
+    @Param({"SYNC", "ASYNC"})
+    public String appender;
+
+    private Appender<ILoggingEvent> installed;
+    private AccountController controller;
+    private TransactionRequestDTO deposit;
+
+    @Setup
+    public void setup() {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        root.detachAndStopAllAppenders();
+
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern(PATTERN);
+        encoder.start();
+        OutputStreamAppender<ILoggingEvent> output = new OutputStreamAppender<>();
+        output.setContext(context);
+        output.setEncoder(encoder);
+        output.setOutputStream(OutputStream.nullOutputStream());
+        output.start();
+        installed = output;
+        if ("ASYNC".equals(appender)) {
+            AsyncAppender async = new AsyncAppender();
+            async.setContext(context);
+            async.setQueueSize(8192);
+            async.setNeverBlock(true);
+            async.addAppender(output);
+            async.start();
+            installed = async;
+        }
+        root.addAppender(installed);
+        context.getLogger("br.com.drsm.ebanx_test_api").setLevel(Level.toLevel(level));
+
+        AccountService service = new AccountServiceBuilder().build();
+        controller = new AccountController(service, new DirectEventDispatcher(service), Replication.NONE, Cluster.NONE,
+                Admission.NONE);
+        deposit = TransactionRequestDTO.builder().type(EventType.DEPOSIT).destination("100").amount(1.0).build();
+        controller.event(deposit, null);
+    }
+
+    @TearDown
+    public void tearDown() {
+        installed.stop();
+    }
+
+    @Benchmark
+    public ResponseEntity<?> event() {
+        return controller.event(deposit, null);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> getBalance() {
+        return controller.getBalance("100", null, null);
+    }
+}
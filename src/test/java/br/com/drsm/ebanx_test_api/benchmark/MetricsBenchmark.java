@@ -0,0 +1,69 @@
+package br.com.drsm.ebanx_test_api.benchmark;
+
+import br.com.drsm.ebanx_test_api.dto.EventType;
+import br.com.drsm.ebanx_test_api.dto.TransactionRequestDTO;
+import br.com.drsm.ebanx_test_api.dto.TransactionResponseDTO;
+import br.com.drsm.ebanx_test_api.metrics.EventMetrics;
+import br.com.drsm.ebanx_test_api.metrics.MicrometerEventMetrics;
+import br.com.drsm.ebanx_test_api.metrics.Operation;
+import br.com.drsm.ebanx_test_api.service.AccountService;
+import br.com.drsm.ebanx_test_api.service.AccountServiceBuilder;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of recording metrics on the event path: {@code deposit} runs a deposit with metrics off
+ * ({@code NONE}) and on ({@code PROMETHEUS}), {@code recordLatency} isolates a single timer
+ * update. The difference between the two {@code deposit} scores is the per-event overhead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsBenchmark {
+
+    @Param({"NONE", "PROMETHEUS"})
+    public String metrics;
+
+    private EventMetrics eventMetrics;
+    private AccountService service;
+    private TransactionRequestDTO deposit;
+
+    @Setup
+    public void setup() {
+        ((Logger) LoggerFactory.getLogger("br.com.drsm.ebanx_test_api")).setLevel(Level.WARN);
+        eventMetrics = "NONE".equals(metrics)
+                ? EventMetrics.NONE
+                : new MicrometerEventMetrics(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT));
+        service = new AccountServiceBuilder().metrics(eventMetrics).build();
+        deposit = TransactionRequestDTO.builder().type(EventType.DEPOSIT).destination("100").amount(1.0).build();
+    }
+
+    @Benchmark
+    public TransactionResponseDTO deposit() {
+        return service.processDeposit(deposit);
+    }
+
+    @Benchmark
+    public void recordLatency() {
+        eventMetrics.recordLatency(Operation.DEPOSIT, 1_000);
+    }
+}
@@ -0,0 +1,151 @@
+package br.com.drsm.ebanx_test_api.benchmark;
+
+import br.com.drsm.ebanx_test_api.dto.EventType;
+import br.com.drsm.ebanx_test_api.dto.TransactionRequestDTO;
+import br.com.drsm.ebanx_test_api.journal.EventJournal;
+import br.com.drsm.ebanx_test_api.replication.ReplicationLog;
+import br.com.drsm.ebanx_test_api.replication.ReplicationNode;
+import br.com.drsm.ebanx_test_api.replication.ReplicationRole;
+import br.com.drsm.ebanx_test_api.service.AccountService;
+import br.com.drsm.ebanx_test_api.service.AccountServiceBuilder;
+import br.com.drsm.ebanx_test_api.service.Outcome;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A leader and {@code followers} followers in one JVM, replicating over localhost TCP.
+ * {@code lag} deposits on the leader and waits until every follower has applied the deposit,
+ * which is the replication lag a read-your-writes read on a follower would wait for.
+ * {@code replicated} has one thread depositing on the leader while four read balances from the
+ * followers, spread over them, within the staleness bound.
+ * <p>
+ * Nodes here share the JVM's cores, so adding followers cannot add read capacity; the aggregate
+ * read throughput of separate processes is measured with {@code LoadGenerator} in
+ * {@code balance} mode against every node's URL.
+ */
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class ReplicationBenchmark {
+    private static final Duration MAX_STALENESS = Duration.ofMillis(100);
+    private static final Duration HEARTBEAT = Duration.ofMillis(10);
+    private static final Duration READ_TIMEOUT = Duration.ofSeconds(5);
+
+    @Param({"1", "2", "4"})
+    public int followers;
+
+    @Param({"10000"})
+    public int accounts;
+
+    private AccountService leader;
+    private ReplicationNode leaderNode;
+    private AccountService[] followerServices;
+    private ReplicationNode[] followerNodes;
+    private String[] ids;
+    private final AtomicInteger readers = new AtomicInteger();
+
+    @Setup
+    public void setup() {
+        ((Logger) LoggerFactory.getLogger("br.com.drsm.ebanx_test_api")).setLevel(Level.WARN);
+        ReplicationLog log = new ReplicationLog(EventJournal.NONE, 1 << 20);
+        leader = new AccountServiceBuilder().journal(log).build();
+        leaderNode = new ReplicationNode(log, leader, ReplicationRole.LEADER, 0, null, MAX_STALENESS, HEARTBEAT, READ_TIMEOUT);
+        followerServices = new AccountService[followers];
+        followerNodes = new ReplicationNode[followers];
+        for (int i = 0; i < followers; i++) {
+            ReplicationLog followerLog = new ReplicationLog(EventJournal.NONE, 1 << 20);
+            followerServices[i] = new AccountServiceBuilder().journal(followerLog).build();
+            followerNodes[i] = new ReplicationNode(followerLog, followerServices[i], ReplicationRole.FOLLOWER, 0,
+                    "localhost:" + leaderNode.port(), MAX_STALENESS, HEARTBEAT, READ_TIMEOUT);
+        }
+        ids = new String[accounts];
+        for (int i = 0; i < accounts; i++) {
+            ids[i] = String.valueOf(i);
+            leader.processDeposit(deposit(ids[i]));
+        }
+        awaitFollowers(leaderNode.position());
+    }
+
+    @TearDown
+    public void tearDown() {
+        for (ReplicationNode node : followerNodes) {
+            node.close();
+        }
+        leaderNode.close();
+    }
+
+    private static TransactionRequestDTO deposit(String id) {
+        return TransactionRequestDTO.builder().type(EventType.DEPOSIT).destination(id).amount(1.0).build();
+    }
+
+    private void awaitFollowers(long position) {
+        for (ReplicationNode node : followerNodes) {
+            if (!node.awaitReadable(position)) {
+                throw new IllegalStateException("Follower did not catch up with " + position);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Client {
+        final SplittableRandom random = new SplittableRandom();
+        int follower;
+
+        @Setup
+        public void setup(ReplicationBenchmark benchmark) {
+            follower = benchmark.readers.getAndIncrement() % benchmark.followers;
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long lag(Client client) {
+        leader.processDeposit(deposit(ids[client.random.nextInt(accounts)]));
+        long position = leaderNode.position();
+        awaitFollowers(position);
+        return position;
+    }
+
+    @Benchmark
+    @Group("replicated")
+    @GroupThreads(1)
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Object write(Client client) {
+        return leader.tryProcess(deposit(ids[client.random.nextInt(accounts)]));
+    }
+
+    @Benchmark
+    @Group("replicated")
+    @GroupThreads(4)
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Outcome<Double> read(Client client) {
+        if (!followerNodes[client.follower].awaitReadable(0)) {
+            throw new IllegalStateException("Follower is stale");
+        }
+        return followerServices[client.follower].findBalance(ids[client.random.nextInt(accounts)]);
+    }
+}
@@ -0,0 +1,92 @@
+package br.com.drsm.ebanx_test_api.benchmark;
+
+import br.com.drsm.ebanx_test_api.journal.JournalPosition;
+import br.com.drsm.ebanx_test_api.service.AccountService;
+import br.com.drsm.ebanx_test_api.service.AccountServiceBuilder;
+import br.com.drsm.ebanx_test_api.snapshot.FileSnapshotStore;
+import br.com.drsm.ebanx_test_api.store.AccountHandle;
+import br.com.drsm.ebanx_test_api.store.MappedAccountStore;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time until an {@link AccountService} holding {@code accounts} accounts is ready: the heap store
+ * loading them from a snapshot, the mapped store reopened after a clean close, and the mapped
+ * store reopened after a crash, which scans every slot.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+@State(Scope.Benchmark)
+public class StoreStartupBenchmark {
+    @Param({"heap-snapshot", "mapped-clean", "mapped-crash"})
+    public String start;
+
+    @Param({"1000000", "10000000"})
+    public int accounts;
+
+    private Path file;
+
+    @Setup
+    public void setup() throws IOException {
+        ((Logger) LoggerFactory.getLogger("br.com.drsm.ebanx_test_api")).setLevel(Level.WARN);
+        file = Files.createTempFile("startup-benchmark", ".data");
+        if ("heap-snapshot".equals(start)) {
+            new FileSnapshotStore(file).write(new JournalPosition(accounts, 0), visitor -> {
+                for (int i = 0; i < accounts; i++) {
+                    visitor.visit(String.valueOf(i), 1_000 + i, i);
+                }
+            });
+            return;
+        }
+        try (MappedAccountStore store = new MappedAccountStore(file, accounts)) {
+            for (int i = 0; i < accounts; i++) {
+                AccountHandle account = store.getOrCreate(String.valueOf(i));
+                account.setBalance(1_000 + i);
+                account.setLastSeq(i);
+                store.commit(account);
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public int startup() {
+        if ("heap-snapshot".equals(start)) {
+            AccountService service = new AccountServiceBuilder().snapshots(new FileSnapshotStore(file)).build();
+            service.recover();
+            return service.getStore().size();
+        }
+        MappedAccountStore store = new MappedAccountStore(file, accounts);
+        AccountService service = new AccountServiceBuilder().store(store).build();
+        service.recover();
+        if ("mapped-clean".equals(start)) {
+            store.close();
+        }
+        return store.size();
+    }
+}
@@ -0,0 +1,288 @@
+package br.com.drsm.ebanx_test_api.cluster;
+
+import br.com.drsm.ebanx_test_api.dto.EventType;
+import br.com.drsm.ebanx_test_api.dto.TransactionRequestDTO;
+import br.com.drsm.ebanx_test_api.dto.TransactionResponseDTO;
+import br.com.drsm.ebanx_test_api.engine.DirectEventDispatcher;
+import br.com.drsm.ebanx_test_api.engine.EventDispatcher;
+import br.com.drsm.ebanx_test_api.journal.DurabilityMode;
+import br.com.drsm.ebanx_test_api.journal.FileEventJournal;
+import br.com.drsm.ebanx_test_api.service.AccountService;
+import br.com.drsm.ebanx_test_api.service.AccountServiceBuilder;
+import br.com.drsm.ebanx_test_api.service.Outcome;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClusterTest {
+    private static final int NODES = 3;
+    private static final int VIRTUAL_NODES = 64;
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(2);
+    private static final Duration RETRY_INTERVAL = Duration.ofMillis(20);
+    private static final Duration DEDUP_TTL = Duration.ofMinutes(1);
+
+    private final List<String> addresses = new ArrayList<>();
+    private final AccountService[] services = new AccountService[NODES];
+    private final ClusterNode[] nodes = new ClusterNode[NODES];
+    private final FileEventJournal[] journals = new FileEventJournal[NODES];
+    /**
+     * Debit answers still to be lost by the nodes after applying the debit.
+     */
+    private final AtomicInteger debitAnswersToDrop = new AtomicInteger();
+    private HashRing ring;
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    void start() throws IOException {
+        for (int i = 0; i < NODES; i++) {
+            try (ServerSocket socket = new ServerSocket(0)) {
+                addresses.add("localhost:" + socket.getLocalPort());
+            }
+        }
+        ring = new HashRing(addresses, VIRTUAL_NODES);
+        for (int i = 0; i < NODES; i++) {
+            services[i] = new AccountServiceBuilder().build();
+            nodes[i] = node(i);
+        }
+    }
+
+    @AfterEach
+    void close() {
+        for (ClusterNode node : nodes) {
+            node.close();
+        }
+        for (FileEventJournal journal : journals) {
+            if (null != journal) {
+                journal.close();
+            }
+        }
+    }
+
+    @Test
+    void testEventsAndBalancesReachTheOwnerFromAnyNode() {
+        String id = idOf(2, 0);
+
+        assertTrue(dispatch(0, deposit(id, 30)).isPresent());
+        assertTrue(dispatch(1, withdraw(id, 5)).isPresent());
+
+        assertEquals(25.0, services[2].getBalance(id));
+        assertEquals(0, services[0].accountCount());
+        assertEquals(0, services[1].accountCount());
+        assertFalse(nodes[0].owns(id));
+        assertEquals(25.0, nodes[0].findBalance(id, null).value());
+        assertEquals(Outcome.Failure.NOT_FOUND, nodes[1].findBalance(idOf(2, 1), null).failure());
+        assertEquals(Outcome.Failure.NOT_FOUND, dispatch(0, withdraw(idOf(1, 1), 5)).failure());
+    }
+
+    @Test
+    void testTransferAcrossNodesMovesTheMoneyOnce() {
+        String origin = idOf(0, 0);
+        String destination = idOf(1, 0);
+        dispatch(0, deposit(origin, 100));
+
+        Outcome<TransactionResponseDTO> transfer = dispatch(2, transfer(origin, destination, 40));
+
+        assertTrue(transfer.isPresent());
+        assertEquals(60.0, transfer.value().getOrigin().getBalance());
+        assertEquals(40.0, transfer.value().getDestination().getBalance());
+        assertEquals(60.0, services[0].getBalance(origin));
+        assertEquals(40.0, services[1].getBalance(destination));
+        assertEquals(0, nodes[2].pendingCredits());
+    }
+
+    @Test
+    void testTransferFromAMissingOriginChangesNothing() {
+        String destination = idOf(1, 0);
+        dispatch(1, deposit(destination, 10));
+
+        Outcome<TransactionResponseDTO> transfer = dispatch(2, transfer(idOf(0, 0), destination, 5));
+
+        assertEquals(Outcome.Failure.NOT_FOUND, transfer.failure());
+        assertEquals(10.0, services[1].getBalance(destination));
+        assertEquals(0, nodes[2].pendingCredits());
+    }
+
+    @Test
+    void testConcurrentTransfersAcrossNodesConserveMoney() throws Exception {
+        int accounts = 30;
+        String[] ids = new String[accounts];
+        for (int i = 0; i < accounts; i++) {
+            ids[i] = idOf(i % NODES, i / NODES);
+            dispatch(0, deposit(ids[i], 1000));
+        }
+        ExecutorService clients = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> done = new ArrayList<>();
+            for (int c = 0; c < 8; c++) {
+                int seed = c;
+                done.add(clients.submit(() -> {
+                    SplittableRandom random = new SplittableRandom(seed);
+                    for (int i = 0; i < 500; i++) {
+                        String origin = ids[random.nextInt(accounts)];
+                        String destination = ids[random.nextInt(accounts)];
+                        dispatch(random.nextInt(NODES), transfer(origin, destination, 1 + random.nextInt(20)));
+                    }
+                }));
+            }
+            for (Future<?> client : done) {
+                client.get();
+            }
+        } finally {
+            clients.shutdown();
+        }
+
+        double total = 0;
+        for (int i = 0; i < NODES; i++) {
+            assertEquals(0, nodes[i].pendingCredits());
+            total += services[i].totalBalance();
+        }
+        assertEquals(accounts * 1000.0, total);
+    }
+
+    @Test
+    void testCreditOwedToAStoppedNodeIsDeliveredOnceItIsBack() throws InterruptedException {
+        String origin = idOf(0, 0);
+        String destination = idOf(1, 0);
+        dispatch(0, deposit(origin, 100));
+        dispatch(0, deposit(destination, 1));
+        nodes[1].close();
+
+        Outcome<TransactionResponseDTO> transfer = dispatch(2, transfer(origin, destination, 30));
+
+        assertTrue(transfer.isPresent());
+        assertEquals(70.0, transfer.value().getOrigin().getBalance());
+        assertNull(transfer.value().getDestination());
+        assertEquals(1, nodes[2].pendingCredits());
+
+        Thread.sleep(RETRY_INTERVAL.toMillis() * 5);
+        nodes[1] = node(1);
+        long deadline = System.nanoTime() + REQUEST_TIMEOUT.toNanos() * 2;
+        while (nodes[2].pendingCredits() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(RETRY_INTERVAL.toMillis());
+        }
+
+        assertEquals(0, nodes[2].pendingCredits());
+        assertEquals(31.0, services[1].getBalance(destination));
+        assertEquals(101.0, services[0].totalBalance() + services[1].totalBalance());
+    }
+
+    @Test
+    void testDebitWhoseAnswerIsLostIsSettledOnce() throws InterruptedException {
+        String origin = idOf(0, 0);
+        String destination = idOf(1, 0);
+        dispatch(0, deposit(origin, 100));
+        dispatch(1, deposit(destination, 1));
+        debitAnswersToDrop.set(4);
+
+        assertThrows(ClusterUnavailableException.class, () -> dispatch(2, transfer(origin, destination, 30)));
+        awaitSettled(2);
+
+        assertEquals(70.0, services[0].getBalance(origin));
+        assertEquals(31.0, services[1].getBalance(destination));
+        assertEquals(101.0, services[0].totalBalance() + services[1].totalBalance());
+    }
+
+    @Test
+    void testTransferInDoubtSurvivesRestarts() throws InterruptedException {
+        restart(0);
+        restart(2);
+        String origin = idOf(0, 0);
+        String destination = idOf(1, 0);
+        dispatch(0, deposit(origin, 100));
+        dispatch(1, deposit(destination, 1));
+        debitAnswersToDrop.set(Integer.MAX_VALUE);
+
+        assertThrows(ClusterUnavailableException.class, () -> dispatch(2, transfer(origin, destination, 30)));
+        assertEquals(1, nodes[2].pendingCredits());
+        assertEquals(70.0, services[0].getBalance(origin));
+
+        restart(0);
+        restart(2);
+        debitAnswersToDrop.set(0);
+        awaitSettled(2);
+
+        assertEquals(70.0, services[0].getBalance(origin));
+        assertEquals(31.0, services[1].getBalance(destination));
+        restart(2);
+        assertEquals(0, nodes[2].pendingCredits());
+    }
+
+    private void awaitSettled(int node) throws InterruptedException {
+        long deadline = System.nanoTime() + REQUEST_TIMEOUT.toNanos() * 2;
+        while (nodes[node].pendingCredits() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(RETRY_INTERVAL.toMillis());
+        }
+        assertEquals(0, nodes[node].pendingCredits());
+    }
+
+    /**
+     * Restarts the node on a journal kept across its restarts.
+     */
+    private void restart(int i) {
+        nodes[i].close();
+        if (null != journals[i]) {
+            journals[i].close();
+        }
+        journals[i] = new FileEventJournal(dir.resolve(i + ".journal"), DurabilityMode.GROUP, Duration.ofMillis(5));
+        services[i] = new AccountServiceBuilder().journal(journals[i]).build();
+        services[i].recover();
+        nodes[i] = node(i);
+    }
+
+    private ClusterNode node(int i) {
+        return new ClusterNode(services[i], addresses, i, VIRTUAL_NODES, 2, REQUEST_TIMEOUT, RETRY_INTERVAL, DEDUP_TTL,
+                handler -> (op, request, response) -> {
+                    byte status = handler.handle(op, request, response);
+                    if (ClusterNode.TRANSFER_OUT == op && debitAnswersToDrop.getAndDecrement() > 0) {
+                        throw new IllegalStateException("Debit answer dropped");
+                    }
+                    return status;
+                });
+    }
+
+    /**
+     * The {@code n}-th id kept by the node.
+     */
+    private String idOf(int node, int n) {
+        for (int id = 0; ; id++) {
+            if (ring.ownerOf(Integer.toString(id)) == node && n-- == 0) {
+                return Integer.toString(id);
+            }
+        }
+    }
+
+    private Outcome<TransactionResponseDTO> dispatch(int node, TransactionRequestDTO request) {
+        EventDispatcher dispatcher = new ClusterEventDispatcher(new DirectEventDispatcher(services[node]), nodes[node]);
+        return dispatcher.tryDispatch(request);
+    }
+
+    private static TransactionRequestDTO deposit(String destination, double amount) {
+        return TransactionRequestDTO.builder().type(EventType.DEPOSIT).destination(destination).amount(amount).build();
+    }
+
+    private static TransactionRequestDTO withdraw(String origin, double amount) {
+        return TransactionRequestDTO.builder().type(EventType.WITHDRAW).origin(origin).amount(amount).build();
+    }
+
+    private static TransactionRequestDTO transfer(String origin, String destination, double amount) {
+        return TransactionRequestDTO.builder()
+                .type(EventType.TRANSFER).origin(origin).destination(destination).amount(amount).build();
+    }
+}
@@ -0,0 +1,108 @@
+package br.com.drsm.ebanx_test_api.codec;
+
+import br.com.drsm.ebanx_test_api.dto.AccountDTO;
+import br.com.drsm.ebanx_test_api.dto.EventType;
+import br.com.drsm.ebanx_test_api.dto.TransactionRequestDTO;
+import br.com.drsm.ebanx_test_api.dto.TransactionResponseDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventJsonCodecTest {
+    private final EventJsonCodec codec = new EventJsonCodec(1024);
+    private final ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @Test
+    void readsEveryFieldAndSkipsUnknownOnes() {
+        TransactionRequestDTO request = read("""
+                { "type" : "transfer", "origin":"100", "extra": {"a": [1, 2.5e3, true, null, "x\\"y"]},
+                  "destination":"300", "amount": 15.25, "idempotencyKey": "k-1" }""");
+
+        assertEquals(EventType.TRANSFER, request.getType());
+        assertEquals("100", request.getOrigin());
+        assertEquals("300", request.getDestination());
+        assertEquals(15.25, request.getAmount());
+        assertEquals("k-1", request.getIdempotencyKey());
+    }
+
+    @Test
+    void readsLikeJackson() throws IOException {
+        String[] bodies = {
+                "{\"type\":\"deposit\",\"destination\":\"100\",\"amount\":10}",
+                "{\"type\":\"withdraw\",\"origin\":\"caf\\u00e9\\n\",\"amount\":-0.1}",
+                "{\"type\":\"bogus\",\"origin\":null,\"amount\":1.2345678901234567}",
+                "{\"type\":null,\"destination\":\"ação\",\"amount\":1E2}",
+                "{\"amount\":null}",
+                "{\"amount\":\"10\"}",
+                "{\"amount\":\" -2.5 \"}",
+                "{\"amount\":\"\"}",
+                "{}",
+        };
+        for (String body : bodies) {
+            TransactionRequestDTO expected = mapper.readValue(body, TransactionRequestDTO.class);
+            TransactionRequestDTO actual = read(body);
+            assertEquals(expected.getType(), actual.getType(), body);
+            assertEquals(expected.getOrigin(), actual.getOrigin(), body);
+            assertEquals(expected.getDestination(), actual.getDestination(), body);
+            assertEquals(expected.getAmount(), actual.getAmount(), body);
+            assertEquals(expected.hasAmount(), actual.hasAmount(), body);
+        }
+    }
+
+    @Test
+    void rejectsMalformedBodies() {
+        String[] bodies = {"", "{", "{\"type\":\"deposit\"", "{\"amount\":01}", "{\"amount\":1.}", "{\"type\":deposit}",
+                "{\"origin\":\"1\"}}", "{\"origin\":\"1\",}", "[]", "{\"extra\":[1 2]}", "{\"amount\":\"ten\"}",
+                "{\"amount\":\"NaN\"}", "{\"amount\":\"-Infinity\"}", "{\"amount\":\"0x1p3\"}", "{\"amount\":1e400}"};
+        for (String body : bodies) {
+            assertThrows(IllegalArgumentException.class, () -> read(body), body);
+        }
+    }
+
+    @Test
+    void rejectsBodiesOverTheLimit() {
+        String body = "{\"origin\":\"" + "1".repeat(2048) + "\"}";
+
+        assertThrows(IllegalArgumentException.class, () -> read(body));
+    }
+
+    @Test
+    void writesLikeJackson() throws IOException {
+        double[] balances = {0, 10, 10.5, 10.25, -15, 0.01, 1234567.89, 9999999.99, 1e7, 1e-4, 0.1 + 0.2, -0.0};
+        for (double balance : balances) {
+            TransactionResponseDTO[] responses = {
+                    TransactionResponseDTO.builder().destination(account("100", balance)).build(),
+                    TransactionResponseDTO.builder().origin(account("café \"\\\n\u0001😀", balance)).build(),
+                    TransactionResponseDTO.builder().destination(account("300", balance)).origin(account("100", -balance)).build(),
+            };
+            for (TransactionResponseDTO response : responses) {
+                codec.writeResponse(response);
+                assertEquals(mapper.writeValueAsString(response), output());
+            }
+            codec.writeBalance(balance);
+            assertEquals(mapper.writeValueAsString(balance), output());
+        }
+    }
+
+    private TransactionRequestDTO read(String body) {
+        try {
+            return codec.readRequest(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private String output() {
+        return new String(codec.output(), 0, codec.length(), StandardCharsets.UTF_8);
+    }
+
+    private static AccountDTO account(String id, double balance) {
+        return AccountDTO.builder().id(id).balance(balance).build();
+    }
+}
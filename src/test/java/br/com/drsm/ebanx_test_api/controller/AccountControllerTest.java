@@ -1,24 +1,42 @@
 package br.com.drsm.ebanx_test_api.controller;
 
 
+import br.com.drsm.ebanx_test_api.admission.AdaptiveConcurrencyLimiter;
+import br.com.drsm.ebanx_test_api.admission.AdmissionPriority;
+import br.com.drsm.ebanx_test_api.admission.Permit;
+import br.com.drsm.ebanx_test_api.cluster.Cluster;
 import br.com.drsm.ebanx_test_api.dto.AccountDTO;
+import br.com.drsm.ebanx_test_api.dto.EventType;
+import br.com.drsm.ebanx_test_api.dto.TransactionDTO;
+import br.com.drsm.ebanx_test_api.dto.TransactionPageDTO;
 import br.com.drsm.ebanx_test_api.dto.TransactionRequestDTO;
 import br.com.drsm.ebanx_test_api.dto.TransactionResponseDTO;
+import br.com.drsm.ebanx_test_api.engine.DirectEventDispatcher;
 import br.com.drsm.ebanx_test_api.model.Account;
+import br.com.drsm.ebanx_test_api.model.Money;
+import br.com.drsm.ebanx_test_api.replication.Replication;
 import br.com.drsm.ebanx_test_api.service.AccountService;
-import br.com.drsm.ebanx_test_api.service.exception.AccountNotFoundException;
+import br.com.drsm.ebanx_test_api.service.Outcome;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
@@ -48,7 +66,7 @@ class AccountControllerTest {
     void testGetBalance_notFound() {
         String url = "http://localhost:" + port + "/balance?account_id=123";
 
-        when(accountService.getBalance(anyString())).thenThrow(AccountNotFoundException.class);
+        when(accountService.findBalance(anyString())).thenReturn(Outcome.notFound("123"));
 
         ResponseEntity<Double> response = restTemplate.getForEntity(url, Double.class);
 
@@ -62,7 +80,7 @@ class AccountControllerTest {
     void testGetBalance_found() {
         String url = "http://localhost:" + port + "/balance?account_id=123";
 
-        when(accountService.getBalance("123")).thenReturn(0.0);
+        when(accountService.findBalance("123")).thenReturn(Outcome.of(0.0));
 
         ResponseEntity<Double> response = restTemplate.getForEntity(url, Double.class);
 
@@ -79,7 +97,7 @@ class AccountControllerTest {
         TransactionRequestDTO request = createRequest("invalid", null, "123", 10.0);
         TransactionResponseDTO response = createResponse(null, createAccount("123", 10.0));
 
-        when(accountService.processDeposit(any())).thenReturn(response);
+        when(accountService.tryProcess(any())).thenReturn(Outcome.of(response));
 
         ResponseEntity<?> responseEntity = restTemplate.postForEntity(url, request, Object.class);
 
@@ -94,7 +112,7 @@ class AccountControllerTest {
         TransactionRequestDTO request = createRequest("deposit", null, "123", 10.0);
         TransactionResponseDTO response = createResponse(null, createAccount("123", 10.0));
 
-        when(accountService.processDeposit(any())).thenReturn(response);
+        when(accountService.tryProcess(any())).thenReturn(Outcome.of(response));
 
         ResponseEntity<TransactionResponseDTO> responseEntity = restTemplate.postForEntity(url, request, TransactionResponseDTO.class);
 
@@ -111,7 +129,7 @@ class AccountControllerTest {
         TransactionRequestDTO request = createRequest("deposit", null, "123", 10.0);
         TransactionResponseDTO response = createResponse(null, createAccount("123", 20.0));
 
-        when(accountService.processDeposit(any())).thenReturn(response);
+        when(accountService.tryProcess(any())).thenReturn(Outcome.of(response));
 
         ResponseEntity<TransactionResponseDTO> responseEntity = restTemplate.postForEntity(url, request, TransactionResponseDTO.class);
 
@@ -130,7 +148,7 @@ class AccountControllerTest {
         TransactionRequestDTO request = createRequest("withdraw", "123", null, 10.0);
         TransactionResponseDTO response = createResponse(createAccount("123", 5.0), null);
 
-        when(accountService.processWithdraw(any())).thenThrow(AccountNotFoundException.class);
+        when(accountService.tryProcess(any())).thenReturn(Outcome.notFound("200"));
 
         ResponseEntity<?> responseEntity = restTemplate.postForEntity(url, request, Object.class);
 
@@ -147,7 +165,7 @@ class AccountControllerTest {
         TransactionRequestDTO request = createRequest("withdraw", "444", null, 10.0);
         TransactionResponseDTO response = createResponse(createAccount("123", 5.0), null);
 
-        when(accountService.processWithdraw(any())).thenReturn(response);
+        when(accountService.tryProcess(any())).thenReturn(Outcome.of(response));
 
         ResponseEntity<TransactionResponseDTO> responseEntity = restTemplate.postForEntity(url, request, TransactionResponseDTO.class);
 
@@ -166,7 +184,7 @@ class AccountControllerTest {
         TransactionRequestDTO request = createRequest("transfer", "444", null, 10.0);
         TransactionResponseDTO response = createResponse(createAccount("123", 5.0), null);
 
-        when(accountService.processTransfer(any())).thenThrow(AccountNotFoundException.class);
+        when(accountService.tryProcess(any())).thenReturn(Outcome.notFound("200"));
 
         ResponseEntity<?> responseEntity = restTemplate.postForEntity(url, request, Object.class);
 
@@ -184,7 +202,7 @@ class AccountControllerTest {
         TransactionRequestDTO request = createRequest("transfer", "444", "123", 10.0);
         TransactionResponseDTO response = createResponse(createAccount("123", 15.0), createAccount("444", 5.0));
 
-        when(accountService.processTransfer(any())).thenReturn(response);
+        when(accountService.tryProcess(any())).thenReturn(Outcome.of(response));
 
         ResponseEntity<TransactionResponseDTO> responseEntity = restTemplate.postForEntity(url, request, TransactionResponseDTO.class);
 
@@ -196,9 +214,81 @@ class AccountControllerTest {
         assertEquals(HttpStatus.CREATED, responseEntity.getStatusCode());
     }
 
+    @Test
+    void testPostEvent_retryWithIdempotencyKeyIsAppliedOnce() {
+        String url = "http://localhost:" + port + "/event";
+
+        TransactionRequestDTO request = createRequest("deposit", null, "123", 10.0);
+        TransactionResponseDTO response = createResponse(null, createAccount("123", 10.0));
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Idempotency-Key", UUID.randomUUID().toString());
+
+        when(accountService.tryProcess(any())).thenReturn(Outcome.of(response));
+
+        ResponseEntity<TransactionResponseDTO> first = restTemplate.postForEntity(url, new HttpEntity<>(request, headers), TransactionResponseDTO.class);
+        ResponseEntity<TransactionResponseDTO> retry = restTemplate.postForEntity(url, new HttpEntity<>(request, headers), TransactionResponseDTO.class);
+
+        assertEquals(HttpStatus.CREATED, first.getStatusCode());
+        assertEquals(HttpStatus.CREATED, retry.getStatusCode());
+        assertEquals(10.0, retry.getBody().getDestination().getBalance());
+        verify(accountService, times(1)).tryProcess(any());
+    }
+
+    @Test
+    void testGetBalanceAt() {
+        String url = "http://localhost:" + port + "/balance?account_id=123&at=2024-01-01T00:00:00Z";
+
+        when(accountService.findBalanceAt("123", Instant.parse("2024-01-01T00:00:00Z"))).thenReturn(Outcome.of(15.0));
+
+        ResponseEntity<Double> response = restTemplate.getForEntity(url, Double.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(15.0, response.getBody());
+    }
+
+    @Test
+    void testGetTransactions() {
+        String url = "http://localhost:" + port + "/accounts/123/transactions?from=2024-01-01T00:00:00Z&limit=1";
+        Instant timestamp = Instant.parse("2024-01-01T00:00:01.000002Z");
+        TransactionPageDTO page = TransactionPageDTO.builder()
+                .transactions(List.of(TransactionDTO.builder().timestamp(timestamp).type("deposit").amount(10.0).balance(10.0).build()))
+                .next(timestamp.plusSeconds(1))
+                .build();
+        when(accountService.getTransactions("123", Instant.parse("2024-01-01T00:00:00Z"), null, 1)).thenReturn(page);
+
+        ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("{\"transactions\":[{\"timestamp\":\"2024-01-01T00:00:01.000002Z\",\"type\":\"deposit\",\"amount\":10.0,"
+                + "\"balance\":10.0}],\"next\":\"2024-01-01T00:00:02.000002Z\"}", response.getBody());
+    }
+
+    @Test
+    void testRequestsOverTheAdmissionLimitAreTurnedAway() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 2, 1.5, 0.2, 100,
+                new double[]{1.0, 1.0, 0.5});
+        AccountController controller = new AccountController(accountService, new DirectEventDispatcher(accountService),
+                Replication.NONE, Cluster.NONE, limiter);
+        when(accountService.findBalance("100")).thenReturn(Outcome.of(10.0));
+        Permit permit = limiter.tryAcquire(AdmissionPriority.CRITICAL);
+
+        ResponseEntity<?> deposit = controller.event(createRequest("deposit", null, "100", 10.0), null);
+        ResponseEntity<?> balance = controller.getBalance("100", null, null);
+        limiter.tryAcquire(AdmissionPriority.CRITICAL);
+        ResponseEntity<?> shed = controller.getBalance("100", null, null);
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, deposit.getStatusCode());
+        assertEquals("1", deposit.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals(HttpStatus.OK, balance.getStatusCode());
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, shed.getStatusCode());
+        assertEquals("1", shed.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        verify(accountService, times(0)).tryProcess(any());
+        permit.release();
+    }
+
     private TransactionRequestDTO createRequest(String type, String origin, String destination, Double amount) {
         return TransactionRequestDTO.builder()
-                .type(type)
+                .type(EventType.of(type))
                 .origin(origin)
                 .destination(destination)
                 .amount(amount)
@@ -216,6 +306,6 @@ class AccountControllerTest {
     }
 
     private Account createAccount(String id, double amount) {
-        return Account.builder().id(id).balance(amount).build();
+        return Account.builder().id(id).balance(Money.toCents(amount)).build();
     }
 }
\ No newline at end of file
@@ -0,0 +1,166 @@
+package br.com.drsm.ebanx_test_api.controller;
+
+import br.com.drsm.ebanx_test_api.dto.ImportSummaryDTO;
+import br.com.drsm.ebanx_test_api.service.AccountService;
+import br.com.drsm.ebanx_test_api.service.AccountStreamService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class AccountStreamControllerTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountStreamService accountStreamService;
+
+    @BeforeEach
+    public void init() {
+        accountService.reset();
+    }
+
+    @Test
+    void testImport_appliesAccountsAndEvents() {
+        String body = """
+                {"id":"100","balance":10}
+                {"id":"200","balance":2.5}
+                {"type":"transfer","origin":"100","destination":"200","amount":4}
+                {"type":"withdraw","origin":"300","amount":1}
+                {"id":"100","balance":7}
+                """;
+
+        ResponseEntity<ImportSummaryDTO> response = post("/accounts/import", body, ImportSummaryDTO.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        ImportSummaryDTO summary = response.getBody();
+        assertNotNull(summary);
+        assertEquals(3, summary.getAccounts());
+        assertEquals(1, summary.getEvents());
+        assertEquals(1, summary.getFailed());
+        assertEquals(7.0, accountService.getBalance("100"));
+        assertEquals(6.5, accountService.getBalance("200"));
+    }
+
+    @Test
+    void testImport_countsRecordsWithFieldsOfTheWrongTypeAsFailed() {
+        String body = """
+                {"id":"100","balance":10}
+                {"id":"100","balance":"oops"}
+                {"type":"deposit","destination":"100","amount":null}
+                {"type":"deposit","destination":"100","amount":"5"}
+                {"type":"deposit","destination":{"id":"100"},"amount":3}
+                {"type":"deposit","destination":"100","amount":2,"note":{"x":[1]}}
+                """;
+
+        ResponseEntity<ImportSummaryDTO> response = post("/accounts/import", body, ImportSummaryDTO.class);
+
+        ImportSummaryDTO summary = response.getBody();
+        assertNotNull(summary);
+        assertEquals(1, summary.getAccounts());
+        assertEquals(1, summary.getEvents());
+        assertEquals(4, summary.getFailed());
+        assertEquals(12.0, accountService.getBalance("100"));
+    }
+
+    @Test
+    void testImport_rejectsMalformedJson() {
+        ResponseEntity<String> response = post("/accounts/import", "{\"id\":\"100\",", String.class);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    @Test
+    void testExport_writesOneLinePerAccount() {
+        post("/accounts/import", """
+                {"id":"100","balance":10}
+                {"id":"200","balance":-2.5}
+                """, ImportSummaryDTO.class);
+
+        ResponseEntity<String> response = restTemplate.getForEntity("http://localhost:" + port + "/accounts/export", String.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_NDJSON, response.getHeaders().getContentType());
+        String[] lines = response.getBody().split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(response.getBody().contains("{\"id\":\"100\",\"balance\":10.0}\n"));
+        assertTrue(response.getBody().contains("{\"id\":\"200\",\"balance\":-2.5}\n"));
+    }
+
+    @Test
+    void testImportAndExport_streamLargeInputs() throws IOException {
+        int records = 200_000;
+
+        ImportSummaryDTO summary = accountStreamService.importNdjson(new GeneratedAccounts(records));
+
+        assertEquals(records, summary.getAccounts());
+        CountingOutputStream out = new CountingOutputStream();
+        accountStreamService.exportNdjson(out);
+        assertEquals(records, out.lines);
+    }
+
+    private <T> ResponseEntity<T> post(String path, String body, Class<T> responseType) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_NDJSON);
+        return restTemplate.postForEntity("http://localhost:" + port + path, new HttpEntity<>(body, headers), responseType);
+    }
+
+    /**
+     * Produces account records on demand, so the input never exists in memory as a whole.
+     */
+    private static class GeneratedAccounts extends InputStream {
+        private final int records;
+        private int next;
+        private byte[] line = new byte[0];
+        private int position;
+
+        GeneratedAccounts(int records) {
+            this.records = records;
+        }
+
+        @Override
+        public int read() {
+            if (position == line.length) {
+                if (next == records) {
+                    return -1;
+                }
+                line = ("{\"id\":\"" + next++ + "\",\"balance\":1}\n").getBytes(StandardCharsets.UTF_8);
+                position = 0;
+            }
+            return line[position++];
+        }
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        private long lines;
+
+        @Override
+        public void write(int b) {
+            if (b == '\n') {
+                lines++;
+            }
+        }
+    }
+}
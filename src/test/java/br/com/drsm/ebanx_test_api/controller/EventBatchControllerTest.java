@@ -0,0 +1,174 @@
+package br.com.drsm.ebanx_test_api.controller;
+
+import br.com.drsm.ebanx_test_api.dto.EventResultDTO;
+import br.com.drsm.ebanx_test_api.io.BinaryIds;
+import br.com.drsm.ebanx_test_api.service.AccountService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class EventBatchControllerTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private AccountService accountService;
+
+    @BeforeEach
+    public void init() {
+        accountService.reset();
+    }
+
+    @Test
+    void testPostEvents_appliesEachEventInOrder() {
+        String body = """
+                [{"type":"deposit","destination":"100","amount":10},
+                 {"type":"withdraw","origin":"200","amount":5},
+                 {"type":"transfer","origin":"100","destination":"300","amount":15},
+                 {"type":"invalid","destination":"100","amount":1}]""";
+
+        ResponseEntity<EventResultDTO[]> response = post("/events", MediaType.APPLICATION_JSON, body, EventResultDTO[].class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        EventResultDTO[] results = response.getBody();
+        assertNotNull(results);
+        assertEquals(4, results.length);
+        assertEquals(201, results[0].getStatus());
+        assertEquals(10.0, results[0].getDestination().getBalance());
+        assertEquals(404, results[1].getStatus());
+        assertEquals(201, results[2].getStatus());
+        assertEquals(-5.0, results[2].getOrigin().getBalance());
+        assertEquals(15.0, results[2].getDestination().getBalance());
+        assertEquals(400, results[3].getStatus());
+    }
+
+    @Test
+    void testPostEvents_goesThroughTheIdempotencyKeys() {
+        String body = """
+                [{"type":"deposit","destination":"100","amount":10,"idempotencyKey":"batch-1"},
+                 {"type":"deposit","destination":"100","amount":10,"idempotencyKey":"batch-1"}]""";
+
+        ResponseEntity<EventResultDTO[]> response = post("/events", MediaType.APPLICATION_JSON, body, EventResultDTO[].class);
+
+        EventResultDTO[] results = response.getBody();
+        assertNotNull(results);
+        assertEquals(10.0, results[1].getDestination().getBalance());
+        assertEquals(10.0, accountService.getBalance("100"));
+    }
+
+    @Test
+    void testPostEvents_acceptsNdjson() {
+        String body = """
+                {"type":"deposit","destination":"100","amount":10}
+                {"type":"deposit","destination":"100","amount":5}
+                """;
+
+        ResponseEntity<String> response = post("/events", MediaType.APPLICATION_NDJSON, body, String.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_NDJSON, response.getHeaders().getContentType());
+        assertEquals("""
+                {"status":201,"destination":{"id":"100","balance":10.0}}
+                {"status":201,"destination":{"id":"100","balance":15.0}}""", response.getBody());
+    }
+
+    @Test
+    void testPostEvents_atomicBatchIsRejectedAsAWhole() {
+        String body = """
+                [{"type":"deposit","destination":"100","amount":10},
+                 {"type":"withdraw","origin":"200","amount":5}]""";
+
+        ResponseEntity<EventResultDTO[]> response = post("/events?atomic=true", MediaType.APPLICATION_JSON, body, EventResultDTO[].class);
+
+        EventResultDTO[] results = response.getBody();
+        assertNotNull(results);
+        assertEquals(424, results[0].getStatus());
+        assertEquals(404, results[1].getStatus());
+        assertNull(accountService.getAccount("100"));
+    }
+
+    @Test
+    void testPostEvents_atomicBatchSeesItsOwnAccounts() {
+        String body = """
+                [{"type":"deposit","destination":"100","amount":10},
+                 {"type":"transfer","origin":"100","destination":"200","amount":4},
+                 {"type":"withdraw","origin":"200","amount":1}]""";
+
+        ResponseEntity<EventResultDTO[]> response = post("/events?atomic=true", MediaType.APPLICATION_JSON, body, EventResultDTO[].class);
+
+        EventResultDTO[] results = response.getBody();
+        assertNotNull(results);
+        assertEquals(3.0, results[2].getOrigin().getBalance());
+        assertEquals(6.0, accountService.getBalance("100"));
+    }
+
+    @Test
+    void testPostEvents_atomicBatchIsValidatedBeforeAnythingChanges() {
+        String body = """
+                [{"type":"deposit","destination":"100","amount":10},
+                 {"type":"deposit","destination":"%s","amount":1}]""".formatted("x".repeat(BinaryIds.MAX_ID_LENGTH + 1));
+
+        ResponseEntity<EventResultDTO[]> response = post("/events?atomic=true", MediaType.APPLICATION_JSON, body, EventResultDTO[].class);
+
+        EventResultDTO[] results = response.getBody();
+        assertNotNull(results);
+        assertEquals(424, results[0].getStatus());
+        assertEquals(400, results[1].getStatus());
+        assertNull(accountService.getAccount("100"));
+
+        String overflow = """
+                [{"type":"deposit","destination":"100","amount":9e16},
+                 {"type":"deposit","destination":"100","amount":9e16}]""";
+        results = post("/events?atomic=true", MediaType.APPLICATION_JSON, overflow, EventResultDTO[].class).getBody();
+        assertNotNull(results);
+        assertEquals(424, results[0].getStatus());
+        assertEquals(400, results[1].getStatus());
+        assertEquals(0.0, accountService.getBalance("100"));
+    }
+
+    @Test
+    void testPostEvents_oversizedAtomicBatchIsRejectedBeforeItIsRead() {
+        StringBuilder body = new StringBuilder("[");
+        for (int i = 0; i <= AccountService.MAX_ATOMIC_BATCH; i++) {
+            body.append("{\"type\":\"deposit\",\"destination\":\"100\",\"amount\":1},");
+        }
+        body.append("not json]");
+
+        ResponseEntity<String> response = post("/events?atomic=true", MediaType.APPLICATION_JSON, body.toString(), String.class);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertNull(accountService.getAccount("100"));
+    }
+
+    @Test
+    void testPostEvent_withoutAmountIsRejected() {
+        String body = """
+                {"type":"deposit","destination":"100"}""";
+
+        ResponseEntity<String> response = post("/event", MediaType.APPLICATION_JSON, body, String.class);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertNull(accountService.getAccount("100"));
+    }
+
+    private <T> ResponseEntity<T> post(String path, MediaType contentType, String body, Class<T> responseType) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(contentType);
+        return restTemplate.postForEntity("http://localhost:" + port + path, new HttpEntity<>(body, headers), responseType);
+    }
+}
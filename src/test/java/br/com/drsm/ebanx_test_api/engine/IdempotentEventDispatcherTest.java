@@ -0,0 +1,110 @@
+package br.com.drsm.ebanx_test_api.engine;
+
+import br.com.drsm.ebanx_test_api.dto.EventType;
+import br.com.drsm.ebanx_test_api.dto.TransactionRequestDTO;
+import br.com.drsm.ebanx_test_api.dto.TransactionResponseDTO;
+import br.com.drsm.ebanx_test_api.service.AccountService;
+import br.com.drsm.ebanx_test_api.service.AccountServiceBuilder;
+import br.com.drsm.ebanx_test_api.service.exception.AccountNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotentEventDispatcherTest {
+    private AccountService service;
+    private IdempotentEventDispatcher dispatcher;
+
+    @BeforeEach
+    public void init() {
+        service = new AccountServiceBuilder().build();
+        dispatcher = new IdempotentEventDispatcher(new DirectEventDispatcher(service), 1_000, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void testRetryReturnsTheFirstResultWithoutApplyingAgain() {
+        TransactionResponseDTO first = dispatcher.dispatch(createRequest("deposit", null, "100", 10.0, "key-1"));
+        TransactionResponseDTO retry = dispatcher.dispatch(createRequest("deposit", null, "100", 10.0, "key-1"));
+
+        assertSame(first, retry);
+        assertEquals(10.0, service.getBalance("100"));
+    }
+
+    @Test
+    void testEventsWithoutKeyAreAlwaysApplied() {
+        dispatcher.dispatch(createRequest("deposit", null, "100", 10.0, null));
+        dispatcher.dispatch(createRequest("deposit", null, "100", 10.0, null));
+
+        assertEquals(20.0, service.getBalance("100"));
+    }
+
+    @Test
+    void testKeyReusedForAnotherEventIsRejected() {
+        dispatcher.dispatch(createRequest("deposit", null, "100", 10.0, "key-1"));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> dispatcher.dispatch(createRequest("deposit", null, "100", 99.0, "key-1")));
+        assertEquals(10.0, service.getBalance("100"));
+    }
+
+    @Test
+    void testFailedEventsCanBeRetried() {
+        assertThrows(AccountNotFoundException.class,
+                () -> dispatcher.dispatch(createRequest("withdraw", "100", null, 5.0, "key-1")));
+        dispatcher.dispatch(createRequest("deposit", null, "100", 10.0, null));
+
+        TransactionResponseDTO retry = dispatcher.dispatch(createRequest("withdraw", "100", null, 5.0, "key-1"));
+
+        assertEquals(5.0, retry.getOrigin().getBalance());
+    }
+
+    @Test
+    void testConcurrentDuplicatesRunOnce() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger executions = new AtomicInteger();
+        IdempotentEventDispatcher blocking = new IdempotentEventDispatcher(request -> {
+            executions.incrementAndGet();
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return service.tryProcess(request);
+        }, 1_000, Duration.ofMinutes(1));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<TransactionResponseDTO> first = executor.submit(() -> blocking.dispatch(createRequest("deposit", null, "100", 10.0, "key-1")));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<TransactionResponseDTO> second = executor.submit(() -> blocking.dispatch(createRequest("deposit", null, "100", 10.0, "key-1")));
+            Future<TransactionResponseDTO> third = executor.submit(() -> blocking.dispatch(createRequest("deposit", null, "100", 10.0, "key-1")));
+            release.countDown();
+
+            assertSame(first.get(), second.get());
+            assertSame(first.get(), third.get());
+            assertEquals(1, executions.get());
+            assertEquals(10.0, service.getBalance("100"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private TransactionRequestDTO createRequest(String type, String origin, String destination, Double amount, String key) {
+        return TransactionRequestDTO.builder()
+                .type(EventType.of(type))
+                .origin(origin)
+                .destination(destination)
+                .amount(amount)
+                .idempotencyKey(key)
+                .build();
+    }
+}
@@ -0,0 +1,180 @@
+package br.com.drsm.ebanx_test_api.engine;
+
+import br.com.drsm.ebanx_test_api.dto.EventType;
+import br.com.drsm.ebanx_test_api.dto.TransactionRequestDTO;
+import br.com.drsm.ebanx_test_api.dto.TransactionResponseDTO;
+import br.com.drsm.ebanx_test_api.journal.EventJournal;
+import br.com.drsm.ebanx_test_api.journal.JournalEntryType;
+import br.com.drsm.ebanx_test_api.journal.JournalPosition;
+import br.com.drsm.ebanx_test_api.journal.JournalRecord;
+import br.com.drsm.ebanx_test_api.model.Account;
+import br.com.drsm.ebanx_test_api.model.Money;
+import br.com.drsm.ebanx_test_api.service.AccountService;
+import br.com.drsm.ebanx_test_api.service.AccountServiceBuilder;
+import br.com.drsm.ebanx_test_api.service.Outcome;
+import br.com.drsm.ebanx_test_api.service.exception.AccountNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedEventDispatcherTest {
+    private static final int ACCOUNTS = 64;
+    private static final long INITIAL_BALANCE = Money.toCents(1_000.0);
+
+    private AccountService service;
+    private ShardedEventDispatcher dispatcher;
+
+    @BeforeEach
+    public void init() {
+        service = new AccountServiceBuilder().build();
+        dispatcher = new ShardedEventDispatcher(service, 4, 64);
+    }
+
+    @AfterEach
+    public void close() {
+        dispatcher.close();
+    }
+
+    @Test
+    void testEventsAreAppliedByTheirShards() {
+        dispatcher.dispatch(createRequest("deposit", null, "100", 10.0));
+        dispatcher.dispatch(createRequest("withdraw", "100", null, 2.0));
+        TransactionResponseDTO response = dispatcher.dispatch(createRequest("transfer", "100", "200", 3.0));
+
+        assertEquals(5.0, response.getOrigin().getBalance());
+        assertEquals(3.0, response.getDestination().getBalance());
+    }
+
+    @Test
+    void testFailuresReachTheCaller() {
+        assertThrows(AccountNotFoundException.class, () -> dispatcher.dispatch(createRequest("withdraw", "999", null, 2.0)));
+        assertThrows(IllegalArgumentException.class, () -> dispatcher.dispatch(createRequest("invalid", null, "100", 2.0)));
+    }
+
+    @Test
+    void testShardsMoveOnWhileEarlierEventsAwaitDurability() throws Exception {
+        HeldJournal journal = new HeldJournal();
+        ShardedEventDispatcher held = new ShardedEventDispatcher(new AccountServiceBuilder().journal(journal).build(), 2, 64);
+        try {
+            CompletableFuture<Outcome<TransactionResponseDTO>> first = held.dispatchAsync(createRequest("deposit", null, "100", 10.0));
+            CompletableFuture<Outcome<TransactionResponseDTO>> second = held.dispatchAsync(createRequest("deposit", null, "100", 5.0));
+            CompletableFuture<Outcome<TransactionResponseDTO>> transfer = held.dispatchAsync(createRequest("transfer", "100", "200", 1.0));
+
+            assertTrue(journal.appended.await(5, TimeUnit.SECONDS));
+            assertFalse(first.isDone());
+            assertFalse(transfer.isDone());
+
+            journal.durable.complete(null);
+            assertEquals(10.0, first.get(5, TimeUnit.SECONDS).orElseThrow().getDestination().getBalance());
+            assertEquals(15.0, second.get(5, TimeUnit.SECONDS).orElseThrow().getDestination().getBalance());
+            assertEquals(14.0, transfer.get(5, TimeUnit.SECONDS).orElseThrow().getOrigin().getBalance());
+        } finally {
+            held.close();
+        }
+    }
+
+    @Test
+    void testBalancesAreConservedAcrossShards() throws Exception {
+        for (int i = 0; i < ACCOUNTS; i++) {
+            service.saveAccount(Account.builder().id(String.valueOf(i)).balance(INITIAL_BALANCE).build());
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Long>> netDeposits = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            netDeposits.add(executor.submit(() -> runEvents(20_000)));
+        }
+
+        long expected = ACCOUNTS * INITIAL_BALANCE;
+        for (Future<Long> net : netDeposits) {
+            expected += net.get();
+        }
+        executor.shutdown();
+
+        AtomicLong total = new AtomicLong();
+        service.forEachAccount((id, balance, lastSeq) -> total.addAndGet(balance));
+        assertEquals(expected, total.get());
+    }
+
+    private long runEvents(int events) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long net = 0;
+        for (int i = 0; i < events; i++) {
+            String origin = String.valueOf(random.nextInt(ACCOUNTS));
+            String destination = String.valueOf(random.nextInt(ACCOUNTS));
+            double amount = random.nextInt(1, 1_000) / 100.0;
+            switch (random.nextInt(3)) {
+                case 0 -> {
+                    dispatcher.dispatch(createRequest("deposit", null, destination, amount));
+                    net += Money.toCents(amount);
+                }
+                case 1 -> {
+                    dispatcher.dispatch(createRequest("withdraw", origin, null, amount));
+                    net -= Money.toCents(amount);
+                }
+                default -> dispatcher.dispatch(createRequest("transfer", origin, destination, amount));
+            }
+        }
+        return net;
+    }
+
+    /**
+     * Journal whose entries only become durable once the test completes {@link #durable}.
+     */
+    private static final class HeldJournal implements EventJournal {
+        final CompletableFuture<Void> durable = new CompletableFuture<>();
+        final CountDownLatch appended = new CountDownLatch(3);
+        private final AtomicLong seq = new AtomicLong();
+
+        @Override
+        public long append(JournalEntryType type, String origin, String destination, long amount) {
+            appended.countDown();
+            return seq.incrementAndGet();
+        }
+
+        @Override
+        public void awaitDurable(long seq) {
+            durable.join();
+        }
+
+        @Override
+        public CompletableFuture<Void> whenDurable(long seq) {
+            return durable;
+        }
+
+        @Override
+        public JournalPosition position() {
+            return JournalPosition.START;
+        }
+
+        @Override
+        public void recover(JournalPosition from, Consumer<JournalRecord> consumer) {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private TransactionRequestDTO createRequest(String type, String origin, String destination, Double amount) {
+        return TransactionRequestDTO.builder()
+                .type(EventType.of(type))
+                .origin(origin)
+                .destination(destination)
+                .amount(amount)
+                .build();
+    }
+}
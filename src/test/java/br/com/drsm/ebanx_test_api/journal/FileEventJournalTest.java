@@ -0,0 +1,159 @@
+package br.com.drsm.ebanx_test_api.journal;
+
+import br.com.drsm.ebanx_test_api.dto.EventType;
+import br.com.drsm.ebanx_test_api.dto.TransactionRequestDTO;
+import br.com.drsm.ebanx_test_api.service.AccountService;
+import br.com.drsm.ebanx_test_api.service.AccountServiceBuilder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileEventJournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testRecoverReturnsAppendedEntriesInOrder() {
+        Path path = dir.resolve("events.journal");
+        try (FileEventJournal journal = open(path, DurabilityMode.GROUP)) {
+            journal.awaitDurable(journal.append(JournalEntryType.DEPOSIT, null, "100", 1_000));
+            journal.awaitDurable(journal.append(JournalEntryType.TRANSFER, "100", "conta-ç", 250));
+            journal.awaitDurable(journal.append(JournalEntryType.RESET, null, null, 0));
+        }
+
+        List<String> entries = new ArrayList<>();
+        try (FileEventJournal journal = new FileEventJournal(path, DurabilityMode.GROUP, Duration.ofMillis(10))) {
+            journal.recover(r -> entries.add(r.getSeq() + " " + r.getType() + " " + r.getOrigin() + " " + r.getDestination() + " " + r.getAmount()));
+            assertEquals(4, journal.append(JournalEntryType.DEPOSIT, null, "200", 1));
+        }
+
+        assertEquals(List.of("1 DEPOSIT null 100 1000", "2 TRANSFER 100 conta-ç 250", "3 RESET null null 0"), entries);
+    }
+
+    @Test
+    void testRecoverTruncatesTornEntry() throws IOException {
+        Path path = dir.resolve("events.journal");
+        try (FileEventJournal journal = open(path, DurabilityMode.FSYNC)) {
+            journal.append(JournalEntryType.DEPOSIT, null, "100", 1_000);
+            journal.append(JournalEntryType.DEPOSIT, null, "100", 2_000);
+        }
+        long size = Files.size(path);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(size - 3);
+        }
+
+        List<Long> amounts = new ArrayList<>();
+        try (FileEventJournal journal = new FileEventJournal(path, DurabilityMode.FSYNC, Duration.ofMillis(10))) {
+            journal.recover(r -> amounts.add(r.getAmount()));
+            assertEquals(2, journal.append(JournalEntryType.DEPOSIT, null, "100", 3_000));
+        }
+
+        assertEquals(List.of(1_000L), amounts);
+    }
+
+    @Test
+    void testWhenDurableCompletesAfterTheEntryIsFlushed() {
+        Path path = dir.resolve("events.journal");
+        List<Long> amounts = new ArrayList<>();
+        try (FileEventJournal journal = open(path, DurabilityMode.GROUP)) {
+            List<CompletableFuture<Void>> durable = new ArrayList<>();
+            for (int i = 1; i <= 100; i++) {
+                durable.add(journal.whenDurable(journal.append(JournalEntryType.DEPOSIT, null, "100", i)));
+            }
+            CompletableFuture.allOf(durable.toArray(CompletableFuture[]::new)).join();
+            assertTrue(journal.whenDurable(1).isDone());
+        }
+        try (FileEventJournal journal = new FileEventJournal(path, DurabilityMode.GROUP, Duration.ofMillis(10))) {
+            journal.recover(r -> amounts.add(r.getAmount()));
+        }
+
+        assertEquals(100, amounts.size());
+    }
+
+    @Test
+    void testRecoverReplaysAJournalLargerThanItsReadBuffer() throws IOException {
+        Path path = dir.resolve("events.journal");
+        int entries = 50_000;
+        // entries of one size, so that leftovers of an earlier read would line up as whole entries
+        try (FileEventJournal journal = open(path, DurabilityMode.ASYNC)) {
+            for (int i = 1; i <= entries; i++) {
+                journal.append(JournalEntryType.DEPOSIT, null, "100", i);
+            }
+        }
+        long size = Files.size(path);
+        assertTrue(size > 1 << 20, "journal of " + size + " bytes");
+
+        List<Long> amounts = new ArrayList<>();
+        try (FileEventJournal journal = new FileEventJournal(path, DurabilityMode.ASYNC, Duration.ofMillis(10))) {
+            journal.recover(r -> amounts.add(r.getAmount()));
+            assertEquals(new JournalPosition(entries, size), journal.position());
+        }
+
+        assertEquals(entries, amounts.size());
+        for (int i = 0; i < entries; i++) {
+            assertEquals(i + 1, amounts.get(i));
+        }
+        assertEquals(size, Files.size(path));
+    }
+
+    @Test
+    void testAppendBeforeRecoverFails() {
+        try (FileEventJournal journal = new FileEventJournal(dir.resolve("events.journal"), DurabilityMode.GROUP, Duration.ofMillis(10))) {
+            assertThrows(IllegalStateException.class, () -> journal.append(JournalEntryType.RESET, null, null, 0));
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(DurabilityMode.class)
+    void testAccountServiceStateSurvivesRestart(DurabilityMode durability) {
+        Path path = dir.resolve("events.journal");
+        try (FileEventJournal journal = open(path, durability)) {
+            AccountService service = new AccountServiceBuilder().journal(journal).build();
+            service.processDeposit(createRequest("deposit", null, "100", 10.0));
+            service.processDeposit(createRequest("deposit", null, "300", 5.0));
+            service.reset();
+            service.processDeposit(createRequest("deposit", null, "100", 10.0));
+            service.processWithdraw(createRequest("withdraw", "100", null, 2.5));
+            service.processTransfer(createRequest("transfer", "100", "200", 1.5));
+            service.importAccount("400", 700, null);
+        }
+
+        try (FileEventJournal journal = new FileEventJournal(path, durability, Duration.ofMillis(10))) {
+            AccountService service = new AccountServiceBuilder().journal(journal).build();
+            service.recover();
+            assertEquals(6.0, service.getBalance("100"));
+            assertEquals(1.5, service.getBalance("200"));
+            assertNull(service.getAccount("300"));
+            assertEquals(7.0, service.getBalance("400"));
+        }
+    }
+
+    private FileEventJournal open(Path path, DurabilityMode durability) {
+        FileEventJournal journal = new FileEventJournal(path, durability, Duration.ofMillis(10));
+        journal.recover(r -> fail("unexpected entry " + r.getSeq()));
+        return journal;
+    }
+
+    private TransactionRequestDTO createRequest(String type, String origin, String destination, Double amount) {
+        return TransactionRequestDTO.builder()
+                .type(EventType.of(type))
+                .origin(origin)
+                .destination(destination)
+                .amount(amount)
+                .build();
+    }
+}
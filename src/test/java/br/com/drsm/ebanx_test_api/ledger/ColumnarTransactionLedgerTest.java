@@ -0,0 +1,153 @@
+package br.com.drsm.ebanx_test_api.ledger;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarTransactionLedgerTest {
+    private static final long START = Instant.parse("2024-01-01T00:00:00Z").getEpochSecond() * 1_000_000;
+
+    /**
+     * With the clock stopped, each account's timestamps step by one microsecond per entry.
+     */
+    @Test
+    void testRangesAcrossChunks() {
+        ColumnarTransactionLedger ledger = new ColumnarTransactionLedger(Clock.fixed(Instant.parse("2024-01-01T00:00:00Z"), ZoneOffset.UTC));
+        int entries = 200_000;
+        for (int i = 0; i < entries; i++) {
+            ledger.record(i % 2 == 0 ? "even" : "odd", LedgerEntryType.DEPOSIT, null, i, i);
+        }
+        ledger.record("odd", LedgerEntryType.TRANSFER_OUT, "even", -5, 0);
+
+        assertEquals(entries + 1, ledger.size());
+        List<long[]> visited = new ArrayList<>();
+        assertEquals(3, ledger.history("even", START + 500, START + 502, 10,
+                (timestamp, type, counterparty, amount, balance) -> visited.add(new long[]{timestamp, amount})));
+        assertArrayEquals(new long[]{START + 500, 1000}, visited.get(0));
+        assertArrayEquals(new long[]{START + 502, 1004}, visited.get(2));
+
+        assertEquals(2, ledger.history("odd", START + 75_001, Long.MAX_VALUE, 2, (timestamp, type, counterparty, amount, balance) -> {
+        }));
+        List<String> last = new ArrayList<>();
+        ledger.history("odd", START + entries / 2, Long.MAX_VALUE, 10,
+                (timestamp, type, counterparty, amount, balance) -> last.add(type.value() + " " + counterparty + " " + amount));
+        assertEquals(List.of("transfer_out even -5"), last);
+        assertEquals(0, ledger.history("even", START + entries / 2, Long.MAX_VALUE, 10, (timestamp, type, counterparty, amount, balance) -> {
+        }));
+        assertEquals(0, ledger.history("none", Long.MIN_VALUE, Long.MAX_VALUE, 10, (timestamp, type, counterparty, amount, balance) -> {
+        }));
+    }
+
+    @Test
+    void testBalanceAtMatchesTheHistoryWithAndWithoutCheckpoints() {
+        ColumnarTransactionLedger ledger = new ColumnarTransactionLedger(Clock.fixed(Instant.parse("2024-01-01T00:00:00Z"), ZoneOffset.UTC), 4);
+        SplittableRandom random = new SplittableRandom(7);
+        long balance = 500;
+        List<long[]> expected = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            long amount = random.nextInt(-50, 100);
+            balance += amount;
+            ledger.record("100", LedgerEntryType.DEPOSIT, null, amount, balance);
+            ledger.record("200", LedgerEntryType.DEPOSIT, null, 1, i + 1);
+            expected.add(new long[]{START + i, balance});
+        }
+
+        for (int pass = 0; pass < 2; pass++) {
+            assertEquals(500, ledger.balanceAt("100", START - 1, -1));
+            for (long[] entry : expected) {
+                assertEquals(entry[1], ledger.balanceAt("100", entry[0], -1));
+            }
+            assertEquals(balance, ledger.balanceAt("100", Long.MAX_VALUE, -1));
+            assertEquals(-1, ledger.balanceAt("300", START, -1));
+            ledger.checkpoint();
+        }
+        for (int i = 0; i < 10; i++) {
+            ledger.record("100", LedgerEntryType.WITHDRAW, null, -1, --balance);
+        }
+        assertEquals(balance, ledger.balanceAt("100", Long.MAX_VALUE, -1));
+        assertEquals(expected.get(999)[1], ledger.balanceAt("100", START + 999, -1));
+    }
+
+    @Test
+    void testClearDropsHistory() {
+        ColumnarTransactionLedger ledger = new ColumnarTransactionLedger();
+        ledger.record("100", LedgerEntryType.DEPOSIT, null, 10, 10);
+        assertTrue(ledger.contains("100"));
+
+        ledger.clear();
+        assertFalse(ledger.contains("100"));
+        assertEquals(0, ledger.size());
+    }
+
+    @Test
+    void testReadersSeeCompleteEntriesWhileAppending() throws Exception {
+        ColumnarTransactionLedger ledger = new ColumnarTransactionLedger();
+        AtomicBoolean done = new AtomicBoolean();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<?> reader = executor.submit(() -> {
+            while (!done.get()) {
+                long[] previous = {Long.MIN_VALUE, 0};
+                ledger.history("100", Long.MIN_VALUE, Long.MAX_VALUE, Integer.MAX_VALUE, (timestamp, type, counterparty, amount, balance) -> {
+                    assertTrue(timestamp > previous[0]);
+                    assertEquals(previous[1] + 1, balance);
+                    previous[0] = timestamp;
+                    previous[1] = balance;
+                });
+            }
+        });
+        for (int i = 1; i <= 100_000; i++) {
+            ledger.record("100", LedgerEntryType.DEPOSIT, null, 1, i);
+        }
+        done.set(true);
+        reader.get();
+        executor.shutdown();
+    }
+
+    @Test
+    void testStripesAppendConcurrentlyAndKeepCounterparties() throws Exception {
+        ColumnarTransactionLedger ledger = new ColumnarTransactionLedger(Clock.systemUTC(), 4, 8);
+        int threads = 4;
+        int perThread = 20_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> writers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            String account = "account-" + t;
+            String counterparty = "account-" + (t + 1) % threads;
+            writers.add(executor.submit(() -> {
+                for (int i = 1; i <= perThread; i++) {
+                    ledger.record(account, LedgerEntryType.TRANSFER_OUT, counterparty, -1, -i);
+                }
+            }));
+        }
+        for (Future<?> writer : writers) {
+            writer.get();
+        }
+        executor.shutdown();
+
+        assertEquals((long) threads * perThread, ledger.size());
+        for (int t = 0; t < threads; t++) {
+            String counterparty = "account-" + (t + 1) % threads;
+            long[] previous = {Long.MIN_VALUE, 0};
+            assertEquals(perThread, ledger.history("account-" + t, Long.MIN_VALUE, Long.MAX_VALUE, Integer.MAX_VALUE,
+                    (timestamp, type, other, amount, balance) -> {
+                        assertTrue(timestamp > previous[0]);
+                        assertEquals(counterparty, other);
+                        assertEquals(previous[1] - 1, balance);
+                        previous[0] = timestamp;
+                        previous[1] = balance;
+                    }));
+            assertEquals(-perThread, ledger.balanceAt("account-" + t, Long.MAX_VALUE, 0));
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package br.com.drsm.ebanx_test_api.metrics;
+
+import br.com.drsm.ebanx_test_api.dto.EventType;
+import br.com.drsm.ebanx_test_api.dto.TransactionRequestDTO;
+import br.com.drsm.ebanx_test_api.service.AccountService;
+import br.com.drsm.ebanx_test_api.service.exception.AccountNotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@AutoConfigureObservability(tracing = false)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class MicrometerEventMetricsTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @BeforeEach
+    public void init() {
+        accountService.reset();
+    }
+
+    @Test
+    void testEventsAreTimedAndFailuresCountedByReason() {
+        long deposits = timerCount("deposit");
+        double notFound = failures("withdraw", "not_found");
+        double invalid = failures("unknown", "invalid");
+
+        accountService.processDeposit(createRequest("deposit", null, "100", 10.0));
+        assertThrows(AccountNotFoundException.class,
+                () -> accountService.processWithdraw(createRequest("withdraw", "200", null, 1.0)));
+        assertThrows(IllegalArgumentException.class,
+                () -> accountService.process(createRequest("invalid", null, "100", 1.0), accountService.newBatch()));
+
+        assertEquals(deposits + 1, timerCount("deposit"));
+        assertEquals(notFound + 1, failures("withdraw", "not_found"));
+        assertEquals(invalid + 1, failures("unknown", "invalid"));
+    }
+
+    @Test
+    void testGaugesTrackAccountsAndTotalBalance() {
+        accountService.processDeposit(createRequest("deposit", null, "100", 10.0));
+        accountService.processDeposit(createRequest("deposit", null, "200", 5.5));
+        accountService.processWithdraw(createRequest("withdraw", "100", null, 3.0));
+        accountService.processTransfer(createRequest("transfer", "100", "200", 2.0));
+
+        assertEquals(2.0, registry.get("ebanx.accounts").gauge().value());
+        assertEquals(12.5, registry.get("ebanx.balance.total").gauge().value());
+
+        accountService.reset();
+
+        assertEquals(0.0, registry.get("ebanx.balance.total").gauge().value());
+    }
+
+    @Test
+    void testPrometheusEndpointExposesOperations() {
+        accountService.processDeposit(createRequest("deposit", null, "100", 10.0));
+
+        ResponseEntity<String> response = restTemplate.getForEntity("http://localhost:" + port + "/actuator/prometheus", String.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(response.getBody().contains("ebanx_operations_seconds_count{operation=\"deposit\""));
+        assertTrue(response.getBody().contains("ebanx_operations_percentile_seconds{operation=\"deposit\",quantile=\"0.99\"}"));
+    }
+
+    private long timerCount(String operation) {
+        return (long) registry.get("ebanx.operations").tag("operation", operation).functionTimer().count();
+    }
+
+    private double failures(String operation, String reason) {
+        return registry.get("ebanx.operations.failed").tag("operation", operation).tag("reason", reason).counter().count();
+    }
+
+    private TransactionRequestDTO createRequest(String type, String origin, String destination, Double amount) {
+        return TransactionRequestDTO.builder()
+                .type(EventType.of(type))
+                .origin(origin)
+                .destination(destination)
+                .amount(amount)
+                .build();
+    }
+}
@@ -0,0 +1,132 @@
+package br.com.drsm.ebanx_test_api.reactive;
+
+import br.com.drsm.ebanx_test_api.cluster.ClusterUnavailableException;
+import br.com.drsm.ebanx_test_api.engine.EventDispatcher;
+import br.com.drsm.ebanx_test_api.replication.NotLeaderException;
+import br.com.drsm.ebanx_test_api.service.exception.AccountNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.web.reactive.function.server.RequestPredicates.POST;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.main.web-application-type=reactive")
+class ReactiveEventHandlerTest {
+
+    @Autowired
+    private WebTestClient client;
+
+    @BeforeEach
+    void reset() {
+        client.post().uri("/reset").exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("OK");
+    }
+
+    @Test
+    void testBalanceOfMissingAccount() {
+        client.get().uri("/balance?account_id=1234").exchange()
+                .expectStatus().isNotFound()
+                .expectBody(String.class).isEqualTo("0");
+    }
+
+    @Test
+    void testEventsAndBalances() {
+        postEvent("{\"type\":\"deposit\", \"destination\":\"100\", \"amount\":10}")
+                .expectStatus().isCreated()
+                .expectBody().json("{\"destination\": {\"id\":\"100\", \"balance\":10}}", true);
+        postEvent("{\"type\":\"withdraw\", \"origin\":\"100\", \"amount\":5}")
+                .expectStatus().isCreated()
+                .expectBody().json("{\"origin\": {\"id\":\"100\", \"balance\":5}}", true);
+        postEvent("{\"type\":\"transfer\", \"origin\":\"100\", \"amount\":15, \"destination\":\"300\"}")
+                .expectStatus().isCreated()
+                .expectBody().json("{\"origin\": {\"id\":\"100\", \"balance\":-10}, \"destination\": {\"id\":\"300\", \"balance\":15}}", true);
+
+        client.get().uri("/balance?account_id=100").exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("-10.0");
+    }
+
+    @Test
+    void testWithdrawFromMissingAccount() {
+        postEvent("{\"type\":\"withdraw\", \"origin\":\"200\", \"amount\":10}")
+                .expectStatus().isNotFound()
+                .expectBody(String.class).isEqualTo("0");
+    }
+
+    @Test
+    void testInvalidEvent() {
+        postEvent("{\"type\":\"invalid\", \"destination\":\"100\", \"amount\":10}")
+                .expectStatus().isBadRequest();
+        postEvent("{\"type\":")
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void testRetryWithIdempotencyKeyIsAppliedOnce() {
+        for (int i = 0; i < 2; i++) {
+            client.post().uri("/event")
+                    .header("Idempotency-Key", "reactive-retry")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue("{\"type\":\"deposit\", \"destination\":\"100\", \"amount\":10}")
+                    .exchange()
+                    .expectStatus().isCreated()
+                    .expectBody().json("{\"destination\": {\"id\":\"100\", \"balance\":10}}", true);
+        }
+    }
+
+    @Test
+    void testDispatchFailuresGetTheServletAnswersOffTheEventLoop() {
+        Map<String, RuntimeException> failures = Map.of(
+                "missing", new AccountNotFoundException("missing"),
+                "invalid", new IllegalArgumentException("invalid"),
+                "follower", new NotLeaderException(),
+                "unreachable", new ClusterUnavailableException("unreachable"));
+        List<String> threads = new CopyOnWriteArrayList<>();
+        EventDispatcher failing = request -> {
+            threads.add(Thread.currentThread().getName());
+            throw failures.get(request.getDestination());
+        };
+        ReactiveEventHandler handler = new ReactiveEventHandler(null, failing, Schedulers.boundedElastic());
+        WebTestClient stubbed = WebTestClient.bindToRouterFunction(RouterFunctions.route(POST("/event"), handler::event)).build();
+
+        Map<String, HttpStatus> expected = Map.of(
+                "missing", HttpStatus.NOT_FOUND,
+                "invalid", HttpStatus.BAD_REQUEST,
+                "follower", HttpStatus.SERVICE_UNAVAILABLE,
+                "unreachable", HttpStatus.SERVICE_UNAVAILABLE);
+        expected.forEach((destination, status) -> {
+            WebTestClient.ResponseSpec response = stubbed.post().uri("/event")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue("{\"type\":\"deposit\", \"destination\":\"" + destination + "\", \"amount\":10}")
+                    .exchange()
+                    .expectStatus().isEqualTo(status);
+            if (status == HttpStatus.SERVICE_UNAVAILABLE) {
+                response.expectHeader().valueEquals(HttpHeaders.RETRY_AFTER, "1");
+            }
+            response.expectBody(String.class).isEqualTo("0");
+        });
+        assertEquals(4, threads.size());
+        threads.forEach(thread -> assertTrue(thread.startsWith("boundedElastic"), thread));
+    }
+
+    private WebTestClient.ResponseSpec postEvent(String body) {
+        return client.post().uri("/event")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(body)
+                .exchange();
+    }
+}
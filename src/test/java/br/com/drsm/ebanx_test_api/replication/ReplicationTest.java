@@ -0,0 +1,160 @@
+package br.com.drsm.ebanx_test_api.replication;
+
+import br.com.drsm.ebanx_test_api.dto.EventType;
+import br.com.drsm.ebanx_test_api.dto.TransactionRequestDTO;
+import br.com.drsm.ebanx_test_api.journal.EventJournal;
+import br.com.drsm.ebanx_test_api.service.AccountService;
+import br.com.drsm.ebanx_test_api.service.AccountServiceBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplicationTest {
+    private static final Duration MAX_STALENESS = Duration.ofMillis(200);
+    private static final Duration HEARTBEAT = Duration.ofMillis(20);
+    private static final Duration READ_TIMEOUT = Duration.ofSeconds(5);
+
+    private final List<Node> nodes = new ArrayList<>();
+
+    @AfterEach
+    void close() {
+        nodes.forEach(node -> node.replication.close());
+    }
+
+    @Test
+    void testFollowersApplyTheLeadersEvents() {
+        Node leader = leader(1024);
+        Node first = follower(leader);
+        Node second = follower(leader);
+
+        deposit(leader, "100", 50);
+        deposit(leader, "200", 20);
+        transfer(leader, "100", "200", 15);
+        withdraw(leader, "200", 5);
+
+        for (Node follower : List.of(first, second)) {
+            assertTrue(follower.replication.awaitReadable(leader.replication.position()));
+            assertEquals(35.0, follower.service.getBalance("100"));
+            assertEquals(30.0, follower.service.getBalance("200"));
+            assertEquals(65.0, follower.service.totalBalance());
+        }
+
+        leader.service.reset();
+        deposit(leader, "300", 1);
+        assertTrue(first.replication.awaitReadable(leader.replication.position()));
+        assertEquals(1, first.service.accountCount());
+        assertEquals(1.0, first.service.getBalance("300"));
+    }
+
+    @Test
+    void testFollowerBehindTheRingCatchesUpFromASnapshot() {
+        Node leader = leader(4);
+        for (int i = 0; i < 20; i++) {
+            deposit(leader, Integer.toString(i % 3), i);
+        }
+
+        Node follower = follower(leader);
+        assertTrue(follower.replication.awaitReadable(leader.replication.position()));
+        deposit(leader, "0", 100);
+        assertTrue(follower.replication.awaitReadable(leader.replication.position()));
+
+        for (String id : List.of("0", "1", "2")) {
+            assertEquals(leader.service.getBalance(id), follower.service.getBalance(id));
+        }
+        assertEquals(leader.service.totalBalance(), follower.service.totalBalance());
+    }
+
+    @Test
+    void testFollowersRefuseWrites() {
+        Node leader = leader(1024);
+        Node follower = follower(leader);
+
+        assertFalse(follower.replication.isLeader());
+        assertThrows(NotLeaderException.class, () -> deposit(follower, "100", 10));
+        assertThrows(NotLeaderException.class, follower.service::reset);
+    }
+
+    @Test
+    void testPromotedFollowerTakesOverTheStream() {
+        Node leader = leader(1024);
+        Node first = follower(leader);
+        Node second = follower(leader);
+        deposit(leader, "100", 10);
+        assertTrue(first.replication.awaitReadable(leader.replication.position()));
+        assertTrue(second.replication.awaitReadable(leader.replication.position()));
+
+        first.replication.promote();
+        second.replication.follow("localhost:" + first.replication.port());
+        leader.replication.follow("localhost:" + first.replication.port());
+        deposit(first, "100", 5);
+
+        assertTrue(first.replication.isLeader());
+        for (Node follower : List.of(second, leader)) {
+            assertTrue(follower.replication.awaitReadable(first.replication.position()));
+            assertEquals(15.0, follower.service.getBalance("100"));
+        }
+        assertThrows(NotLeaderException.class, () -> deposit(leader, "100", 1));
+    }
+
+    @Test
+    void testReadsWithoutAPositionAreBoundedByStaleness() throws InterruptedException {
+        Node leader = leader(1024);
+        Node follower = follower(leader, Duration.ofMillis(500));
+        deposit(leader, "100", 10);
+        assertTrue(follower.replication.awaitReadable(leader.replication.position()));
+        assertTrue(follower.replication.awaitReadable(0));
+
+        leader.replication.close();
+        Thread.sleep(MAX_STALENESS.toMillis() * 2);
+
+        assertFalse(follower.replication.awaitReadable(0));
+        assertFalse(follower.replication.awaitReadable(leader.replication.position() + 1));
+        assertEquals(10.0, follower.service.getBalance("100"));
+    }
+
+    private Node leader(int capacity) {
+        ReplicationLog log = new ReplicationLog(EventJournal.NONE, capacity);
+        AccountService service = new AccountServiceBuilder().journal(log).build();
+        return add(new Node(service, new ReplicationNode(log, service, ReplicationRole.LEADER, 0, null,
+                MAX_STALENESS, HEARTBEAT, READ_TIMEOUT)));
+    }
+
+    private Node follower(Node leader) {
+        return follower(leader, READ_TIMEOUT);
+    }
+
+    private Node follower(Node leader, Duration readTimeout) {
+        ReplicationLog log = new ReplicationLog(EventJournal.NONE, 1024);
+        AccountService service = new AccountServiceBuilder().journal(log).build();
+        return add(new Node(service, new ReplicationNode(log, service, ReplicationRole.FOLLOWER, 0,
+                "localhost:" + leader.replication.port(), MAX_STALENESS, HEARTBEAT, readTimeout)));
+    }
+
+    private Node add(Node node) {
+        nodes.add(node);
+        return node;
+    }
+
+    private static void deposit(Node node, String destination, double amount) {
+        node.service.processDeposit(TransactionRequestDTO.builder()
+                .type(EventType.DEPOSIT).destination(destination).amount(amount).build());
+    }
+
+    private static void withdraw(Node node, String origin, double amount) {
+        node.service.processWithdraw(TransactionRequestDTO.builder()
+                .type(EventType.WITHDRAW).origin(origin).amount(amount).build());
+    }
+
+    private static void transfer(Node node, String origin, String destination, double amount) {
+        node.service.processTransfer(TransactionRequestDTO.builder()
+                .type(EventType.TRANSFER).origin(origin).destination(destination).amount(amount).build());
+    }
+
+    private record Node(AccountService service, ReplicationNode replication) {
+    }
+}
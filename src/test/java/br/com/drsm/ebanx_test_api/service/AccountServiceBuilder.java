@@ -0,0 +1,57 @@
+package br.com.drsm.ebanx_test_api.service;
+
+import br.com.drsm.ebanx_test_api.hot.HotAccounts;
+import br.com.drsm.ebanx_test_api.journal.EventJournal;
+import br.com.drsm.ebanx_test_api.ledger.TransactionLedger;
+import br.com.drsm.ebanx_test_api.metrics.EventMetrics;
+import br.com.drsm.ebanx_test_api.snapshot.SnapshotStore;
+import br.com.drsm.ebanx_test_api.store.AccountStore;
+import br.com.drsm.ebanx_test_api.store.HeapAccountStore;
+
+/**
+ * Builds an {@link AccountService} for tests and benchmarks, keeping the accounts on the heap
+ * and every other collaborator switched off unless it is set.
+ */
+public class AccountServiceBuilder {
+    private EventJournal journal = EventJournal.NONE;
+    private SnapshotStore snapshots = SnapshotStore.NONE;
+    private EventMetrics metrics = EventMetrics.NONE;
+    private AccountStore store;
+    private TransactionLedger ledger = TransactionLedger.NONE;
+    private HotAccounts hotAccounts = HotAccounts.NONE;
+
+    public AccountServiceBuilder journal(EventJournal journal) {
+        this.journal = journal;
+        return this;
+    }
+
+    public AccountServiceBuilder snapshots(SnapshotStore snapshots) {
+        this.snapshots = snapshots;
+        return this;
+    }
+
+    public AccountServiceBuilder metrics(EventMetrics metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
+    public AccountServiceBuilder store(AccountStore store) {
+        this.store = store;
+        return this;
+    }
+
+    public AccountServiceBuilder ledger(TransactionLedger ledger) {
+        this.ledger = ledger;
+        return this;
+    }
+
+    public AccountServiceBuilder hotAccounts(HotAccounts hotAccounts) {
+        this.hotAccounts = hotAccounts;
+        return this;
+    }
+
+    public AccountService build() {
+        return new AccountService(journal, snapshots, metrics, null == store ? new HeapAccountStore() : store,
+                ledger, hotAccounts);
+    }
+}
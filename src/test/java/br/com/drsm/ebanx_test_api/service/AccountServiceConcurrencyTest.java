@@ -0,0 +1,295 @@
+package br.com.drsm.ebanx_test_api.service;
+
+import br.com.drsm.ebanx_test_api.dto.EventType;
+import br.com.drsm.ebanx_test_api.dto.TransactionRequestDTO;
+import br.com.drsm.ebanx_test_api.hot.HotAccounts;
+import br.com.drsm.ebanx_test_api.journal.DurabilityMode;
+import br.com.drsm.ebanx_test_api.journal.FileEventJournal;
+import br.com.drsm.ebanx_test_api.model.Account;
+import br.com.drsm.ebanx_test_api.model.Money;
+import br.com.drsm.ebanx_test_api.service.exception.AccountNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "logging.level.br.com.drsm.ebanx_test_api=WARN")
+class AccountServiceConcurrencyTest {
+    private static final int ACCOUNTS = 64;
+    private static final int THREADS = 8;
+    private static final int EVENTS_PER_THREAD = 250_000;
+    private static final long INITIAL_BALANCE = Money.toCents(1_000.0);
+
+    @Autowired
+    private AccountService accountService;
+
+    @BeforeEach
+    public void init() {
+        accountService.reset();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accountService.saveAccount(Account.builder().id(String.valueOf(i)).balance(INITIAL_BALANCE).build());
+        }
+    }
+
+    @Test
+    void testBalancesAreConservedUnderParallelEvents() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<Long>> netDeposits = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            netDeposits.add(executor.submit(this::runEvents));
+        }
+
+        long expected = ACCOUNTS * INITIAL_BALANCE;
+        for (Future<Long> net : netDeposits) {
+            expected += net.get();
+        }
+        executor.shutdown();
+
+        AtomicLong total = new AtomicLong();
+        accountService.forEachAccount((id, balance, lastSeq) -> total.addAndGet(balance));
+        assertEquals(ACCOUNTS, accountService.accountCount());
+        assertEquals(expected, total.get());
+    }
+
+    @Test
+    void testPairReadsSeeTransfersWhole() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        AtomicBoolean done = new AtomicBoolean();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS / 2; t++) {
+            futures.add(executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < EVENTS_PER_THREAD / 10; i++) {
+                    boolean forward = random.nextBoolean();
+                    accountService.processTransfer(createRequest("transfer", forward ? "0" : "1", forward ? "1" : "0",
+                            random.nextInt(1, 1_000) / 100.0));
+                }
+            }));
+        }
+        List<Future<Long>> reads = new ArrayList<>();
+        for (int t = 0; t < THREADS / 2; t++) {
+            reads.add(executor.submit(() -> {
+                long count = 0;
+                while (!done.get()) {
+                    double[] balances = accountService.getBalances("0", "1");
+                    assertEquals(2 * INITIAL_BALANCE, Money.toCents(balances[0]) + Money.toCents(balances[1]));
+                    count++;
+                }
+                return count;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        done.set(true);
+        for (Future<Long> read : reads) {
+            assertTrue(read.get() > 0);
+        }
+        executor.shutdown();
+    }
+
+    @Test
+    void testStripedDepositsAddUpAndReplay(@TempDir Path dir) throws Exception {
+        Path path = dir.resolve("events.journal");
+        HotAccounts hotAccounts = new HotAccounts(1, 1, 4);
+        double hot;
+        double cold;
+        try (FileEventJournal journal = new FileEventJournal(path, DurabilityMode.ASYNC, Duration.ofMillis(10))) {
+            AccountService service = new AccountServiceBuilder().journal(journal).hotAccounts(hotAccounts).build();
+            service.recover();
+            service.processDeposit(createRequest("deposit", null, "hot", 1_000.0));
+            service.processDeposit(createRequest("deposit", null, "cold", 1_000.0));
+            hotAccounts.recordContention("hot");
+            assertEquals(1, hotAccounts.size());
+
+            ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+            List<Future<Long>> netDeposits = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                netDeposits.add(executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    long net = 0;
+                    for (int i = 0; i < EVENTS_PER_THREAD / 10; i++) {
+                        double amount = random.nextInt(1, 1_000) / 100.0;
+                        int kind = random.nextInt(10);
+                        if (kind < 7) {
+                            service.processDeposit(createRequest("deposit", null, "hot", amount));
+                            net += Money.toCents(amount);
+                        } else if (kind < 8) {
+                            service.processWithdraw(createRequest("withdraw", "hot", null, amount));
+                            net -= Money.toCents(amount);
+                        } else {
+                            boolean out = kind == 8;
+                            service.processTransfer(createRequest("transfer", out ? "hot" : "cold", out ? "cold" : "hot", amount));
+                        }
+                    }
+                    return net;
+                }));
+            }
+            long expected = 2 * Money.toCents(1_000.0);
+            for (Future<Long> net : netDeposits) {
+                expected += net.get();
+            }
+            executor.shutdown();
+
+            double[] balances = service.getBalances("hot", "cold");
+            hot = balances[0];
+            cold = balances[1];
+            assertEquals(expected, Money.toCents(hot) + Money.toCents(cold));
+            assertEquals(expected, Money.toCents(service.totalBalance()));
+            AtomicLong visited = new AtomicLong();
+            service.forEachAccount((id, balance, lastSeq) -> visited.addAndGet(balance));
+            assertEquals(expected, visited.get());
+        }
+
+        try (FileEventJournal journal = new FileEventJournal(path, DurabilityMode.ASYNC, Duration.ofMillis(10))) {
+            AccountService recovered = new AccountServiceBuilder().journal(journal).build();
+            recovered.recover();
+            assertEquals(hot, recovered.getBalance("hot"));
+            assertEquals(cold, recovered.getBalance("cold"));
+        }
+    }
+
+    @Test
+    void testResetsDuringEventsMatchTheJournal(@TempDir Path dir) throws Exception {
+        Path path = dir.resolve("events.journal");
+        List<String> live = new ArrayList<>();
+        try (FileEventJournal journal = new FileEventJournal(path, DurabilityMode.ASYNC, Duration.ofMillis(10))) {
+            AccountService service = new AccountServiceBuilder().journal(journal).build();
+            service.recover();
+            ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < EVENTS_PER_THREAD / 10; i++) {
+                        String destination = String.valueOf(random.nextInt(ACCOUNTS));
+                        double amount = random.nextInt(1, 1_000) / 100.0;
+                        if (random.nextBoolean()) {
+                            service.processDeposit(createRequest("deposit", null, destination, amount));
+                        } else {
+                            try {
+                                service.processTransfer(createRequest("transfer", "0", destination, amount));
+                            } catch (AccountNotFoundException e) {
+                                // "0" was just reset away
+                            }
+                        }
+                    }
+                }));
+            }
+            for (int i = 0; i < 20; i++) {
+                Thread.sleep(5);
+                service.reset();
+                service.processDeposit(createRequest("deposit", null, "0", 1.0));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            executor.shutdown();
+
+            service.forEachAccount((id, balance, lastSeq) -> live.add(id + "=" + balance));
+            var audit = service.audit(0);
+            assertEquals(service.accountCount(), audit.getAccounts());
+            assertEquals(service.totalBalance(), audit.getTotalBalance(), 0.001);
+        }
+
+        List<String> replayed = new ArrayList<>();
+        try (FileEventJournal journal = new FileEventJournal(path, DurabilityMode.ASYNC, Duration.ofMillis(10))) {
+            AccountService recovered = new AccountServiceBuilder().journal(journal).build();
+            recovered.recover();
+            recovered.forEachAccount((id, balance, lastSeq) -> replayed.add(id + "=" + balance));
+        }
+        live.sort(null);
+        replayed.sort(null);
+        assertEquals(live, replayed);
+    }
+
+    /**
+     * Each atomic batch withdraws from an account and creates one that sorts before it, while a
+     * transfer from the new account back to the old one runs as soon as the new one appears,
+     * locking them in id order. Creating the new account under the old one's lock would
+     * deadlock the two.
+     */
+    @Test
+    void testAtomicBatchesCreatingAccountsDoNotDeadlockWithTransfers() throws Exception {
+        int rounds = 2_000;
+        accountService.saveAccount(Account.builder().id("zz").balance(INITIAL_BALANCE).build());
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> batches = executor.submit(() -> {
+                for (int r = 0; r < rounds; r++) {
+                    accountService.processAtomically(List.of(
+                            createRequest("withdraw", "zz", null, 1.0),
+                            createRequest("deposit", null, "a" + r, 1.0)), null);
+                }
+            });
+            Future<?> transfers = executor.submit(() -> {
+                for (int r = 0; r < rounds; r++) {
+                    String id = "a" + r;
+                    while (!accountService.findBalance(id).isPresent()) {
+                        Thread.onSpinWait();
+                    }
+                    accountService.processTransfer(createRequest("transfer", id, "zz", 1.0));
+                }
+            });
+            assertTimeoutPreemptively(Duration.ofSeconds(30), () -> {
+                batches.get();
+                transfers.get();
+            });
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(INITIAL_BALANCE, Money.toCents(accountService.getBalance("zz")));
+    }
+
+    /**
+     * Runs a random mix of events over the shared accounts and returns how many cents
+     * entered the system.
+     */
+    private long runEvents() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long net = 0;
+        for (int i = 0; i < EVENTS_PER_THREAD; i++) {
+            String origin = String.valueOf(random.nextInt(ACCOUNTS));
+            String destination = String.valueOf(random.nextInt(ACCOUNTS));
+            double amount = random.nextInt(1, 1_000) / 100.0;
+            switch (random.nextInt(3)) {
+                case 0 -> {
+                    accountService.processDeposit(createRequest("deposit", null, destination, amount));
+                    net += Money.toCents(amount);
+                }
+                case 1 -> {
+                    accountService.processWithdraw(createRequest("withdraw", origin, null, amount));
+                    net -= Money.toCents(amount);
+                }
+                default -> accountService.processTransfer(createRequest("transfer", origin, destination, amount));
+            }
+        }
+        return net;
+    }
+
+    private TransactionRequestDTO createRequest(String type, String origin, String destination, Double amount) {
+        return TransactionRequestDTO.builder()
+                .type(EventType.of(type))
+                .origin(origin)
+                .destination(destination)
+                .amount(amount)
+                .build();
+    }
+}
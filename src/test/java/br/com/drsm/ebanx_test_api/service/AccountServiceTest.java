@@ -1,34 +1,43 @@
 package br.com.drsm.ebanx_test_api.service;
 
 import br.com.drsm.ebanx_test_api.dto.AccountDTO;
+import br.com.drsm.ebanx_test_api.dto.AuditDTO;
+import br.com.drsm.ebanx_test_api.dto.EventType;
+import br.com.drsm.ebanx_test_api.dto.TransactionDTO;
+import br.com.drsm.ebanx_test_api.dto.TransactionPageDTO;
 import br.com.drsm.ebanx_test_api.dto.TransactionRequestDTO;
 import br.com.drsm.ebanx_test_api.dto.TransactionResponseDTO;
+import br.com.drsm.ebanx_test_api.hot.HotAccounts;
+import br.com.drsm.ebanx_test_api.ledger.ColumnarTransactionLedger;
 import br.com.drsm.ebanx_test_api.model.Account;
+import br.com.drsm.ebanx_test_api.model.Money;
 import br.com.drsm.ebanx_test_api.service.exception.AccountNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import java.time.Instant;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
-@SpringBootTest
+@SpringBootTest(properties = "ebanx.ledger.enabled=true")
 class AccountServiceTest {
     @Autowired
     private AccountService accountService;
 
     @BeforeEach
     public void init() {
-        accountService.getAccountsMap().putAll(fillAccounts());
+        fillAccounts().values().forEach(accountService::saveAccount);
     }
 
     @Test
     void testReset() {
         accountService.reset();
-        assertEquals(0, accountService.getAccountsMap().size());
+        assertEquals(0, accountService.accountCount());
     }
 
     @Test
@@ -47,6 +56,31 @@ class AccountServiceTest {
         }
     }
 
+    @Test
+    void testMissesAndInvalidEventsAreReturnedAsOutcomes() {
+        Outcome<Double> balance = accountService.findBalance("-100");
+        assertFalse(balance.isPresent());
+        assertEquals(Outcome.Failure.NOT_FOUND, balance.failure());
+        assertEquals("-100", balance.detail());
+
+        Outcome<TransactionResponseDTO> withdraw = accountService.tryProcess(createRequest("withdraw", "-100", null, 10.0));
+        assertEquals(Outcome.Failure.NOT_FOUND, withdraw.failure());
+        Outcome<TransactionResponseDTO> invalid = accountService.tryProcess(createRequest("invalid", null, "123", 10.0));
+        assertEquals(Outcome.Failure.INVALID, invalid.failure());
+        Outcome<TransactionResponseDTO> noDestination = accountService.tryProcess(createRequest("transfer", "123", null, 10.0));
+        assertEquals(Outcome.Failure.INVALID, noDestination.failure());
+        assertThrows(IllegalArgumentException.class, noDestination::orElseThrow);
+        Outcome<TransactionResponseDTO> noAmount = accountService.tryProcess(TransactionRequestDTO.builder()
+                .type(EventType.DEPOSIT).destination("no-amount").build());
+        assertEquals(Outcome.Failure.INVALID, noAmount.failure());
+        assertNull(accountService.getAccount("no-amount"));
+
+        Outcome<TransactionResponseDTO> deposit = accountService.tryProcess(createRequest("deposit", null, "123", 10.0));
+        assertTrue(deposit.isPresent());
+        assertEquals(110.0, deposit.value().getDestination().getBalance());
+        assertEquals(110.0, accountService.findBalance("123").value());
+    }
+
     @Test
     void testCreateAccountWithInitialBalance() {
         TransactionRequestDTO request = createRequest("deposit", null, "999", 10.0);
@@ -67,6 +101,32 @@ class AccountServiceTest {
         assertEquals(110.0, result.getDestination().getBalance());
     }
 
+    @Test
+    void testDepositsDoNotDrift() {
+        for (int i = 0; i < 10; i++) {
+            accountService.processDeposit(createRequest("deposit", null, "789", 0.1));
+        }
+
+        assertEquals(1.0, accountService.getBalance("789"));
+    }
+
+    @Test
+    void testAmountsAndBalancesOutOfRangeAreRejected() {
+        for (double amount : new double[]{Double.NaN, Double.POSITIVE_INFINITY, -1e17}) {
+            assertThrows(IllegalArgumentException.class,
+                    () -> accountService.processDeposit(createRequest("deposit", null, "huge", amount)));
+        }
+        assertNull(accountService.getAccount("huge"));
+
+        accountService.processDeposit(createRequest("deposit", null, "huge", 9e16));
+        assertThrows(IllegalArgumentException.class,
+                () -> accountService.processDeposit(createRequest("deposit", null, "huge", 9e16)));
+        assertThrows(IllegalArgumentException.class,
+                () -> accountService.processTransfer(createRequest("transfer", "123", "huge", 9e16)));
+        assertEquals(9e16, accountService.getBalance("huge"));
+        assertEquals(100.0, accountService.getBalance("123"));
+    }
+
     @Test
     void testWithdrawForNonExistingAccount() {
         TransactionRequestDTO request = createRequest("withdraw", null, "999", 10.0);
@@ -111,9 +171,96 @@ class AccountServiceTest {
         assertEquals(110.0, result.getDestination().getBalance());
     }
 
+    @Test
+    void testTransactionsArePagedOldestFirst() {
+        accountService.processDeposit(createRequest("deposit", null, "history-1", 10.0));
+        accountService.processTransfer(createRequest("transfer", "history-1", "history-2", 4.0));
+        accountService.processWithdraw(createRequest("withdraw", "history-1", null, 1.0));
+
+        TransactionPageDTO first = accountService.getTransactions("history-1", null, null, 2);
+        assertEquals(2, first.getTransactions().size());
+        assertEquals("deposit", first.getTransactions().get(0).getType());
+        TransactionDTO transfer = first.getTransactions().get(1);
+        assertEquals("transfer_out", transfer.getType());
+        assertEquals("history-2", transfer.getCounterparty());
+        assertEquals(-4.0, transfer.getAmount());
+        assertEquals(6.0, transfer.getBalance());
+        assertNotNull(first.getNext());
+
+        TransactionPageDTO second = accountService.getTransactions("history-1", first.getNext(), null, 2);
+        assertEquals(1, second.getTransactions().size());
+        assertEquals("withdraw", second.getTransactions().get(0).getType());
+        assertEquals(5.0, second.getTransactions().get(0).getBalance());
+        assertNull(second.getNext());
+
+        TransactionPageDTO other = accountService.getTransactions("history-2", transfer.getTimestamp().minusSeconds(1), null, 10);
+        assertEquals("transfer_in", other.getTransactions().get(0).getType());
+        assertEquals(4.0, other.getTransactions().get(0).getBalance());
+        assertThrows(AccountNotFoundException.class, () -> accountService.getTransactions("history-3", null, null, 10));
+        assertThrows(IllegalArgumentException.class, () -> accountService.getTransactions("history-1", null, null, 0));
+    }
+
+    @Test
+    void testBalanceAtReadsTheHistory() {
+        accountService.processDeposit(createRequest("deposit", null, "as-of-1", 10.0));
+        Instant afterDeposit = accountService.getTransactions("as-of-1", null, null, 1).getTransactions().get(0).getTimestamp();
+        accountService.processWithdraw(createRequest("withdraw", "as-of-1", null, 3.0));
+
+        assertEquals(0.0, accountService.getBalanceAt("as-of-1", afterDeposit.minusSeconds(60)));
+        assertEquals(10.0, accountService.getBalanceAt("as-of-1", afterDeposit));
+        assertEquals(7.0, accountService.getBalanceAt("as-of-1", afterDeposit.plusSeconds(60)));
+        accountService.saveAccount(createAccount("as-of-3", 40.0));
+        assertEquals(40.0, accountService.getBalanceAt("as-of-3", afterDeposit));
+        assertThrows(AccountNotFoundException.class, () -> accountService.getBalanceAt("as-of-2", afterDeposit));
+    }
+
+    @Test
+    void testStripedDepositsAreFoldedBeforeWithdrawals() {
+        HotAccounts hotAccounts = new HotAccounts(1, 1, 4);
+        AccountService service = new AccountServiceBuilder().ledger(new ColumnarTransactionLedger())
+                .hotAccounts(hotAccounts).build();
+        service.processDeposit(createRequest("deposit", null, "hot", 10.0));
+        hotAccounts.recordContention("hot");
+
+        assertEquals(15.0, service.processDeposit(createRequest("deposit", null, "hot", 5.0)).getDestination().getBalance());
+        assertEquals(10.0, service.getStore().get("hot").getBalance() / 100.0);
+        assertEquals(15.0, service.getBalance("hot"));
+        assertEquals(15.0, service.getAccount("hot").getBalance() / 100.0);
+
+        assertEquals(13.0, service.processWithdraw(createRequest("withdraw", "hot", null, 2.0)).getOrigin().getBalance());
+        assertEquals(13.0, service.getStore().get("hot").getBalance() / 100.0);
+        assertEquals(List.of(10.0, 15.0, 13.0), service.getTransactions("hot", null, null, 10).getTransactions().stream()
+                .map(TransactionDTO::getBalance).toList());
+
+        service.reset();
+        assertEquals(0, hotAccounts.size());
+    }
+
+    @Test
+    void testAuditCountsAccountsAndFindsNegativeBalances() {
+        AccountService service = new AccountServiceBuilder().build();
+        for (int i = 0; i < 20_000; i++) {
+            service.saveAccount(createAccount("audit-" + i, i % 1_000 == 0 ? -i / 100.0 : 1.0));
+        }
+        service.processWithdraw(createRequest("withdraw", "audit-1", null, 3.0));
+
+        AuditDTO audit = service.audit(3);
+        assertEquals(20_000, audit.getAccounts());
+        assertEquals(service.totalBalance(), audit.getTotalBalance(), 0.001);
+        assertEquals(audit.getRunningTotalBalance(), audit.getTotalBalance(), 0.001);
+        assertEquals(20, audit.getNegativeAccounts());
+        assertEquals(List.of("audit-19000", "audit-18000", "audit-17000"),
+                audit.getNegative().stream().map(AccountDTO::getId).toList());
+        assertEquals(0, service.audit(0).getNegative().size());
+        assertThrows(IllegalArgumentException.class, () -> service.audit(-1));
+
+        service.reset();
+        assertEquals(0, service.audit(10).getAccounts());
+    }
+
     private TransactionRequestDTO createRequest(String type, String origin, String destination, Double amount) {
         return TransactionRequestDTO.builder()
-                .type(type)
+                .type(EventType.of(type))
                 .origin(origin)
                 .destination(destination)
                 .amount(amount)
@@ -131,7 +278,7 @@ class AccountServiceTest {
     }
 
     private Account createAccount(String id, double amount) {
-        return Account.builder().id(id).balance(amount).build();
+        return Account.builder().id(id).balance(Money.toCents(amount)).build();
     }
 
     private Map<String, Account> fillAccounts() {
@@ -0,0 +1,95 @@
+package br.com.drsm.ebanx_test_api.service;
+
+import br.com.drsm.ebanx_test_api.dto.ImportSummaryDTO;
+import br.com.drsm.ebanx_test_api.ledger.LedgerConfiguration;
+import br.com.drsm.ebanx_test_api.ledger.LedgerProperties;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs a 10M record import in a separate JVM with a 64 MB heap, which fails with an
+ * OutOfMemoryError if anything along the way holds on to the input. The service has the
+ * transaction history of the default configuration, so a default that keeps every event fails
+ * it too.
+ */
+class AccountStreamServiceMemoryTest {
+    private static final int RECORDS = 10_000_000;
+    private static final int ACCOUNTS = 1_000;
+
+    @Test
+    void testImportOfTenMillionRecordsRunsInSmallHeap() throws IOException, InterruptedException {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        Process process = new ProcessBuilder(java, "-Xmx64m", "-cp", System.getProperty("java.class.path"),
+                AccountStreamServiceMemoryTest.class.getName())
+                .redirectErrorStream(true)
+                .start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+
+        assertTrue(process.waitFor(5, TimeUnit.MINUTES));
+        assertEquals(0, process.exitValue(), output);
+    }
+
+    public static void main(String[] args) throws IOException {
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+        AccountService service = new AccountServiceBuilder()
+                .ledger(new LedgerConfiguration().transactionLedger(new LedgerProperties()))
+                .build();
+        AccountStreamService streams = new AccountStreamService(service, new ObjectMapper());
+
+        ImportSummaryDTO summary = streams.importNdjson(new GeneratedDeposits());
+        OutputStream discard = OutputStream.nullOutputStream();
+        streams.exportNdjson(discard);
+
+        if (summary.getEvents() != RECORDS || service.getBalance("0") != RECORDS / ACCOUNTS) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Produces deposit records on demand over a fixed set of accounts, so neither the input nor
+     * the account map grows with the number of records.
+     */
+    private static class GeneratedDeposits extends InputStream {
+        private int next;
+        private byte[] line = new byte[0];
+        private int position;
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            int read = 0;
+            while (read < len) {
+                int c = read();
+                if (c < 0) {
+                    return read == 0 ? -1 : read;
+                }
+                b[off + read++] = (byte) c;
+            }
+            return read;
+        }
+
+        @Override
+        public int read() {
+            if (position == line.length) {
+                if (next == RECORDS) {
+                    return -1;
+                }
+                line = ("{\"type\":\"deposit\",\"destination\":\"" + next++ % ACCOUNTS + "\",\"amount\":1}\n")
+                        .getBytes(StandardCharsets.UTF_8);
+                position = 0;
+            }
+            return line[position++];
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package br.com.drsm.ebanx_test_api.snapshot;
+
+import br.com.drsm.ebanx_test_api.dto.EventType;
+import br.com.drsm.ebanx_test_api.dto.TransactionRequestDTO;
+import br.com.drsm.ebanx_test_api.journal.DurabilityMode;
+import br.com.drsm.ebanx_test_api.journal.FileEventJournal;
+import br.com.drsm.ebanx_test_api.journal.JournalPosition;
+import br.com.drsm.ebanx_test_api.service.AccountService;
+import br.com.drsm.ebanx_test_api.service.AccountServiceBuilder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileSnapshotStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testLoadReturnsWrittenAccountsAndPosition() {
+        FileSnapshotStore store = new FileSnapshotStore(dir.resolve("accounts.snapshot"));
+        store.write(new JournalPosition(42, 1_000), visitor -> {
+            visitor.visit("100", 1_050, 40);
+            visitor.visit("conta-ç", -20, 42);
+        });
+
+        Map<String, Long> balances = new HashMap<>();
+        JournalPosition position = store.load((id, balance, lastSeq) -> balances.put(id, balance));
+
+        assertEquals(new JournalPosition(42, 1_000), position);
+        assertEquals(Map.of("100", 1_050L, "conta-ç", -20L), balances);
+    }
+
+    @Test
+    void testCorruptedSnapshotIsIgnored() throws IOException {
+        Path path = dir.resolve("accounts.snapshot");
+        FileSnapshotStore store = new FileSnapshotStore(path);
+        store.write(new JournalPosition(1, 10), visitor -> visitor.visit("100", 1_050, 1));
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[30] ^= 1;
+        Files.write(path, bytes);
+
+        JournalPosition position = store.load((id, balance, lastSeq) -> fail("unexpected account " + id));
+
+        assertEquals(JournalPosition.START, position);
+    }
+
+    @Test
+    void testRecoveryReplaysOnlyEntriesAfterSnapshot() {
+        Path journalPath = dir.resolve("events.journal");
+        FileSnapshotStore store = new FileSnapshotStore(dir.resolve("accounts.snapshot"));
+        try (FileEventJournal journal = new FileEventJournal(journalPath, DurabilityMode.GROUP, Duration.ofMillis(10))) {
+            AccountService service = new AccountServiceBuilder().journal(journal).snapshots(store).build();
+            service.recover();
+            service.processDeposit(createRequest("deposit", null, "100", 10.0));
+            service.processTransfer(createRequest("transfer", "100", "200", 4.0));
+            service.snapshot();
+            service.processDeposit(createRequest("deposit", null, "100", 1.0));
+            service.processTransfer(createRequest("transfer", "200", "300", 0.5));
+        }
+
+        try (FileEventJournal journal = new FileEventJournal(journalPath, DurabilityMode.GROUP, Duration.ofMillis(10))) {
+            AccountService service = new AccountServiceBuilder().journal(journal).snapshots(store).build();
+            service.recover();
+            assertEquals(7.0, service.getBalance("100"));
+            assertEquals(3.5, service.getBalance("200"));
+            assertEquals(0.5, service.getBalance("300"));
+        }
+    }
+
+    @Test
+    void testReplaySkipsEntriesAlreadyInSnapshot() {
+        Path journalPath = dir.resolve("events.journal");
+        FileSnapshotStore store = new FileSnapshotStore(dir.resolve("accounts.snapshot"));
+        try (FileEventJournal journal = new FileEventJournal(journalPath, DurabilityMode.GROUP, Duration.ofMillis(10))) {
+            AccountService service = new AccountServiceBuilder().journal(journal).snapshots(store).build();
+            service.recover();
+            service.processDeposit(createRequest("deposit", null, "100", 10.0));
+            JournalPosition position = journal.position();
+            // The event lands between the position and the copy of the account, as it would
+            // while a snapshot runs concurrently with requests.
+            service.processDeposit(createRequest("deposit", null, "100", 5.0));
+            store.write(position, service::forEachAccount);
+        }
+
+        try (FileEventJournal journal = new FileEventJournal(journalPath, DurabilityMode.GROUP, Duration.ofMillis(10))) {
+            AccountService service = new AccountServiceBuilder().journal(journal).snapshots(store).build();
+            service.recover();
+            assertEquals(15.0, service.getBalance("100"));
+        }
+    }
+
+    private TransactionRequestDTO createRequest(String type, String origin, String destination, Double amount) {
+        return TransactionRequestDTO.builder()
+                .type(EventType.of(type))
+                .origin(origin)
+                .destination(destination)
+                .amount(amount)
+                .build();
+    }
+}
@@ -0,0 +1,133 @@
+package br.com.drsm.ebanx_test_api.store;
+
+import br.com.drsm.ebanx_test_api.dto.EventType;
+import br.com.drsm.ebanx_test_api.dto.TransactionRequestDTO;
+import br.com.drsm.ebanx_test_api.service.AccountService;
+import br.com.drsm.ebanx_test_api.service.AccountServiceBuilder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedAccountStoreTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void testAccountsSurviveCloseAndReopen() {
+        Path path = dir.resolve("accounts.store");
+        try (MappedAccountStore store = new MappedAccountStore(path, 1000)) {
+            for (int i = 0; i < 500; i++) {
+                AccountHandle account = store.getOrCreate("account-" + i);
+                account.setBalance(i);
+                account.setLastSeq(i + 1);
+                store.commit(account);
+            }
+            store.getOrCreate("conta-ação-😀").setBalance(-5);
+        }
+
+        try (MappedAccountStore store = new MappedAccountStore(path, 1000)) {
+            assertEquals(501, store.size());
+            for (int i = 0; i < 500; i++) {
+                AccountHandle account = store.get("account-" + i);
+                assertEquals(i, account.getBalance());
+                assertEquals(i + 1, account.getLastSeq());
+            }
+            assertEquals(-5, store.get("conta-ação-😀").getBalance());
+            assertNull(store.get("account-500"));
+        }
+    }
+
+    @Test
+    void testCrashKeepsCommittedChangesAndDropsTheRest() {
+        Path path = dir.resolve("accounts.store");
+        MappedAccountStore crashed = new MappedAccountStore(path, 1000);
+        AccountHandle committed = crashed.getOrCreate("100");
+        committed.setBalance(10);
+        crashed.commit(committed);
+        committed.setBalance(20);
+        crashed.commit(committed);
+        AccountHandle origin = crashed.getOrCreate("200");
+        AccountHandle destination = crashed.getOrCreate("300");
+        origin.setBalance(50);
+        crashed.commit(origin);
+        origin.setBalance(30);
+        destination.setBalance(20);
+        crashed.commit(origin, destination);
+        committed.setBalance(99);
+        committed.lock();
+
+        try (MappedAccountStore store = new MappedAccountStore(path, 1000)) {
+            assertEquals(3, store.size());
+            AccountHandle account = store.get("100");
+            assertEquals(20, account.getBalance());
+            assertTrue(account.tryLock());
+            account.unlock();
+            assertEquals(30, store.get("200").getBalance());
+            assertEquals(20, store.get("300").getBalance());
+
+            account.setBalance(21);
+            store.commit(account);
+        }
+        try (MappedAccountStore store = new MappedAccountStore(path, 1000)) {
+            assertEquals(21, store.get("100").getBalance());
+        }
+    }
+
+    @Test
+    void testOpenResizesAnExistingStore() {
+        Path path = dir.resolve("accounts.store");
+        try (MappedAccountStore store = new MappedAccountStore(path, 100)) {
+            for (int i = 0; i < 700; i++) {
+                store.getOrCreate(String.valueOf(i)).setBalance(i);
+            }
+            assertThrows(IllegalStateException.class, () -> {
+                for (int i = 700; i < 1000; i++) {
+                    store.getOrCreate(String.valueOf(i));
+                }
+            });
+        }
+
+        try (MappedAccountStore store = MappedAccountStore.open(path, 5000)) {
+            for (int i = 0; i < 5000; i++) {
+                store.getOrCreate(String.valueOf(i));
+            }
+            assertEquals(5000, store.size());
+            assertEquals(699, store.get("699").getBalance());
+        }
+    }
+
+    @Test
+    void testLongIdsAreRejected() {
+        try (MappedAccountStore store = new MappedAccountStore(dir.resolve("accounts.store"), 100)) {
+            store.getOrCreate("x".repeat(MappedAccountStore.MAX_ID_BYTES));
+            assertThrows(IllegalArgumentException.class, () -> store.getOrCreate("x".repeat(MappedAccountStore.MAX_ID_BYTES + 1)));
+            assertEquals(1, store.size());
+        }
+    }
+
+    @Test
+    void testServiceResumesFromTheStoreAfterRestart() {
+        Path path = dir.resolve("accounts.store");
+        try (MappedAccountStore store = new MappedAccountStore(path, 100)) {
+            AccountService service = new AccountServiceBuilder().store(store).build();
+            service.recover();
+            service.processDeposit(request(EventType.DEPOSIT, null, "100", 30.0));
+            service.processTransfer(request(EventType.TRANSFER, "100", "200", 10.0));
+        }
+
+        try (MappedAccountStore store = new MappedAccountStore(path, 100)) {
+            AccountService service = new AccountServiceBuilder().store(store).build();
+            service.recover();
+            assertEquals(20.0, service.getBalance("100"));
+            assertEquals(10.0, service.getBalance("200"));
+            assertEquals(30.0, service.totalBalance());
+        }
+    }
+
+    private static TransactionRequestDTO request(EventType type, String origin, String destination, double amount) {
+        return TransactionRequestDTO.builder().type(type).origin(origin).destination(destination).amount(amount).build();
+    }
+}
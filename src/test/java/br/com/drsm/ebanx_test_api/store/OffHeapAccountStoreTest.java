@@ -0,0 +1,152 @@
+package br.com.drsm.ebanx_test_api.store;
+
+import br.com.drsm.ebanx_test_api.dto.EventType;
+import br.com.drsm.ebanx_test_api.dto.TransactionRequestDTO;
+import br.com.drsm.ebanx_test_api.service.AccountService;
+import br.com.drsm.ebanx_test_api.service.AccountServiceBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapAccountStoreTest {
+    private static final int THREADS = 4;
+
+    @Test
+    void testAccountsKeepTheirStateWhileTheTableGrows() {
+        OffHeapAccountStore store = new OffHeapAccountStore(16);
+        int accounts = 200_000;
+        for (int i = 0; i < accounts; i++) {
+            AccountHandle account = store.getOrCreate("account-" + i);
+            account.setBalance(i);
+            account.setLastSeq(i + 1);
+        }
+        store.getOrCreate("conta-ação-😀").setBalance(-5);
+
+        assertEquals(accounts + 1, store.size());
+        for (int i = 0; i < accounts; i++) {
+            AccountHandle account = store.get("account-" + i);
+            assertEquals(i, account.getBalance());
+            assertEquals(i + 1, account.getLastSeq());
+        }
+        assertEquals(-5, store.get("conta-ação-😀").getBalance());
+        assertNull(store.get("account-" + accounts));
+        assertNull(store.get("account-"));
+        assertNull(store.get(null));
+
+        Map<String, Long> visited = new HashMap<>();
+        store.forEach(account -> visited.put(account.getId(), account.getBalance()));
+        assertEquals(accounts + 1, visited.size());
+        assertEquals(42L, visited.get("account-42"));
+        assertEquals(-5L, visited.get("conta-ação-😀"));
+    }
+
+    @Test
+    void testClearKeepsOldHandlesAwayFromNewAccounts() {
+        OffHeapAccountStore store = new OffHeapAccountStore(16);
+        AccountHandle old = store.getOrCreate("100");
+        old.setBalance(10);
+
+        store.clear();
+        store.getOrCreate("200").setBalance(20);
+        old.setBalance(30);
+
+        assertEquals(1, store.size());
+        assertNull(store.get("100"));
+        assertEquals(20, store.get("200").getBalance());
+    }
+
+    @Test
+    void testLockIsReentrantAndExclusive() throws Exception {
+        OffHeapAccountStore store = new OffHeapAccountStore(16);
+        AccountHandle account = store.getOrCreate("100");
+        account.lock();
+        assertTrue(account.tryLock());
+        account.unlock();
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        assertFalse(executor.submit(() -> store.get("100").tryLock()).get());
+        assertThrows(IllegalMonitorStateException.class, () -> {
+            try {
+                executor.submit(() -> store.get("100").unlock()).get();
+            } catch (ExecutionException e) {
+                throw e.getCause();
+            }
+        });
+        account.unlock();
+        assertTrue(executor.submit(() -> {
+            AccountHandle handle = store.get("100");
+            boolean locked = handle.tryLock();
+            handle.unlock();
+            return locked;
+        }).get());
+        executor.shutdown();
+    }
+
+    @Test
+    void testOptimisticReadsFailAcrossWrites() {
+        OffHeapAccountStore store = new OffHeapAccountStore(16);
+        AccountHandle account = store.getOrCreate("100");
+        long stamp = account.tryOptimisticRead();
+        assertNotEquals(0, stamp);
+        assertTrue(account.validate(stamp));
+
+        account.lock();
+        assertEquals(0, account.tryOptimisticRead());
+        account.lock();
+        account.setBalance(10);
+        account.unlock();
+        assertEquals(0, account.tryOptimisticRead());
+        account.unlock();
+
+        assertFalse(account.validate(stamp));
+        long next = account.tryOptimisticRead();
+        assertNotEquals(0, next);
+        assertEquals(10, account.getBalance());
+        assertTrue(account.validate(next));
+    }
+
+    @Test
+    void testConcurrentTransfersKeepTheTotal() throws Exception {
+        AccountService service = new AccountServiceBuilder().store(new OffHeapAccountStore(16)).build();
+        int accounts = 100;
+        for (int i = 0; i < accounts; i++) {
+            service.processDeposit(request(EventType.DEPOSIT, null, String.valueOf(i)));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 20_000; i++) {
+                    String origin = String.valueOf(random.nextInt(accounts));
+                    String destination = String.valueOf(random.nextInt(accounts + 10));
+                    service.processTransfer(request(EventType.TRANSFER, origin, destination));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        AtomicLong total = new AtomicLong();
+        service.forEachAccount((id, balance, lastSeq) -> total.addAndGet(balance));
+        assertEquals(accounts * 100L, total.get());
+        assertEquals(accounts * 1.0, service.totalBalance());
+    }
+
+    private static TransactionRequestDTO request(EventType type, String origin, String destination) {
+        return TransactionRequestDTO.builder().type(type).origin(origin).destination(destination).amount(1.0).build();
+    }
+}